@@ -0,0 +1,29 @@
+package com.iflytek.astron.console.commons.config;
+
+import com.iflytek.astron.console.commons.config.properties.HttpClientProperties;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
+import com.iflytek.astron.console.commons.util.StreamingHttpGateway;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Builds the application-wide {@link HttpClientRegistry} and {@link StreamingHttpGateway} from
+ * {@code http-client.*} settings
+ */
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+    @Bean
+    public HttpClientRegistry httpClientRegistry(HttpClientProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new HttpClientRegistry(properties, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public StreamingHttpGateway streamingHttpGateway(HttpClientProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new StreamingHttpGateway(properties, meterRegistry.getIfAvailable());
+    }
+}
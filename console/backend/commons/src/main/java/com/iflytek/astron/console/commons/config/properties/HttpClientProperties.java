@@ -0,0 +1,102 @@
+package com.iflytek.astron.console.commons.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-upstream OkHttp client configuration used by
+ * {@link com.iflytek.astron.console.commons.util.HttpClientRegistry}.
+ * <p>
+ * Every field of an upstream entry is optional; unset fields fall back to {@link #defaults}.
+ */
+@Data
+@ConfigurationProperties(prefix = "http-client")
+public class HttpClientProperties {
+
+    /**
+     * Settings applied to upstreams that do not override them
+     */
+    private Upstream defaults = Upstream.builtIn();
+
+    /**
+     * Upstream name -> settings
+     */
+    private Map<String, Upstream> upstreams = new LinkedHashMap<>();
+
+    /**
+     * Resolve the effective settings of an upstream
+     *
+     * @param name Upstream name
+     * @return Settings with defaults applied, never null fields
+     */
+    public Upstream resolve(String name) {
+        Upstream base = defaults == null ? Upstream.builtIn() : defaults.merge(Upstream.builtIn());
+        Upstream custom = upstreams.get(name);
+        return custom == null ? base : custom.merge(base);
+    }
+
+    @Data
+    public static class Upstream {
+        /**
+         * Maximum concurrent calls waiting for a response, synchronous and asynchronous together, also
+         * the dispatcher limit of asynchronous calls
+         */
+        private Integer maxRequests;
+        /** Maximum concurrent asynchronous calls per host */
+        private Integer maxRequestsPerHost;
+        /** Maximum idle connections kept in the pool */
+        private Integer maxIdleConnections;
+        /** Idle connection keep-alive duration */
+        private Duration keepAlive;
+        private Duration connectTimeout;
+        private Duration readTimeout;
+        private Duration writeTimeout;
+        /** Whole call timeout, zero means no limit */
+        private Duration callTimeout;
+        /** Longest time a call waits for a free call slot before failing */
+        private Duration queueTimeout;
+        private Boolean retryOnConnectionFailure;
+        /** Maximum concurrent streaming calls run through the streaming gateway */
+        private Integer maxStreams;
+        /** Longest time a streaming call waits for a free stream slot */
+        private Duration streamQueueTimeout;
+
+        static Upstream builtIn() {
+            Upstream upstream = new Upstream();
+            upstream.setMaxRequests(64);
+            upstream.setMaxRequestsPerHost(32);
+            upstream.setMaxIdleConnections(32);
+            upstream.setKeepAlive(Duration.ofMinutes(5));
+            upstream.setConnectTimeout(Duration.ofSeconds(10));
+            upstream.setReadTimeout(Duration.ofSeconds(60));
+            upstream.setWriteTimeout(Duration.ofSeconds(60));
+            upstream.setCallTimeout(Duration.ZERO);
+            upstream.setQueueTimeout(Duration.ofSeconds(30));
+            upstream.setRetryOnConnectionFailure(true);
+            upstream.setMaxStreams(256);
+            upstream.setStreamQueueTimeout(Duration.ofSeconds(30));
+            return upstream;
+        }
+
+        Upstream merge(Upstream fallback) {
+            Upstream merged = new Upstream();
+            merged.setMaxRequests(maxRequests != null ? maxRequests : fallback.getMaxRequests());
+            merged.setMaxRequestsPerHost(maxRequestsPerHost != null ? maxRequestsPerHost : fallback.getMaxRequestsPerHost());
+            merged.setMaxIdleConnections(maxIdleConnections != null ? maxIdleConnections : fallback.getMaxIdleConnections());
+            merged.setKeepAlive(keepAlive != null ? keepAlive : fallback.getKeepAlive());
+            merged.setConnectTimeout(connectTimeout != null ? connectTimeout : fallback.getConnectTimeout());
+            merged.setReadTimeout(readTimeout != null ? readTimeout : fallback.getReadTimeout());
+            merged.setWriteTimeout(writeTimeout != null ? writeTimeout : fallback.getWriteTimeout());
+            merged.setCallTimeout(callTimeout != null ? callTimeout : fallback.getCallTimeout());
+            merged.setQueueTimeout(queueTimeout != null ? queueTimeout : fallback.getQueueTimeout());
+            merged.setRetryOnConnectionFailure(retryOnConnectionFailure != null ? retryOnConnectionFailure : fallback.getRetryOnConnectionFailure());
+            merged.setMaxStreams(maxStreams != null ? maxStreams : fallback.getMaxStreams());
+            merged.setStreamQueueTimeout(streamQueueTimeout != null ? streamQueueTimeout : fallback.getStreamQueueTimeout());
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.iflytek.astron.console.commons.data.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.iflytek.astron.console.commons.entity.user.UserInfo;
+import com.iflytek.astron.console.commons.event.UserNicknameUpdatedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-process cache of {@link UserInfo} keyed by uid (the JWT subject).
+ * <p>
+ * Every authenticated request resolves its user through
+ * {@link UserInfoDataServiceImpl#createOrGetUser(UserInfo)}, so recently seen users are served from
+ * here for a short TTL. Entries are evicted locally on {@link UserNicknameUpdatedEvent} and on every
+ * user update, and the eviction is broadcast to the other nodes over a Redis topic. Copies are
+ * handed out so that request-scoped mutations never leak into the shared entry.
+ */
+@Slf4j
+@Component
+public class UserInfoCache {
+
+    public static final String INVALIDATE_CHANNEL = "user_info_cache_invalidate";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Value("${user.info-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${user.info-cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, UserInfo> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        RTopic topic = redissonClient.getTopic(INVALIDATE_CHANNEL);
+        topic.addListener(String.class, (channel, uid) -> cache.invalidate(uid));
+    }
+
+    /**
+     * Get the cached user of the given uid
+     *
+     * @param uid User UID
+     * @return Copy of the cached user, or null on a miss
+     */
+    public UserInfo get(String uid) {
+        UserInfo userInfo = cache.getIfPresent(uid);
+        return userInfo == null ? null : copyOf(userInfo);
+    }
+
+    /**
+     * Cache a user loaded from or written to the database
+     *
+     * @param userInfo User information
+     */
+    public void put(UserInfo userInfo) {
+        if (userInfo != null && userInfo.getUid() != null) {
+            cache.put(userInfo.getUid(), copyOf(userInfo));
+        }
+    }
+
+    /**
+     * Evict a user on this node and broadcast the eviction to the other nodes
+     *
+     * @param uid User UID
+     */
+    public void invalidate(String uid) {
+        if (StringUtils.isBlank(uid)) {
+            return;
+        }
+        cache.invalidate(uid);
+        try {
+            redissonClient.getTopic(INVALIDATE_CHANNEL).publish(uid);
+        } catch (Exception e) {
+            // Other nodes still drop the entry when its TTL expires
+            log.warn("Failed to broadcast user info cache invalidation, uid: {}", uid, e);
+        }
+    }
+
+    @EventListener
+    public void onUserNicknameUpdated(UserNicknameUpdatedEvent event) {
+        invalidate(event.getUid());
+    }
+
+    private static UserInfo copyOf(UserInfo source) {
+        UserInfo target = new UserInfo();
+        BeanUtils.copyProperties(source, target);
+        return target;
+    }
+}
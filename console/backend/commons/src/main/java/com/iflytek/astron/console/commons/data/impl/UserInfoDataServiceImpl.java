@@ -57,6 +57,8 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
     private RedissonClient redissonClient;
     @Autowired
     private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private UserInfoCache userInfoCache;
 
     @Override
     public Optional<UserInfo> findByUid(String uid) {
@@ -160,9 +162,16 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
             throw new IllegalArgumentException("User UID cannot be null");
         }
 
+        // Recently seen users are served from the local cache without a database round-trip
+        UserInfo cachedUser = userInfoCache.get(userInfo.getUid());
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+
         // First check: fail fast to avoid unnecessary lock contention
         Optional<UserInfo> existingUser = findByUid(userInfo.getUid());
         if (existingUser.isPresent()) {
+            userInfoCache.put(existingUser.get());
             return existingUser.get();
         }
 
@@ -181,6 +190,7 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
                 // Second check: re-validate whether UID exists inside the lock
                 Optional<UserInfo> existingUserInLock = findByUid(userInfo.getUid());
                 if (existingUserInLock.isPresent()) {
+                    userInfoCache.put(existingUserInLock.get());
                     return existingUserInLock.get();
                 }
 
@@ -202,6 +212,7 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
 
                 userInfoMapper.insert(userInfo);
                 log.info("Created new user: uid={}, username={}", userInfo.getUid(), userInfo.getUsername());
+                userInfoCache.put(userInfo);
                 return userInfo;
 
             } finally {
@@ -238,8 +249,13 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
         if (id == null) {
             return false;
         }
+        UserInfo userInfo = userInfoMapper.selectById(id);
         // Use logical deletion; MyBatis Plus will automatically handle the @TableLogic annotation
-        return userInfoMapper.deleteById(id) > 0;
+        boolean deleted = userInfoMapper.deleteById(id) > 0;
+        if (deleted && userInfo != null) {
+            userInfoCache.invalidate(userInfo.getUid());
+        }
+        return deleted;
     }
 
     @Override
@@ -250,7 +266,7 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
         LambdaUpdateWrapper<UserInfo> wrapper = new LambdaUpdateWrapper<>();
         wrapper.eq(UserInfo::getUid, uid)
                 .set(UserInfo::getAccountStatus, accountStatus);
-        return userInfoMapper.update(null, wrapper) > 0;
+        return updateAndInvalidate(uid, wrapper);
     }
 
     @Override
@@ -261,7 +277,7 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
         LambdaUpdateWrapper<UserInfo> wrapper = new LambdaUpdateWrapper<>();
         wrapper.eq(UserInfo::getUid, uid)
                 .set(UserInfo::getUserAgreement, userAgreement);
-        return userInfoMapper.update(null, wrapper) > 0;
+        return updateAndInvalidate(uid, wrapper);
     }
 
     @Override
@@ -393,6 +409,7 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
         }
         userInfo.setUpdateTime(LocalDateTime.now());
         userInfoMapper.updateById(userInfo);
+        userInfoCache.invalidate(userInfo.getUid());
 
         // If the nickname has changed, publish an event
         if (StringUtils.isNotBlank(nickname) && !nickname.equals(oldNickname)) {
@@ -424,6 +441,7 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
         }
         userInfo.setUpdateTime(LocalDateTime.now());
         userInfoMapper.updateById(userInfo);
+        userInfoCache.invalidate(userInfo.getUid());
 
         // If the nickname has changed, publish an event
         if (StringUtils.isNotBlank(nickname) && !nickname.equals(oldNickname)) {
@@ -449,7 +467,15 @@ public class UserInfoDataServiceImpl implements UserInfoDataService {
         LambdaUpdateWrapper<UserInfo> wrapper = new LambdaUpdateWrapper<>();
         wrapper.eq(UserInfo::getUid, uid)
                 .set(UserInfo::getEnterpriseServiceType, serviceType);
-        return userInfoMapper.update(null, wrapper) > 0;
+        return updateAndInvalidate(uid, wrapper);
+    }
+
+    private boolean updateAndInvalidate(String uid, LambdaUpdateWrapper<UserInfo> wrapper) {
+        boolean updated = userInfoMapper.update(null, wrapper) > 0;
+        if (updated) {
+            userInfoCache.invalidate(uid);
+        }
+        return updated;
     }
 
     @Override
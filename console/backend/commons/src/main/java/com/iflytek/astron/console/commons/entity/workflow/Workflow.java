@@ -47,4 +47,16 @@ public class Workflow {
 
     Long spaceId;
     Integer type;
+
+    /**
+     * IO inversion of the canvas as JSON, derived from {@link #data} when it is saved
+     */
+    @TableField("io_inversion")
+    String ioInversionJson;
+
+    /**
+     * Whether the canvas contains a question-answer node, derived from {@link #data} when it is
+     * saved; null for rows saved before the column existed
+     */
+    Boolean hasQaNode;
 }
@@ -0,0 +1,31 @@
+package com.iflytek.astron.console.commons.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a bot, its market entry, its personality or a model is saved or deleted, so that
+ * runtime data derived from them is rebuilt. Exactly one of {@code botId} and {@code modelId} is set.
+ */
+@Getter
+public class BotRuntimeChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer botId;
+    private final Long modelId;
+
+    private BotRuntimeChangedEvent(Object source, Integer botId, Long modelId) {
+        super(source);
+        this.botId = botId;
+        this.modelId = modelId;
+    }
+
+    public static BotRuntimeChangedEvent ofBot(Object source, Integer botId) {
+        return new BotRuntimeChangedEvent(source, botId, null);
+    }
+
+    public static BotRuntimeChangedEvent ofModel(Object source, Long modelId) {
+        return new BotRuntimeChangedEvent(source, null, modelId);
+    }
+}
@@ -6,12 +6,22 @@ import com.iflytek.astron.console.commons.entity.bot.ChatBotBase;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 public interface ChatBotBaseMapper extends BaseMapper<ChatBotBase> {
     BotDetail botDetail(Integer botId);
 
+    /**
+     * Batch query of the bot fields shown in list pages: id, name, description, avatar and market
+     * status (same status mapping as {@link #botDetail(Integer)})
+     *
+     * @param botIds Bot IDs
+     * @return Bot details, a bot may appear once per market record
+     */
+    List<BotDetail> botDetailList(@Param("botIds") Collection<Integer> botIds);
+
     List<ChatBotBase> selectByBotIds(@Param("botIds") List<Long> botIds);
 
     /**
@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -47,4 +48,21 @@ public interface ChatListMapper extends BaseMapper<ChatList> {
             ORDER BY cl.update_time desc
             """)
     List<ChatBotListDto> getBotChatList(@Param("uid") String uid);
+
+    @Select("""
+            <script>
+            SELECT id, bot_id, update_time
+            FROM (SELECT id,
+                         bot_id,
+                         update_time,
+                         ROW_NUMBER() OVER (PARTITION BY bot_id ORDER BY update_time DESC) AS rn
+                  FROM chat_list
+                  WHERE uid = #{uid}
+                    AND `enable` = 1
+                    AND bot_id IN
+                    <foreach collection="botIds" item="botId" open="(" separator="," close=")">#{botId}</foreach>) t
+            WHERE rn = 1
+            </script>
+            """)
+    List<ChatList> selectLatestEnabledByUserAndBots(@Param("uid") String uid, @Param("botIds") Collection<Integer> botIds);
 }
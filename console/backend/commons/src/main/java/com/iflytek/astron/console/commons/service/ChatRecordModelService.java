@@ -8,4 +8,6 @@ public interface ChatRecordModelService {
 
     void saveChatResponse(ChatReqRecords chatReqRecords, StringBuffer finalResult, StringBuffer sid, boolean edit, Integer answerType);
 
+    void saveTraceResult(ChatReqRecords chatReqRecords, StringBuffer traceResult, boolean edit);
+
 }
@@ -9,6 +9,7 @@ import com.iflytek.astron.console.commons.entity.bot.ChatBotMarket;
 import com.iflytek.astron.console.commons.entity.bot.UserLangChainInfo;
 import com.iflytek.astron.console.commons.enums.bot.BotStatusEnum;
 import com.iflytek.astron.console.commons.enums.bot.ReleaseTypeEnum;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
 import com.iflytek.astron.console.commons.mapper.bot.ChatBotListMapper;
 import com.iflytek.astron.console.commons.mapper.bot.ChatBotMarketMapper;
 import com.iflytek.astron.console.commons.service.bot.BotFavoriteService;
@@ -21,6 +22,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -44,6 +46,8 @@ public class BotMarketDataServiceImpl implements BotMarketDataService {
     private BotService botService;
     @Autowired
     private UserLangChainDataService userLangChainDataService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public void removeBotForDeleteSpace(String uid, Long spaceId, List<Integer> spaceBotIdList) {
@@ -62,6 +66,7 @@ public class BotMarketDataServiceImpl implements BotMarketDataService {
                 .set(ChatBotMarket::getIsDelete, 1);
 
         chatBotMarketMapper.update(null, updateWrapper);
+        spaceBotIdList.forEach(botId -> eventPublisher.publishEvent(BotRuntimeChangedEvent.ofBot(this, botId)));
     }
 
     /**
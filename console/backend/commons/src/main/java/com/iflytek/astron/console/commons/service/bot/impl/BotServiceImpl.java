@@ -27,6 +27,7 @@ import com.iflytek.astron.console.commons.service.data.DatasetDataService;
 import com.iflytek.astron.console.commons.service.data.UserLangChainDataService;
 import com.iflytek.astron.console.commons.service.data.UserLangChainLogService;
 import com.iflytek.astron.console.commons.util.BotFileParamUtil;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.commons.util.I18nUtil;
 import com.iflytek.astron.console.commons.util.MaasUtil;
 import com.iflytek.astron.console.commons.util.RequestContextUtil;
@@ -42,7 +43,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -92,6 +92,9 @@ public class BotServiceImpl implements BotService {
     @Autowired
     private MaasUtil maasUtil;
 
+    @Autowired
+    private HttpClientRegistry httpClientRegistry;
+
     @Autowired
     private UserLangChainLogService userLangChainLogService;
 
@@ -109,14 +112,6 @@ public class BotServiceImpl implements BotService {
 
     public static final String BOT_INPUT_EXAMPLE_SPLIT = "%%split%%";
 
-    private final OkHttpClient httpClient = new OkHttpClient.Builder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .readTimeout(Duration.ofSeconds(30))
-            .writeTimeout(Duration.ofSeconds(30))
-            .connectionPool(new ConnectionPool(20, 5, java.util.concurrent.TimeUnit.MINUTES))
-            .retryOnConnectionFailure(true)
-            .build();
-
     @Override
     public List<BotTypeList> getBotTypeList() {
         List<BotTypeList> typeList = botTypeListService.getBotTypeList();
@@ -716,7 +711,7 @@ public class BotServiceImpl implements BotService {
                 .build();
 
         String response = null;
-        try (Response okResponse = httpClient.newCall(request).execute()) {
+        try (Response okResponse = httpClientRegistry.get(HttpClientRegistry.MAAS).newCall(request).execute()) {
             if (!okResponse.isSuccessful()) {
                 log.error("HTTP request failed: {}", okResponse.code());
                 return null;
@@ -751,7 +746,7 @@ public class BotServiceImpl implements BotService {
                 .get()
                 .build();
 
-        try (Response okResponse = httpClient.newCall(request).execute()) {
+        try (Response okResponse = httpClientRegistry.get(HttpClientRegistry.MAAS).newCall(request).execute()) {
             if (!okResponse.isSuccessful()) {
                 log.error("Workflow API request failed: {}, URL: {}", okResponse.code(), url);
                 return new JSONObject();
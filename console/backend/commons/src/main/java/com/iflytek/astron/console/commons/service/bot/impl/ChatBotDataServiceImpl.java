@@ -20,6 +20,7 @@ import com.iflytek.astron.console.commons.entity.chat.ChatList;
 import com.iflytek.astron.console.commons.entity.model.McpData;
 import com.iflytek.astron.console.commons.enums.bot.BotStatusEnum;
 import com.iflytek.astron.console.commons.enums.bot.ReleaseTypeEnum;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
 import com.iflytek.astron.console.commons.mapper.bot.*;
 import com.iflytek.astron.console.commons.mapper.chat.ChatListMapper;
 import com.iflytek.astron.console.commons.mapper.vcn.CustomVCNMapper;
@@ -33,6 +34,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -79,6 +81,9 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
     @Autowired
     private McpDataService mcpDataService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public static final String BOT_INPUT_EXAMPLE_SPLIT = "%%split%%";
 
     @Override
@@ -176,6 +181,7 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
         }
         // Then update other non-null fields
         chatBotBaseMapper.updateById(chatBotBase);
+        publishBotChanged(chatBotBase.getId());
         return chatBotBase;
     }
 
@@ -184,15 +190,19 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
         ChatBotBase chatBot = new ChatBotBase();
         chatBot.setId(botId);
         chatBot.setIsDelete(1);
-        return chatBotBaseMapper.updateById(chatBot) > 0;
+        boolean deleted = chatBotBaseMapper.updateById(chatBot) > 0;
+        publishBotChanged(botId);
+        return deleted;
     }
 
     @Override
     public boolean deleteBot(Integer botId, String uid) {
-        return deleteChatBotBase(botId, uid) &&
+        boolean deleted = deleteChatBotBase(botId, uid) &&
                 deleteChatBotList(botId, uid) &&
                 deleteChatList(botId, uid) &&
                 deleteChatBotMarket(botId, uid);
+        publishBotChanged(botId);
+        return deleted;
     }
 
     private boolean deleteChatBotBase(Integer botId, String uid) {
@@ -236,7 +246,9 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
 
         ChatBotBase chatBot = new ChatBotBase();
         chatBot.setIsDelete(1);
-        return chatBotBaseMapper.update(chatBot, wrapper) > 0;
+        boolean deleted = chatBotBaseMapper.update(chatBot, wrapper) > 0;
+        publishBotChanged(botId);
+        return deleted;
     }
 
     @Override
@@ -251,7 +263,9 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
         LambdaQueryWrapper<ChatBotBase> wrapper = new LambdaQueryWrapper<>();
         wrapper.in(ChatBotBase::getId, botIds);
 
-        return chatBotBaseMapper.update(chatBot, wrapper) > 0;
+        boolean deleted = chatBotBaseMapper.update(chatBot, wrapper) > 0;
+        botIds.forEach(this::publishBotChanged);
+        return deleted;
     }
 
     @Override
@@ -267,7 +281,9 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
         wrapper.in(ChatBotBase::getId, botIds);
         wrapper.eq(ChatBotBase::getSpaceId, spaceId);
 
-        return chatBotBaseMapper.update(chatBot, wrapper) > 0;
+        boolean deleted = chatBotBaseMapper.update(chatBot, wrapper) > 0;
+        botIds.forEach(this::publishBotChanged);
+        return deleted;
     }
 
     @Override
@@ -434,6 +450,7 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
                 .eq(ChatBotBase::getSpaceId, spaceId)
                 .eq(ChatBotBase::getIsDelete, 0)
                 .set(ChatBotBase::getIsDelete, 1));
+        spaceBotIdList.forEach(this::publishBotChanged);
         log.info("deleteBotForDeleteSpace-start to maintain botDataSet, uid={}, spaceId={}", uid, spaceId);
         // Update status of datasets associated with assistant
         LambdaUpdateWrapper<BotDataset> updateWrapper = new LambdaUpdateWrapper<>();
@@ -509,6 +526,7 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
         // Directly remove assistant from shelf, no need for comprehensive management review
         wrapper.set("bot_status", 0);
         chatBotMarketMapper.update(null, wrapper);
+        publishBotChanged(botId);
         botFavoriteService.delete(uid, botId);
         return Boolean.TRUE;
     }
@@ -662,6 +680,16 @@ public class ChatBotDataServiceImpl implements ChatBotDataService {
         wrapper.set("support_document", chatBotBase.getSupportDocument());
         wrapper.set("update_time", LocalDateTime.now());
         chatBotMarketMapper.update(null, wrapper);
+        publishBotChanged(chatBotBase.getId());
         log.debug("Updated chat bot market uid={}, botId={}", chatBotBase.getUid(), chatBotBase.getId());
     }
+
+    /**
+     * Let the chat runtime rebuild what it derived from the bot, after the surrounding transaction commits
+     */
+    private void publishBotChanged(Integer botId) {
+        if (botId != null) {
+            eventPublisher.publishEvent(BotRuntimeChangedEvent.ofBot(this, botId));
+        }
+    }
 }
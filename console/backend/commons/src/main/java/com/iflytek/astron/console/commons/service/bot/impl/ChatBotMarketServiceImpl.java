@@ -6,10 +6,12 @@ import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.iflytek.astron.console.commons.entity.bot.ChatBotMarket;
 import com.iflytek.astron.console.commons.enums.bot.BotStatusEnum;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
 import com.iflytek.astron.console.commons.mapper.bot.ChatBotMarketMapper;
 import com.iflytek.astron.console.commons.service.bot.ChatBotMarketService;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +25,8 @@ import java.time.LocalDateTime;
 public class ChatBotMarketServiceImpl implements ChatBotMarketService {
     @Autowired
     private ChatBotMarketMapper chatBotMarketMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     private static final Integer NOT_DELETED = 0;
 
@@ -57,6 +61,7 @@ public class ChatBotMarketServiceImpl implements ChatBotMarketService {
             marketWrapper.set("bot_status", 4);
             marketWrapper.set("update_time", LocalDateTime.now());
             chatBotMarketMapper.update(null, marketWrapper);
+            eventPublisher.publishEvent(BotRuntimeChangedEvent.ofBot(this, botId));
         }
     }
 
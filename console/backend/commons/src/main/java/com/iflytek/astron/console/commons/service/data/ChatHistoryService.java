@@ -21,6 +21,19 @@ public interface ChatHistoryService {
      */
     List<SparkChatRequest.MessageDto> getSystemBotHistory(String uid, Long chatId, Boolean supportDocument);
 
+    /**
+     * Get conversation history for system assistant that precedes a request, keeping the newest
+     * messages that fit into the token budget
+     *
+     * @param uid User ID
+     * @param chatId Chat ID
+     * @param supportDocument Whether questions are wrapped with their recalled knowledge
+     * @param beforeReqId Only turns of earlier requests are returned
+     * @param maxTokens Token budget of the history
+     * @return Message list in chronological order
+     */
+    List<SparkChatRequest.MessageDto> getSystemBotHistory(String uid, Long chatId, Boolean supportDocument, Long beforeReqId, int maxTokens);
+
     /**
      * Get chat history records
      *
@@ -5,7 +5,9 @@ import com.iflytek.astron.console.commons.dto.chat.ChatBotListDto;
 import com.iflytek.astron.console.commons.entity.chat.ChatList;
 import com.iflytek.astron.console.commons.entity.chat.ChatTreeIndex;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ChatListDataService {
 
@@ -37,6 +39,15 @@ public interface ChatListDataService {
      */
     ChatList findLatestEnabledChatByUserAndBot(String uid, Integer botId);
 
+    /**
+     * Find the latest enabled chat list of a user for each of the given bots, in one query
+     *
+     * @param uid User ID
+     * @param botIds Bot IDs
+     * @return Latest chat list by bot ID, bots without chat are absent
+     */
+    Map<Integer, ChatList> findLatestEnabledChatsByUserAndBots(String uid, Collection<Integer> botIds);
+
     /**
      * Reactivate chat list (set is_delete=0)
      *
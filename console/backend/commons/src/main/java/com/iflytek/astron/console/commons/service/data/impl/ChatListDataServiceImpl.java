@@ -19,7 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 @Slf4j
 @Service
@@ -119,6 +119,18 @@ public class ChatListDataServiceImpl implements ChatListDataService {
         return result;
     }
 
+    @Override
+    public Map<Integer, ChatList> findLatestEnabledChatsByUserAndBots(String uid, Collection<Integer> botIds) {
+        if (uid == null || botIds == null || botIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, ChatList> result = new HashMap<>();
+        for (ChatList chatList : chatListMapper.selectLatestEnabledByUserAndBots(uid, new HashSet<>(botIds))) {
+            result.putIfAbsent(chatList.getBotId(), chatList);
+        }
+        return result;
+    }
+
     @Override
     public int reactivateChat(Long id) {
         if (id == null) {
@@ -25,6 +25,7 @@ import com.iflytek.astron.console.commons.entity.bot.UserLangChainInfo;
 import com.iflytek.astron.console.commons.enums.ShelfStatusEnum;
 import com.iflytek.astron.console.commons.service.workflow.WorkflowBotChatService;
 import com.iflytek.astron.console.commons.service.workflow.WorkflowBotParamService;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.commons.workflow.WorkflowClient;
 import com.iflytek.astron.console.commons.workflow.WorkflowListener;
 import lombok.extern.slf4j.Slf4j;
@@ -68,6 +69,9 @@ public class WorkflowBotChatServiceImpl implements WorkflowBotChatService {
     @Autowired
     private WssListenerService wssListenerService;
 
+    @Autowired
+    private HttpClientRegistry httpClientRegistry;
+
     @Value("${workflow.chatUrl}")
     private String chatUrl;
 
@@ -176,7 +180,8 @@ public class WorkflowBotChatServiceImpl implements WorkflowBotChatService {
             body = RequestBody.create(JSON.toJSONString(build), MediaType.parse("application/json; charset=utf-8"));
             apiUsedUrl = resumeUrl;
         }
-        WorkflowClient client = new WorkflowClient(apiUsedUrl, appId, appKey, appSecret, body);
+        WorkflowClient client = new WorkflowClient(apiUsedUrl, appId, appKey, appSecret, body,
+                httpClientRegistry.get(HttpClientRegistry.WORKFLOW));
         WorkflowListener listener = new WorkflowListener(client, chatReqRecords, sseId, wssListenerService, isDebug, sseEmitter);
         client.createWebSocketConnect(listener);
     }
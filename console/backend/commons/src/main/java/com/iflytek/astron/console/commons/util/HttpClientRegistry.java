@@ -0,0 +1,170 @@
+package com.iflytek.astron.console.commons.util;
+
+import com.iflytek.astron.console.commons.config.properties.HttpClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of shared OkHttp clients, one per named upstream.
+ * <p>
+ * Each upstream owns its own {@link Dispatcher}, {@link ConnectionPool} and timeouts, so a saturated
+ * backend can only exhaust its own slots. The dispatcher only limits {@code enqueue()}, so every
+ * client also carries an interceptor that admits at most {@code max-requests} calls of the upstream
+ * at once, synchronous {@code execute()} included; a call that gets no slot within
+ * {@code queue-timeout} fails with an {@link IOException}. The slot is held until the response
+ * headers arrive, reading the body is not counted. Clients are created lazily from
+ * {@link HttpClientProperties} and, when a {@link MeterRegistry} is present, publish dispatcher,
+ * call slot and pool gauges tagged with the upstream name.
+ * <p>
+ * The registry is a Spring bean, see {@code HttpClientConfig}; code created with {@code new} is
+ * handed the client it should use.
+ */
+@Slf4j
+public class HttpClientRegistry {
+
+    public static final String DEFAULT = "default";
+    public static final String WORKFLOW = "workflow";
+    public static final String KNOWLEDGE = "knowledge";
+    public static final String MAAS = "maas";
+    public static final String RELEASE_MANAGER = "release-manager";
+    public static final String TENANT = "tenant";
+    public static final String TOOL_HTTP = "tool-http";
+    public static final String AI_SERVICE = "ai-service";
+    public static final String DEEPSEEK = "deepseek";
+
+    private final HttpClientProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, OkHttpClient> clients = new ConcurrentHashMap<>();
+
+    public HttpClientRegistry(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get the shared client of an upstream, building it on first use
+     *
+     * @param upstream Upstream name
+     * @return Shared OkHttpClient
+     */
+    public OkHttpClient get(String upstream) {
+        return clients.computeIfAbsent(upstream, this::create);
+    }
+
+    private OkHttpClient create(String upstream) {
+        HttpClientProperties.Upstream config = properties.resolve(upstream);
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+        ConnectionPool connectionPool = new ConnectionPool(config.getMaxIdleConnections(),
+                config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+        CallLimit callLimit = new CallLimit(upstream, config.getMaxRequests(), config.getQueueTimeout().toMillis());
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool)
+                .addInterceptor(callLimit)
+                .connectTimeout(config.getConnectTimeout())
+                .readTimeout(config.getReadTimeout())
+                .writeTimeout(config.getWriteTimeout())
+                .callTimeout(config.getCallTimeout())
+                .retryOnConnectionFailure(config.getRetryOnConnectionFailure())
+                .build();
+
+        bindMetrics(upstream, dispatcher, connectionPool, callLimit, config);
+        log.info("[http-client] init upstream={}, maxRequests={}, maxRequestsPerHost={}, maxIdle={}, readTimeout={}",
+                upstream, config.getMaxRequests(), config.getMaxRequestsPerHost(),
+                config.getMaxIdleConnections(), config.getReadTimeout());
+        return client;
+    }
+
+    private void bindMetrics(String upstream, Dispatcher dispatcher, ConnectionPool connectionPool, CallLimit callLimit,
+            HttpClientProperties.Upstream config) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Tags tags = Tags.of("upstream", upstream);
+        Gauge.builder("http.client.dispatcher.running", dispatcher, Dispatcher::runningCallsCount)
+                .tags(tags)
+                .description("Calls currently executing on the upstream dispatcher")
+                .register(meterRegistry);
+        Gauge.builder("http.client.dispatcher.queued", dispatcher, Dispatcher::queuedCallsCount)
+                .tags(tags)
+                .description("Calls waiting for a dispatcher slot")
+                .register(meterRegistry);
+        Gauge.builder("http.client.dispatcher.max", dispatcher, Dispatcher::getMaxRequests)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("http.client.calls.active", callLimit.active, AtomicInteger::get)
+                .tags(tags)
+                .description("Calls of the upstream waiting for a response, sync and async")
+                .register(meterRegistry);
+        Gauge.builder("http.client.calls.waiting", callLimit.waiting, AtomicInteger::get)
+                .tags(tags)
+                .description("Calls waiting for a free call slot")
+                .register(meterRegistry);
+        new OkHttpConnectionPoolMetrics(connectionPool, "http.client.pool", tags, config.getMaxIdleConnections())
+                .bindTo(meterRegistry);
+    }
+
+    /**
+     * Caps the calls of an upstream that are waiting for a response, whichever way they were started
+     */
+    private static final class CallLimit implements Interceptor {
+        private final String upstream;
+        private final Semaphore permits;
+        private final long queueTimeoutMillis;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        CallLimit(String upstream, int maxCalls, long queueTimeoutMillis) {
+            this.upstream = upstream;
+            this.permits = new Semaphore(maxCalls, true);
+            this.queueTimeoutMillis = queueTimeoutMillis;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            boolean acquired;
+            waiting.incrementAndGet();
+            try {
+                acquired = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a call slot of " + upstream);
+            } finally {
+                waiting.decrementAndGet();
+            }
+            if (!acquired) {
+                log.warn("[http-client] call rejected, upstream={}, no free slot within {}ms", upstream, queueTimeoutMillis);
+                throw new IOException("Too many concurrent calls to " + upstream);
+            }
+            active.incrementAndGet();
+            try {
+                return chain.proceed(chain.request());
+            } finally {
+                active.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+}
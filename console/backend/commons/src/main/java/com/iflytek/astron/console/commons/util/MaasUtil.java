@@ -43,13 +43,6 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 public class MaasUtil {
-    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient.Builder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .readTimeout(Duration.ofSeconds(30))
-            .writeTimeout(Duration.ofSeconds(30))
-            .retryOnConnectionFailure(true)
-            .build();
-
     @Resource
     private ChatBotBaseMapper chatBotBaseMapper;
 
@@ -95,14 +88,15 @@ public class MaasUtil {
     @Autowired
     private RedissonClient redissonClient;
 
+    @Autowired
+    private HttpClientRegistry httpClientRegistry;
+
     public static final String PREFIX_MAAS_COPY = "maas_copy_";
     private static final String BOT_TAG_LIST = "bot_tag_list";
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String X_AUTH_SOURCE_HEADER = "x-auth-source";
     private static final String X_AUTH_SOURCE_VALUE = "xfyun";
 
-    private final OkHttpClient client = new OkHttpClient();
-
     public static final List<String> NO_SUPPORT_TYPE = ListUtil.of("string", "integer", "boolean", "number",
             "object", "array-string", "array-integer",
             "array-boolean", "array-number", "array-object");
@@ -147,7 +141,7 @@ public class MaasUtil {
                 .build();
 
         String response;
-        try (Response httpResponse = HTTP_CLIENT.newCall(deleteRequest).execute()) {
+        try (Response httpResponse = httpClientRegistry.get(HttpClientRegistry.MAAS).newCall(deleteRequest).execute()) {
             ResponseBody responseBody = httpResponse.body();
             if (responseBody != null) {
                 response = responseBody.string();
@@ -220,7 +214,7 @@ public class MaasUtil {
         Request synchronizeRequest = requestBuilder.build();
 
         String response;
-        try (Response httpResponse = HTTP_CLIENT.newCall(synchronizeRequest).execute()) {
+        try (Response httpResponse = httpClientRegistry.get(HttpClientRegistry.MAAS).newCall(synchronizeRequest).execute()) {
             ResponseBody responseBody = httpResponse.body();
             if (responseBody != null) {
                 response = responseBody.string();
@@ -432,7 +426,7 @@ public class MaasUtil {
                 .addHeader(X_AUTH_SOURCE_HEADER, X_AUTH_SOURCE_VALUE)
                 .build();
         log.info("MaasUtil executeRequest url: {} request: {}, header: {}", request.url(), request, request.headers());
-        try (Response httpResponse = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response httpResponse = httpClientRegistry.get(HttpClientRegistry.MAAS).newCall(request).execute()) {
             ResponseBody responseBody = httpResponse.body();
             if (responseBody != null) {
                 return responseBody.string();
@@ -484,7 +478,7 @@ public class MaasUtil {
                 .get()
                 .build();
         String responseBody;
-        try (Response response = client.newCall(httpRequest).execute()) {
+        try (Response response = httpClientRegistry.get(HttpClientRegistry.MAAS).newCall(httpRequest).execute()) {
             if (!response.isSuccessful()) {
                 // Handle request failure
                 throw new IOException("Unexpected code " + response);
@@ -525,7 +519,7 @@ public class MaasUtil {
                 .build();
 
         String response;
-        try (Response httpResponse = HTTP_CLIENT.newCall(getInputsRequest).execute()) {
+        try (Response httpResponse = httpClientRegistry.get(HttpClientRegistry.MAAS).newCall(getInputsRequest).execute()) {
             ResponseBody responseBody = httpResponse.body();
             if (responseBody != null) {
                 response = responseBody.string();
@@ -0,0 +1,228 @@
+package com.iflytek.astron.console.commons.util;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
+
+/**
+ * Lightweight view over one upstream SSE {@code data:} payload.
+ * <p>
+ * The payload is scanned once with a streaming {@link JSONReader} and only the fields needed by the
+ * relay (code, sid/id, first choice delta, finish reason and tool calls) are extracted. The raw text
+ * is kept so that frames which need no rewriting can be forwarded to the client unchanged; a full
+ * {@link JSONObject} tree is only built on demand through {@link #tree()}.
+ *
+ * @author mingsuiyongheng
+ */
+public final class SseDataFrame {
+
+    private static final String WEB_SEARCH = "web_search";
+
+    private final String raw;
+
+    private Integer code;
+    private String message;
+    private String sid;
+    private String id;
+    private int choiceCount;
+    private boolean firstChoiceHasDelta;
+    private String content;
+    private String reasoningContent;
+    private String finishReason;
+    private boolean webSearchToolCall;
+    private JSONArray traceToolCalls;
+
+    private JSONObject tree;
+
+    private SseDataFrame(String raw) {
+        this.raw = raw;
+    }
+
+    /**
+     * Scan an SSE data payload and extract relay fields without building a JSON tree
+     *
+     * @param data Raw JSON payload of an SSE data line
+     * @return Parsed frame view
+     * @throws JSONException if the payload is not a JSON object
+     */
+    public static SseDataFrame parse(String data) {
+        SseDataFrame frame = new SseDataFrame(data);
+        try (JSONReader reader = JSONReader.of(data)) {
+            if (!reader.nextIfObjectStart()) {
+                throw new JSONException("SSE data is not a JSON object");
+            }
+            while (!reader.nextIfObjectEnd()) {
+                String name = reader.readFieldName();
+                switch (name) {
+                    case "code" -> frame.code = reader.readInt32();
+                    case "message" -> frame.message = reader.readString();
+                    case "sid" -> frame.sid = reader.readString();
+                    case "id" -> frame.id = reader.readString();
+                    case "choices" -> frame.readChoices(reader);
+                    default -> reader.skipValue();
+                }
+            }
+        }
+        return frame;
+    }
+
+    private void readChoices(JSONReader reader) {
+        if (!reader.nextIfArrayStart()) {
+            reader.skipValue();
+            return;
+        }
+        int index = 0;
+        while (!reader.nextIfArrayEnd()) {
+            readChoice(reader, index++);
+        }
+        choiceCount = index;
+    }
+
+    private void readChoice(JSONReader reader, int index) {
+        if (!reader.nextIfObjectStart()) {
+            reader.skipValue();
+            return;
+        }
+        while (!reader.nextIfObjectEnd()) {
+            String name = reader.readFieldName();
+            if ("delta".equals(name)) {
+                readDelta(reader, index);
+            } else if ("finish_reason".equals(name) && index == 0) {
+                finishReason = reader.readString();
+            } else {
+                reader.skipValue();
+            }
+        }
+    }
+
+    private void readDelta(JSONReader reader, int index) {
+        if (!reader.nextIfObjectStart()) {
+            reader.skipValue();
+            return;
+        }
+        if (index == 0) {
+            firstChoiceHasDelta = true;
+        }
+        while (!reader.nextIfObjectEnd()) {
+            String name = reader.readFieldName();
+            if ("content".equals(name) && index == 0) {
+                content = reader.readString();
+            } else if ("reasoning_content".equals(name) && index == 0) {
+                reasoningContent = reader.readString();
+            } else if ("tool_calls".equals(name)) {
+                // Tool call frames are rare, materialising them keeps the common path allocation-free
+                JSONArray toolCalls = reader.readJSONArray();
+                inspectToolCalls(toolCalls, index);
+            } else {
+                reader.skipValue();
+            }
+        }
+    }
+
+    private void inspectToolCalls(JSONArray toolCalls, int index) {
+        if (toolCalls == null) {
+            return;
+        }
+        for (int i = 0; i < toolCalls.size(); i++) {
+            JSONObject toolCall = toolCalls.getJSONObject(i);
+            if (toolCall != null && WEB_SEARCH.equals(toolCall.getString("type")) && toolCall.containsKey(WEB_SEARCH)) {
+                webSearchToolCall = true;
+            }
+        }
+        if (index == 1) {
+            traceToolCalls = toolCalls;
+        }
+    }
+
+    /**
+     * Get the full JSON tree of this frame, parsing it on first access. Mutations made on the
+     * returned object are reflected by {@link #toJSONString()}.
+     *
+     * @return JSON object of the raw payload
+     */
+    public JSONObject tree() {
+        if (tree == null) {
+            tree = JSON.parseObject(raw);
+        }
+        return tree;
+    }
+
+    /**
+     * Whether the JSON tree has been materialised (and possibly rewritten)
+     *
+     * @return true if {@link #tree()} has been called
+     */
+    public boolean isTreeBuilt() {
+        return tree != null;
+    }
+
+    /**
+     * Serialise the frame for relaying: the untouched raw payload unless the tree was built
+     *
+     * @return JSON string to be sent to the client
+     */
+    public String toJSONString() {
+        return tree == null ? raw : tree.toJSONString();
+    }
+
+    public String getRaw() {
+        return raw;
+    }
+
+    public Integer getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getSid() {
+        return sid;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getChoiceCount() {
+        return choiceCount;
+    }
+
+    public boolean isFirstChoiceHasDelta() {
+        return firstChoiceHasDelta;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public String getReasoningContent() {
+        return reasoningContent;
+    }
+
+    public String getFinishReason() {
+        return finishReason;
+    }
+
+    public boolean hasWebSearchToolCall() {
+        return webSearchToolCall;
+    }
+
+    /**
+     * Tool calls carried by the second choice, which the Spark API uses for search tracing. Once the
+     * tree is built they are read from it, so rewrites made for the client are traced as well.
+     *
+     * @return tool_calls array of choices[1].delta, or null if absent
+     */
+    public JSONArray getTraceToolCalls() {
+        if (tree == null || traceToolCalls == null) {
+            return traceToolCalls;
+        }
+        JSONArray choices = tree.getJSONArray("choices");
+        JSONObject delta = choices == null || choices.size() < 2 ? null : choices.getJSONObject(1).getJSONObject("delta");
+        return delta == null ? null : delta.getJSONArray("tool_calls");
+    }
+}
@@ -42,6 +42,11 @@ public class SseEmitterUtil {
 
     public static final Map<String, EventSource> EVENTSOURCE_MAP = new ConcurrentHashMap<>(256);
 
+    /**
+     * Cancel actions of upstream calls streaming on this node, keyed by stream ID
+     */
+    private static final Map<String, Runnable> STREAM_CANCELLERS = new ConcurrentHashMap<>(256);
+
     public static SseEmitter get(String sseId) {
         return SESSION_MAP.get(sseId);
     }
@@ -275,14 +280,65 @@ public class SseEmitterUtil {
     }
 
     /**
-     * Stop stream processing
+     * Stop stream processing on this node. The stop signal is recorded for the stream loop, and the
+     * upstream connection of the stream, if it is owned by this node, is cancelled right away instead
+     * of waiting for its next frame. Use {@link StreamStopSignalChannel} to stop a stream that may be
+     * served by another node.
      *
      * @param streamId Stream ID to stop
      */
     public static void stopStream(String streamId) {
+        if (streamId == null) {
+            return;
+        }
+        streamStopSignalSet.put(streamId, true);
+        log.debug("Stream stop signal set for streamId: {}", streamId);
+
+        Runnable canceller = STREAM_CANCELLERS.remove(streamId);
+        if (canceller != null) {
+            try {
+                canceller.run();
+            } catch (Exception e) {
+                log.warn("Cancel upstream call failed, streamId: {}", streamId, e);
+            }
+        }
+        EventSource eventSource = EVENTSOURCE_MAP.remove(streamId);
+        if (eventSource != null) {
+            eventSource.cancel();
+        }
+    }
+
+    /**
+     * Whether the upstream of the given stream is owned by this node
+     *
+     * @param streamId Stream ID
+     * @return true if a cancel action or event source is registered for the stream
+     */
+    public static boolean isStreamLocal(String streamId) {
+        return streamId != null && (STREAM_CANCELLERS.containsKey(streamId) || EVENTSOURCE_MAP.containsKey(streamId));
+    }
+
+    /**
+     * Register the action that cancels the upstream call of a stream, invoked by
+     * {@link #stopStream(String)}
+     *
+     * @param streamId Stream ID
+     * @param canceller Cancel action, typically {@code call::cancel}
+     */
+    public static void registerStreamCanceller(String streamId, Runnable canceller) {
+        if (streamId != null && canceller != null) {
+            STREAM_CANCELLERS.put(streamId, canceller);
+        }
+    }
+
+    /**
+     * Remove the cancel action of a finished stream
+     *
+     * @param streamId Stream ID
+     */
+    public static void unregisterStreamCanceller(String streamId) {
         if (streamId != null) {
-            streamStopSignalSet.put(streamId, true);
-            log.debug("Stream stop signal set for streamId: {}", streamId);
+            STREAM_CANCELLERS.remove(streamId);
         }
     }
 
@@ -0,0 +1,56 @@
+package com.iflytek.astron.console.commons.util;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cluster-wide stop signalling for SSE streams.
+ * <p>
+ * A stop request may land on a different node from the one streaming. When the stream is owned by
+ * the current node it is stopped locally without a Redis round-trip; otherwise the stream ID is
+ * published on a Redis topic and every node applies {@link SseEmitterUtil#stopStream(String)}, so
+ * that the owner cancels its upstream connection as soon as the message arrives.
+ *
+ * @author mingsuiyongheng
+ */
+@Slf4j
+@Component
+public class StreamStopSignalChannel {
+
+    public static final String STOP_GENERATE_SUBSCRIBE_PUBLISH_CHANNEL = "stop_generate_sub_pub";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @PostConstruct
+    public void subscribe() {
+        RTopic topic = redissonClient.getTopic(STOP_GENERATE_SUBSCRIBE_PUBLISH_CHANNEL);
+        topic.addListener(String.class, (channel, streamId) -> SseEmitterUtil.stopStream(streamId));
+    }
+
+    /**
+     * Stop a stream wherever it is being served
+     *
+     * @param streamId Stream ID to stop
+     */
+    public void stopStream(String streamId) {
+        if (streamId == null) {
+            return;
+        }
+        // Local fast path: the upstream of this stream is held by this node
+        if (SseEmitterUtil.isStreamLocal(streamId)) {
+            SseEmitterUtil.stopStream(streamId);
+            return;
+        }
+        try {
+            redissonClient.getTopic(STOP_GENERATE_SUBSCRIBE_PUBLISH_CHANNEL).publish(streamId);
+        } catch (Exception e) {
+            log.error("Failed to publish stream stop signal, stop locally only, streamId: {}", streamId, e);
+            SseEmitterUtil.stopStream(streamId);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.iflytek.astron.console.commons.util;
+
+import com.iflytek.astron.console.commons.config.properties.HttpClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long-lived streaming calls (SSE chat completions) outside the OkHttp {@link Dispatcher}.
+ * <p>
+ * {@link Call#enqueue} keeps a dispatcher slot for as long as {@link Callback#onResponse} runs, so a
+ * callback that reads a whole generation holds the slot for minutes and the next calls to the host
+ * queue behind it. Here each call is executed synchronously on its own virtual thread, which leaves
+ * the dispatcher alone, and concurrency is capped per upstream by {@code http-client.*.max-streams}.
+ * A call that cannot get a slot within {@code stream-queue-timeout} fails with an {@link IOException}.
+ * <p>
+ * The callback reads the body on the same thread that writes to the client, so a slow client slows
+ * the read and the upstream is throttled through TCP flow control instead of frames piling up in
+ * memory. When a {@link MeterRegistry} is present the time spent waiting for a slot is recorded as
+ * {@code http.client.stream.queue.wait}, with active and waiting stream gauges, tagged with the
+ * upstream name.
+ */
+@Slf4j
+public class StreamingHttpGateway {
+
+    private final HttpClientProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StreamingHttpGateway(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Execute a streaming call in the background and report the outcome to the callback, like
+     * {@link Call#enqueue} but without holding a dispatcher slot
+     *
+     * @param upstream Upstream name, selects the concurrency limit
+     * @param call Call to execute, usually created from {@link HttpClientRegistry#get(String)}
+     * @param callback Receives the response or the failure, may read the body to the end
+     */
+    public void enqueue(String upstream, Call call, Callback callback) {
+        Limit limit = limits.computeIfAbsent(upstream, this::createLimit);
+        long queuedAt = System.nanoTime();
+        limit.waiting.incrementAndGet();
+        executor.execute(() -> run(upstream, limit, call, callback, queuedAt));
+    }
+
+    private void run(String upstream, Limit limit, Call call, Callback callback, long queuedAt) {
+        boolean acquired = false;
+        try {
+            acquired = limit.permits.tryAcquire(limit.queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            limit.waiting.decrementAndGet();
+            if (limit.queueWait != null) {
+                limit.queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (!acquired) {
+            log.warn("[http-client] stream rejected, upstream={}, no free slot within {}ms", upstream, limit.queueTimeoutMillis);
+            callback.onFailure(call, new IOException("Too many concurrent streams to " + upstream));
+            return;
+        }
+
+        limit.active.incrementAndGet();
+        try {
+            Response response;
+            try {
+                response = call.execute();
+            } catch (IOException e) {
+                callback.onFailure(call, e);
+                return;
+            }
+            try (response) {
+                callback.onResponse(call, response);
+            } catch (Exception e) {
+                log.warn("[http-client] stream callback failed, upstream={}", upstream, e);
+            }
+        } catch (Exception e) {
+            log.error("[http-client] stream failed, upstream={}", upstream, e);
+        } finally {
+            limit.active.decrementAndGet();
+            limit.permits.release();
+        }
+    }
+
+    private Limit createLimit(String upstream) {
+        HttpClientProperties.Upstream config = properties.resolve(upstream);
+        Limit limit = new Limit(config.getMaxStreams(), config.getStreamQueueTimeout().toMillis());
+        if (meterRegistry != null) {
+            Tags tags = Tags.of("upstream", upstream);
+            limit.queueWait = Timer.builder("http.client.stream.queue.wait")
+                    .tags(tags)
+                    .description("Time a streaming call waited for a free stream slot")
+                    .register(meterRegistry);
+            Gauge.builder("http.client.stream.active", limit.active, AtomicInteger::get)
+                    .tags(tags)
+                    .description("Streaming calls currently executing")
+                    .register(meterRegistry);
+            Gauge.builder("http.client.stream.waiting", limit.waiting, AtomicInteger::get)
+                    .tags(tags)
+                    .description("Streaming calls waiting for a free stream slot")
+                    .register(meterRegistry);
+        }
+        log.info("[http-client] init stream limit upstream={}, maxStreams={}, queueTimeout={}",
+                upstream, config.getMaxStreams(), config.getStreamQueueTimeout());
+        return limit;
+    }
+
+    private static final class Limit {
+        private final Semaphore permits;
+        private final long queueTimeoutMillis;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private Timer queueWait;
+
+        Limit(int maxStreams, long queueTimeoutMillis) {
+            this.permits = new Semaphore(maxStreams, true);
+            this.queueTimeoutMillis = queueTimeoutMillis;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.iflytek.astron.console.commons.workflow;
 
 import lombok.extern.slf4j.Slf4j;
-import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -9,8 +8,6 @@ import okhttp3.sse.EventSource;
 import okhttp3.sse.EventSourceListener;
 import okhttp3.sse.EventSources;
 
-import java.util.concurrent.TimeUnit;
-
 /**
  * @author mingsuiyongheng
  */
@@ -31,20 +28,18 @@ public class WorkflowClient {
 
     private EventSource eventSource;
 
-    private static final OkHttpClient okHttpClient = new OkHttpClient.Builder()
-            .connectTimeout(180, TimeUnit.SECONDS)
-            .readTimeout(180, TimeUnit.SECONDS)
-            .writeTimeout(180, TimeUnit.SECONDS)
-            .callTimeout(420, TimeUnit.SECONDS)
-            .connectionPool(new ConnectionPool(1000, 10, TimeUnit.MINUTES))
-            .build();
+    private final OkHttpClient httpClient;
 
-    public WorkflowClient(String chatUrl, String appId, String appKey, String appSecret, RequestBody requestBody) {
+    /**
+     * @param httpClient Client of the workflow upstream, see {@code HttpClientRegistry#WORKFLOW}
+     */
+    public WorkflowClient(String chatUrl, String appId, String appKey, String appSecret, RequestBody requestBody, OkHttpClient httpClient) {
         this.chatUrl = chatUrl;
         this.appId = appId;
         this.appKey = appKey;
         this.appSecret = appSecret;
         this.requestBody = requestBody;
+        this.httpClient = httpClient;
     }
 
     /**
@@ -70,7 +65,7 @@ public class WorkflowClient {
      * @param listener EventSourceListener object for handling events
      */
     private void newSSE(EventSourceListener listener) {
-        EventSource.Factory factory = EventSources.createFactory(okHttpClient);
+        EventSource.Factory factory = EventSources.createFactory(httpClient);
         eventSource = factory.newEventSource(request, listener);
     }
 
@@ -2,12 +2,12 @@ package com.iflytek.astron.console.commons.workflow;
 
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.iflytek.astron.console.commons.constant.RedisKeyConstant;
 import com.iflytek.astron.console.commons.dto.workflow.WorkflowEventData;
 import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
 import com.iflytek.astron.console.commons.service.WssListenerService;
+import com.iflytek.astron.console.commons.util.SseDataFrame;
 import com.iflytek.astron.console.commons.util.SseEmitterUtil;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,8 +21,8 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author mingsuiyongheng
@@ -30,6 +30,8 @@ import java.util.Optional;
 @Slf4j
 @NoArgsConstructor
 public class WorkflowListener extends EventSourceListener {
+    private static final String END_NODE_PREFIX = "node-end";
+
     private WorkflowClient chainClient;
     private String sseId;
     private ChatReqRecords chatReqRecords;
@@ -39,6 +41,8 @@ public class WorkflowListener extends EventSourceListener {
     private String sid;
     private boolean isDebug = false;
     private SseEmitter emitter;
+    /** Set once the partial answer of a stopped stream has been saved */
+    private final AtomicBoolean stopped = new AtomicBoolean();
 
     public WorkflowListener(WorkflowClient chainClient, ChatReqRecords records, String sseId,
             WssListenerService wssListenerService,
@@ -51,6 +55,17 @@ public class WorkflowListener extends EventSourceListener {
         this.emitter = emitter;
     }
 
+    /**
+     * Register the event source so that a stop request cancels it immediately
+     *
+     * @param eventSource Event source object
+     * @param response HTTP response object
+     */
+    @Override
+    public void onOpen(@NotNull EventSource eventSource, @NotNull Response response) {
+        SseEmitterUtil.registerStreamCanceller(sseId, eventSource::cancel);
+    }
+
     /**
      * Method to handle event source
      *
@@ -63,46 +78,40 @@ public class WorkflowListener extends EventSourceListener {
     public void onEvent(@NotNull EventSource eventSource, String id, String type, @NotNull String data) {
         log.debug("workflow api sse response, sseId:{}, uid:{}, data:{}", sseId, chatReqRecords.getUid(), data);
         // Abort generation
-        if (SseEmitterUtil.isStreamStopped(sseId)) {
-            // Already started thinking, so record the generated thinking text to chat_reason table
-            wssListenerService.getChatRecordModelService().saveThinkingResult(chatReqRecords, thinkingResult, false);
-            // Already started outputting, so record the output text to resp table
-            wssListenerService.getChatRecordModelService().saveChatResponse(chatReqRecords, finalResult, new StringBuffer(sid), false, 2);
-            // Build interruption completion data and attempt to send to client (if still connected)
-            JSONObject interruptedData = buildCompleteData(finalResult, thinkingResult, chatReqRecords);
-            interruptedData.put("interrupted", true);
-            interruptedData.put("reason", "Stream interrupted or client disconnected");
-            trySendCompleteAndEnd(emitter, interruptedData, sseId);
+        if (stopped.get() || SseEmitterUtil.isStreamStopped(sseId)) {
+            handleStreamStopped();
             return;
         }
 
-        JSONObject jsonObject = JSONObject.parseObject(data);
+        // Relay the upstream payload unchanged, only the fields needed for persistence are extracted
+        SseDataFrame frame = SseDataFrame.parse(data);
         // Try to send data, continue processing data even if client disconnects
-        boolean clientConnected = tryServeSSEData(emitter, jsonObject, sseId);
-        this.sid = jsonObject.getString("id");
-        Integer code = jsonObject.getInteger("code");
+        boolean clientConnected = tryServeSSEData(emitter, frame.getRaw(), sseId);
+        this.sid = frame.getId();
+        Integer code = frame.getCode();
 
         if (!clientConnected) {
             log.info("Client disconnected, but continue processing data to ensure integrity, sseId: {}", sseId);
         }
 
         // Get output
-        JSONArray choices = jsonObject.getJSONArray("choices");
-        if (Objects.isNull(choices) || choices.isEmpty()) {
+        if (frame.getChoiceCount() == 0) {
             return;
         }
-        JSONObject choice = choices.getJSONObject(0);
-        String content = choice.getJSONObject("delta").getString("content");
+        String content = frame.getContent();
         // Record main content
         if (StringUtils.isNotBlank(content)) {
             finalResult.append(content);
         }
         // Record thinking process
-        String reasoningContent = choice.getJSONObject("delta").getString("reasoning_content");
+        String reasoningContent = frame.getReasoningContent();
         if (StringUtils.isNotBlank(reasoningContent)) {
             thinkingResult.append(content);
         }
-        processDeBugWorkFlow(jsonObject);
+        // Debug output is only taken from end node frames, other frames are not parsed into a tree
+        if (isDebug && frame.getRaw().contains(END_NODE_PREFIX)) {
+            processDeBugWorkFlow(frame.tree());
+        }
 
         // Handle error code cases
         if (code != null && code != 0) {
@@ -111,7 +120,7 @@ public class WorkflowListener extends EventSourceListener {
             finalResult.append(fallbackMessage);
         }
 
-        String finishReason = choice.getString("finish_reason");
+        String finishReason = frame.getFinishReason();
         // End frame processing
         if ("stop".equals(finishReason) || "interrupt".equals(finishReason)) {
             // Record thinking text
@@ -121,7 +130,7 @@ public class WorkflowListener extends EventSourceListener {
             String finalResultStr = finalResult.toString();
             try {
                 if (WorkflowEventData.WorkflowOperation.INTERRUPT.getOperation().equals(finishReason)) {
-                    finalResultStr = processWorkFlowInterrupt(jsonObject, finalResultStr);
+                    finalResultStr = processWorkFlowInterrupt(frame.tree(), finalResultStr);
                     answerType = 41;
                     log.debug("workflow api format response, sseId:{}, uid:{}, data:{}", sseId, chatReqRecords.getUid(), finalResultStr);
                 } else if (WorkflowEventData.WorkflowOperation.STOP.getOperation().equals(finishReason)) {
@@ -139,22 +148,45 @@ public class WorkflowListener extends EventSourceListener {
 
     }
 
+    @Override
+    public void onClosed(@NotNull EventSource eventSource) {
+        SseEmitterUtil.unregisterStreamCanceller(sseId);
+    }
+
+    /**
+     * Save the partial answer of a stopped stream and end the client connection. Both onEvent and
+     * onFailure see the stop, only the first caller saves.
+     */
+    private void handleStreamStopped() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        // Already started thinking, so record the generated thinking text to chat_reason table
+        wssListenerService.getChatRecordModelService().saveThinkingResult(chatReqRecords, thinkingResult, false);
+        // Already started outputting, so record the output text to resp table
+        wssListenerService.getChatRecordModelService().saveChatResponse(chatReqRecords, finalResult, new StringBuffer(StringUtils.defaultString(sid)), false, 2);
+        // Build interruption completion data and attempt to send to client (if still connected)
+        JSONObject interruptedData = buildCompleteData(finalResult, thinkingResult, chatReqRecords);
+        interruptedData.put("interrupted", true);
+        interruptedData.put("reason", "Stream interrupted or client disconnected");
+        trySendCompleteAndEnd(emitter, interruptedData, sseId);
+    }
+
     /**
      * Try to send SSE data, detect client connection status
      *
      * @param emitter SseEmitter object
-     * @param dataObj Data object to send
+     * @param jsonData Serialised data to send
      * @param streamId Stream identifier
      * @return true if client is still connected, false if client is disconnected
      */
-    private boolean tryServeSSEData(SseEmitter emitter, JSONObject dataObj, String streamId) {
+    private boolean tryServeSSEData(SseEmitter emitter, String jsonData, String streamId) {
         if (emitter == null) {
             log.warn("SseEmitter is null, unable to send data, streamId: {}", streamId);
             return false;
         }
 
         try {
-            String jsonData = dataObj.toJSONString();
             emitter.send(SseEmitter.event().name("data").data(jsonData));
             return true;
         } catch (org.springframework.web.context.request.async.AsyncRequestNotUsableException e) {
@@ -200,6 +232,14 @@ public class WorkflowListener extends EventSourceListener {
      */
     @Override
     public void onFailure(@NotNull EventSource eventSource, Throwable t, Response response) {
+        SseEmitterUtil.unregisterStreamCanceller(sseId);
+        // Failure caused by a stop request cancelling the event source. The stop signal is consumed by
+        // the first check, so a stop already seen by onEvent is recognised by the flag
+        if (stopped.get() || SseEmitterUtil.isStreamStopped(sseId)) {
+            log.info("Workflow event source cancelled by stop signal, sseId: {}", sseId);
+            handleStreamStopped();
+            return;
+        }
         log.error(".....MaasListener failed to establish connection with chain-sse....., sseId: {}, uid: {}, chatId: {}", sseId, chatReqRecords.getUid(), chatReqRecords.getChatId(), t);
         // Close current websocket connection
         if (chainClient != null) {
@@ -274,7 +314,7 @@ public class WorkflowListener extends EventSourceListener {
                 return;
             }
             String nodeId = node.getString("id");
-            if (StringUtils.isBlank(nodeId) || !nodeId.startsWith("node-end")) {
+            if (StringUtils.isBlank(nodeId) || !nodeId.startsWith(END_NODE_PREFIX)) {
                 return;
             }
             JSONObject outputs = node.getJSONObject("outputs");
@@ -51,6 +51,9 @@ class UserInfoDataServiceImplUnitTest {
     @Mock
     private RLock rLock;
 
+    @Mock
+    private UserInfoCache userInfoCache;
+
     @InjectMocks
     private UserInfoDataServiceImpl userInfoDataService;
 
@@ -246,6 +249,22 @@ class UserInfoDataServiceImplUnitTest {
             // Then
             assertThat(result).isEqualTo(testUser);
             verify(redissonClient, never()).getLock(anyString());
+            verify(userInfoCache).put(testUser);
+        }
+
+        @Test
+        @DisplayName("Create or get user - Served from cache")
+        void createOrGetUser_CacheHit() {
+            // Given
+            when(userInfoCache.get(testUid)).thenReturn(testUser);
+
+            // When
+            UserInfo result = userInfoDataService.createOrGetUser(testUser);
+
+            // Then
+            assertThat(result).isEqualTo(testUser);
+            verify(userInfoMapper, never()).selectOne(any(LambdaQueryWrapper.class));
+            verify(redissonClient, never()).getLock(anyString());
         }
 
         @Test
@@ -394,6 +413,7 @@ class UserInfoDataServiceImplUnitTest {
             assertThat(event.getUid()).isEqualTo(testUid);
             assertThat(event.getOldNickname()).isEqualTo(testNickname);
             assertThat(event.getNewNickname()).isEqualTo(newNickname);
+            verify(userInfoCache).invalidate(testUid);
         }
 
         @Test
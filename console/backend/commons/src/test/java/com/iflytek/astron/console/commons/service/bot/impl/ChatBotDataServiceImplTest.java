@@ -13,6 +13,7 @@ import com.iflytek.astron.console.commons.entity.bot.*;
 import com.iflytek.astron.console.commons.entity.chat.ChatList;
 import com.iflytek.astron.console.commons.entity.model.McpData;
 import com.iflytek.astron.console.commons.enums.bot.ReleaseTypeEnum;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
 import com.iflytek.astron.console.commons.mapper.bot.*;
 import com.iflytek.astron.console.commons.mapper.chat.ChatListMapper;
 import com.iflytek.astron.console.commons.mapper.vcn.CustomVCNMapper;
@@ -30,6 +31,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -77,6 +79,9 @@ class ChatBotDataServiceImplTest {
     @Mock
     private McpDataService mcpDataService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ChatBotDataServiceImpl chatBotDataService;
 
@@ -253,6 +258,9 @@ class ChatBotDataServiceImplTest {
 
         assertNotNull(result);
         verify(chatBotBaseMapper).updateById(testBot);
+        ArgumentCaptor<BotRuntimeChangedEvent> eventCaptor = ArgumentCaptor.forClass(BotRuntimeChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(testBot.getId(), eventCaptor.getValue().getBotId());
     }
 
     @Test
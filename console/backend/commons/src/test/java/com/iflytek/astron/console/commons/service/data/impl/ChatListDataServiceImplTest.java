@@ -20,6 +20,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -221,6 +222,36 @@ class ChatListDataServiceImplTest {
         verify(chatListMapper, never()).selectOne(any(LambdaQueryWrapper.class));
     }
 
+    @Test
+    void testFindLatestEnabledChatsByUserAndBots_Success() {
+        // Given
+        ChatList otherBotChat = new ChatList();
+        otherBotChat.setId(789L);
+        otherBotChat.setBotId(457);
+        when(chatListMapper.selectLatestEnabledByUserAndBots(eq(uid), anyCollection()))
+                .thenReturn(List.of(mockChatList, otherBotChat));
+
+        // When
+        Map<Integer, ChatList> result = chatListDataService.findLatestEnabledChatsByUserAndBots(uid, List.of(botId, 457, 458));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(chatId, result.get(botId).getId());
+        assertEquals(789L, result.get(457).getId());
+        assertNull(result.get(458));
+        verify(chatListMapper, times(1)).selectLatestEnabledByUserAndBots(eq(uid), anyCollection());
+    }
+
+    @Test
+    void testFindLatestEnabledChatsByUserAndBots_EmptyBotIds() {
+        // When
+        Map<Integer, ChatList> result = chatListDataService.findLatestEnabledChatsByUserAndBots(uid, Collections.emptyList());
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(chatListMapper, never()).selectLatestEnabledByUserAndBots(any(), any());
+    }
+
     @Test
     void testReactivateChat_Success() {
         // Given
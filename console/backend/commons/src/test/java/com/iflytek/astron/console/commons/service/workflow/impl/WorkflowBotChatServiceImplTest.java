@@ -19,6 +19,7 @@ import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.service.data.ChatHistoryService;
 import com.iflytek.astron.console.commons.service.data.UserLangChainDataService;
 import com.iflytek.astron.console.commons.service.workflow.WorkflowBotParamService;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.commons.workflow.WorkflowClient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -63,6 +64,9 @@ class WorkflowBotChatServiceImplTest {
     @Mock
     private WssListenerService wssListenerService;
 
+    @Mock
+    private HttpClientRegistry httpClientRegistry;
+
     @Mock
     private SseEmitter sseEmitter;
 
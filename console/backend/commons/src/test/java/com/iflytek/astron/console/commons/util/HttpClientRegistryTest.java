@@ -0,0 +1,123 @@
+package com.iflytek.astron.console.commons.util;
+
+import com.iflytek.astron.console.commons.config.properties.HttpClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs synchronous calls against a local upstream that holds every request until released, so the
+ * call limit of the registry client is the only thing that can keep calls out.
+ */
+class HttpClientRegistryTest {
+
+    private static final String UPSTREAM = "fake";
+
+    private HttpServer server;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peakOpen = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpClientRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void execute_LimitsSynchronousCallsPerUpstream() throws Exception {
+        startServer();
+        init(2, Duration.ofMillis(300));
+
+        ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<String>> admitted = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            admitted.add(callers.submit(this::execute));
+        }
+        awaitOpen(2);
+
+        IOException rejected = assertThrows(IOException.class, this::execute);
+        assertTrue(rejected.getMessage().contains(UPSTREAM));
+        assertEquals(2, meterRegistry.get("http.client.calls.active").tag("upstream", UPSTREAM).gauge().value());
+
+        release.countDown();
+        for (Future<String> future : admitted) {
+            assertEquals("ok", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, peakOpen.get());
+        assertEquals(0, meterRegistry.get("http.client.calls.active").tag("upstream", UPSTREAM).gauge().value());
+
+        // Slots are given back, later calls go through again
+        assertEquals("ok", execute());
+        callers.shutdown();
+    }
+
+    private String execute() throws IOException {
+        Request request = new Request.Builder()
+                .url("http://127.0.0.1:" + server.getAddress().getPort() + "/ping")
+                .build();
+        Call call = registry.get(UPSTREAM).newCall(request);
+        try (Response response = call.execute()) {
+            return response.body().string();
+        }
+    }
+
+    private void init(int maxRequests, Duration queueTimeout) {
+        HttpClientProperties.Upstream upstream = new HttpClientProperties.Upstream();
+        upstream.setMaxRequests(maxRequests);
+        upstream.setQueueTimeout(queueTimeout);
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getUpstreams().put(UPSTREAM, upstream);
+        registry = new HttpClientRegistry(properties, meterRegistry);
+    }
+
+    private void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/ping", this::handle);
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        peakOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+        try (exchange) {
+            release.await(10, TimeUnit.SECONDS);
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            open.decrementAndGet();
+        }
+    }
+
+    private void awaitOpen(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (open.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, open.get());
+    }
+}
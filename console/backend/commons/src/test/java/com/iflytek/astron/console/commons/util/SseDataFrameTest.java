@@ -0,0 +1,93 @@
+package com.iflytek.astron.console.commons.util;
+
+import com.alibaba.fastjson2.JSONException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseDataFrameTest {
+
+    @Test
+    void parse_ExtractsFirstChoiceDelta() {
+        String data = "{\"code\":0,\"message\":\"Success\",\"sid\":\"sid-1\",\"id\":\"id-1\","
+                + "\"choices\":[{\"delta\":{\"role\":\"assistant\",\"content\":\"Hello\",\"reasoning_content\":\"think\"},"
+                + "\"index\":0,\"finish_reason\":\"stop\"}],\"usage\":{\"total_tokens\":3}}";
+
+        SseDataFrame frame = SseDataFrame.parse(data);
+
+        assertEquals(0, frame.getCode());
+        assertEquals("Success", frame.getMessage());
+        assertEquals("sid-1", frame.getSid());
+        assertEquals("id-1", frame.getId());
+        assertEquals(1, frame.getChoiceCount());
+        assertTrue(frame.isFirstChoiceHasDelta());
+        assertEquals("Hello", frame.getContent());
+        assertEquals("think", frame.getReasoningContent());
+        assertEquals("stop", frame.getFinishReason());
+        assertFalse(frame.hasWebSearchToolCall());
+        assertNull(frame.getTraceToolCalls());
+    }
+
+    @Test
+    void toJSONString_ReturnsRawPayloadWhenTreeNotBuilt() {
+        String data = "{\"code\":0, \"choices\":[{\"delta\":{\"content\":\"a\"}}]}";
+
+        SseDataFrame frame = SseDataFrame.parse(data);
+
+        assertFalse(frame.isTreeBuilt());
+        assertSame(data, frame.toJSONString());
+    }
+
+    @Test
+    void toJSONString_ReflectsTreeMutation() {
+        SseDataFrame frame = SseDataFrame.parse("{\"code\":10013,\"message\":\"blocked\"}");
+
+        frame.tree().put("message", "fallback");
+
+        assertTrue(frame.isTreeBuilt());
+        assertTrue(frame.toJSONString().contains("fallback"));
+    }
+
+    @Test
+    void parse_DetectsWebSearchAndTraceToolCalls() {
+        String data = "{\"code\":0,\"choices\":["
+                + "{\"delta\":{\"content\":\"\"}},"
+                + "{\"delta\":{\"tool_calls\":[{\"type\":\"web_search\",\"web_search\":{\"outputs\":[]}}]}}]}";
+
+        SseDataFrame frame = SseDataFrame.parse(data);
+
+        assertEquals(2, frame.getChoiceCount());
+        assertTrue(frame.hasWebSearchToolCall());
+        assertNotNull(frame.getTraceToolCalls());
+        assertEquals(1, frame.getTraceToolCalls().size());
+    }
+
+    @Test
+    void getTraceToolCalls_ReflectsTreeMutation() {
+        String data = "{\"code\":0,\"choices\":["
+                + "{\"delta\":{\"content\":\"\"}},"
+                + "{\"delta\":{\"tool_calls\":[{\"type\":\"web_search\",\"web_search\":{\"outputs\":[]}}]}}]}";
+        SseDataFrame frame = SseDataFrame.parse(data);
+
+        frame.tree().getJSONArray("choices").getJSONObject(1).getJSONObject("delta")
+                .getJSONArray("tool_calls").getJSONObject(0).put("deskToolName", "Web Search");
+
+        assertEquals("Web Search", frame.getTraceToolCalls().getJSONObject(0).getString("deskToolName"));
+        assertTrue(frame.toJSONString().contains("deskToolName"));
+    }
+
+    @Test
+    void parse_HandlesNullFieldsAndMissingChoices() {
+        SseDataFrame frame = SseDataFrame.parse("{\"code\":0,\"sid\":null,\"choices\":null}");
+
+        assertEquals(0, frame.getCode());
+        assertNull(frame.getSid());
+        assertEquals(0, frame.getChoiceCount());
+        assertNull(frame.getContent());
+    }
+
+    @Test
+    void parse_RejectsNonObjectPayload() {
+        assertThrows(JSONException.class, () -> SseDataFrame.parse("[1,2,3]"));
+    }
+}
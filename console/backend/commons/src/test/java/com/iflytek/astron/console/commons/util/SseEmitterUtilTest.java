@@ -316,6 +316,23 @@ class SseEmitterUtilTest {
         assertTrue(result);
     }
 
+    @Test
+    void testStopStream_CancelsRegisteredUpstream() {
+        String streamId = "test-stream-123";
+        EventSource mockEventSource = mock(EventSource.class);
+        SseEmitterUtil.EVENTSOURCE_MAP.put(streamId, mockEventSource);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        SseEmitterUtil.registerStreamCanceller(streamId, () -> cancelled.set(true));
+
+        SseEmitterUtil.stopStream(streamId);
+
+        assertTrue(cancelled.get());
+        verify(mockEventSource).cancel();
+        assertFalse(SseEmitterUtil.EVENTSOURCE_MAP.containsKey(streamId));
+        assertFalse(SseEmitterUtil.isStreamLocal(streamId));
+        assertTrue(SseEmitterUtil.isStreamStopped(streamId));
+    }
+
     @Test
     void testIsStreamStopped_NullStreamId() {
         boolean result = SseEmitterUtil.isStreamStopped(null);
@@ -0,0 +1,207 @@
+package com.iflytek.astron.console.commons.util;
+
+import com.iflytek.astron.console.commons.config.properties.HttpClientProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.*;
+import okio.BufferedSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs streams against a local fake SSE upstream that holds every stream open until all expected
+ * streams are connected, so the test only passes when no stream is queued behind another one.
+ */
+class StreamingHttpGatewayTest {
+
+    private static final String UPSTREAM = "fake-sse";
+    private static final int FRAMES = 5;
+
+    private HttpServer server;
+    private CountDownLatch connected;
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peakOpen = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private HttpClientRegistry clientRegistry;
+    private StreamingHttpGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void enqueue_RunsTwoHundredStreamsConcurrently() throws Exception {
+        int streams = 200;
+        startServer(streams);
+        // Dispatcher left at 5 calls per host, streams must not depend on it
+        init(streams, 5, Duration.ofSeconds(10));
+
+        CountDownLatch done = new CountDownLatch(streams);
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < streams; i++) {
+            gateway.enqueue(UPSTREAM, newCall(), new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    failures.add(e.toString());
+                    done.countDown();
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    try {
+                        int frames = readFrames(response.body().source());
+                        if (frames != FRAMES) {
+                            failures.add("frames: " + frames);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS), "streams did not finish");
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(streams, peakOpen.get());
+        Timer queueWait = meterRegistry.get("http.client.stream.queue.wait").tag("upstream", UPSTREAM).timer();
+        assertEquals(streams, queueWait.count());
+    }
+
+    @Test
+    void enqueue_FailsWhenNoSlotWithinQueueTimeout() throws Exception {
+        startServer(2);
+        init(1, 5, Duration.ofMillis(200));
+
+        CountDownLatch firstOpened = new CountDownLatch(1);
+        CompletableFuture<IOException> rejected = new CompletableFuture<>();
+        gateway.enqueue(UPSTREAM, newCall(), new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                firstOpened.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                firstOpened.countDown();
+                readFrames(response.body().source());
+            }
+        });
+        assertTrue(firstOpened.await(5, TimeUnit.SECONDS));
+
+        gateway.enqueue(UPSTREAM, newCall(), new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                rejected.complete(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                rejected.complete(null);
+            }
+        });
+
+        IOException e = rejected.get(5, TimeUnit.SECONDS);
+        assertNotNull(e);
+        assertTrue(e.getMessage().contains("Too many concurrent streams"));
+        // Let the first stream finish
+        connected.countDown();
+    }
+
+    private void init(int maxStreams, int maxRequestsPerHost, Duration queueTimeout) {
+        HttpClientProperties.Upstream upstream = new HttpClientProperties.Upstream();
+        upstream.setMaxStreams(maxStreams);
+        upstream.setStreamQueueTimeout(queueTimeout);
+        upstream.setMaxRequestsPerHost(maxRequestsPerHost);
+        upstream.setMaxIdleConnections(maxStreams);
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getUpstreams().put(UPSTREAM, upstream);
+        clientRegistry = new HttpClientRegistry(properties, null);
+        gateway = new StreamingHttpGateway(properties, meterRegistry);
+    }
+
+    private Call newCall() {
+        Request request = new Request.Builder()
+                .url("http://127.0.0.1:" + server.getAddress().getPort() + "/chat/completions")
+                .post(RequestBody.create("{\"stream\":true}", MediaType.get("application/json; charset=utf-8")))
+                .addHeader("Accept", "text/event-stream")
+                .build();
+        return clientRegistry.get(UPSTREAM).newCall(request);
+    }
+
+    /**
+     * Fake upstream: sends one frame, waits until {@code streams} requests are open, then finishes
+     */
+    private void startServer(int streams) throws IOException {
+        connected = new CountDownLatch(streams);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/chat/completions", this::handle);
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        peakOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            writeFrame(out, 0);
+            connected.countDown();
+            connected.await(20, TimeUnit.SECONDS);
+            for (int i = 1; i < FRAMES; i++) {
+                writeFrame(out, i);
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            open.decrementAndGet();
+        }
+    }
+
+    private static void writeFrame(OutputStream out, int index) throws IOException {
+        String frame = "data: {\"choices\":[{\"delta\":{\"content\":\"" + index + "\"}}]}\n\n";
+        out.write(frame.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static int readFrames(BufferedSource source) throws IOException {
+        int frames = 0;
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (line.startsWith("data:")) {
+                if (line.contains("[DONE]")) {
+                    break;
+                }
+                frames++;
+            }
+        }
+        return frames;
+    }
+}
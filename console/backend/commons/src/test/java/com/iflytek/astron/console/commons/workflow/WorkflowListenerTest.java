@@ -0,0 +1,101 @@
+package com.iflytek.astron.console.commons.workflow;
+
+import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
+import com.iflytek.astron.console.commons.service.ChatRecordModelService;
+import com.iflytek.astron.console.commons.service.WssListenerService;
+import com.iflytek.astron.console.commons.util.SseEmitterUtil;
+import okhttp3.sse.EventSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WorkflowListener.
+ */
+@ExtendWith(MockitoExtension.class)
+class WorkflowListenerTest {
+
+    private static final String FRAME = "{\"code\":0,\"id\":\"sid-1\",\"choices\":[{\"delta\":{\"content\":\"partial\"}}]}";
+
+    private static final String NODE_FRAME = "{\"code\":0,\"id\":\"sid-1\",\"choices\":[{\"delta\":{\"content\":\"\"}}],"
+            + "\"workflow_step\":{\"node\":{\"id\":\"%s\",\"finish_reason\":\"stop\",\"ext\":{\"answer_mode\":0},"
+            + "\"outputs\":{\"output\":\"%s\"}}}}";
+
+    @Mock
+    private WssListenerService wssListenerService;
+
+    @Mock
+    private ChatRecordModelService chatRecordModelService;
+
+    @Mock
+    private SseEmitter emitter;
+
+    @Mock
+    private EventSource eventSource;
+
+    private String sseId;
+    private ChatReqRecords records;
+    private WorkflowListener listener;
+
+    @BeforeEach
+    void setUp() {
+        when(wssListenerService.getChatRecordModelService()).thenReturn(chatRecordModelService);
+        sseId = "sse-" + UUID.randomUUID();
+        records = new ChatReqRecords();
+        records.setId(1L);
+        records.setUid("uid-1");
+        records.setChatId(2L);
+        listener = new WorkflowListener(null, records, sseId, wssListenerService, false, emitter);
+    }
+
+    @Test
+    void stop_SeenByEventThenFailure_SavesOnce() throws IOException {
+        listener.onEvent(eventSource, null, null, FRAME);
+        SseEmitterUtil.stopStream(sseId);
+
+        listener.onEvent(eventSource, null, null, FRAME);
+        // Cancelling the event source reports a failure after the stop was handled
+        listener.onFailure(eventSource, new IOException("Canceled"), null);
+        listener.onEvent(eventSource, null, null, FRAME);
+
+        verify(chatRecordModelService, times(1)).saveThinkingResult(eq(records), any(), eq(false));
+        verify(chatRecordModelService, times(1)).saveChatResponse(eq(records), argThat(answer -> "partial".contentEquals(answer)),
+                any(), eq(false), eq(2));
+        verify(emitter, times(1)).complete();
+    }
+
+    @Test
+    void stop_SeenByFailureThenEvent_SavesOnce() throws IOException {
+        SseEmitterUtil.stopStream(sseId);
+
+        listener.onFailure(eventSource, new IOException("Canceled"), null);
+        // A frame that was already in flight when the stream was cancelled
+        listener.onEvent(eventSource, null, null, FRAME);
+
+        verify(chatRecordModelService, times(1)).saveThinkingResult(eq(records), any(), eq(false));
+        verify(chatRecordModelService, times(1)).saveChatResponse(eq(records), any(), any(), eq(false), eq(2));
+        verify(emitter, times(1)).complete();
+    }
+
+    @Test
+    void debug_TakesOutputsOfEndNodeFramesOnly() {
+        listener = new WorkflowListener(null, records, sseId, wssListenerService, true, emitter);
+
+        listener.onEvent(eventSource, null, null, NODE_FRAME.formatted("node-llm::1", "draft"));
+        listener.onEvent(eventSource, null, null, NODE_FRAME.formatted("node-end::2", "done"));
+        SseEmitterUtil.stopStream(sseId);
+        listener.onEvent(eventSource, null, null, FRAME);
+
+        verify(chatRecordModelService).saveChatResponse(eq(records), argThat(answer -> "{\"output\":\"done\"}".contentEquals(answer)),
+                any(), eq(false), eq(2));
+    }
+}
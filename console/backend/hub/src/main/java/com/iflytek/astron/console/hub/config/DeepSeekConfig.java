@@ -1,5 +1,6 @@
 package com.iflytek.astron.console.hub.config;
 
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import lombok.Data;
 import okhttp3.OkHttpClient;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -21,8 +22,9 @@ public class DeepSeekConfig {
     private Duration writeTimeout = Duration.ofSeconds(60);
 
     @Bean("deepSeekHttpClient")
-    public OkHttpClient deepSeekHttpClient() {
-        return new OkHttpClient.Builder()
+    public OkHttpClient deepSeekHttpClient(HttpClientRegistry httpClientRegistry) {
+        // Shares dispatcher and connection pool of the registry upstream, keeps DeepSeek timeouts
+        return httpClientRegistry.get(HttpClientRegistry.DEEPSEEK).newBuilder()
                 .connectTimeout(connectTimeout)
                 .readTimeout(readTimeout)
                 .writeTimeout(writeTimeout)
@@ -0,0 +1,210 @@
+package com.iflytek.astron.console.hub.config;
+
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two-tier cache manager: a bounded in-process L1 with a short TTL in front of a shared (Redis)
+ * cache manager.
+ * <p>
+ * Reads are served from L1 when possible and fall back to the delegate, populating L1 on a hit.
+ * Evictions and clears are applied to both tiers and broadcast on a Redis topic so that every node
+ * drops its L1 copy of the key. L1 values are the deserialized objects shared by all callers, so
+ * cached values must be treated as read-only. A value read from Redis just before a concurrent
+ * eviction may survive in L1 for at most the L1 TTL, which is why that TTL is kept well below the
+ * Redis TTL.
+ */
+@Slf4j
+public class NearCacheManager implements CacheManager {
+
+    public static final String INVALIDATE_CHANNEL = "near_cache_invalidate";
+
+    private static final String KEY_SEPARATOR = "#";
+
+    private final CacheManager delegate;
+
+    private final RedissonClient redissonClient;
+
+    private final Duration localTtl;
+
+    private final long localMaxSize;
+
+    private final Map<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager delegate, RedissonClient redissonClient, Duration localTtl, long localMaxSize) {
+        this.delegate = delegate;
+        this.redissonClient = redissonClient;
+        this.localTtl = localTtl;
+        this.localMaxSize = localMaxSize;
+    }
+
+    /**
+     * Listen for evictions broadcast by other nodes
+     */
+    public void subscribe() {
+        RTopic topic = redissonClient.getTopic(INVALIDATE_CHANNEL);
+        topic.addListener(String.class, (channel, message) -> onInvalidate(message));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache target = delegate.getCache(cacheName);
+            return target == null ? null : new NearCache(target);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    void onInvalidate(String message) {
+        if (message == null) {
+            return;
+        }
+        int index = message.indexOf(KEY_SEPARATOR);
+        String cacheName = index < 0 ? message : message.substring(0, index);
+        NearCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (index < 0) {
+            cache.local.invalidateAll();
+        } else {
+            cache.local.invalidate(message.substring(index + 1));
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            redissonClient.getTopic(INVALIDATE_CHANNEL).publish(message);
+        } catch (Exception e) {
+            // Other nodes still drop the entry when its L1 TTL expires
+            log.warn("Failed to broadcast near cache invalidation, message: {}", message, e);
+        }
+    }
+
+    /**
+     * Redis keys are the string form of the cache key, so L1 uses the same form to make sure a
+     * broadcast eviction matches the entry regardless of the key type used by the caller.
+     */
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    class NearCache implements Cache {
+
+        private final Cache target;
+
+        private final com.google.common.cache.Cache<String, ValueWrapper> local;
+
+        NearCache(Cache target) {
+            this.target = target;
+            this.local = CacheBuilder.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(localTtl)
+                    .build();
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            String localKey = localKey(key);
+            ValueWrapper wrapper = local.getIfPresent(localKey);
+            if (wrapper != null) {
+                return wrapper;
+            }
+            wrapper = target.get(key);
+            if (wrapper != null) {
+                local.put(localKey, wrapper);
+            }
+            return wrapper;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper wrapper = get(key);
+            Object value = wrapper == null ? null : wrapper.get();
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper wrapper = get(key);
+            if (wrapper != null) {
+                return (T) wrapper.get();
+            }
+            T value = target.get(key, valueLoader);
+            if (value != null) {
+                local.put(localKey(key), new SimpleValueWrapper(value));
+            }
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+            if (value == null) {
+                local.invalidate(localKey(key));
+            } else {
+                local.put(localKey(key), new SimpleValueWrapper(value));
+            }
+        }
+
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+            local.invalidate(localKey(key));
+            publish(getName() + KEY_SEPARATOR + localKey(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean evicted = target.evictIfPresent(key);
+            local.invalidate(localKey(key));
+            publish(getName() + KEY_SEPARATOR + localKey(key));
+            return evicted;
+        }
+
+        @Override
+        public void clear() {
+            target.clear();
+            local.invalidateAll();
+            publish(getName());
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean invalidated = target.invalidate();
+            local.invalidateAll();
+            publish(getName());
+            return invalidated;
+        }
+    }
+}
@@ -4,6 +4,9 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -40,10 +43,32 @@ public class RedisCacheConfig implements CachingConfigurer {
         return RedisCacheManager.builder(redisConnectionFactory).cacheDefaults(config).build();
     }
 
+    /**
+     * Short-lived cache used by space/enterprise permission checks on every request. When the near
+     * cache is enabled, a local L1 sits in front of Redis and evictions are broadcast to all nodes.
+     */
     @Bean("cacheManager10s")
-    public CacheManager cacheManager10s(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager10s(RedisConnectionFactory redisConnectionFactory,
+            ObjectProvider<RedissonClient> redissonClientProvider,
+            @Value("${cache.near.enabled:true}") boolean nearCacheEnabled,
+            @Value("${cache.near.ttl-seconds:2}") long nearCacheTtlSeconds,
+            @Value("${cache.near.max-size:10000}") long nearCacheMaxSize) {
         RedisCacheConfiguration config = createBaseCacheConfiguration(Duration.ofSeconds(10));
-        return RedisCacheManager.builder(redisConnectionFactory).cacheDefaults(config).build();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory).cacheDefaults(config).build();
+        if (!nearCacheEnabled) {
+            return redisCacheManager;
+        }
+        RedissonClient redissonClient = redissonClientProvider.getIfAvailable();
+        if (redissonClient == null) {
+            log.warn("RedissonClient not available, near cache disabled for cacheManager10s");
+            return redisCacheManager;
+        }
+        // The delegate is not a bean of its own, so its lifecycle callback has to be run here
+        redisCacheManager.afterPropertiesSet();
+        NearCacheManager nearCacheManager = new NearCacheManager(redisCacheManager, redissonClient,
+                Duration.ofSeconds(nearCacheTtlSeconds), nearCacheMaxSize);
+        nearCacheManager.subscribe();
+        return nearCacheManager;
     }
 
     @Bean("cacheManager5min")
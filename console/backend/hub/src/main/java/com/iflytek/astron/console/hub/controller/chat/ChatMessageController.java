@@ -12,6 +12,7 @@ import com.iflytek.astron.console.commons.service.bot.ChatBotDataService;
 import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.service.data.ChatListDataService;
 import com.iflytek.astron.console.commons.util.SseEmitterUtil;
+import com.iflytek.astron.console.commons.util.StreamStopSignalChannel;
 import com.iflytek.astron.console.hub.dto.chat.BotDebugRequest;
 import com.iflytek.astron.console.commons.dto.bot.ChatBotReqDto;
 import com.iflytek.astron.console.commons.dto.bot.DebugChatBotReqDto;
@@ -22,13 +23,10 @@ import com.iflytek.astron.console.commons.entity.chat.ChatTreeIndex;
 import com.iflytek.astron.console.hub.service.chat.BotChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.redisson.api.RTopic;
-import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -57,9 +55,7 @@ public class ChatMessageController {
     private ChatDataService chatDataService;
 
     @Autowired
-    private RedissonClient redissonClient;
-
-    public static final String STOP_GENERATE_SUBSCRIBE_PUBLISH_CHANNEL = "stop_generate_sub_pub";
+    private StreamStopSignalChannel streamStopSignalChannel;
 
     /**
      * Conduct chat session based on chatId
@@ -260,22 +256,10 @@ public class ChatMessageController {
     @Operation(summary = "Stop generation")
     public StopStreamResponse stopStream(@RequestParam String streamId) {
         log.info("Stopping SSE stream, sseId: {}", streamId);
-        RTopic topic = redissonClient.getTopic(STOP_GENERATE_SUBSCRIBE_PUBLISH_CHANNEL);
-        topic.publish(streamId);
+        streamStopSignalChannel.stopStream(streamId);
         return StopStreamResponse.success(streamId);
     }
 
-    /**
-     * Subscribe method, used to subscribe to specified publish channel messages
-     */
-    @PostConstruct
-    public void subscribe() {
-        RTopic topic = redissonClient.getTopic(STOP_GENERATE_SUBSCRIBE_PUBLISH_CHANNEL);
-        topic.addListener(String.class, (channel, msg) -> {
-            SseEmitterUtil.stopStream(msg);
-        });
-    }
-
     /**
      * Regenerate conversation result
      */
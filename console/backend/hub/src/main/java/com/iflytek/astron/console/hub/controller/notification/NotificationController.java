@@ -5,6 +5,7 @@ import com.iflytek.astron.console.commons.util.RequestContextUtil;
 import com.iflytek.astron.console.hub.dto.notification.MarkReadRequest;
 import com.iflytek.astron.console.hub.dto.notification.NotificationPageResponse;
 import com.iflytek.astron.console.hub.dto.notification.NotificationQueryRequest;
+import com.iflytek.astron.console.hub.service.notification.NotificationPushService;
 import com.iflytek.astron.console.hub.service.notification.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,7 +13,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/notifications")
@@ -22,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationPushService notificationPushService;
 
     @GetMapping("/list")
     @Operation(summary = "Query current user's notification list", description = "Paginated query of current user's notification message list")
@@ -51,6 +55,15 @@ public class NotificationController {
         return ApiResult.success(unreadCount);
     }
 
+    @GetMapping(value = "/unread-count/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to current user's unread notification count", description = "SSE stream pushing the unread notification count on every change, replaces polling of the unread count")
+    public SseEmitter streamUnreadNotificationCount() {
+        String currentUserUid = RequestContextUtil.getUID();
+        log.debug("Subscribe user unread notification count: uid={}", currentUserUid);
+
+        return notificationPushService.connect(currentUserUid);
+    }
+
     @PostMapping("/mark-read")
     @Operation(summary = "Mark notifications as read", description = "Mark specified notification messages as read status")
     public ApiResult<Boolean> markNotificationsAsRead(@Valid @RequestBody MarkReadRequest request) {
@@ -0,0 +1,249 @@
+package com.iflytek.astron.console.hub.data.impl;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.iflytek.astron.console.hub.util.KnowledgePromptUtil;
+import com.iflytek.astron.console.hub.util.TokenCountUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Rolling context window of a bot chat, kept in Redis so that every node sees the same window.
+ * <p>
+ * The window holds the last {@code maxTurns} turns of a chat as one Redis hash with a field per
+ * part of a turn ({@code <reqId>:q} question, {@code <reqId>:k} question wrapped with its
+ * knowledge, {@code <reqId>:a} answer). Every part carries its content and precomputed token
+ * estimate. Parts are appended as they are saved, but only to a window that already exists; a
+ * window is complete once it has been loaded from the database, which is recorded by the
+ * {@code loaded} field. A window that misses the question of a request being answered is dropped and
+ * loaded again. Windows are deleted when the chat context is reset and expire when the chat
+ * is idle.
+ */
+@Slf4j
+@Component
+public class ChatContextWindowCache {
+
+    private static final String KEY_PREFIX = "chat_context_window:";
+
+    private static final String LOADED_FIELD = "loaded";
+
+    private static final String ASK = "q";
+
+    private static final String KNOWLEDGE_ASK = "k";
+
+    private static final String ANSWER = "a";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Value("${chat.context-window.max-turns:100}")
+    private int maxTurns = 100;
+
+    @Value("${chat.context-window.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    /**
+     * Message content with its estimated token count
+     */
+    public record Part(String content, int tokens) {
+
+        public static Part of(String content) {
+            return new Part(content, TokenCountUtil.estimate(content));
+        }
+    }
+
+    /**
+     * One question and answer of a chat
+     */
+    public record Turn(Long reqId, Part ask, Part knowledgeAsk, Part answer) {
+
+        public static Turn of(Long reqId, String ask, String knowledgeAsk, String answer) {
+            return new Turn(reqId,
+                    Part.of(ask),
+                    knowledgeAsk == null ? null : Part.of(knowledgeAsk),
+                    answer == null ? null : Part.of(answer));
+        }
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    /**
+     * Get the turns of a chat in chronological order, loading the window from the database on a miss
+     *
+     * @param uid User ID
+     * @param chatId Chat ID
+     * @param loader Loads the last turns of the chat from the database, in chronological order
+     * @return Turns of the chat, at most {@code maxTurns}
+     */
+    public List<Turn> getTurns(String uid, Long chatId, Supplier<List<Turn>> loader) {
+        RMap<String, String> window;
+        Map<String, String> fields;
+        try {
+            window = window(uid, chatId);
+            fields = new HashMap<>(window.readAllMap());
+        } catch (Exception e) {
+            log.warn("Read chat context window failed, load from database, uid: {}, chatId: {}", uid, chatId, e);
+            return loader.get();
+        }
+
+        if (!fields.containsKey(LOADED_FIELD)) {
+            // Parts appended after the window was dropped are newer than the database, keep them
+            Map<String, String> loaded = toFields(loader.get());
+            loaded.keySet().removeAll(fields.keySet());
+            loaded.put(LOADED_FIELD, "1");
+            fields.putAll(loaded);
+            try {
+                window.putAll(loaded);
+            } catch (Exception e) {
+                log.warn("Write chat context window failed, uid: {}, chatId: {}", uid, chatId, e);
+            }
+        }
+
+        List<Turn> turns = toTurns(fields);
+        if (turns.size() > maxTurns) {
+            List<Turn> dropped = turns.subList(0, turns.size() - maxTurns);
+            try {
+                window.fastRemove(dropped.stream()
+                        .flatMap(turn -> Stream.of(field(turn.reqId(), ASK), field(turn.reqId(), KNOWLEDGE_ASK), field(turn.reqId(), ANSWER)))
+                        .toArray(String[]::new));
+            } catch (Exception e) {
+                log.warn("Trim chat context window failed, uid: {}, chatId: {}", uid, chatId, e);
+            }
+            turns = new ArrayList<>(turns.subList(turns.size() - maxTurns, turns.size()));
+        }
+        try {
+            window.expire(Duration.ofHours(ttlHours));
+        } catch (Exception e) {
+            log.warn("Refresh chat context window expiry failed, uid: {}, chatId: {}", uid, chatId, e);
+        }
+        return turns;
+    }
+
+    /**
+     * Append the question of a new request
+     */
+    public void putAsk(String uid, Long chatId, Long reqId, String ask) {
+        putPart(uid, chatId, reqId, ASK, ask);
+    }
+
+    /**
+     * Record the knowledge recalled for a request, stored as the wrapped question
+     */
+    public void putKnowledge(String uid, Long chatId, Long reqId, String ask, String knowledge) {
+        if (StringUtils.isBlank(knowledge)) {
+            return;
+        }
+        putPart(uid, chatId, reqId, KNOWLEDGE_ASK, KnowledgePromptUtil.wrap(ask, knowledge));
+    }
+
+    /**
+     * Record the answer of a request, replacing the previous one when it is re-answered
+     */
+    public void putAnswer(String uid, Long chatId, Long reqId, String answer) {
+        putPart(uid, chatId, reqId, ANSWER, answer);
+    }
+
+    /**
+     * Drop the window of a chat, it is reloaded from the database on the next read
+     */
+    public void invalidate(String uid, Long chatId) {
+        try {
+            window(uid, chatId).delete();
+        } catch (Exception e) {
+            log.warn("Delete chat context window failed, uid: {}, chatId: {}", uid, chatId, e);
+        }
+    }
+
+    private void putPart(String uid, Long chatId, Long reqId, String type, String content) {
+        if (uid == null || chatId == null || reqId == null || content == null) {
+            return;
+        }
+        try {
+            RMap<String, String> window = window(uid, chatId);
+            // Only extend windows that are in use, a missing window is loaded from the database
+            if (!window.isExists()) {
+                return;
+            }
+            if (!ASK.equals(type) && !window.containsKey(field(reqId, ASK))) {
+                // The window missed the question of this request, a part without it would be skipped on read
+                log.info("Question missing from chat context window, drop it, uid: {}, chatId: {}, reqId: {}", uid, chatId, reqId);
+                window.delete();
+                return;
+            }
+            window.fastPut(field(reqId, type), encode(Part.of(content)));
+        } catch (Exception e) {
+            log.warn("Append to chat context window failed, drop it, uid: {}, chatId: {}, reqId: {}", uid, chatId, reqId, e);
+            invalidate(uid, chatId);
+        }
+    }
+
+    private RMap<String, String> window(String uid, Long chatId) {
+        return redissonClient.getMap(KEY_PREFIX + uid + ":" + chatId, StringCodec.INSTANCE);
+    }
+
+    private static String field(Long reqId, String type) {
+        return reqId + ":" + type;
+    }
+
+    private static Map<String, String> toFields(List<Turn> turns) {
+        Map<String, String> fields = new HashMap<>();
+        for (Turn turn : turns) {
+            fields.put(field(turn.reqId(), ASK), encode(turn.ask()));
+            if (turn.knowledgeAsk() != null) {
+                fields.put(field(turn.reqId(), KNOWLEDGE_ASK), encode(turn.knowledgeAsk()));
+            }
+            if (turn.answer() != null) {
+                fields.put(field(turn.reqId(), ANSWER), encode(turn.answer()));
+            }
+        }
+        return fields;
+    }
+
+    private static List<Turn> toTurns(Map<String, String> fields) {
+        Map<Long, Part[]> parts = new TreeMap<>();
+        fields.forEach((field, value) -> {
+            int index = field.indexOf(':');
+            if (index < 0) {
+                return;
+            }
+            Long reqId = Long.valueOf(field.substring(0, index));
+            Part[] turnParts = parts.computeIfAbsent(reqId, id -> new Part[3]);
+            switch (field.substring(index + 1)) {
+                case ASK -> turnParts[0] = decode(value);
+                case KNOWLEDGE_ASK -> turnParts[1] = decode(value);
+                case ANSWER -> turnParts[2] = decode(value);
+                default -> {
+                }
+            }
+        });
+        List<Turn> turns = new ArrayList<>(parts.size());
+        // Parts of a request whose question is not in the window (trimmed or not yet saved) are skipped
+        parts.forEach((reqId, turnParts) -> {
+            if (turnParts[0] != null) {
+                turns.add(new Turn(reqId, turnParts[0], turnParts[1], turnParts[2]));
+            }
+        });
+        return turns;
+    }
+
+    private static String encode(Part part) {
+        return new JSONObject().fluentPut("c", part.content()).fluentPut("t", part.tokens()).toJSONString();
+    }
+
+    private static Part decode(String value) {
+        JSONObject json = JSONObject.parseObject(value);
+        return new Part(json.getString("c"), json.getIntValue("t"));
+    }
+}
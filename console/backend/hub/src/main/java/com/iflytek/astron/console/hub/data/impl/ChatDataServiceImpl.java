@@ -67,6 +67,12 @@ public class ChatDataServiceImpl implements ChatDataService {
     @Autowired
     private BotChatFileParamMapper botChatFileParamMapper;
 
+    @Autowired
+    private ChatRecordWriteBehind chatRecordWriteBehind;
+
+    @Autowired
+    private ChatContextWindowCache chatContextWindowCache;
+
     public static final int MatHistoryNumbers = 8000;
 
     @Override
@@ -97,21 +103,9 @@ public class ChatDataServiceImpl implements ChatDataService {
         }
 
         chatReqRecordsMapper.insert(chatReqRecords);
-
-        LambdaUpdateWrapper<ChatList> updateWrapper = Wrappers.lambdaUpdate(ChatList.class);
-        updateWrapper.eq(ChatList::getId, chatReqRecords.getChatId());
-        updateWrapper.set(ChatList::getUpdateTime, LocalDateTime.now());
-        chatListMapper.update(null, updateWrapper);
-        LambdaQueryWrapper<ChatTreeIndex> chatTreeQuery = new LambdaQueryWrapper<ChatTreeIndex>()
-                .eq(ChatTreeIndex::getChildChatId, chatReqRecords.getChatId())
-                .eq(ChatTreeIndex::getUid, chatReqRecords.getUid())
-                .orderByAsc(ChatTreeIndex::getId);
-        List<ChatTreeIndex> childChatTreeIndexList = chatTreeIndexMapper.selectList(chatTreeQuery);
-        Long rootId = childChatTreeIndexList.getFirst().getRootChatId();
-        if (rootId != null && !rootId.equals(chatReqRecords.getChatId())) {
-            updateWrapper.eq(ChatList::getId, rootId);
-            chatListMapper.update(null, updateWrapper);
-        }
+        // The chat and its branch root are re-sorted by update time; the bump is coalesced per flush
+        chatRecordWriteBehind.touchChat(chatReqRecords.getChatId());
+        chatContextWindowCache.putAsk(chatReqRecords.getUid(), chatReqRecords.getChatId(), chatReqRecords.getId(), chatReqRecords.getMessage());
         return chatReqRecords;
     }
 
@@ -381,7 +375,9 @@ public class ChatDataServiceImpl implements ChatDataService {
         updateWrapper.eq(ChatReqRecords::getUid, uid);
         updateWrapper.eq(ChatReqRecords::getChatId, chatId);
         updateWrapper.set(ChatReqRecords::getNewContext, 1);
-        return chatReqRecordsMapper.update(null, updateWrapper);
+        Integer updated = chatReqRecordsMapper.update(null, updateWrapper);
+        chatContextWindowCache.invalidate(uid, chatId);
+        return updated;
     }
 
     @Override
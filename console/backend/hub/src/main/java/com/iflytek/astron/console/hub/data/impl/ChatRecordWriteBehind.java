@@ -0,0 +1,442 @@
+package com.iflytek.astron.console.hub.data.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.iflytek.astron.console.commons.entity.chat.*;
+import com.iflytek.astron.console.commons.mapper.chat.ChatListMapper;
+import com.iflytek.astron.console.commons.mapper.chat.ChatTreeIndexMapper;
+import com.iflytek.astron.console.hub.mapper.ChatReasonRecordsMapper;
+import com.iflytek.astron.console.hub.mapper.ChatRespRecordsMapper;
+import com.iflytek.astron.console.hub.mapper.ChatTraceSourceMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RList;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind stage for chat records written when a stream completes.
+ * <p>
+ * Response, reasoning and trace rows are appended to a Redis list and flushed in order by a
+ * scheduled task; consecutive inserts of the same table are written as one batch insert and
+ * edit-mode updates are applied by (uid, chatId, reqId) without a preceding select.
+ * {@code chat_list.update_time} bumps are coalesced per chat and applied, together with the root
+ * chat of each branch, in a single UPDATE per flush.
+ * <p>
+ * The list survives a crash or restart of the node that queued the records. One node at a time
+ * drains it (the flush lock), reading from the head and trimming each group once it is written, so
+ * records are applied in the order they were queued. A record whose write fails stays at the head
+ * and is retried by the next flush, up to {@code chat.write-behind.max-attempts} writes, and only
+ * then dropped and counted as failed; the records behind it wait, so an update never overtakes the
+ * insert of the same row. A node that dies in the middle of a group leaves that group at the head,
+ * so its rows may be written twice.
+ * <p>
+ * The list is bounded: when it is full, or Redis cannot be reached, the record is written
+ * synchronously on the caller thread instead of being dropped.
+ * <p>
+ * No read-your-writes: a record is in the database up to one flush interval (200ms by default) after
+ * the stream completed, so history read right after a stream ends may not contain its answer yet.
+ * The streamed answer itself has already reached the client.
+ */
+@Slf4j
+@Component
+public class ChatRecordWriteBehind {
+
+    private static final String METRIC_PREFIX = "chat.write_behind";
+
+    static final String QUEUE_KEY = "chat_record_write_behind:queue";
+
+    static final String FLUSH_LOCK_KEY = "chat_record_write_behind:flush_lock";
+
+    private static final int BATCH_SIZE = 500;
+
+    // KEYS: queue; ARGV: capacity, entry
+    // Returns the new length, or -1 when the queue is full
+    private static final String ENQUEUE_SCRIPT =
+            "if redis.call('llen', KEYS[1]) >= tonumber(ARGV[1]) then return -1 end " +
+                    "return redis.call('rpush', KEYS[1], ARGV[2])";
+
+    @Autowired
+    private ChatRespRecordsMapper chatRespRecordsMapper;
+
+    @Autowired
+    private ChatReasonRecordsMapper chatReasonRecordsMapper;
+
+    @Autowired
+    private ChatTraceSourceMapper chatTraceSourceMapper;
+
+    @Autowired
+    private ChatListMapper chatListMapper;
+
+    @Autowired
+    private ChatTreeIndexMapper chatTreeIndexMapper;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.write-behind.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${chat.write-behind.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    /** Queue length last seen by this node */
+    private final AtomicLong queueSize = new AtomicLong();
+
+    private final Map<Long, LocalDateTime> pendingChatTouches = new ConcurrentHashMap<>();
+
+    /** Head entry whose write failed and the writes it used, only touched while holding the flush lock */
+    private String failingEntry;
+
+    private int failingAttempts;
+
+    private Counter syncFallbackCounter;
+
+    private Counter failedCounter;
+
+    private Counter retryCounter;
+
+    enum Kind {
+        RESP_INSERT(ChatRespRecords.class),
+        REASON_INSERT(ChatReasonRecords.class),
+        TRACE_INSERT(ChatTraceSource.class),
+        RESP_UPDATE(ChatRespRecords.class),
+        REASON_UPDATE(ChatReasonRecords.class),
+        TRACE_UPDATE(ChatTraceSource.class);
+
+        private final Class<?> recordType;
+
+        Kind(Class<?> recordType) {
+            this.recordType = recordType;
+        }
+    }
+
+    record Op(Kind kind, Object record) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder(METRIC_PREFIX + ".queue.size", queueSize, AtomicLong::get)
+                .description("Chat records waiting to be written, as last seen by this node")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending.chat.touches", pendingChatTouches, Map::size)
+                .register(meterRegistry);
+        syncFallbackCounter = Counter.builder(METRIC_PREFIX + ".sync.fallback")
+                .description("Records written on the caller thread because the queue was full or unavailable")
+                .register(meterRegistry);
+        failedCounter = Counter.builder(METRIC_PREFIX + ".failed")
+                .description("Records that could not be written")
+                .register(meterRegistry);
+        retryCounter = Counter.builder(METRIC_PREFIX + ".retried")
+                .description("Failed writes left at the head of the queue for the next flush")
+                .register(meterRegistry);
+    }
+
+    public void saveResponse(ChatRespRecords record) {
+        enqueue(new Op(Kind.RESP_INSERT, record));
+    }
+
+    public void saveReason(ChatReasonRecords record) {
+        enqueue(new Op(Kind.REASON_INSERT, record));
+    }
+
+    public void saveTraceSource(ChatTraceSource record) {
+        enqueue(new Op(Kind.TRACE_INSERT, record));
+    }
+
+    /**
+     * Update the response of a request, matched by uid, chatId and reqId
+     */
+    public void updateResponse(ChatRespRecords record) {
+        enqueue(new Op(Kind.RESP_UPDATE, record));
+    }
+
+    /**
+     * Update the reasoning record of a request, matched by uid, chatId and reqId
+     */
+    public void updateReason(ChatReasonRecords record) {
+        enqueue(new Op(Kind.REASON_UPDATE, record));
+    }
+
+    /**
+     * Update the trace record of a request, matched by uid, chatId and reqId
+     */
+    public void updateTraceSource(ChatTraceSource record) {
+        enqueue(new Op(Kind.TRACE_UPDATE, record));
+    }
+
+    /**
+     * Bump the update time of a chat and of the root chat of its branch
+     *
+     * @param chatId Chat ID
+     */
+    public void touchChat(Long chatId) {
+        if (chatId != null) {
+            pendingChatTouches.put(chatId, LocalDateTime.now());
+        }
+    }
+
+    private void enqueue(Op op) {
+        try {
+            Long length = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE,
+                    ENQUEUE_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    List.of(QUEUE_KEY),
+                    String.valueOf(queueCapacity), encode(op));
+            if (length != null && length >= 0) {
+                queueSize.set(length);
+                return;
+            }
+            // Backpressure: the queue is full, write on the caller thread instead of dropping
+            log.warn("Chat record write-behind queue is full, write synchronously, kind: {}", op.kind());
+        } catch (Exception e) {
+            log.warn("Failed to queue chat record, write synchronously, kind: {}", op.kind(), e);
+        }
+        if (syncFallbackCounter != null) {
+            syncFallbackCounter.increment();
+        }
+        if (!writeSingle(op)) {
+            countFailed(op);
+        }
+    }
+
+    /**
+     * Flush queued records and coalesced chat update time bumps
+     */
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        RLock lock = redissonClient.getLock(FLUSH_LOCK_KEY);
+        boolean locked = false;
+        try {
+            // Another node is draining, the records are applied in order there
+            locked = lock.tryLock();
+            if (locked) {
+                drain();
+            }
+        } catch (Exception e) {
+            log.error("Flush chat record queue failed", e);
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+        flushChatTouches();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * Apply queued operations from the head, grouping consecutive inserts into the same table into one
+     * batch and trimming each group once it is written. Stops at a write that fails, so that it is
+     * retried before the operations behind it.
+     */
+    private void drain() {
+        RList<String> queue = redissonClient.getList(QUEUE_KEY, StringCodec.INSTANCE);
+        List<String> entries;
+        while (!(entries = queue.range(0, BATCH_SIZE - 1)).isEmpty()) {
+            List<Op> ops = new ArrayList<>(entries.size());
+            for (String entry : entries) {
+                ops.add(decode(entry));
+            }
+            int start = 0;
+            while (start < ops.size()) {
+                int end = groupEnd(ops, start);
+                int done = apply(entries, ops, start, end);
+                queue.trim(done, -1);
+                if (start + done < end) {
+                    queueSize.set(queue.size());
+                    return;
+                }
+                start = end;
+            }
+        }
+        queueSize.set(0);
+    }
+
+    private static int groupEnd(List<Op> ops, int start) {
+        Op first = ops.get(start);
+        int end = start + 1;
+        if (first != null && isInsert(first.kind())) {
+            while (end < ops.size() && ops.get(end) != null && ops.get(end).kind() == first.kind()) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Write the operations of one group
+     *
+     * @return Number of leading operations written or dropped; less than the group size when one
+     *         failed and is left for the next flush
+     */
+    private int apply(List<String> entries, List<Op> ops, int start, int end) {
+        Op first = ops.get(start);
+        if (first == null) {
+            // Unreadable entry, nothing to retry
+            return 1;
+        }
+        if (end - start > 1) {
+            List<Object> records = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                records.add(ops.get(i).record());
+            }
+            try {
+                write(first.kind(), records);
+                return end - start;
+            } catch (Exception e) {
+                log.error("Write chat records failed, retry one by one, kind: {}, size: {}", first.kind(), records.size(), e);
+            }
+        }
+        // One by one so that a single bad row does not fail the whole batch
+        for (int i = start; i < end; i++) {
+            if (writeSingle(ops.get(i))) {
+                continue;
+            }
+            if (!entries.get(i).equals(failingEntry)) {
+                failingEntry = entries.get(i);
+                failingAttempts = 0;
+            }
+            if (++failingAttempts < maxAttempts) {
+                if (retryCounter != null) {
+                    retryCounter.increment();
+                }
+                return i - start;
+            }
+            failingEntry = null;
+            countFailed(ops.get(i));
+        }
+        return end - start;
+    }
+
+    private boolean writeSingle(Op op) {
+        try {
+            write(op.kind(), List.of(op.record()));
+            return true;
+        } catch (Exception e) {
+            log.error("Write chat record failed, kind: {}, record: {}", op.kind(), op.record(), e);
+            return false;
+        }
+    }
+
+    private void countFailed(Op op) {
+        log.error("Chat record dropped after failed writes, kind: {}, record: {}", op.kind(), op.record());
+        if (failedCounter != null) {
+            failedCounter.increment();
+        }
+    }
+
+    static String encode(Op op) {
+        return JSONObject.of("kind", op.kind().name(), "record", op.record()).toJSONString();
+    }
+
+    /**
+     * @return Operation of a queued entry, null when it cannot be read
+     */
+    static Op decode(String entry) {
+        try {
+            JSONObject json = JSON.parseObject(entry);
+            Kind kind = Kind.valueOf(json.getString("kind"));
+            return new Op(kind, json.getObject("record", kind.recordType));
+        } catch (Exception e) {
+            log.error("Unreadable chat record queue entry dropped: {}", entry, e);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(Kind kind, List<?> records) {
+        switch (kind) {
+            case RESP_INSERT -> chatRespRecordsMapper.insert((List<ChatRespRecords>) records);
+            case REASON_INSERT -> chatReasonRecordsMapper.insert((List<ChatReasonRecords>) records);
+            case TRACE_INSERT -> chatTraceSourceMapper.insert((List<ChatTraceSource>) records);
+            case RESP_UPDATE -> {
+                ChatRespRecords r = (ChatRespRecords) records.getFirst();
+                chatRespRecordsMapper.update(r, Wrappers.lambdaUpdate(ChatRespRecords.class)
+                        .eq(ChatRespRecords::getUid, r.getUid())
+                        .eq(ChatRespRecords::getChatId, r.getChatId())
+                        .eq(ChatRespRecords::getReqId, r.getReqId()));
+            }
+            case REASON_UPDATE -> {
+                ChatReasonRecords r = (ChatReasonRecords) records.getFirst();
+                chatReasonRecordsMapper.update(r, Wrappers.lambdaUpdate(ChatReasonRecords.class)
+                        .eq(ChatReasonRecords::getUid, r.getUid())
+                        .eq(ChatReasonRecords::getChatId, r.getChatId())
+                        .eq(ChatReasonRecords::getReqId, r.getReqId()));
+            }
+            case TRACE_UPDATE -> {
+                ChatTraceSource r = (ChatTraceSource) records.getFirst();
+                chatTraceSourceMapper.update(r, Wrappers.lambdaUpdate(ChatTraceSource.class)
+                        .eq(ChatTraceSource::getUid, r.getUid())
+                        .eq(ChatTraceSource::getChatId, r.getChatId())
+                        .eq(ChatTraceSource::getReqId, r.getReqId()));
+            }
+        }
+    }
+
+    private static boolean isInsert(Kind kind) {
+        return kind == Kind.RESP_INSERT || kind == Kind.REASON_INSERT || kind == Kind.TRACE_INSERT;
+    }
+
+    private void flushChatTouches() {
+        if (pendingChatTouches.isEmpty()) {
+            return;
+        }
+        Set<Long> chatIds = new HashSet<>();
+        LocalDateTime updateTime = null;
+        for (Long chatId : new ArrayList<>(pendingChatTouches.keySet())) {
+            LocalDateTime touchedAt = pendingChatTouches.remove(chatId);
+            if (touchedAt != null) {
+                chatIds.add(chatId);
+                updateTime = updateTime == null || touchedAt.isAfter(updateTime) ? touchedAt : updateTime;
+            }
+        }
+        if (chatIds.isEmpty()) {
+            return;
+        }
+        try {
+            // Root chat of each branch, taken from the first tree index row of the child chat
+            Map<Long, Long> rootByChild = new HashMap<>();
+            chatTreeIndexMapper.selectList(Wrappers.lambdaQuery(ChatTreeIndex.class)
+                    .in(ChatTreeIndex::getChildChatId, chatIds)
+                    .orderByAsc(ChatTreeIndex::getId))
+                    .forEach(index -> rootByChild.putIfAbsent(index.getChildChatId(), index.getRootChatId()));
+            Set<Long> ids = new HashSet<>(chatIds);
+            rootByChild.values().stream().filter(Objects::nonNull).forEach(ids::add);
+            chatListMapper.update(null, Wrappers.lambdaUpdate(ChatList.class)
+                    .set(ChatList::getUpdateTime, updateTime)
+                    .in(ChatList::getId, ids));
+        } catch (Exception e) {
+            log.error("Flush chat update time failed, size: {}", chatIds.size(), e);
+            // Keep the bumps so that they are retried on the next flush
+            LocalDateTime retryTime = updateTime;
+            chatIds.forEach(chatId -> pendingChatTouches.merge(chatId, retryTime, (a, b) -> a.isAfter(b) ? a : b));
+        }
+    }
+}
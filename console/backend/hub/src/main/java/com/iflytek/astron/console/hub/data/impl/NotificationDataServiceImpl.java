@@ -23,15 +23,13 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class NotificationDataServiceImpl implements NotificationDataService {
     // Cache key constants
-    private static final String USER_UNREAD_COUNT_CACHE = "user_unread_count";
     private static final String USER_TOTAL_COUNT_CACHE = "user_total_count";
     private static final String BROADCAST_COUNT_INTERNAL_CACHE = "broadcast_count_internal";
     private static final String USER_VISIBLE_BROADCAST_COUNT_CACHE = "user_visible_broadcast_count";
@@ -41,6 +39,8 @@ public class NotificationDataServiceImpl implements NotificationDataService {
     private final UserBroadcastReadMapper userBroadcastReadMapper;
     private final CacheManager cacheManager;
     private final UserInfoDataService userInfoDataService;
+    private final NotificationUnreadCounter unreadCounter;
+    private final NotificationUnreadCounter.Loader unreadCountLoader = new UnreadCountLoader();
 
     // Inject self proxy to solve @Cacheable internal call failure problem
     @Lazy
@@ -52,12 +52,14 @@ public class NotificationDataServiceImpl implements NotificationDataService {
             UserBroadcastReadMapper userBroadcastReadMapper,
             @Qualifier("cacheManager5min") CacheManager cacheManager,
             UserInfoDataService userInfoDataService,
+            NotificationUnreadCounter unreadCounter,
             @Lazy NotificationDataService self) {
         this.notificationMapper = notificationMapper;
         this.userNotificationMapper = userNotificationMapper;
         this.userBroadcastReadMapper = userBroadcastReadMapper;
         this.cacheManager = cacheManager;
         this.userInfoDataService = userInfoDataService;
+        this.unreadCounter = unreadCounter;
         this.self = self;
     }
 
@@ -75,6 +77,8 @@ public class NotificationDataServiceImpl implements NotificationDataService {
         if (notification.getType() != null && NotificationType.BROADCAST.getCode().equals(notification.getType())) {
             // Broadcast message: evict internal broadcast count cache
             evictBroadcastCountInternalCache();
+            unreadCounter.addBroadcast(new NotificationUnreadCounter.Broadcast(
+                    notification.getId(), notification.getCreatedAt(), notification.getExpireAt()));
             log.debug("Created broadcast notification: {}", notification.getId());
         }
         // Personal messages do not evict cache here, evict when sent to specific users
@@ -95,11 +99,13 @@ public class NotificationDataServiceImpl implements NotificationDataService {
                 throw new IllegalStateException("Batch insert of user notifications incomplete");
             }
 
-            // Precisely evict cache for affected users
+            // Precisely evict cache and count the new unread messages for affected users
             userNotifications.stream()
-                    .map(UserNotification::getReceiverUid)
-                    .distinct()
-                    .forEach(this::evictUserCountCaches);
+                    .collect(Collectors.groupingBy(UserNotification::getReceiverUid, Collectors.counting()))
+                    .forEach((receiverUid, count) -> {
+                        evictUserCountCaches(receiverUid);
+                        unreadCounter.addPersonal(receiverUid, count);
+                    });
 
             log.debug("Batch created {} user notifications successfully", userNotifications.size());
             return result;
@@ -124,11 +130,11 @@ public class NotificationDataServiceImpl implements NotificationDataService {
         readRecords.forEach(r -> r.setReadAt(LocalDateTime.now()));
         int batchInsertCount = userBroadcastReadMapper.batchInsert(readRecords);
 
-        // Precisely evict unread count cache for affected users
+        // Record the read broadcasts of affected users
         readRecords.stream()
-                .map(UserBroadcastRead::getReceiverUid)
-                .distinct()
-                .forEach(this::evictUserUnreadCountCache);
+                .collect(Collectors.groupingBy(UserBroadcastRead::getReceiverUid,
+                        Collectors.mapping(UserBroadcastRead::getNotificationId, Collectors.toList())))
+                .forEach(unreadCounter::addReadBroadcasts);
 
         return batchInsertCount;
     }
@@ -159,8 +165,12 @@ public class NotificationDataServiceImpl implements NotificationDataService {
     }
 
     @Override
-    @Cacheable(value = USER_UNREAD_COUNT_CACHE, key = "#receiverUid", cacheManager = "cacheManager5min")
     public long countUserUnreadNotifications(String receiverUid) {
+        // Served from the Redis counters, counted from the database only when Redis is unavailable
+        Long unreadCount = unreadCounter.count(receiverUid, unreadCountLoader);
+        if (unreadCount != null) {
+            return unreadCount;
+        }
         try {
             // Count personal unread messages
             int unreadPersonalCount = userNotificationMapper.countUnreadByUid(receiverUid);
@@ -229,9 +239,10 @@ public class NotificationDataServiceImpl implements NotificationDataService {
 
     @Override
     public int markUserNotificationsAsRead(String receiverUid, List<Long> notificationIds) {
+        // Only unexpired messages are marked, they are the ones the personal counter includes
         int result = userNotificationMapper.batchMarkAsRead(receiverUid, notificationIds);
         if (result > 0) {
-            evictUserUnreadCountCache(receiverUid);
+            unreadCounter.addPersonal(receiverUid, -result);
         }
         return result;
     }
@@ -240,7 +251,7 @@ public class NotificationDataServiceImpl implements NotificationDataService {
     public int markAllUserNotificationsAsRead(String receiverUid) {
         int result = userNotificationMapper.markAllAsRead(receiverUid);
         if (result > 0) {
-            evictUserUnreadCountCache(receiverUid);
+            unreadCounter.clearPersonal(receiverUid);
         }
         return result;
     }
@@ -251,6 +262,7 @@ public class NotificationDataServiceImpl implements NotificationDataService {
         if (result > 0) {
             // Expiry deletion affects all caches, but frequency is low
             evictAllCaches();
+            unreadCounter.resetBroadcasts();
         }
         return result;
     }
@@ -263,6 +275,7 @@ public class NotificationDataServiceImpl implements NotificationDataService {
         int result = userNotificationMapper.delete(queryWrapper);
         if (result > 0) {
             evictUserCountCaches(receiverUid);
+            unreadCounter.reset(receiverUid);
         }
         return result;
     }
@@ -307,35 +320,41 @@ public class NotificationDataServiceImpl implements NotificationDataService {
      * Get broadcast message DTO list
      */
     private List<NotificationDto> getBroadcastNotificationDtos(String receiverUid, int remainingLimit, boolean unreadOnly) {
-        List<Notification> broadcastNotifications = notificationMapper.selectByType(
-                NotificationType.BROADCAST.getCode(), 0, remainingLimit * 2);
-
-        if (broadcastNotifications.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<Long> broadcastIds = broadcastNotifications.stream()
-                .map(Notification::getId)
-                .toList();
-        List<Long> readBroadcastIds = userBroadcastReadMapper.selectReadBroadcastIds(receiverUid, broadcastIds);
-
         List<NotificationDto> result = new ArrayList<>();
-        for (Notification broadcast : broadcastNotifications) {
-            boolean isRead = readBroadcastIds.contains(broadcast.getId());
-
-            // Decide whether to include this message based on unreadOnly parameter
-            if (!unreadOnly || !isRead) {
-                NotificationDto dto = convertToDto(broadcast);
-                dto.setIsRead(isRead);
-                // Set broadcast message receive time to creation time, consistent with business logic
-                dto.setReceivedAt(broadcast.getCreatedAt());
-                result.add(dto);
-
-                if (result.size() >= remainingLimit) {
-                    break;
+        // Read messages are skipped for unreadOnly, so keep reading batches until the limit is reached
+        int batchSize = Math.max(remainingLimit * 2, 20);
+        int offset = 0;
+        List<Notification> broadcastNotifications;
+        do {
+            broadcastNotifications = notificationMapper.selectByType(
+                    NotificationType.BROADCAST.getCode(), offset, batchSize);
+            if (broadcastNotifications.isEmpty()) {
+                break;
+            }
+
+            List<Long> broadcastIds = broadcastNotifications.stream()
+                    .map(Notification::getId)
+                    .toList();
+            Set<Long> readBroadcastIds = new HashSet<>(userBroadcastReadMapper.selectReadBroadcastIds(receiverUid, broadcastIds));
+
+            for (Notification broadcast : broadcastNotifications) {
+                boolean isRead = readBroadcastIds.contains(broadcast.getId());
+
+                // Decide whether to include this message based on unreadOnly parameter
+                if (!unreadOnly || !isRead) {
+                    NotificationDto dto = convertToDto(broadcast);
+                    dto.setIsRead(isRead);
+                    // Set broadcast message receive time to creation time, consistent with business logic
+                    dto.setReceivedAt(broadcast.getCreatedAt());
+                    result.add(dto);
+
+                    if (result.size() >= remainingLimit) {
+                        return result;
+                    }
                 }
             }
-        }
+            offset += batchSize;
+        } while (unreadOnly && broadcastNotifications.size() == batchSize);
         return result;
     }
 
@@ -393,26 +412,10 @@ public class NotificationDataServiceImpl implements NotificationDataService {
         }
     }
 
-    /**
-     * Evict user unread count cache
-     */
-    private void evictUserUnreadCountCache(String userId) {
-        try {
-            var cache = cacheManager.getCache(USER_UNREAD_COUNT_CACHE);
-            if (cache != null) {
-                cache.evict(userId);
-                log.debug("Evicted user unread count cache for user: {}", userId);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to evict user unread count cache for user: {}", userId, e);
-        }
-    }
-
     /**
      * Evict all user count caches
      */
     private void evictUserCountCaches(String userId) {
-        evictUserUnreadCountCache(userId);
         evictUserTotalCountCache(userId);
         evictUserVisibleBroadcastCountCache(userId);
     }
@@ -468,11 +471,6 @@ public class NotificationDataServiceImpl implements NotificationDataService {
     private void evictAllCaches() {
         try {
             // Clear all user-related caches
-            var unreadCache = cacheManager.getCache(USER_UNREAD_COUNT_CACHE);
-            if (unreadCache != null) {
-                unreadCache.clear();
-            }
-
             var totalCache = cacheManager.getCache(USER_TOTAL_COUNT_CACHE);
             if (totalCache != null) {
                 totalCache.clear();
@@ -491,4 +489,37 @@ public class NotificationDataServiceImpl implements NotificationDataService {
             log.warn("Failed to evict all notification caches", e);
         }
     }
+
+    /**
+     * Loads the unread counters of a user from the database
+     */
+    private class UnreadCountLoader implements NotificationUnreadCounter.Loader {
+
+        @Override
+        public long countPersonalUnread(String uid) {
+            return userNotificationMapper.countUnreadByUid(uid);
+        }
+
+        @Override
+        public LocalDateTime broadcastsVisibleSince(String uid) {
+            // Broadcast messages after user registration
+            return userInfoDataService.findByUid(uid)
+                    .map(userInfo -> userInfo.getCreateTime())
+                    .orElse(null);
+        }
+
+        @Override
+        public Collection<Long> readBroadcastIds(String uid) {
+            return userBroadcastReadMapper.selectReadBroadcastIds(uid, Collections.emptyList());
+        }
+
+        @Override
+        public Collection<NotificationUnreadCounter.Broadcast> broadcasts() {
+            return notificationMapper.selectList(createBroadcastQueryWrapper()
+                    .select(Notification::getId, Notification::getCreatedAt, Notification::getExpireAt))
+                    .stream()
+                    .map(n -> new NotificationUnreadCounter.Broadcast(n.getId(), n.getCreatedAt(), n.getExpireAt()))
+                    .toList();
+        }
+    }
 }
@@ -0,0 +1,330 @@
+package com.iflytek.astron.console.hub.data.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Unread notification counts of users, maintained in Redis.
+ * <p>
+ * A user has a hash with the unread count of personal notifications ({@code personal}) and the time
+ * from which broadcasts are visible to the user ({@code since}, the registration time), and a set
+ * with the IDs of the broadcasts the user has read. Broadcasts are shared by all users as a sorted
+ * set scored by creation time, next to a sorted set of their expiry times. The unread count is
+ * {@code personal + visible broadcasts not read}: one Lua script drops expired broadcasts and returns
+ * the live ones, a second one counts them against the user's keys.
+ * </p>
+ * <p>
+ * Sends and reads update the keys that exist; a missing key is loaded from the database by the next
+ * count. Personal counters expire after a while so that expired personal notifications and missed
+ * updates do not stay counted. Every change is published on a topic with the user ID, or {@code *}
+ * for all users, so online clients can be pushed the new count. Updates made inside a transaction
+ * are applied after commit.
+ * </p>
+ * <p>
+ * The keys of a user share the {@code {notification:<uid>}} hash tag and the broadcast keys the
+ * {@code {notification:broadcasts}} one, so each script touches a single slot on Redis Cluster while
+ * users are spread over the cluster.
+ * </p>
+ */
+@Slf4j
+@Component
+public class NotificationUnreadCounter {
+
+    public static final String CHANGED_CHANNEL = "notification:unread_changed";
+
+    /** Topic message for a change that affects all users */
+    public static final String ALL_USERS = "*";
+
+    private static final String USER_KEY_FORMAT = "notification:{notification:%s}:unread";
+
+    private static final String READ_KEY_FORMAT = "notification:{notification:%s}:broadcast_read";
+
+    static final String BROADCAST_KEY = "notification:{notification:broadcasts}:all";
+
+    static final String BROADCAST_EXPIRE_KEY = "notification:{notification:broadcasts}:expire";
+
+    static final String BROADCAST_LOADED_KEY = "notification:{notification:broadcasts}:loaded";
+
+    /** Member of every loaded read set, so that a user without reads still has the key */
+    private static final String LOADED_MEMBER = "-";
+
+    // KEYS: broadcasts, broadcast expiry, broadcasts loaded; ARGV: now
+    // Returns the live broadcasts as ID, creation time pairs, or nil when they have to be loaded first
+    private static final String BROADCASTS_SCRIPT =
+            "if redis.call('exists', KEYS[3]) == 0 then return false end " +
+                    "for _, id in ipairs(redis.call('zrangebyscore', KEYS[2], '-inf', ARGV[1])) do " +
+                    "redis.call('zrem', KEYS[1], id) redis.call('zrem', KEYS[2], id) end " +
+                    "return redis.call('zrange', KEYS[1], 0, -1, 'withscores')";
+
+    // KEYS: user hash, user read set; ARGV: live broadcasts as ID, creation time pairs
+    // Returns -1 when a key has to be loaded first
+    private static final String COUNT_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 or redis.call('exists', KEYS[2]) == 0 then return -1 end " +
+                    "local personal = tonumber(redis.call('hget', KEYS[1], 'personal') or '0') " +
+                    "if personal < 0 then personal = 0 end " +
+                    "local since = tonumber(redis.call('hget', KEYS[1], 'since') or '-1') " +
+                    "if since < 0 then return personal end " +
+                    "local unread = 0 " +
+                    "for i = 1, #ARGV, 2 do " +
+                    "if tonumber(ARGV[i + 1]) >= since and redis.call('sismember', KEYS[2], ARGV[i]) == 0 " +
+                    "then unread = unread + 1 end end " +
+                    "return personal + unread";
+
+    // KEYS: user hash; ARGV: delta
+    private static final String ADD_PERSONAL_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+                    "local count = redis.call('hincrby', KEYS[1], 'personal', ARGV[1]) " +
+                    "if count < 0 then redis.call('hset', KEYS[1], 'personal', 0) end " +
+                    "return 1";
+
+    // KEYS: user hash
+    private static final String CLEAR_PERSONAL_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+                    "redis.call('hset', KEYS[1], 'personal', 0) " +
+                    "return 1";
+
+    // KEYS: broadcasts, broadcast expiry, broadcasts loaded; ARGV: id, created at, expire at ('' for none)
+    private static final String ADD_BROADCAST_SCRIPT =
+            "if redis.call('exists', KEYS[3]) == 0 then return 0 end " +
+                    "redis.call('zadd', KEYS[1], ARGV[2], ARGV[1]) " +
+                    "if ARGV[3] ~= '' then redis.call('zadd', KEYS[2], ARGV[3], ARGV[1]) end " +
+                    "return 1";
+
+    // KEYS: user read set; ARGV: broadcast IDs
+    private static final String ADD_READ_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+                    "redis.call('sadd', KEYS[1], unpack(ARGV)) " +
+                    "return 1";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Value("${notification.unread-counter.ttl-minutes:30}")
+    private long ttlMinutes = 30;
+
+    /**
+     * A broadcast of the shared set
+     */
+    public record Broadcast(Long id, LocalDateTime createdAt, LocalDateTime expireAt) {
+    }
+
+    /**
+     * What a user's counts are loaded from
+     */
+    public interface Loader {
+
+        /** Unread personal notifications, expired ones excluded */
+        long countPersonalUnread(String uid);
+
+        /** Time from which broadcasts are visible to the user, null when none are */
+        LocalDateTime broadcastsVisibleSince(String uid);
+
+        /** IDs of the broadcasts read by the user */
+        Collection<Long> readBroadcastIds(String uid);
+
+        /** Broadcasts that have not expired */
+        Collection<Broadcast> broadcasts();
+    }
+
+    /**
+     * Unread count of a user, loading the missing keys with the loader
+     *
+     * @return unread count, or null when Redis cannot serve it
+     */
+    public Long count(String uid, Loader loader) {
+        try {
+            long count = runCount(uid);
+            if (count >= 0) {
+                return count;
+            }
+            load(uid, loader);
+            count = runCount(uid);
+            return count >= 0 ? count : null;
+        } catch (Exception e) {
+            log.warn("Failed to count unread notifications in Redis, uid={}", uid, e);
+            return null;
+        }
+    }
+
+    /**
+     * Personal notifications received (positive) or read (negative)
+     */
+    public void addPersonal(String uid, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            eval(ADD_PERSONAL_SCRIPT, List.of(userKey(uid)), String.valueOf(delta));
+            publish(uid);
+        });
+    }
+
+    /**
+     * All personal notifications of the user were read
+     */
+    public void clearPersonal(String uid) {
+        afterCommit(() -> {
+            eval(CLEAR_PERSONAL_SCRIPT, List.of(userKey(uid)));
+            publish(uid);
+        });
+    }
+
+    /**
+     * Drop the counts of a user, they are loaded again by the next count
+     */
+    public void reset(String uid) {
+        afterCommit(() -> {
+            redissonClient.getKeys().delete(userKey(uid));
+            publish(uid);
+        });
+    }
+
+    /**
+     * A broadcast was sent
+     */
+    public void addBroadcast(Broadcast broadcast) {
+        afterCommit(() -> {
+            eval(ADD_BROADCAST_SCRIPT, List.of(BROADCAST_KEY, BROADCAST_EXPIRE_KEY, BROADCAST_LOADED_KEY),
+                    String.valueOf(broadcast.id()),
+                    String.valueOf(toMillis(broadcast.createdAt())),
+                    broadcast.expireAt() == null ? "" : String.valueOf(toMillis(broadcast.expireAt())));
+            publish(ALL_USERS);
+        });
+    }
+
+    /**
+     * Broadcasts were read by a user
+     */
+    public void addReadBroadcasts(String uid, Collection<Long> broadcastIds) {
+        if (broadcastIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            eval(ADD_READ_SCRIPT, List.of(readKey(uid)), broadcastIds.stream().map(String::valueOf).toArray());
+            publish(uid);
+        });
+    }
+
+    /**
+     * Notifications were deleted in bulk, drop the shared broadcasts; personal counters expire on
+     * their own
+     */
+    public void resetBroadcasts() {
+        afterCommit(() -> {
+            redissonClient.getKeys().delete(BROADCAST_LOADED_KEY, BROADCAST_KEY, BROADCAST_EXPIRE_KEY);
+            publish(ALL_USERS);
+        });
+    }
+
+    private long runCount(String uid) {
+        RScript script = redissonClient.getScript(StringCodec.INSTANCE);
+        List<Object> broadcasts = script.eval(
+                RScript.Mode.READ_WRITE,
+                BROADCASTS_SCRIPT,
+                RScript.ReturnType.MULTI,
+                List.of(BROADCAST_KEY, BROADCAST_EXPIRE_KEY, BROADCAST_LOADED_KEY),
+                String.valueOf(System.currentTimeMillis()));
+        if (broadcasts == null) {
+            return -1;
+        }
+        Long result = script.eval(
+                RScript.Mode.READ_ONLY,
+                COUNT_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                List.of(userKey(uid), readKey(uid)),
+                broadcasts.toArray());
+        return result == null ? -1 : result;
+    }
+
+    private void load(String uid, Loader loader) {
+        if (!redissonClient.getBucket(BROADCAST_LOADED_KEY, StringCodec.INSTANCE).isExists()) {
+            Map<String, Double> created = new HashMap<>();
+            Map<String, Double> expire = new HashMap<>();
+            for (Broadcast broadcast : loader.broadcasts()) {
+                created.put(String.valueOf(broadcast.id()), (double) toMillis(broadcast.createdAt()));
+                if (broadcast.expireAt() != null) {
+                    expire.put(String.valueOf(broadcast.id()), (double) toMillis(broadcast.expireAt()));
+                }
+            }
+            redissonClient.getKeys().delete(BROADCAST_KEY, BROADCAST_EXPIRE_KEY);
+            if (!created.isEmpty()) {
+                redissonClient.<String>getScoredSortedSet(BROADCAST_KEY, StringCodec.INSTANCE).addAll(created);
+            }
+            if (!expire.isEmpty()) {
+                redissonClient.<String>getScoredSortedSet(BROADCAST_EXPIRE_KEY, StringCodec.INSTANCE).addAll(expire);
+            }
+            redissonClient.getBucket(BROADCAST_LOADED_KEY, StringCodec.INSTANCE).set("1", Duration.ofMinutes(ttlMinutes * 2));
+        }
+        if (!redissonClient.getSet(readKey(uid), StringCodec.INSTANCE).isExists()) {
+            Set<String> readIds = new HashSet<>();
+            readIds.add(LOADED_MEMBER);
+            loader.readBroadcastIds(uid).forEach(id -> readIds.add(String.valueOf(id)));
+            redissonClient.<String>getSet(readKey(uid), StringCodec.INSTANCE).addAll(readIds);
+            redissonClient.getSet(readKey(uid), StringCodec.INSTANCE).expire(Duration.ofMinutes(ttlMinutes * 2));
+        }
+        if (!redissonClient.getMap(userKey(uid), StringCodec.INSTANCE).isExists()) {
+            LocalDateTime since = loader.broadcastsVisibleSince(uid);
+            Map<String, String> counts = new HashMap<>();
+            counts.put("personal", String.valueOf(loader.countPersonalUnread(uid)));
+            counts.put("since", since == null ? "-1" : String.valueOf(toMillis(since)));
+            redissonClient.<String, String>getMap(userKey(uid), StringCodec.INSTANCE).putAll(counts);
+            redissonClient.getMap(userKey(uid), StringCodec.INSTANCE).expire(Duration.ofMinutes(ttlMinutes));
+        }
+    }
+
+    private void eval(String script, List<Object> keys, Object... args) {
+        try {
+            redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER, keys, args);
+        } catch (Exception e) {
+            // The counts are loaded again once the keys expire
+            log.warn("Failed to update unread notification counter, keys={}", keys, e);
+        }
+    }
+
+    private void publish(String uid) {
+        try {
+            RTopic topic = redissonClient.getTopic(CHANGED_CHANNEL, StringCodec.INSTANCE);
+            topic.publish(uid);
+        } catch (Exception e) {
+            log.warn("Failed to publish unread notification change, uid={}", uid, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static String userKey(String uid) {
+        return String.format(USER_KEY_FORMAT, uid);
+    }
+
+    static String readKey(String uid) {
+        return String.format(READ_KEY_FORMAT, uid);
+    }
+}
@@ -22,9 +22,14 @@ public class ReqKnowledgeRecordsDataServiceImpl implements ReqKnowledgeRecordsDa
     @Autowired
     private ReqKnowledgeRecordsMapper reqKnowledgeRecordsMapper;
 
+    @Autowired
+    private ChatContextWindowCache chatContextWindowCache;
+
     @Override
     public ReqKnowledgeRecords create(ReqKnowledgeRecords reqKnowledgeRecords) {
         reqKnowledgeRecordsMapper.insert(reqKnowledgeRecords);
+        chatContextWindowCache.putKnowledge(reqKnowledgeRecords.getUid(), reqKnowledgeRecords.getChatId(),
+                reqKnowledgeRecords.getReqId(), reqKnowledgeRecords.getReqMessage(), reqKnowledgeRecords.getKnowledge());
         return reqKnowledgeRecords;
     }
 
@@ -45,7 +45,7 @@ public interface UserNotificationMapper extends BaseMapper<UserNotification> {
     int countUnreadByUid(@Param("receiverUid") String receiverUid);
 
     /**
-     * Batch mark messages as read
+     * Batch mark messages as read, expired messages are skipped like in {@link #countUnreadByUid}
      */
     int batchMarkAsRead(@Param("receiverUid") String receiverUid,
             @Param("notificationIds") List<Long> notificationIds);
@@ -2,10 +2,10 @@ package com.iflytek.astron.console.hub.service;
 
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
-import com.iflytek.astron.console.commons.service.data.ChatDataService;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.commons.util.SseEmitterUtil;
+import com.iflytek.astron.console.commons.util.StreamingHttpGateway;
 import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
-import com.iflytek.astron.console.commons.entity.chat.ChatTraceSource;
 import com.iflytek.astron.console.commons.service.ChatRecordModelService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,8 +27,7 @@ public class PromptChatService {
 
     private final OkHttpClient httpClient;
 
-    @Autowired
-    private ChatDataService chatDataService;
+    private final StreamingHttpGateway streamingGateway;
 
     @Autowired
     private ChatRecordModelService chatRecordModelService;
@@ -81,7 +80,8 @@ public class PromptChatService {
         Call call = httpClient.newCall(httpRequest);
         log.info("request:{}", request);
 
-        call.enqueue(new Callback() {
+        // The callback reads the whole generation, run it outside the OkHttp dispatcher
+        streamingGateway.enqueue(HttpClientRegistry.DEEPSEEK, call, new Callback() {
             /**
              * Callback method when SSE connection fails
              *
@@ -110,7 +110,13 @@ public class PromptChatService {
 
                 ResponseBody body = response.body();
                 if (body != null) {
-                    processSSEStream(body, emitter, streamId, chatReqRecords, edit, isDebug);
+                    // Let a stop request cancel the upstream call instead of waiting for its next frame
+                    SseEmitterUtil.registerStreamCanceller(streamId, call::cancel);
+                    try {
+                        processSSEStream(body, emitter, streamId, chatReqRecords, edit, isDebug);
+                    } finally {
+                        SseEmitterUtil.unregisterStreamCanceller(streamId);
+                    }
                 } else {
                     SseEmitterUtil.completeWithError(emitter, "Response body is empty");
                 }
@@ -166,6 +172,12 @@ public class PromptChatService {
                     }
                 }
             } catch (IOException e) {
+                if (SseEmitterUtil.isStreamStopped(streamId)) {
+                    // The upstream call was cancelled by a stop request
+                    log.info("Upstream cancelled by stop signal, saving collected data, streamId: {}", streamId);
+                    handleStreamInterrupted(emitter, streamId, finalResult, thinkingResult, chatReqRecords, sid, traceResult, edit, isDebug);
+                    return;
+                }
                 log.error("Exception reading SSE stream data, saving collected data, streamId: {}", streamId, e);
                 // Save collected data even when exception occurs
                 handleStreamInterrupted(emitter, streamId, finalResult, thinkingResult, chatReqRecords, sid, traceResult, edit, isDebug);
@@ -472,59 +484,7 @@ public class PromptChatService {
 
         chatRecordModelService.saveChatResponse(chatReqRecords, finalResult, sid, edit, 2);
         chatRecordModelService.saveThinkingResult(chatReqRecords, thinkingResult, edit);
-        saveTraceResult(chatReqRecords, traceResult, edit);
-    }
-
-    /**
-     * Function to save trace results
-     *
-     * @param chatReqRecords Chat request records object
-     * @param traceResult StringBuffer object storing trace results
-     * @param edit Whether in edit mode
-     */
-    private void saveTraceResult(ChatReqRecords chatReqRecords, StringBuffer traceResult, boolean edit) {
-        if (traceResult.isEmpty()) {
-            return;
-        }
-
-        java.time.LocalDateTime now = java.time.LocalDateTime.now();
-
-        if (edit) {
-            // Edit mode: query existing record and update
-            ChatTraceSource existingRecord = chatDataService.findTraceSourceByUidAndChatIdAndReqId(
-                    chatReqRecords.getUid(),
-                    chatReqRecords.getChatId(),
-                    chatReqRecords.getId());
-
-            if (existingRecord != null) {
-                existingRecord.setContent(traceResult.toString());
-                existingRecord.setUpdateTime(now);
-
-                chatDataService.updateTraceSourceByUidAndChatIdAndReqId(existingRecord);
-                log.info("Update trace record, reqId: {}, chatId: {}, uid: {}",
-                        chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
-            }
-        } else {
-            // New mode: create new record
-            createNewTraceSource(chatReqRecords, traceResult, now);
-        }
+        chatRecordModelService.saveTraceResult(chatReqRecords, traceResult, edit);
     }
 
-    /**
-     * Create new trace record
-     */
-    private void createNewTraceSource(ChatReqRecords chatReqRecords, StringBuffer traceResult, java.time.LocalDateTime now) {
-        ChatTraceSource chatTraceSource = new ChatTraceSource();
-        chatTraceSource.setUid(chatReqRecords.getUid());
-        chatTraceSource.setChatId(chatReqRecords.getChatId());
-        chatTraceSource.setReqId(chatReqRecords.getId());
-        chatTraceSource.setContent(traceResult.toString());
-        chatTraceSource.setType("prompt");
-        chatTraceSource.setCreateTime(now);
-        chatTraceSource.setUpdateTime(now);
-
-        chatDataService.createTraceSource(chatTraceSource);
-        log.info("Create new trace record, reqId: {}, chatId: {}, uid: {}",
-                chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
-    }
 }
@@ -1,26 +1,23 @@
 package com.iflytek.astron.console.hub.service;
 
-import cn.xfyun.api.SparkChatClient;
 import cn.xfyun.config.SparkModel;
 import cn.xfyun.model.sparkmodel.RoleContent;
 import cn.xfyun.model.sparkmodel.SparkChatParam;
 import cn.xfyun.model.sparkmodel.WebSearch;
 import cn.xfyun.model.sparkmodel.response.SparkChatResponse;
-import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
-import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.dto.llm.SparkChatRequest;
 import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
-import com.iflytek.astron.console.commons.entity.chat.ChatTraceSource;
 import com.iflytek.astron.console.commons.service.ChatRecordModelService;
+import com.iflytek.astron.console.commons.util.SseDataFrame;
 import com.iflytek.astron.console.commons.util.SseEmitterUtil;
+import com.iflytek.astron.console.hub.util.SparkChatClientRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import okio.BufferedSource;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -36,11 +33,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SparkChatService {
 
-    @Value("${spark.api.password}")
-    private String apiPassword;
-
     @Autowired
-    private ChatDataService chatDataService;
+    private SparkChatClientRegistry sparkChatClientRegistry;
 
     @Autowired
     private ChatRecordModelService chatRecordModelService;
@@ -73,12 +67,11 @@ public class SparkChatService {
         }
         try {
             SparkModel sparkModel = getSparkModel(request.getModel());
-            SparkChatClient client = new SparkChatClient.Builder().signatureHttp(apiPassword, sparkModel).build();
 
             SparkChatParam sendParam = buildSparkChatParam(request);
             log.info("request:{}", request);
 
-            client.send(sendParam, new Callback() {
+            sparkChatClientRegistry.send(sparkModel, sendParam, new Callback() {
                 /**
                  * Callback method when SSE connection fails
                  *
@@ -107,7 +100,13 @@ public class SparkChatService {
 
                     ResponseBody body = response.body();
                     if (body != null) {
-                        processSSEStream(body, emitter, streamId, chatReqRecords, edit, isDebug);
+                        // Let a stop request cancel the upstream call instead of waiting for its next frame
+                        SseEmitterUtil.registerStreamCanceller(streamId, call::cancel);
+                        try {
+                            processSSEStream(body, emitter, streamId, chatReqRecords, edit, isDebug);
+                        } finally {
+                            SseEmitterUtil.unregisterStreamCanceller(streamId);
+                        }
                     } else {
                         SseEmitterUtil.completeWithError(emitter, "Response body is empty");
                     }
@@ -216,6 +215,12 @@ public class SparkChatService {
                     }
                 }
             } catch (IOException e) {
+                if (SseEmitterUtil.isStreamStopped(streamId)) {
+                    // The upstream call was cancelled by a stop request
+                    log.info("Upstream cancelled by stop signal, saving collected data, streamId: {}", streamId);
+                    handleStreamInterrupted(emitter, streamId, finalResult, thinkingResult, chatReqRecords, sid, traceResult, edit, isDebug);
+                    return;
+                }
                 log.error("Exception reading SSE stream data, saving collected data, streamId: {}", streamId, e);
                 // Save collected data even when exception occurs
                 handleStreamInterrupted(emitter, streamId, finalResult, thinkingResult, chatReqRecords, sid, traceResult, edit, isDebug);
@@ -230,6 +235,9 @@ public class SparkChatService {
 
     /**
      * Parse SSE content and process data
+     * <p>
+     * The payload is scanned with {@link SseDataFrame} and relayed to the client byte-for-byte; a JSON
+     * tree is only built for frames that have to be rewritten (fallback message, deskToolName).
      *
      * @param data SSE data string to be parsed
      * @param emitter SseEmitter object for sending data to client
@@ -243,11 +251,11 @@ public class SparkChatService {
         log.debug("SSE data streamId: {} ==> {}", streamId, data);
 
         try {
-            JSONObject dataObj = JSON.parseObject(data);
+            SseDataFrame frame = SseDataFrame.parse(data);
+            Integer code = frame.getCode();
 
-            if (dataObj.getInteger("code") != 0) {
-                Integer code = dataObj.getInteger("code");
-                log.error("SSE data contains error code, streamId: {}, code: {}, message: {}", streamId, code, dataObj.getString("message"));
+            if (!Integer.valueOf(0).equals(code)) {
+                log.error("SSE data contains error code, streamId: {}, code: {}, message: {}", streamId, code, frame.getMessage());
                 String fallbackMessage = getFallbackMessage(code);
 
                 // For specific error codes, replace all content with fallback message
@@ -255,6 +263,7 @@ public class SparkChatService {
                     finalResult.setLength(0); // Clear existing content
                     thinkingResult.setLength(0); // Clear thinking content
                     finalResult.append(fallbackMessage);
+                    JSONObject dataObj = frame.tree();
                     dataObj.put("message", fallbackMessage);
 
                     // Modify the response data to send fallback message to client
@@ -265,15 +274,17 @@ public class SparkChatService {
             }
 
             // Add deskToolName field for Web search tool calls
-            addDeskToolNameForWebSearch(dataObj);
+            if (frame.hasWebSearchToolCall()) {
+                addDeskToolNameForWebSearch(frame.tree());
+            }
 
             // Try to send data, continue processing data even if client disconnects
-            boolean clientConnected = tryServeSSEData(emitter, dataObj, streamId);
+            boolean clientConnected = tryServeSSEData(emitter, frame.toJSONString(), streamId);
 
             // Process and save data regardless of client connection status (skip if content replaced)
-            processSidValue(dataObj, sid, streamId);
-            if (!shouldReplaceContent(dataObj.getInteger("code"))) {
-                processChoicesData(dataObj, finalResult, thinkingResult, traceResult, streamId);
+            processSidValue(frame.getSid(), sid, streamId);
+            if (!shouldReplaceContent(code)) {
+                processChoicesData(frame, finalResult, thinkingResult, traceResult, streamId);
             }
 
             if (!clientConnected) {
@@ -288,18 +299,17 @@ public class SparkChatService {
      * Try to send SSE data, detect client connection status
      *
      * @param emitter SseEmitter object
-     * @param dataObj Data object to be sent
+     * @param jsonData Serialised data to be sent
      * @param streamId Stream identifier
      * @return true if client is still connected, false if client has disconnected
      */
-    private boolean tryServeSSEData(SseEmitter emitter, JSONObject dataObj, String streamId) {
+    private boolean tryServeSSEData(SseEmitter emitter, String jsonData, String streamId) {
         if (emitter == null) {
             log.warn("SseEmitter is null, cannot send data, streamId: {}", streamId);
             return false;
         }
 
         try {
-            String jsonData = dataObj.toJSONString();
             emitter.send(SseEmitter.event().name("data").data(jsonData));
             return true;
         } catch (org.springframework.web.context.request.async.AsyncRequestNotUsableException e) {
@@ -354,89 +364,39 @@ public class SparkChatService {
     /**
      * Function to process SID value
      *
-     * @param dataObj JSON object containing SID
+     * @param sidValue SID carried by the frame
      * @param sid StringBuffer for storing SID
      * @param streamId Stream ID
      */
-    private void processSidValue(JSONObject dataObj, StringBuffer sid, String streamId) {
-        if (sid.isEmpty() && dataObj.containsKey("sid")) {
-            String sidValue = dataObj.getString("sid");
-            if (sidValue != null && !sidValue.trim().isEmpty()) {
-                sid.append(sidValue);
-                log.debug("Set sid: {}, streamId: {}", sidValue, streamId);
-            }
+    private void processSidValue(String sidValue, StringBuffer sid, String streamId) {
+        if (sid.isEmpty() && sidValue != null && !sidValue.trim().isEmpty()) {
+            sid.append(sidValue);
+            log.debug("Set sid: {}, streamId: {}", sidValue, streamId);
         }
     }
 
     /**
      * Function to process choices
      *
-     * @param dataObj JSON object containing choices
+     * @param frame Parsed SSE frame
      * @param finalResult StringBuffer for storing final result
      * @param thinkingResult StringBuffer for storing thinking process
      * @param traceResult StringBuffer for storing trace information
      * @param streamId ID for identifying the stream
      */
-    private void processChoicesData(JSONObject dataObj, StringBuffer finalResult, StringBuffer thinkingResult, StringBuffer traceResult, String streamId) {
-        if (!dataObj.containsKey("choices")) {
+    private void processChoicesData(SseDataFrame frame, StringBuffer finalResult, StringBuffer thinkingResult, StringBuffer traceResult, String streamId) {
+        if (frame.getChoiceCount() == 0) {
             return;
         }
 
-        JSONArray choices = dataObj.getJSONArray("choices");
-        if (choices.isEmpty()) {
-            return;
+        if (frame.getContent() != null) {
+            finalResult.append(frame.getContent());
         }
-
-        processFirstChoice(choices, finalResult, thinkingResult);
-        processSecondChoiceForTracing(choices, traceResult, streamId);
-    }
-
-    /**
-     * Process output and thinking results
-     *
-     * @param choices JSONArray object representing collection of choices
-     * @param finalResult StringBuffer object for storing final result
-     * @param thinkingResult StringBuffer object for storing thinking process result
-     */
-    private void processFirstChoice(JSONArray choices, StringBuffer finalResult, StringBuffer thinkingResult) {
-        JSONObject firstChoice = choices.getJSONObject(0);
-        if (!firstChoice.containsKey("delta")) {
-            return;
-        }
-
-        JSONObject delta = firstChoice.getJSONObject("delta");
-        if (delta.containsKey("content")) {
-            finalResult.append(delta.getString("content"));
-        }
-        if (delta.containsKey("reasoning_content")) {
-            thinkingResult.append(delta.getString("reasoning_content"));
+        if (frame.getReasoningContent() != null) {
+            thinkingResult.append(frame.getReasoningContent());
         }
-    }
-
-    /**
-     * Process trace results
-     *
-     * @param choices JSONArray object containing multiple choice items
-     * @param traceResult StringBuffer object for storing trace results
-     * @param streamId String representing stream ID
-     */
-    private void processSecondChoiceForTracing(JSONArray choices, StringBuffer traceResult, String streamId) {
-        if (choices.size() <= 1) {
-            return;
-        }
-
-        JSONObject secondChoice = choices.getJSONObject(1);
-        if (secondChoice == null || !secondChoice.containsKey("delta")) {
-            return;
-        }
-
-        JSONObject delta = secondChoice.getJSONObject("delta");
-        if (!delta.containsKey("tool_calls")) {
-            return;
-        }
-
-        // Save entire tool_calls field content as trace data
-        saveCompleteToolCalls(delta.getJSONArray("tool_calls"), traceResult, streamId);
+        // Save entire tool_calls field content of the second choice as trace data
+        saveCompleteToolCalls(frame.getTraceToolCalls(), traceResult, streamId);
     }
 
     /**
@@ -697,59 +657,7 @@ public class SparkChatService {
 
         chatRecordModelService.saveChatResponse(chatReqRecords, finalResult, sid, edit, 2);
         chatRecordModelService.saveThinkingResult(chatReqRecords, thinkingResult, edit);
-        saveTraceResult(chatReqRecords, traceResult, edit);
-    }
-
-    /**
-     * Function to save trace results
-     *
-     * @param chatReqRecords Chat request records object
-     * @param traceResult StringBuffer object storing trace results
-     * @param edit Whether in edit mode
-     */
-    private void saveTraceResult(ChatReqRecords chatReqRecords, StringBuffer traceResult, boolean edit) {
-        if (traceResult.isEmpty()) {
-            return;
-        }
-
-        java.time.LocalDateTime now = java.time.LocalDateTime.now();
-
-        if (edit) {
-            // Edit mode: query existing record and update
-            ChatTraceSource existingRecord = chatDataService.findTraceSourceByUidAndChatIdAndReqId(
-                    chatReqRecords.getUid(),
-                    chatReqRecords.getChatId(),
-                    chatReqRecords.getId());
-
-            if (existingRecord != null) {
-                existingRecord.setContent(traceResult.toString());
-                existingRecord.setUpdateTime(now);
-
-                chatDataService.updateTraceSourceByUidAndChatIdAndReqId(existingRecord);
-                log.info("Update trace record, reqId: {}, chatId: {}, uid: {}",
-                        chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
-            }
-        } else {
-            // New mode: create new record
-            createNewTraceSource(chatReqRecords, traceResult, now);
-        }
+        chatRecordModelService.saveTraceResult(chatReqRecords, traceResult, edit);
     }
 
-    /**
-     * Create new trace record
-     */
-    private void createNewTraceSource(ChatReqRecords chatReqRecords, StringBuffer traceResult, java.time.LocalDateTime now) {
-        ChatTraceSource chatTraceSource = new ChatTraceSource();
-        chatTraceSource.setUid(chatReqRecords.getUid());
-        chatTraceSource.setChatId(chatReqRecords.getChatId());
-        chatTraceSource.setReqId(chatReqRecords.getId());
-        chatTraceSource.setContent(traceResult.toString());
-        chatTraceSource.setType("search");
-        chatTraceSource.setCreateTime(now);
-        chatTraceSource.setUpdateTime(now);
-
-        chatDataService.createTraceSource(chatTraceSource);
-        log.info("Create new trace record, reqId: {}, chatId: {}, uid: {}",
-                chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
-    }
 }
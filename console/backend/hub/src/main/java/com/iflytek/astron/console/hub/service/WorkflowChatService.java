@@ -185,7 +185,13 @@ public class WorkflowChatService {
 
             ResponseBody body = response.body();
             if (body != null) {
-                processWorkflowSSEStream(body, emitter, streamId, chatReqRecords, edit);
+                // Let a stop request cancel the upstream call instead of waiting for its next frame
+                SseEmitterUtil.registerStreamCanceller(streamId, call::cancel);
+                try {
+                    processWorkflowSSEStream(body, emitter, streamId, chatReqRecords, edit);
+                } finally {
+                    SseEmitterUtil.unregisterStreamCanceller(streamId);
+                }
             } else {
                 SseEmitterUtil.completeWithError(emitter, "Response body is empty");
             }
@@ -239,6 +245,13 @@ public class WorkflowChatService {
                     }
                 }
             } catch (IOException e) {
+                if (SseEmitterUtil.isStreamStopped(streamId)) {
+                    // The upstream call was cancelled by a stop request
+                    log.info("Upstream cancelled by stop signal, saving collected data, streamId: {}", streamId);
+                    handleWorkflowStreamInterrupted(emitter, streamId, finalResult, thinkingResult,
+                            chatReqRecords, sid, traceResult, edit);
+                    return;
+                }
                 log.error("Exception reading workflow SSE stream data, saving collected data, streamId: {}", streamId, e);
                 handleWorkflowStreamInterrupted(emitter, streamId, finalResult, thinkingResult,
                         chatReqRecords, sid, traceResult, edit);
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.iflytek.astron.console.commons.constant.ResponseEnum;
 import com.iflytek.astron.console.hub.dto.PageResponse;
 import com.iflytek.astron.console.commons.dto.bot.PersonalityConfigDto;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
 import com.iflytek.astron.console.hub.entity.personality.PersonalityCategory;
 import com.iflytek.astron.console.hub.entity.personality.PersonalityConfig;
 import com.iflytek.astron.console.hub.enums.ConfigTypeEnum;
@@ -20,6 +21,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.stereotype.Service;
 
@@ -39,6 +41,8 @@ public class PersonalityConfigServiceImpl implements PersonalityConfigService {
 
     private final BotAIServiceClient aiServiceClient;
 
+    private final ApplicationEventPublisher eventPublisher;
+
 
     @Override
     public String aiGeneratedPersonality(String botName, String category, String info, String prompt) {
@@ -111,6 +115,7 @@ public class PersonalityConfigServiceImpl implements PersonalityConfigService {
     @Override
     public void setDisabledByBotId(Long botId) {
         personalityConfigMapper.setDisabledByBotIdAndConfigType(botId, ConfigTypeEnum.DEBUG.getValue());
+        eventPublisher.publishEvent(BotRuntimeChangedEvent.ofBot(this, botId.intValue()));
     }
 
     @Override
@@ -161,6 +166,7 @@ public class PersonalityConfigServiceImpl implements PersonalityConfigService {
             newConfig.setUpdateTime(now);
             personalityConfigMapper.insert(newConfig);
         }
+        eventPublisher.publishEvent(BotRuntimeChangedEvent.ofBot(this, botId.intValue()));
     }
 
     @Override
@@ -33,7 +33,10 @@ import com.iflytek.astron.console.hub.service.SparkChatService;
 import com.iflytek.astron.console.hub.service.bot.PersonalityConfigService;
 import com.iflytek.astron.console.hub.service.chat.BotChatService;
 import com.iflytek.astron.console.hub.service.chat.ChatListService;
+import com.iflytek.astron.console.hub.service.chat.impl.BotRuntimeProfile.ModelConfig;
 import com.iflytek.astron.console.hub.service.knowledge.KnowledgeService;
+import com.iflytek.astron.console.hub.util.TokenCountUtil;
+import com.iflytek.astron.console.toolkit.entity.enumVo.ModelStatusEnum;
 import com.iflytek.astron.console.toolkit.entity.vo.CategoryTreeVO;
 import com.iflytek.astron.console.toolkit.entity.vo.LLMInfoVo;
 import com.iflytek.astron.console.toolkit.service.model.LLMService;
@@ -100,6 +103,9 @@ public class BotChatServiceImpl implements BotChatService {
     @Autowired
     private PersonalityConfigService personalityConfigService;
 
+    @Autowired
+    private BotRuntimeProfileCache botRuntimeProfileCache;
+
     /**
      * Function to handle chat messages
      *
@@ -114,19 +120,19 @@ public class BotChatServiceImpl implements BotChatService {
         try {
             log.info("Processing chat request, sseId: {}, chatId: {}, uid: {}", sseId, chatBotReqDto.getChatId(), chatBotReqDto.getUid());
 
-            BotConfiguration botConfig = getBotConfiguration(chatBotReqDto.getBotId());
-            if (botConfig.version.equals(BotTypeEnum.WORKFLOW_BOT.getType())) {
+            BotRuntimeProfile botConfig = getRuntimeProfile(chatBotReqDto.getBotId());
+            if (botConfig.version().equals(BotTypeEnum.WORKFLOW_BOT.getType())) {
                 workflowBotChatService.chatWorkflowBot(chatBotReqDto, sseEmitter, sseId, workflowOperation, workflowVersion);
             } else {
                 int maxInputTokens = this.maxInputTokens;
                 ChatReqRecords chatReqRecords = createChatRequest(chatBotReqDto);
-                if (botConfig.modelId == null) {
-                    List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext, botConfig.supportDocument, botConfig.prompt, maxInputTokens, chatReqRecords.getId());
+                if (botConfig.modelId() == null) {
+                    List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext(), botConfig.supportDocument(), botConfig.prompt(), maxInputTokens, chatReqRecords.getId());
                     SparkChatRequest sparkChatRequest = buildSparkChatRequest(chatBotReqDto, botConfig, messages);
                     sparkChatService.chatStream(sparkChatRequest, sseEmitter, sseId, chatReqRecords, false, false);
                 } else {
-                    ModelConfigResult modelConfig = getModelConfiguration(botConfig.modelId, sseEmitter);
-                    List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext, botConfig.supportDocument, botConfig.prompt, modelConfig.maxInputTokens(), chatReqRecords.getId());
+                    ModelConfig modelConfig = getModelConfiguration(botConfig, sseEmitter);
+                    List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext(), botConfig.supportDocument(), botConfig.prompt(), modelConfig.maxInputTokens(), chatReqRecords.getId());
                     JSONObject jsonObject = buildPromptChatRequest(modelConfig.llmInfoVo(), messages);
                     promptChatService.chatStream(jsonObject, sseEmitter, sseId, chatReqRecords, false, false);
                 }
@@ -151,7 +157,7 @@ public class BotChatServiceImpl implements BotChatService {
             log.info("Processing re-answer request, sseId: {}, requestId: {}", sseId, requestId);
 
             ChatReqRecords chatReqRecords = chatDataService.findRequestById(requestId);
-            BotConfiguration botConfig = getBotConfiguration(botId);
+            BotRuntimeProfile botConfig = getRuntimeProfile(botId);
             ChatBotReqDto chatBotReqDto = new ChatBotReqDto();
             chatBotReqDto.setBotId(botId);
             chatBotReqDto.setChatId(chatReqRecords.getChatId());
@@ -159,14 +165,14 @@ public class BotChatServiceImpl implements BotChatService {
             chatBotReqDto.setAsk(chatReqRecords.getMessage());
             chatBotReqDto.setEdit(true);
             int maxInputTokens = this.maxInputTokens;
-            if (botConfig.modelId == null) {
-                List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext, botConfig.supportDocument, botConfig.prompt, maxInputTokens, chatReqRecords.getId());
+            if (botConfig.modelId() == null) {
+                List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext(), botConfig.supportDocument(), botConfig.prompt(), maxInputTokens, chatReqRecords.getId());
                 SparkChatRequest sparkChatRequest = buildSparkChatRequest(chatBotReqDto, botConfig, messages);
                 sparkChatService.chatStream(sparkChatRequest, sseEmitter, sseId, chatReqRecords, true, false);
             } else {
-                ModelConfigResult modelConfig = getModelConfiguration(botConfig.modelId, sseEmitter);
-                List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext, botConfig.supportDocument, botConfig.prompt, modelConfig.maxInputTokens(), chatReqRecords.getId());
-                JSONObject jsonObject = buildPromptChatRequest(modelConfig.llmInfoVo, messages);
+                ModelConfig modelConfig = getModelConfiguration(botConfig, sseEmitter);
+                List<SparkChatRequest.MessageDto> messages = buildMessageList(chatBotReqDto, botConfig.supportContext(), botConfig.supportDocument(), botConfig.prompt(), modelConfig.maxInputTokens(), chatReqRecords.getId());
+                JSONObject jsonObject = buildPromptChatRequest(modelConfig.llmInfoVo(), messages);
                 promptChatService.chatStream(jsonObject, sseEmitter, sseId, chatReqRecords, false, false);
             }
         } catch (Exception e) {
@@ -199,11 +205,11 @@ public class BotChatServiceImpl implements BotChatService {
                 sparkChatRequest.setEnableWebSearch(enableWebSearch(request.getOpenedTool()));
                 sparkChatService.chatStream(sparkChatRequest, sseEmitter, sseId, null, false, true);
             } else {
-                ModelConfigResult modelConfig = getModelConfiguration(request.getModelId(), sseEmitter);
+                ModelConfig modelConfig = getModelConfiguration(request.getModelId(), sseEmitter);
                 messageList = buildDebugMessageList(request.getText(), prompt, request.getMessages(), modelConfig.maxInputTokens(), request.getMaasDatasetList());
                 Long spaceId = SpaceInfoUtil.getSpaceId();
-                if (!modelService.checkModelBase(LLMService.generate9DigitRandomFromId(modelConfig.llmInfoVo.getLlmId()),
-                        modelConfig.llmInfoVo().getServiceId(), modelConfig.llmInfoVo.getUrl(), request.getUid(), spaceId)) {
+                if (!modelService.checkModelBase(LLMService.generate9DigitRandomFromId(modelConfig.llmInfoVo().getLlmId()),
+                        modelConfig.llmInfoVo().getServiceId(), modelConfig.llmInfoVo().getUrl(), request.getUid(), spaceId)) {
                     throw new BusinessException(ResponseEnum.MODEL_CHECK_FAILED);
                 }
                 JSONObject jsonObject = buildPromptChatRequest(modelConfig.llmInfoVo(), messageList);
@@ -253,14 +259,35 @@ public class BotChatServiceImpl implements BotChatService {
         return chatListCreateResponse;
     }
 
+    /**
+     * Get the model configuration of a bot, resolved once per profile
+     *
+     * @param profile Runtime profile of the bot
+     * @param sseEmitter SSE emitter for error handling
+     * @return ModelConfig containing LLMInfoVo and maxInputTokens
+     */
+    private ModelConfig getModelConfiguration(BotRuntimeProfile profile, SseEmitter sseEmitter) {
+        ModelConfig modelConfig = profile.modelConfig();
+        if (modelConfig == null) {
+            modelConfig = getModelConfiguration(profile.modelId(), sseEmitter);
+            // Local models that are not running yet are read again each time, to pick up the deploy status
+            // written back by the status scheduler
+            LLMInfoVo llmInfoVo = modelConfig.llmInfoVo();
+            if (!Objects.equals(llmInfoVo.getType(), 2) || ModelStatusEnum.RUNNING.getCode().equals(llmInfoVo.getStatus())) {
+                profile.modelConfig(modelConfig);
+            }
+        }
+        return modelConfig;
+    }
+
     /**
      * Get model configuration and extract max input tokens
      *
      * @param modelId Model ID
      * @param sseEmitter SSE emitter for error handling
-     * @return ModelConfigResult containing LLMInfoVo and maxInputTokens, or null if model doesn't exist
+     * @return ModelConfig containing LLMInfoVo and maxInputTokens, or null if model doesn't exist
      */
-    private ModelConfigResult getModelConfiguration(Long modelId, SseEmitter sseEmitter) {
+    private ModelConfig getModelConfiguration(Long modelId, SseEmitter sseEmitter) {
         LLMInfoVo llmInfoVo = (LLMInfoVo) modelService.getDetail(0, modelId, null).data();
         if (llmInfoVo == null) {
             throw new BusinessException(ResponseEnum.MODEL_NOT_EXIST);
@@ -277,20 +304,30 @@ public class BotChatServiceImpl implements BotChatService {
             }
         }
 
-        return new ModelConfigResult(llmInfoVo, maxInputTokens);
+        return new ModelConfig(llmInfoVo, maxInputTokens);
+    }
+
+    /**
+     * Get the runtime profile of a bot, built once and reused until the bot, its personality or its model is saved
+     *
+     * @param botId Bot ID
+     * @return Shared runtime profile
+     */
+    private BotRuntimeProfile getRuntimeProfile(Integer botId) throws BusinessException {
+        return botRuntimeProfileCache.get(botId, () -> buildRuntimeProfile(botId));
     }
 
     /**
-     * Get bot configuration
+     * Build bot runtime profile from the market bot, or the bot itself when it is not on shelf
      *
      * @param botId Bot ID
-     * @return Returns BotConfiguration object
+     * @return Returns BotRuntimeProfile object
      */
-    private BotConfiguration getBotConfiguration(Integer botId) throws BusinessException {
+    private BotRuntimeProfile buildRuntimeProfile(Integer botId) throws BusinessException {
         ChatBotMarket chatBotMarket = chatBotDataService.findMarketBotByBotId(botId);
 
         if (chatBotMarket != null && ShelfStatusEnum.isOnShelf(chatBotMarket.getBotStatus())) {
-            return new BotConfiguration(
+            return new BotRuntimeProfile(
                     personalityConfigService.getChatPrompt(botId.longValue(), chatBotMarket.getPrompt(), ConfigTypeEnum.MARKET),
                     chatBotMarket.getSupportContext() == 1,
                     chatBotMarket.getModel(),
@@ -301,7 +338,7 @@ public class BotChatServiceImpl implements BotChatService {
         } else {
             ChatBotBase chatBotBase = chatBotDataService.findById(botId)
                     .orElseThrow(() -> new BusinessException(ResponseEnum.BOT_NOT_EXISTS));
-            return new BotConfiguration(
+            return new BotRuntimeProfile(
                     personalityConfigService.getChatPrompt(botId.longValue(), chatBotBase.getPrompt(), ConfigTypeEnum.DEBUG),
                     chatBotBase.getSupportContext() == 1,
                     chatBotBase.getModel(),
@@ -337,25 +374,18 @@ public class BotChatServiceImpl implements BotChatService {
      * @param chatBotReqDto Chat bot request data transfer object
      * @param supportContext Whether to support context
      * @param availableTokens Available token count for history messages
+     * @param reqId Current request ID, the history ends before it (for a re-answer this drops the
+     *        previous answer as well)
      * @return List of historical message data transfer objects
      */
-    private List<SparkChatRequest.MessageDto> getHistoryMessages(ChatBotReqDto chatBotReqDto, boolean supportContext, boolean supportDocument, int availableTokens) {
+    private List<SparkChatRequest.MessageDto> getHistoryMessages(ChatBotReqDto chatBotReqDto, boolean supportContext, boolean supportDocument, int availableTokens, Long reqId) {
         if (!supportContext || availableTokens <= 0) {
             return new ArrayList<>();
         }
 
-        List<SparkChatRequest.MessageDto> historyMessages = chatHistoryService.getSystemBotHistory(chatBotReqDto.getUid(), chatBotReqDto.getChatId(), supportDocument);
-
-        // delete current ask
-        historyMessages.removeLast();
-        // If it's a re-answer request, need to remove the last Q&A pair
-        if (chatBotReqDto.getEdit()) {
-            historyMessages.removeLast();
-        }
-
-        List<SparkChatRequest.MessageDto> truncatedHistory = truncateHistoryByTokens(historyMessages, availableTokens);
-        log.debug("History message truncation completed - Original count: {}, After truncation: {}",
-                historyMessages.size(), truncatedHistory.size());
+        List<SparkChatRequest.MessageDto> truncatedHistory = chatHistoryService.getSystemBotHistory(
+                chatBotReqDto.getUid(), chatBotReqDto.getChatId(), supportDocument, reqId, availableTokens);
+        log.debug("History messages loaded - count: {}, token budget: {}", truncatedHistory.size(), availableTokens);
 
         return truncatedHistory;
     }
@@ -424,7 +454,7 @@ public class BotChatServiceImpl implements BotChatService {
 
         messageDtoList.add(systemMessage);
 
-        List<SparkChatRequest.MessageDto> historyMessages = getHistoryMessages(chatBotReqDto, supportContext, supportDocument, tokenStats.availableTokens());
+        List<SparkChatRequest.MessageDto> historyMessages = getHistoryMessages(chatBotReqDto, supportContext, supportDocument, tokenStats.availableTokens(), reqId);
         messageDtoList.addAll(historyMessages);
         messageDtoList.add(queryMessage);
 
@@ -567,50 +597,24 @@ public class BotChatServiceImpl implements BotChatService {
      * @return Estimated token count
      */
     private int estimateTokenCount(String text) {
-        if (StringUtils.isBlank(text)) {
-            return 0;
-        }
-
-        // Simple estimation method:
-        // - Chinese characters calculated as 1.5 tokens
-        // - English characters calculated as 1.3 tokens (considering word segmentation)
-        int chineseChars = 0;
-        int englishChars = 0;
-
-        for (char c : text.toCharArray()) {
-            if (c >= 0x4e00 && c <= 0x9fff) {
-                // Chinese character range
-                chineseChars++;
-            } else if (Character.isLetterOrDigit(c)) {
-                // English characters and numbers
-                englishChars++;
-            }
-        }
-
-        int estimatedTokens = (int) (chineseChars * 1.5 + englishChars * 1.3);
-
-        log.trace("Token estimation - Chinese characters: {}, English characters: {}, Estimated tokens: {}",
-                chineseChars, englishChars, estimatedTokens);
-
-        // At least 1 token
-        return Math.max(estimatedTokens, 1);
+        return TokenCountUtil.estimate(text);
     }
 
     /**
      * Utility method to build SparkChatRequest object
      *
      * @param chatBotReqDto Chat bot request data transfer object
-     * @param botConfig Bot configuration
+     * @param botConfig Bot runtime profile
      * @param messages List of message data transfer objects
      * @return Built SparkChatRequest object
      */
-    private SparkChatRequest buildSparkChatRequest(ChatBotReqDto chatBotReqDto, BotConfiguration botConfig, List<SparkChatRequest.MessageDto> messages) {
+    private SparkChatRequest buildSparkChatRequest(ChatBotReqDto chatBotReqDto, BotRuntimeProfile botConfig, List<SparkChatRequest.MessageDto> messages) {
         SparkChatRequest sparkChatRequest = new SparkChatRequest();
-        sparkChatRequest.setModel(botConfig.model);
+        sparkChatRequest.setModel(botConfig.model());
         sparkChatRequest.setMessages(messages);
         sparkChatRequest.setChatId(chatBotReqDto.getChatId().toString());
         sparkChatRequest.setUserId(chatBotReqDto.getUid());
-        sparkChatRequest.setEnableWebSearch(enableWebSearch(botConfig.openedTool));
+        sparkChatRequest.setEnableWebSearch(enableWebSearch(botConfig.openedTool()));
         return sparkChatRequest;
     }
 
@@ -662,12 +666,8 @@ public class BotChatServiceImpl implements BotChatService {
         return jsonObject;
     }
 
-    private record BotConfiguration(String prompt, boolean supportContext, String model, String openedTool, Integer version, Long modelId, boolean supportDocument) {}
-
     private record TokenStatistics(int systemTokens, int currentUserTokens, int reservedTokens, int availableTokens) {}
 
-    private record ModelConfigResult(LLMInfoVo llmInfoVo, int maxInputTokens) {}
-
     /**
      * Determine whether to enable web search
      */
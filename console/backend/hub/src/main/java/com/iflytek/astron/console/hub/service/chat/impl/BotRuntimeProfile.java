@@ -0,0 +1,76 @@
+package com.iflytek.astron.console.hub.service.chat.impl;
+
+import com.iflytek.astron.console.toolkit.entity.vo.LLMInfoVo;
+
+/**
+ * Static inputs of a bot chat turn: the prompt with the personality applied, the context and document
+ * switches, the model and the resolved model endpoint. Built once per bot and shared by all turns until
+ * {@link BotRuntimeProfileCache} drops it, so it must not be modified except for the model
+ * configuration, which is resolved on first use.
+ */
+final class BotRuntimeProfile {
+
+    private final String prompt;
+    private final boolean supportContext;
+    private final String model;
+    private final String openedTool;
+    private final Integer version;
+    private final Long modelId;
+    private final boolean supportDocument;
+
+    private volatile ModelConfig modelConfig;
+
+    BotRuntimeProfile(String prompt, boolean supportContext, String model, String openedTool, Integer version, Long modelId, boolean supportDocument) {
+        this.prompt = prompt;
+        this.supportContext = supportContext;
+        this.model = model;
+        this.openedTool = openedTool;
+        this.version = version;
+        this.modelId = modelId;
+        this.supportDocument = supportDocument;
+    }
+
+    String prompt() {
+        return prompt;
+    }
+
+    boolean supportContext() {
+        return supportContext;
+    }
+
+    String model() {
+        return model;
+    }
+
+    String openedTool() {
+        return openedTool;
+    }
+
+    Integer version() {
+        return version;
+    }
+
+    Long modelId() {
+        return modelId;
+    }
+
+    boolean supportDocument() {
+        return supportDocument;
+    }
+
+    /**
+     * Resolved configuration of {@link #modelId()}, null until resolved
+     */
+    ModelConfig modelConfig() {
+        return modelConfig;
+    }
+
+    void modelConfig(ModelConfig modelConfig) {
+        this.modelConfig = modelConfig;
+    }
+
+    /**
+     * Model endpoint and credentials with the input token limit of the model
+     */
+    record ModelConfig(LLMInfoVo llmInfoVo, int maxInputTokens) {}
+}
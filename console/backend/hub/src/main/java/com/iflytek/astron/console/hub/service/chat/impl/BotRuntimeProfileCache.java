@@ -0,0 +1,128 @@
+package com.iflytek.astron.console.hub.service.chat.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
+import com.iflytek.astron.console.hub.event.BotPublishStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of {@link BotRuntimeProfile} keyed by bot ID.
+ * <p>
+ * A profile is built on the first turn of a bot and reused until the bot, its market entry, its
+ * personality or its model is saved. Those saves publish {@link BotRuntimeChangedEvent} (market
+ * publishing publishes {@link BotPublishStatusChangedEvent}); the profile is dropped after the
+ * transaction commits and the drop is broadcast to the other nodes over a Redis topic. Writes that
+ * bypass the events are picked up when the TTL expires.
+ */
+@Slf4j
+@Component
+public class BotRuntimeProfileCache {
+
+    public static final String INVALIDATE_CHANNEL = "bot_runtime_profile_invalidate";
+
+    private static final String BOT = "bot:";
+    private static final String MODEL = "model:";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Value("${bot.runtime-profile.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    @Value("${bot.runtime-profile.max-size:10000}")
+    private long maxSize = 10000;
+
+    private Cache<Integer, BotRuntimeProfile> cache;
+
+    /** Bumped by every invalidation, profiles built across one are not kept. */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        RTopic topic = redissonClient.getTopic(INVALIDATE_CHANNEL);
+        topic.addListener(String.class, (channel, message) -> onInvalidate(message));
+    }
+
+    /**
+     * Get the profile of a bot, building it on a miss
+     *
+     * @param botId Bot ID
+     * @param builder Builds the profile from the database
+     * @return Shared profile
+     */
+    BotRuntimeProfile get(Integer botId, Supplier<BotRuntimeProfile> builder) {
+        BotRuntimeProfile profile = cache.getIfPresent(botId);
+        if (profile != null) {
+            return profile;
+        }
+        long start = generation.get();
+        profile = builder.get();
+        cache.put(botId, profile);
+        // The bot may have been saved while it was being read
+        if (generation.get() != start) {
+            cache.asMap().remove(botId, profile);
+        }
+        return profile;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBotRuntimeChanged(BotRuntimeChangedEvent event) {
+        if (event.getBotId() != null) {
+            invalidate(BOT + event.getBotId());
+        } else if (event.getModelId() != null) {
+            invalidate(MODEL + event.getModelId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBotPublishStatusChanged(BotPublishStatusChangedEvent event) {
+        if (event.getBotId() != null) {
+            invalidate(BOT + event.getBotId());
+        }
+    }
+
+    /**
+     * Drop the profiles named by an invalidation message on this node
+     *
+     * @param message {@code bot:<botId>} or {@code model:<modelId>}
+     */
+    void onInvalidate(String message) {
+        generation.incrementAndGet();
+        try {
+            if (message.startsWith(BOT)) {
+                cache.invalidate(Integer.valueOf(message.substring(BOT.length())));
+            } else if (message.startsWith(MODEL)) {
+                Long modelId = Long.valueOf(message.substring(MODEL.length()));
+                cache.asMap().values().removeIf(profile -> modelId.equals(profile.modelId()));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignore invalid bot runtime profile invalidation: {}", message);
+        }
+    }
+
+    private void invalidate(String message) {
+        onInvalidate(message);
+        try {
+            redissonClient.getTopic(INVALIDATE_CHANNEL).publish(message);
+        } catch (Exception e) {
+            // Other nodes still drop the profile when its TTL expires
+            log.warn("Failed to broadcast bot runtime profile invalidation: {}", message, e);
+        }
+    }
+}
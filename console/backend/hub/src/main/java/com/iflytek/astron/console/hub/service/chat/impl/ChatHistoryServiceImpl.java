@@ -5,9 +5,10 @@ import com.iflytek.astron.console.commons.dto.chat.*;
 import com.iflytek.astron.console.commons.dto.llm.SparkChatRequest;
 import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.service.data.ChatHistoryService;
-import com.iflytek.astron.console.commons.util.I18nUtil;
 import com.iflytek.astron.console.hub.data.ReqKnowledgeRecordsDataService;
+import com.iflytek.astron.console.hub.data.impl.ChatContextWindowCache;
 import com.iflytek.astron.console.hub.entity.ReqKnowledgeRecords;
+import com.iflytek.astron.console.hub.util.KnowledgePromptUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.util.Base64Util;
@@ -31,6 +32,9 @@ public class ChatHistoryServiceImpl implements ChatHistoryService {
     @Autowired
     private ReqKnowledgeRecordsDataService reqKnowledgeRecordsDataService;
 
+    @Autowired
+    private ChatContextWindowCache chatContextWindowCache;
+
     public static final int MAX_HISTORY_NUMBERS = 8000;
 
     /**
@@ -91,6 +95,98 @@ public class ChatHistoryServiceImpl implements ChatHistoryService {
         return messages;
     }
 
+    /**
+     * Get historical message records of system bot that precede a request, served from the rolling
+     * context window of the chat
+     *
+     * @param uid User ID
+     * @param chatId Chat room ID
+     * @param supportDocument Whether questions are wrapped with their recalled knowledge
+     * @param beforeReqId Only turns of earlier requests are returned
+     * @param maxTokens Token budget of the history
+     * @return Newest messages that fit into the budget, in chronological order
+     */
+    @Override
+    public List<SparkChatRequest.MessageDto> getSystemBotHistory(String uid, Long chatId, Boolean supportDocument, Long beforeReqId, int maxTokens) {
+        List<SparkChatRequest.MessageDto> messages = new ArrayList<>();
+        if (maxTokens <= 0) {
+            return messages;
+        }
+        List<ChatContextWindowCache.Turn> turns = chatContextWindowCache.getTurns(uid, chatId, () -> loadContextTurns(uid, chatId));
+
+        // Keep the newest conversations, stop at the first message that exceeds the budget
+        int usedTokens = 0;
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            ChatContextWindowCache.Turn turn = turns.get(i);
+            if (beforeReqId != null && turn.reqId() >= beforeReqId) {
+                continue;
+            }
+            ChatContextWindowCache.Part answer = turn.answer();
+            if (answer != null && StringUtils.isNotBlank(answer.content())) {
+                if (usedTokens + answer.tokens() > maxTokens) {
+                    break;
+                }
+                usedTokens += answer.tokens();
+                messages.addFirst(buildMessage("assistant", answer.content()));
+            }
+            ChatContextWindowCache.Part ask = Boolean.TRUE.equals(supportDocument) && turn.knowledgeAsk() != null
+                    ? turn.knowledgeAsk()
+                    : turn.ask();
+            if (usedTokens + ask.tokens() > maxTokens) {
+                break;
+            }
+            usedTokens += ask.tokens();
+            messages.addFirst(buildMessage("user", ask.content()));
+        }
+        return messages;
+    }
+
+    /**
+     * Load the last turns of a chat from the database to fill its context window
+     *
+     * @param uid User ID
+     * @param chatId Chat room ID
+     * @return Turns in chronological order
+     */
+    private List<ChatContextWindowCache.Turn> loadContextTurns(String uid, Long chatId) {
+        List<ChatReqModelDto> chatReqModelDtos = chatDataService.getReqModelBotHistoryByChatId(uid, chatId);
+        if (CollectionUtils.isEmpty(chatReqModelDtos)) {
+            return new ArrayList<>();
+        }
+        // Newest first, keep only what the window holds
+        List<ChatReqModelDto> kept = chatReqModelDtos.subList(0, Math.min(chatReqModelDtos.size(), chatContextWindowCache.getMaxTurns()));
+        List<Long> reqIds = kept.stream().map(ChatReqModelDto::getId).collect(Collectors.toList());
+
+        Map<Long, ChatRespModelDto> respMap = new HashMap<>();
+        List<ChatRespModelDto> chatRespModelDtos = chatDataService.getChatRespModelBotHistoryByChatId(uid, chatId, reqIds);
+        if (!CollectionUtils.isEmpty(chatRespModelDtos)) {
+            for (ChatRespModelDto respDto : chatRespModelDtos) {
+                respMap.put(respDto.getReqId(), respDto);
+            }
+        }
+        Map<Long, ReqKnowledgeRecords> knowledgeRecordsMap = reqKnowledgeRecordsDataService.findByReqIds(reqIds);
+
+        List<ChatContextWindowCache.Turn> turns = new ArrayList<>(kept.size());
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            ChatReqModelDto reqDto = kept.get(i);
+            ReqKnowledgeRecords knowledgeRecord = knowledgeRecordsMap.get(reqDto.getId());
+            String knowledgeAsk = knowledgeRecord == null || StringUtils.isBlank(knowledgeRecord.getKnowledge())
+                    ? null
+                    : enhanceAskWithKnowledgeRecord(reqDto.getMessage(), knowledgeRecord);
+            ChatRespModelDto respDto = respMap.get(reqDto.getId());
+            turns.add(ChatContextWindowCache.Turn.of(reqDto.getId(), reqDto.getMessage(), knowledgeAsk,
+                    respDto == null ? null : respDto.getMessage()));
+        }
+        return turns;
+    }
+
+    private static SparkChatRequest.MessageDto buildMessage(String role, String content) {
+        SparkChatRequest.MessageDto message = new SparkChatRequest.MessageDto();
+        message.setRole(role);
+        message.setContent(content);
+        return message;
+    }
+
     /**
      * Get history records for specified user and chat ID
      *
@@ -236,19 +332,7 @@ public class ChatHistoryServiceImpl implements ChatHistoryService {
         }
 
         try {
-            // Parse knowledge string (it's stored as a string representation of a list)
-            String knowledgeStr = knowledgeRecord.getKnowledge();
-
-            // Build enhanced content with knowledge wrapping
-            StringBuilder promptBuilder = new StringBuilder();
-            promptBuilder.append(I18nUtil.getMessage("loose.prefix.prompt"));
-
-            // Insert knowledge content into the placeholder
-            promptBuilder.insert(promptBuilder.indexOf("[") + 1, knowledgeStr);
-            promptBuilder.append(I18nUtil.getMessage("loose.suffix.prompt"));
-            promptBuilder.insert(promptBuilder.indexOf("{{") + 2, originalAsk);
-
-            String enhancedContent = promptBuilder.toString();
+            String enhancedContent = KnowledgePromptUtil.wrap(originalAsk, knowledgeRecord.getKnowledge());
 
             log.debug("Enhanced ask with stored knowledge for reqId: {}, original length: {}, enhanced length: {}",
                     knowledgeRecord.getReqId(), originalAsk.length(), enhancedContent.length());
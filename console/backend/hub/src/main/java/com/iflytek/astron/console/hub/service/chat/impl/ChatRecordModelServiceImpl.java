@@ -1,15 +1,20 @@
 package com.iflytek.astron.console.hub.service.chat.impl;
 
-import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.entity.chat.ChatReasonRecords;
 import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
 import com.iflytek.astron.console.commons.entity.chat.ChatRespRecords;
+import com.iflytek.astron.console.commons.entity.chat.ChatTraceSource;
 import com.iflytek.astron.console.commons.service.ChatRecordModelService;
+import com.iflytek.astron.console.hub.data.impl.ChatContextWindowCache;
+import com.iflytek.astron.console.hub.data.impl.ChatRecordWriteBehind;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
+ * Persists the results of a completed chat stream. Records are handed to
+ * {@link ChatRecordWriteBehind} so that the stream callback thread does not wait on MySQL.
+ *
  * @author mingsuiyongheng
  */
 @Slf4j
@@ -17,7 +22,10 @@ import org.springframework.stereotype.Service;
 public class ChatRecordModelServiceImpl implements ChatRecordModelService {
 
     @Autowired
-    private ChatDataService chatDataService;
+    private ChatRecordWriteBehind chatRecordWriteBehind;
+
+    @Autowired
+    private ChatContextWindowCache chatContextWindowCache;
 
     /**
      * Save thinking process result
@@ -35,20 +43,17 @@ public class ChatRecordModelServiceImpl implements ChatRecordModelService {
         java.time.LocalDateTime now = java.time.LocalDateTime.now();
 
         if (edit) {
-            // Edit mode: query existing record and update
-            ChatReasonRecords existingRecord = chatDataService.findReasonByUidAndChatIdAndReqId(
-                    chatReqRecords.getUid(),
-                    chatReqRecords.getChatId(),
-                    chatReqRecords.getId());
-
-            if (existingRecord != null) {
-                existingRecord.setContent(thinkingResult.toString());
-                existingRecord.setUpdateTime(now);
-
-                chatDataService.updateReasonByUidAndChatIdAndReqId(existingRecord);
-                log.info("Updated thinking process record, reqId: {}, chatId: {}, uid: {}",
-                        chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
-            }
+            // Edit mode: update the existing record of this request, if any
+            ChatReasonRecords update = new ChatReasonRecords();
+            update.setUid(chatReqRecords.getUid());
+            update.setChatId(chatReqRecords.getChatId());
+            update.setReqId(chatReqRecords.getId());
+            update.setContent(thinkingResult.toString());
+            update.setUpdateTime(now);
+
+            chatRecordWriteBehind.updateReason(update);
+            log.info("Queued thinking process record update, reqId: {}, chatId: {}, uid: {}",
+                    chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
         } else {
             // Create mode: create new record
             createNewThinkingResult(chatReqRecords, thinkingResult, now);
@@ -69,8 +74,8 @@ public class ChatRecordModelServiceImpl implements ChatRecordModelService {
         chatReasonRecords.setCreateTime(now);
         chatReasonRecords.setUpdateTime(now);
 
-        chatDataService.createReasonRecord(chatReasonRecords);
-        log.info("Created new thinking process record, reqId: {}, chatId: {}, uid: {}",
+        chatRecordWriteBehind.saveReason(chatReasonRecords);
+        log.info("Queued new thinking process record, reqId: {}, chatId: {}, uid: {}",
                 chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
     }
 
@@ -83,27 +88,27 @@ public class ChatRecordModelServiceImpl implements ChatRecordModelService {
      */
     @Override
     public void saveChatResponse(ChatReqRecords chatReqRecords, StringBuffer finalResult, StringBuffer sid, boolean edit, Integer answerType) {
+        // Keep the context window in step with the database, the row itself is written asynchronously
+        chatContextWindowCache.putAnswer(chatReqRecords.getUid(), chatReqRecords.getChatId(), chatReqRecords.getId(), finalResult.toString());
+
         java.time.LocalDateTime now = java.time.LocalDateTime.now();
         int dateStamp = Integer.parseInt(java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd")));
 
         if (edit) {
-            // Edit mode: query existing record and update
-            ChatRespRecords existingRecord = chatDataService.findResponseByUidAndChatIdAndReqId(
-                    chatReqRecords.getUid(),
-                    chatReqRecords.getChatId(),
-                    chatReqRecords.getId());
-
-            if (existingRecord != null) {
-                existingRecord.setMessage(finalResult.toString());
-                existingRecord.setSid(sid.toString());
-                existingRecord.setUpdateTime(now);
-                existingRecord.setDateStamp(dateStamp);
-                existingRecord.setAnswerType(answerType);
-
-                chatDataService.updateByUidAndChatIdAndReqId(existingRecord);
-                log.info("Updated chat response record, reqId: {}, chatId: {}, uid: {}",
-                        chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
-            }
+            // Edit mode: update the existing record of this request, if any
+            ChatRespRecords update = new ChatRespRecords();
+            update.setUid(chatReqRecords.getUid());
+            update.setChatId(chatReqRecords.getChatId());
+            update.setReqId(chatReqRecords.getId());
+            update.setMessage(finalResult.toString());
+            update.setSid(sid.toString());
+            update.setUpdateTime(now);
+            update.setDateStamp(dateStamp);
+            update.setAnswerType(answerType);
+
+            chatRecordWriteBehind.updateResponse(update);
+            log.info("Queued chat response record update, reqId: {}, chatId: {}, uid: {}",
+                    chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
         } else {
             // Create mode: create new record
             createNewChatResponse(chatReqRecords, finalResult, sid, now, dateStamp, answerType);
@@ -126,9 +131,53 @@ public class ChatRecordModelServiceImpl implements ChatRecordModelService {
         chatRespRecords.setUpdateTime(now);
         chatRespRecords.setDateStamp(dateStamp);
 
-        chatDataService.createResponse(chatRespRecords);
-        log.info("Created new chat response record, reqId: {}, chatId: {}, uid: {}",
+        chatRecordWriteBehind.saveResponse(chatRespRecords);
+        log.info("Queued new chat response record, reqId: {}, chatId: {}, uid: {}",
                 chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
     }
 
+    /**
+     * Save trace (search source) result
+     *
+     * @param chatReqRecords Chat request record
+     * @param traceResult Trace result
+     * @param edit Whether it's in edit mode
+     */
+    @Override
+    public void saveTraceResult(ChatReqRecords chatReqRecords, StringBuffer traceResult, boolean edit) {
+        if (traceResult.isEmpty()) {
+            return;
+        }
+
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+
+        if (edit) {
+            // Edit mode: update the existing record of this request, if any
+            ChatTraceSource update = new ChatTraceSource();
+            update.setUid(chatReqRecords.getUid());
+            update.setChatId(chatReqRecords.getChatId());
+            update.setReqId(chatReqRecords.getId());
+            update.setContent(traceResult.toString());
+            update.setUpdateTime(now);
+
+            chatRecordWriteBehind.updateTraceSource(update);
+            log.info("Queued trace record update, reqId: {}, chatId: {}, uid: {}",
+                    chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
+        } else {
+            // New mode: create new record
+            ChatTraceSource chatTraceSource = new ChatTraceSource();
+            chatTraceSource.setUid(chatReqRecords.getUid());
+            chatTraceSource.setChatId(chatReqRecords.getChatId());
+            chatTraceSource.setReqId(chatReqRecords.getId());
+            chatTraceSource.setContent(traceResult.toString());
+            chatTraceSource.setType("search");
+            chatTraceSource.setCreateTime(now);
+            chatTraceSource.setUpdateTime(now);
+
+            chatRecordWriteBehind.saveTraceSource(chatTraceSource);
+            log.info("Queued new trace record, reqId: {}, chatId: {}, uid: {}",
+                    chatReqRecords.getId(), chatReqRecords.getChatId(), chatReqRecords.getUid());
+        }
+    }
+
 }
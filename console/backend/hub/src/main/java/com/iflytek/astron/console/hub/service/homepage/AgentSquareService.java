@@ -12,4 +12,10 @@ public interface AgentSquareService {
     List<BotTypeDto> getBotTypeList();
 
     BotListPageDto getBotPageByType(Integer type, String search, Integer pageSize, Integer page);
+
+    /**
+     * Market page without the fields of the current user (chat ID, favorite), shared by all users.
+     * Pages without search are cached for a few seconds; the returned value must not be modified.
+     */
+    BotListPageDto getMarketBotPage(Integer type, String search, Integer pageSize, Integer page);
 }
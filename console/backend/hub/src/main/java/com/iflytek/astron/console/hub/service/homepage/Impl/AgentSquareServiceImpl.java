@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.iflytek.astron.console.commons.data.UserInfoDataService;
 import com.iflytek.astron.console.commons.entity.bot.ChatBotMarket;
 import com.iflytek.astron.console.commons.entity.chat.ChatList;
+import com.iflytek.astron.console.commons.entity.user.UserInfo;
 import com.iflytek.astron.console.commons.service.bot.BotFavoriteService;
 import com.iflytek.astron.console.commons.service.bot.BotTypeListService;
 import com.iflytek.astron.console.commons.service.bot.ChatBotMarketService;
@@ -15,11 +16,11 @@ import com.iflytek.astron.console.hub.dto.homepage.BotTypeDto;
 import com.iflytek.astron.console.hub.service.homepage.AgentSquareService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +30,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AgentSquareServiceImpl implements AgentSquareService {
 
+    private static final String MARKET_PAGE_CACHE = "agent_square:market_page";
+
     @Autowired
     private BotTypeListService botTypeListService;
 
@@ -44,6 +47,11 @@ public class AgentSquareServiceImpl implements AgentSquareService {
     @Autowired
     private ChatListDataService chatListDataService;
 
+    // Inject self proxy to solve @Cacheable internal call failure problem
+    @Lazy
+    @Autowired
+    private AgentSquareService self;
+
     @Override
     public List<BotTypeDto> getBotTypeList() {
         return botTypeListService.getBotTypeList()
@@ -58,8 +66,7 @@ public class AgentSquareServiceImpl implements AgentSquareService {
 
     @Override
     public BotListPageDto getBotPageByType(Integer type, String search, Integer pageSize, Integer page) {
-        // Get paginated assistant list
-        Page<ChatBotMarket> marketPage = chatBotMarketService.getBotPage(type, search, pageSize, page);
+        BotListPageDto marketPage = self.getMarketBotPage(type, search, pageSize, page);
         // Get current user's UID
         String uid;
         Set<Integer> favoriteIds = new HashSet<>();
@@ -71,33 +78,74 @@ public class AgentSquareServiceImpl implements AgentSquareService {
         } catch (Exception e) {
             uid = null;
         }
+        if (uid == null || uid.isEmpty() || marketPage.getPageData().isEmpty()) {
+            return marketPage;
+        }
 
-        // Use Stream to process each assistant, convert to DTO
-        String finalUid = uid;
         Set<Integer> finalFavoriteIds = favoriteIds;
-        List<BotInfoDto> botInfoList = marketPage.getRecords()
+        List<Integer> botIds = marketPage.getPageData().stream().map(BotInfoDto::getBotId).toList();
+        Map<Integer, ChatList> latestChats = chatListDataService.findLatestEnabledChatsByUserAndBots(uid, botIds);
+
+        // The market page may be shared through the cache, fill the user's fields on copies
+        List<BotInfoDto> botInfoList = marketPage.getPageData()
                 .stream()
-                .map(market -> {
-                    String creatorName = userInfoDataService.findNickNameByUid(market.getUid()).orElse(null);
-                    ChatList latestChat;
-                    Long chatId = null;
-                    if (finalUid != null && !finalUid.isEmpty()) {
-                        latestChat = chatListDataService.findLatestEnabledChatByUserAndBot(finalUid, market.getBotId());
-                        chatId = latestChat != null ? latestChat.getId() : null;
-                    }
+                .map(item -> {
+                    ChatList latestChat = latestChats.get(item.getBotId());
                     return new BotInfoDto(
-                            market.getBotId(),
-                            chatId,
-                            market.getBotName(),
-                            type,
-                            market.getAvatar(),
-                            market.getPrompt(),
-                            market.getBotDesc(),
-                            finalFavoriteIds.contains(market.getBotId()),
-                            creatorName,
-                            market.getVersion());
+                            item.getBotId(),
+                            latestChat != null ? latestChat.getId() : null,
+                            item.getBotName(),
+                            item.getBotType(),
+                            item.getBotCoverUrl(),
+                            item.getPrompt(),
+                            item.getBotDesc(),
+                            finalFavoriteIds.contains(item.getBotId()),
+                            item.getCreator(),
+                            item.getVersion());
                 })
                 .collect(Collectors.toList());
+        return new BotListPageDto(
+                botInfoList,
+                marketPage.getTotalCount(),
+                marketPage.getPageSize(),
+                marketPage.getPage(),
+                marketPage.getTotalPages());
+    }
+
+    @Override
+    @Cacheable(value = MARKET_PAGE_CACHE, key = "#type + '_' + #pageSize + '_' + #page",
+            condition = "#search == null || #search.isBlank()", cacheManager = "cacheManager10s")
+    public BotListPageDto getMarketBotPage(Integer type, String search, Integer pageSize, Integer page) {
+        // Get paginated assistant list
+        Page<ChatBotMarket> marketPage = chatBotMarketService.getBotPage(type, search, pageSize, page);
+
+        // Creator nicknames of the whole page in one query
+        Set<String> creatorUids = marketPage.getRecords()
+                .stream()
+                .map(ChatBotMarket::getUid)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, String> nickNames = new HashMap<>();
+        for (UserInfo userInfo : userInfoDataService.findByUids(creatorUids)) {
+            if (userInfo.getNickname() != null) {
+                nickNames.putIfAbsent(userInfo.getUid(), userInfo.getNickname());
+            }
+        }
+
+        List<BotInfoDto> botInfoList = marketPage.getRecords()
+                .stream()
+                .map(market -> new BotInfoDto(
+                        market.getBotId(),
+                        null,
+                        market.getBotName(),
+                        type,
+                        market.getAvatar(),
+                        market.getPrompt(),
+                        market.getBotDesc(),
+                        false,
+                        market.getUid() == null ? null : nickNames.get(market.getUid()),
+                        market.getVersion()))
+                .collect(Collectors.toList());
         return new BotListPageDto(
                 botInfoList,
                 Math.toIntExact(marketPage.getTotal()),
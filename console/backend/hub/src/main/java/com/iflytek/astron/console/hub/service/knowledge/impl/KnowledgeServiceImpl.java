@@ -6,13 +6,25 @@ import com.iflytek.astron.console.commons.service.data.DatasetDataService;
 import com.iflytek.astron.console.hub.service.knowledge.KnowledgeService;
 import com.iflytek.astron.console.toolkit.entity.core.knowledge.ChunkInfo;
 import com.iflytek.astron.console.toolkit.service.repo.RepoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +43,19 @@ public class KnowledgeServiceImpl implements KnowledgeService {
     @Autowired
     private ChatListDataService chatListDataService;
 
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /** Same as the call timeout of the knowledge HTTP client, which bounded each repository before */
+    @Value("${knowledge.retrieval.timeout-ms:600000}")
+    private long retrievalTimeoutMs = 600_000;
+
+    /**
+     * Retrieval calls are blocking HTTP requests, one virtual thread per repository keeps the fan-out
+     * cheap regardless of how many knowledge bases a bot is bound to
+     */
+    private final ExecutorService retrievalExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
     /**
      * Get knowledge chunks by botId
      *
@@ -52,7 +77,10 @@ public class KnowledgeServiceImpl implements KnowledgeService {
     }
 
     /**
-     * Override method: Get text chunks from MAAS datasets
+     * Override method: Get text chunks from MAAS datasets. All repositories are queried concurrently
+     * within a shared deadline and the hits are merged by score into a global topN; repositories that
+     * fail or miss the deadline are skipped so that the remaining results are still returned, and are
+     * logged and counted in {@code knowledge.retrieval.skipped}.
      *
      * @param maasDatasetList MAAS dataset list
      * @param text Text to be processed
@@ -66,12 +94,81 @@ public class KnowledgeServiceImpl implements KnowledgeService {
         if (Objects.isNull(maasDatasetList) || maasDatasetList.isEmpty()) {
             return relationChunk;
         }
-        for (String repoId : maasDatasetList) {
-            List<ChunkInfo> results = (List<ChunkInfo>) repoService.hitTest(Long.parseLong(repoId), text, topN, isBelongLoginUser);
-            results.forEach(item -> {
-                relationChunk.add(item.getContent());
-            });
+        List<Long> repoIds = maasDatasetList.stream().map(Long::parseLong).collect(Collectors.toList());
+
+        // hitTest resolves the current user from the request, hand it over to the worker threads
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        List<Future<List<ChunkInfo>>> futures = new ArrayList<>(repoIds.size());
+        for (Long repoId : repoIds) {
+            futures.add(retrievalExecutor.submit(() -> hitRepo(repoId, text, topN, isBelongLoginUser, requestAttributes)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retrievalTimeoutMs);
+        List<ChunkInfo> merged = new ArrayList<>();
+        List<Long> timedOut = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        RuntimeException firstError = null;
+        boolean anySucceeded = false;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<List<ChunkInfo>> future = futures.get(i);
+            Long repoId = repoIds.get(i);
+            try {
+                merged.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                anySucceeded = true;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timedOut.add(repoId);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                log.error("Knowledge retrieval failed, repoId: {}, error: {}", repoId, cause.getMessage(), cause);
+                failed.add(repoId);
+                if (firstError == null && cause instanceof RuntimeException runtimeException) {
+                    firstError = runtimeException;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                break;
+            }
+        }
+        if (!timedOut.isEmpty() || !failed.isEmpty()) {
+            log.warn("Knowledge retrieval skipped repositories, answered: {}/{}, timed out after {}ms: {}, failed: {}",
+                    repoIds.size() - timedOut.size() - failed.size(), repoIds.size(), retrievalTimeoutMs, timedOut, failed);
+            countSkipped("timeout", timedOut.size());
+            countSkipped("error", failed.size());
+        }
+        // Keep the previous behaviour of surfacing the error when no repository could answer
+        if (!anySucceeded && firstError != null) {
+            throw firstError;
+        }
+
+        // Stable sort keeps the upstream order for chunks without a score
+        merged.sort(Comparator.comparing(ChunkInfo::getScore, Comparator.nullsLast(Comparator.reverseOrder())));
+        int limit = topN == null || topN <= 0 ? merged.size() : Math.min(topN, merged.size());
+        for (int i = 0; i < limit; i++) {
+            relationChunk.add(merged.get(i).getContent());
         }
         return relationChunk;
     }
+
+    private void countSkipped(String reason, int count) {
+        if (meterRegistry != null && count > 0) {
+            meterRegistry.counter("knowledge.retrieval.skipped", "reason", reason).increment(count);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ChunkInfo> hitRepo(Long repoId, String text, Integer topN, boolean isBelongLoginUser, RequestAttributes requestAttributes) {
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        try {
+            return (List<ChunkInfo>) repoService.hitTest(repoId, text, topN, isBelongLoginUser);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        retrievalExecutor.shutdownNow();
+    }
 }
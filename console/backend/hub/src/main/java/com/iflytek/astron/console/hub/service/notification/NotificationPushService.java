@@ -0,0 +1,144 @@
+package com.iflytek.astron.console.hub.service.notification;
+
+import com.iflytek.astron.console.hub.data.NotificationDataService;
+import com.iflytek.astron.console.hub.data.impl.NotificationUnreadCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes unread notification counts to the clients connected to this node.
+ * <p>
+ * Clients open an SSE stream instead of polling the unread count. Changes of the Redis counters are
+ * published by {@link NotificationUnreadCounter} with the user ID (or {@code *} for broadcasts); every
+ * node recounts for its own streams of that user and sends the new count. A periodic comment keeps
+ * proxies from closing idle streams and drops the streams whose client is gone.
+ * </p>
+ */
+@Slf4j
+@Service
+public class NotificationPushService {
+
+    private static final String EVENT_UNREAD_COUNT = "unread-count";
+
+    private static final long HEARTBEAT_INTERVAL_MS = 30_000;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private NotificationDataService notificationDataService;
+
+    @Value("${notification.stream.timeout-minutes:30}")
+    private long timeoutMinutes = 30;
+
+    /** Streams connected to this node, by user ID. */
+    private final Map<String, Set<SseEmitter>> localEmitters = new ConcurrentHashMap<>();
+
+    /** Counts are read from Redis, never on the Redisson listener threads. */
+    private final ExecutorService pushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    public void subscribe() {
+        RTopic topic = redissonClient.getTopic(NotificationUnreadCounter.CHANGED_CHANNEL, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, uid) -> {
+            if (NotificationUnreadCounter.ALL_USERS.equals(uid)) {
+                localEmitters.keySet().forEach(this::pushAsync);
+            } else if (localEmitters.containsKey(uid)) {
+                pushAsync(uid);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pushExecutor.shutdownNow();
+        localEmitters.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Open an unread count stream for a user, the current count is sent first
+     *
+     * @param uid User ID
+     * @return SSE stream
+     */
+    public SseEmitter connect(String uid) {
+        SseEmitter emitter = new SseEmitter(timeoutMinutes * 60_000);
+        localEmitters.computeIfAbsent(uid, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+        emitter.onCompletion(() -> remove(uid, emitter));
+        emitter.onTimeout(() -> remove(uid, emitter));
+        emitter.onError(e -> remove(uid, emitter));
+        pushAsync(uid);
+        return emitter;
+    }
+
+    /**
+     * Send a comment to every stream, streams that fail are closed
+     */
+    @Scheduled(fixedDelay = HEARTBEAT_INTERVAL_MS)
+    public void heartbeat() {
+        localEmitters.forEach((uid, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (Exception e) {
+                    remove(uid, emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    private void pushAsync(String uid) {
+        try {
+            pushExecutor.execute(() -> push(uid));
+        } catch (Exception e) {
+            log.warn("Failed to schedule unread count push, uid={}", uid, e);
+        }
+    }
+
+    private void push(String uid) {
+        Set<SseEmitter> emitters = localEmitters.get(uid);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        long unreadCount;
+        try {
+            unreadCount = notificationDataService.countUserUnreadNotifications(uid);
+        } catch (Exception e) {
+            log.warn("Failed to count unread notifications for push, uid={}", uid, e);
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_UNREAD_COUNT).data(unreadCount));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Failed to push unread count, close stream, uid={}", uid, e);
+                remove(uid, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void remove(String uid, SseEmitter emitter) {
+        localEmitters.computeIfPresent(uid, (k, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
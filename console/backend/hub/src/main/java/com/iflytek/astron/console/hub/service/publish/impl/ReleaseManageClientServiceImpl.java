@@ -5,6 +5,7 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.iflytek.astron.console.commons.enums.bot.ReleaseTypeEnum;
 import com.iflytek.astron.console.commons.service.data.UserLangChainDataService;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.commons.util.MaasUtil;
 import com.iflytek.astron.console.hub.dto.publish.ReleaseBotReqDto;
 import com.iflytek.astron.console.hub.dto.publish.ReleaseBotRespDto;
@@ -16,7 +17,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
 
 /**
  * @author yun-zhi-ztl
@@ -33,6 +33,9 @@ public class ReleaseManageClientServiceImpl implements ReleaseManageClientServic
     @Autowired
     private UserLangChainDataService userLangChainDataService;
 
+    @Autowired
+    private HttpClientRegistry httpClientRegistry;
+
     // Constant definition area
     // API path for getting version name
     private static final String GET_VERSION_NAME_URL = "/get-version-name";
@@ -48,13 +51,6 @@ public class ReleaseManageClientServiceImpl implements ReleaseManageClientServic
     private static final String SPACE_ID_HEADER = "space-id";
 
 
-    // OkHttp client instance, configured with connection pool, timeouts and other parameters
-    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient().newBuilder()
-            .connectionPool(new ConnectionPool(100, 5, TimeUnit.MINUTES))
-            .connectTimeout(60, TimeUnit.SECONDS)
-            .readTimeout(60, TimeUnit.SECONDS)
-            .writeTimeout(60, TimeUnit.SECONDS)
-            .build();
 
     @Override
     public String getVersionNameByBotId(Long botId, Long spaceId, HttpServletRequest request) {
@@ -160,7 +156,7 @@ public class ReleaseManageClientServiceImpl implements ReleaseManageClientServic
      * @return Returns parsed response data object
      */
     private ReleaseBotRespDto executeRequestForReleaseBot(Request request, String flowId) {
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClientRegistry.get(HttpClientRegistry.RELEASE_MANAGER).newCall(request).execute()) {
             // Check if HTTP response was successful and has body content
             ResponseBody body = response.body();
             if (!response.isSuccessful() || body == null) {
@@ -195,7 +191,7 @@ public class ReleaseManageClientServiceImpl implements ReleaseManageClientServic
      * @return Returns parsed version name string
      */
     private String executeRequestForVersionName(Request request, String flowId) {
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClientRegistry.get(HttpClientRegistry.RELEASE_MANAGER).newCall(request).execute()) {
             // Check if HTTP response was successful and has body content
             ResponseBody body = response.body();
             if (!response.isSuccessful() || body == null) {
@@ -113,9 +113,10 @@ public class EnterpriseUserBizServiceImpl implements EnterpriseUserBizService {
             return ApiResult.error(ResponseEnum.ENTERPRISE_TEAM_SUPER_ADMIN_CANNOT_LEAVE_TEAM);
         }
         // Remove user unified operation
-        if (!removeEnterpriseUser(enterpriseUser)) {
-            // Clear cache
-            enterpriseSpaceService.clearEnterpriseUserCache(enterpriseId, uid);
+        boolean removed = removeEnterpriseUser(enterpriseUser);
+        // Clear cache
+        enterpriseSpaceService.clearEnterpriseUserCache(enterpriseId, uid);
+        if (!removed) {
             return ApiResult.error(ResponseEnum.ENTERPRISE_TEAM_LEAVE_FAILED);
         }
         return ApiResult.success();
@@ -164,12 +165,14 @@ public class EnterpriseUserBizServiceImpl implements EnterpriseUserBizService {
             for (SpaceVO spaceVO : spaceVOS) {
                 if (Objects.equals(spaceVO.getUserRole(), SpaceRoleEnum.OWNER.getCode())) {
                     spaceUserService.addSpaceUser(spaceVO.getId(), uid, SpaceRoleEnum.OWNER);
+                    enterpriseSpaceService.clearSpaceUserCache(spaceVO.getId(), uid);
                 }
             }
             // Remove all space users
             spaceUserService.removeByUid(spaceVOS.stream()
                     .map(SpaceVO::getId)
                     .collect(Collectors.toSet()), enterpriseUser.getUid());
+            spaceVOS.forEach(spaceVO -> enterpriseSpaceService.clearSpaceUserCache(spaceVO.getId(), enterpriseUser.getUid()));
         }
         // Delete team user
         return enterpriseUserService.removeById(enterpriseUser);
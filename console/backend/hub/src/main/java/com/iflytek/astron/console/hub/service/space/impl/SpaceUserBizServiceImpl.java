@@ -170,6 +170,7 @@ public class SpaceUserBizServiceImpl implements SpaceUserBizService {
             return ApiResult.error(ResponseEnum.SPACE_USER_OWNER_CANNOT_LEAVE);
         }
         if (spaceUserService.removeById(spaceUser)) {
+            enterpriseSpaceService.clearSpaceUserCache(spaceId, uid);
             return ApiResult.success();
         } else {
             return ApiResult.error(ResponseEnum.SPACE_USER_REMOVE_FAILED);
@@ -202,6 +203,8 @@ public class SpaceUserBizServiceImpl implements SpaceUserBizService {
         spaceOwner.setRole(SpaceRoleEnum.ADMIN.getCode());
         spaceUser.setRole(SpaceRoleEnum.OWNER.getCode());
         if (spaceUserService.updateBatchById(Arrays.asList(spaceOwner, spaceUser))) {
+            enterpriseSpaceService.clearSpaceUserCache(spaceId, ownerUid);
+            enterpriseSpaceService.clearSpaceUserCache(spaceId, uid);
             return ApiResult.success();
         } else {
             return ApiResult.error(ResponseEnum.SPACE_USER_TRANSFER_FAILED);
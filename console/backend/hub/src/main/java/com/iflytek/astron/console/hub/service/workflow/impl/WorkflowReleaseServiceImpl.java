@@ -4,6 +4,7 @@ import com.iflytek.astron.console.commons.enums.bot.ReleaseTypeEnum;
 import com.iflytek.astron.console.commons.service.data.UserLangChainDataService;
 import com.iflytek.astron.console.commons.mapper.bot.ChatBotApiMapper;
 import com.iflytek.astron.console.commons.dto.bot.ChatBotApi;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.commons.util.MaasUtil;
 import com.iflytek.astron.console.toolkit.entity.table.workflow.WorkflowVersion;
 import com.iflytek.astron.console.toolkit.mapper.workflow.WorkflowVersionMapper;
@@ -24,7 +25,6 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.Random;
 
-import java.time.Duration;
 
 /**
  * Workflow release service implementation Simplified version: no approval process, direct publish
@@ -39,6 +39,7 @@ public class WorkflowReleaseServiceImpl implements WorkflowReleaseService {
     private final WorkflowVersionMapper workflowVersionMapper;
     private final ChatBotApiMapper chatBotApiMapper;
     private final MaasUtil maasUtil;
+    private final HttpClientRegistry httpClientRegistry;
 
     // Workflow version management base URL
     @Value("${maas.workflowVersion}")
@@ -61,11 +62,6 @@ public class WorkflowReleaseServiceImpl implements WorkflowReleaseService {
 
     // HTTP client configuration
     private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
-    private final OkHttpClient okHttpClient = new OkHttpClient.Builder()
-            .connectTimeout(Duration.ofSeconds(30))
-            .readTimeout(Duration.ofSeconds(60))
-            .writeTimeout(Duration.ofSeconds(60))
-            .build();
 
     // TODO: Inject actual workflow version management service and API sync service
     // private final WorkflowVersionService workflowVersionService;
@@ -153,7 +149,7 @@ public class WorkflowReleaseServiceImpl implements WorkflowReleaseService {
             requestBuilder.addHeader("space-id", spaceId.toString());
         }
 
-        try (Response response = okHttpClient.newCall(requestBuilder.build()).execute()) {
+        try (Response response = httpClientRegistry.get(HttpClientRegistry.RELEASE_MANAGER).newCall(requestBuilder.build()).execute()) {
             ResponseBody body = response.body();
             if (body != null && response.isSuccessful()) {
                 String responseStr = body.string();
@@ -259,7 +255,7 @@ public class WorkflowReleaseServiceImpl implements WorkflowReleaseService {
                     .addHeader("Authorization", authHeader)
                     .build();
 
-            try (Response response = okHttpClient.newCall(httpRequest).execute()) {
+            try (Response response = httpClientRegistry.get(HttpClientRegistry.RELEASE_MANAGER).newCall(httpRequest).execute()) {
                 ResponseBody body = response.body();
                 String responseBody = body != null ? body.string() : null;
 
@@ -409,7 +405,7 @@ public class WorkflowReleaseServiceImpl implements WorkflowReleaseService {
                     .addHeader("Authorization", authHeader)
                     .build();
 
-            try (Response response = okHttpClient.newCall(httpRequest).execute()) {
+            try (Response response = httpClientRegistry.get(HttpClientRegistry.RELEASE_MANAGER).newCall(httpRequest).execute()) {
                 ResponseBody body = response.body();
                 String responseBody = body != null ? body.string() : null;
 
@@ -9,7 +9,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.iflytek.astron.console.commons.constant.ResponseEnum;
 import com.iflytek.astron.console.commons.exception.BusinessException;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import lombok.Data;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.jetbrains.annotations.NotNull;
@@ -32,6 +34,7 @@ import java.util.concurrent.TimeUnit;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class BotAIServiceClient {
 
     private static final List<Integer> ALLOWED_IMAGE_SIZES = Arrays.asList(512, 640, 768, 1024);
@@ -39,15 +42,11 @@ public class BotAIServiceClient {
     private static final String IMAGE_GENERATION_DOMAIN = "safecfa46";
     private static final String TEXT_HOST_URL = "https://spark-api.xf-yun.com/v4.0/chat";
     private static final String imageHost = "http://spark-openapi.cn-huabei-1.xf-yun.com/v2.1/tti";
-    private final OkHttpClient httpClient = new OkHttpClient().newBuilder()
-            .connectionPool(new ConnectionPool(100, 5, TimeUnit.MINUTES))
-            .connectTimeout(60, TimeUnit.SECONDS)
-            .readTimeout(60, TimeUnit.SECONDS)
-            .writeTimeout(60, TimeUnit.SECONDS)
-            .build();
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final HttpClientRegistry httpClientRegistry;
+
     @Value("${spark.app-id}")
     private String appId;
 
@@ -93,7 +92,7 @@ public class BotAIServiceClient {
                     .post(requestBody)
                     .build();
 
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = httpClientRegistry.get(HttpClientRegistry.AI_SERVICE).newCall(request).execute()) {
                 ResponseBody responseBody = response.body();
                 if (responseBody == null) {
                     throw new IllegalStateException("Image generation service response is empty");
@@ -132,7 +131,7 @@ public class BotAIServiceClient {
             CountDownLatch latch = new CountDownLatch(1);
             StringBuilder totalAnswer = new StringBuilder();
 
-            httpClient.newWebSocket(request, new TextGenerationWebSocketListener(
+            httpClientRegistry.get(HttpClientRegistry.AI_SERVICE).newWebSocket(request, new TextGenerationWebSocketListener(
                     appId, question, domain, latch, totalAnswer));
 
             if (!latch.await(seconds, TimeUnit.SECONDS)) {
@@ -0,0 +1,33 @@
+package com.iflytek.astron.console.hub.util;
+
+import com.iflytek.astron.console.commons.util.I18nUtil;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Wraps a user question with the knowledge recalled for it, in the loose knowledge prompt format
+ */
+public class KnowledgePromptUtil {
+
+    private KnowledgePromptUtil() {}
+
+    /**
+     * Insert the knowledge and the question into the loose prefix/suffix prompt
+     *
+     * @param ask Original question
+     * @param knowledge Knowledge content, stored as the string form of a list of chunks
+     * @return Wrapped question, or the original question when there is no knowledge
+     */
+    public static String wrap(String ask, String knowledge) {
+        if (StringUtils.isBlank(ask) || StringUtils.isBlank(knowledge)) {
+            return ask;
+        }
+        StringBuilder promptBuilder = new StringBuilder();
+        promptBuilder.append(I18nUtil.getMessage("loose.prefix.prompt"));
+
+        // Insert knowledge content into the placeholder
+        promptBuilder.insert(promptBuilder.indexOf("[") + 1, knowledge);
+        promptBuilder.append(I18nUtil.getMessage("loose.suffix.prompt"));
+        promptBuilder.insert(promptBuilder.indexOf("{{") + 2, ask);
+        return promptBuilder.toString();
+    }
+}
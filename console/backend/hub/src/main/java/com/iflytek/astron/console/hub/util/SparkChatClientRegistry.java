@@ -0,0 +1,174 @@
+package com.iflytek.astron.console.hub.util;
+
+import cn.xfyun.api.SparkChatClient;
+import cn.xfyun.config.SparkModel;
+import cn.xfyun.model.sparkmodel.SparkChatParam;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of shared Spark chat clients, one per {@link SparkModel}.
+ * <p>
+ * Each client is built once and reused for every chat turn so that its connection pool, TLS
+ * sessions and dispatcher are shared across requests instead of being recreated per message. Call
+ * state (queued, active, completed, failed) is tracked per model and published as Micrometer
+ * gauges when a {@link MeterRegistry} is available.
+ */
+@Slf4j
+@Component
+public class SparkChatClientRegistry {
+
+    private static final String METRIC_NAME = "spark.chat.client.calls";
+
+    @Value("${spark.api.password}")
+    private String apiPassword;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<SparkModel, SparkChatClient> clients = new ConcurrentHashMap<>();
+
+    private final Map<SparkModel, ClientStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared client of the given model, building it on first use
+     *
+     * @param sparkModel Spark model
+     * @return Shared SparkChatClient
+     */
+    public SparkChatClient getClient(SparkModel sparkModel) {
+        return clients.computeIfAbsent(sparkModel, model -> {
+            log.info("Create shared Spark chat client, model: {}", model);
+            return new SparkChatClient.Builder().signatureHttp(apiPassword, model).build();
+        });
+    }
+
+    /**
+     * Send a chat request through the shared client of the given model
+     *
+     * @param sparkModel Spark model
+     * @param param Chat parameters
+     * @param callback Response callback
+     * @throws Exception if the request cannot be dispatched
+     */
+    public void send(SparkModel sparkModel, SparkChatParam param, Callback callback) throws Exception {
+        SparkChatClient client = getClient(sparkModel);
+        ClientStats clientStats = getStats(sparkModel);
+        clientStats.queued.incrementAndGet();
+        try {
+            client.send(param, new TrackingCallback(callback, clientStats));
+        } catch (Exception e) {
+            clientStats.queued.decrementAndGet();
+            clientStats.failed.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Get call statistics of the given model
+     *
+     * @param sparkModel Spark model
+     * @return Call statistics
+     */
+    public ClientStats getStats(SparkModel sparkModel) {
+        return stats.computeIfAbsent(sparkModel, this::createStats);
+    }
+
+    private ClientStats createStats(SparkModel sparkModel) {
+        ClientStats clientStats = new ClientStats();
+        if (meterRegistry != null) {
+            String model = String.valueOf(sparkModel);
+            Gauge.builder(METRIC_NAME, clientStats.queued, AtomicInteger::get)
+                    .tag("model", model)
+                    .tag("state", "queued")
+                    .description("Spark chat calls waiting for response headers")
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_NAME, clientStats.active, AtomicInteger::get)
+                    .tag("model", model)
+                    .tag("state", "active")
+                    .description("Spark chat calls currently streaming")
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_NAME, clientStats.completed, AtomicLong::get)
+                    .tag("model", model)
+                    .tag("state", "completed")
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_NAME, clientStats.failed, AtomicLong::get)
+                    .tag("model", model)
+                    .tag("state", "failed")
+                    .register(meterRegistry);
+        }
+        return clientStats;
+    }
+
+    /**
+     * Per-model call statistics
+     */
+    public static class ClientStats {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        public int getQueued() {
+            return queued.get();
+        }
+
+        public int getActive() {
+            return active.get();
+        }
+
+        public long getCompleted() {
+            return completed.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+    }
+
+    /**
+     * Callback decorator keeping {@link ClientStats} in sync with the call lifecycle
+     */
+    private static class TrackingCallback implements Callback {
+        private final Callback delegate;
+        private final ClientStats clientStats;
+
+        TrackingCallback(Callback delegate, ClientStats clientStats) {
+            this.delegate = delegate;
+            this.clientStats = clientStats;
+        }
+
+        @Override
+        public void onFailure(@NotNull Call call, @NotNull IOException e) {
+            clientStats.queued.decrementAndGet();
+            clientStats.failed.incrementAndGet();
+            delegate.onFailure(call, e);
+        }
+
+        @Override
+        public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+            clientStats.queued.decrementAndGet();
+            clientStats.active.incrementAndGet();
+            try {
+                delegate.onResponse(call, response);
+            } finally {
+                clientStats.active.decrementAndGet();
+                clientStats.completed.incrementAndGet();
+            }
+        }
+    }
+}
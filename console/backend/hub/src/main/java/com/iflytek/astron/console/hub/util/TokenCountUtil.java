@@ -0,0 +1,45 @@
+package com.iflytek.astron.console.hub.util;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Rough token estimation used to fit chat history into a model's input window
+ */
+public class TokenCountUtil {
+
+    private TokenCountUtil() {}
+
+    /**
+     * Estimate token count for text (simple estimation: Chinese characters * 1.5, English words * 1.3)
+     *
+     * @param text Text content
+     * @return Estimated token count, 0 for blank text and at least 1 otherwise
+     */
+    public static int estimate(String text) {
+        if (StringUtils.isBlank(text)) {
+            return 0;
+        }
+
+        // Simple estimation method:
+        // - Chinese characters calculated as 1.5 tokens
+        // - English characters calculated as 1.3 tokens (considering word segmentation)
+        int chineseChars = 0;
+        int englishChars = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x4e00 && c <= 0x9fff) {
+                // Chinese character range
+                chineseChars++;
+            } else if (Character.isLetterOrDigit(c)) {
+                // English characters and numbers
+                englishChars++;
+            }
+        }
+
+        int estimatedTokens = (int) (chineseChars * 1.5 + englishChars * 1.3);
+
+        // At least 1 token
+        return Math.max(estimatedTokens, 1);
+    }
+}
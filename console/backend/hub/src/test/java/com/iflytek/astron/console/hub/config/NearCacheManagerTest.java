@@ -0,0 +1,100 @@
+package com.iflytek.astron.console.hub.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheManagerTest {
+
+    private static final String CACHE_NAME = "space:space_user";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    private ConcurrentMapCacheManager remote;
+
+    private NearCacheManager nearCacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager();
+        nearCacheManager = new NearCacheManager(remote, redissonClient, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void get_ServesFromLocalTierAfterFirstRead() {
+        remote.getCache(CACHE_NAME).put(1L, "owner");
+        Cache cache = nearCacheManager.getCache(CACHE_NAME);
+
+        assertEquals("owner", cache.get(1L, String.class));
+        // Remote entry changes without an eviction are not visible until the local TTL expires
+        remote.getCache(CACHE_NAME).put(1L, "member");
+
+        assertEquals("owner", cache.get(1L, String.class));
+    }
+
+    @Test
+    void evict_ClearsBothTiersAndBroadcasts() {
+        when(redissonClient.getTopic(NearCacheManager.INVALIDATE_CHANNEL)).thenReturn(topic);
+        Cache cache = nearCacheManager.getCache(CACHE_NAME);
+        cache.put("1_uid", "owner");
+
+        cache.evict("1_uid");
+
+        assertNull(cache.get("1_uid"));
+        assertNull(remote.getCache(CACHE_NAME).get("1_uid"));
+        verify(topic).publish(CACHE_NAME + "#1_uid");
+    }
+
+    @Test
+    void onInvalidate_DropsLocalEntryOnly() {
+        Cache cache = nearCacheManager.getCache(CACHE_NAME);
+        cache.put(1L, "owner");
+        remote.getCache(CACHE_NAME).put(1L, "member");
+
+        nearCacheManager.onInvalidate(CACHE_NAME + "#1");
+
+        assertEquals("member", cache.get(1L, String.class));
+        verify(redissonClient, never()).getTopic(anyString());
+    }
+
+    @Test
+    void onInvalidate_ClearsWholeLocalCache() {
+        Cache cache = nearCacheManager.getCache(CACHE_NAME);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        remote.getCache(CACHE_NAME).clear();
+
+        nearCacheManager.onInvalidate(CACHE_NAME);
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void evict_StillAppliesLocallyWhenBroadcastFails() {
+        when(redissonClient.getTopic(NearCacheManager.INVALIDATE_CHANNEL)).thenThrow(new IllegalStateException("redis down"));
+        Cache cache = nearCacheManager.getCache(CACHE_NAME);
+        cache.put("key", "value");
+
+        assertDoesNotThrow(() -> cache.evict("key"));
+
+        assertNull(cache.get("key"));
+    }
+}
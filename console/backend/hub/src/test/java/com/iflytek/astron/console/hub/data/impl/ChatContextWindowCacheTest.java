@@ -0,0 +1,153 @@
+package com.iflytek.astron.console.hub.data.impl;
+
+import com.iflytek.astron.console.hub.data.impl.ChatContextWindowCache.Turn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatContextWindowCacheTest {
+
+    private static final String UID = "test-uid";
+    private static final Long CHAT_ID = 1L;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RMap<String, String> window;
+
+    @InjectMocks
+    private ChatContextWindowCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.<String, String>getMap(eq("chat_context_window:" + UID + ":" + CHAT_ID), any(Codec.class))).thenReturn(window);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTurns_LoadsFromDatabaseOnMissAndMarksWindowLoaded() {
+        when(window.readAllMap()).thenReturn(Map.of());
+
+        List<Turn> turns = cache.getTurns(UID, CHAT_ID, () -> List.of(
+                Turn.of(1L, "q1", null, "a1"),
+                Turn.of(2L, "q2", "wrapped q2", null)));
+
+        assertEquals(List.of(1L, 2L), turns.stream().map(Turn::reqId).toList());
+        assertEquals("wrapped q2", turns.get(1).knowledgeAsk().content());
+        assertNull(turns.get(1).answer());
+
+        ArgumentCaptor<Map<String, String>> fieldsCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(window).putAll(fieldsCaptor.capture());
+        assertTrue(fieldsCaptor.getValue().keySet().containsAll(List.of("loaded", "1:q", "1:a", "2:q", "2:k")));
+        verify(window).expire(any(Duration.class));
+    }
+
+    @Test
+    void getTurns_ServesLoadedWindowWithoutDatabase() {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("loaded", "1");
+        fields.put("5:q", "{\"c\":\"hello\",\"t\":2}");
+        fields.put("5:a", "{\"c\":\"hi\",\"t\":1}");
+        when(window.readAllMap()).thenReturn(fields);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Turn> turns = cache.getTurns(UID, CHAT_ID, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertEquals(0, loads.get());
+        assertEquals(1, turns.size());
+        assertEquals("hello", turns.getFirst().ask().content());
+        assertEquals(2, turns.getFirst().ask().tokens());
+        assertEquals("hi", turns.getFirst().answer().content());
+        verify(window, never()).putAll(anyMap());
+    }
+
+    @Test
+    void getTurns_TrimsOldestTurns() {
+        ReflectionTestUtils.setField(cache, "maxTurns", 2);
+        Map<String, String> fields = new HashMap<>();
+        fields.put("loaded", "1");
+        fields.put("1:q", "{\"c\":\"q1\",\"t\":1}");
+        fields.put("1:a", "{\"c\":\"a1\",\"t\":1}");
+        fields.put("2:q", "{\"c\":\"q2\",\"t\":1}");
+        fields.put("3:q", "{\"c\":\"q3\",\"t\":1}");
+        when(window.readAllMap()).thenReturn(fields);
+
+        List<Turn> turns = cache.getTurns(UID, CHAT_ID, List::of);
+
+        assertEquals(List.of(2L, 3L), turns.stream().map(Turn::reqId).toList());
+        verify(window).fastRemove("1:q", "1:k", "1:a");
+    }
+
+    @Test
+    void getTurns_FallsBackToDatabaseWhenRedisFails() {
+        when(window.readAllMap()).thenThrow(new IllegalStateException("redis down"));
+
+        List<Turn> turns = cache.getTurns(UID, CHAT_ID, () -> List.of(Turn.of(1L, "q1", null, null)));
+
+        assertEquals(1, turns.size());
+        verify(window, never()).putAll(anyMap());
+    }
+
+    @Test
+    void putAsk_OnlyExtendsExistingWindow() {
+        when(window.isExists()).thenReturn(false, true);
+
+        cache.putAsk(UID, CHAT_ID, 1L, "q1");
+        cache.putAsk(UID, CHAT_ID, 2L, "q2");
+
+        verify(window, times(1)).fastPut(eq("2:q"), contains("q2"));
+    }
+
+    @Test
+    void putAnswer_AppendsWhenQuestionIsInWindow() {
+        when(window.isExists()).thenReturn(true);
+        when(window.containsKey("3:q")).thenReturn(true);
+
+        cache.putAnswer(UID, CHAT_ID, 3L, "a3");
+
+        verify(window).fastPut(eq("3:a"), contains("a3"));
+        verify(window, never()).delete();
+    }
+
+    @Test
+    void putAnswer_DropsWindowMissingTheQuestion() {
+        when(window.isExists()).thenReturn(true);
+        when(window.containsKey("3:q")).thenReturn(false);
+
+        cache.putAnswer(UID, CHAT_ID, 3L, "a3");
+        cache.putKnowledge(UID, CHAT_ID, 3L, "q3", "doc");
+
+        verify(window, never()).fastPut(anyString(), anyString());
+        verify(window, times(2)).delete();
+    }
+
+    @Test
+    void invalidate_DeletesWindow() {
+        cache.invalidate(UID, CHAT_ID);
+
+        verify(window).delete();
+    }
+}
@@ -65,6 +65,12 @@ class ChatDataServiceImplTest {
     @Mock
     private BotChatFileParamMapper botChatFileParamMapper;
 
+    @Mock
+    private ChatRecordWriteBehind chatRecordWriteBehind;
+
+    @Mock
+    private ChatContextWindowCache chatContextWindowCache;
+
     @InjectMocks
     private ChatDataServiceImpl chatDataService;
 
@@ -202,21 +208,16 @@ class ChatDataServiceImplTest {
 
     @Test
     void testCreateRequest_Success() {
-        ChatTreeIndex treeIndex = ChatTreeIndex.builder()
-                .rootChatId(TEST_CHAT_ID)
-                .childChatId(TEST_CHAT_ID)
-                .build();
-
         when(chatListMapper.selectOne(any(LambdaQueryWrapper.class))).thenReturn(testChatList);
         when(chatReqRecordsMapper.insert(any(ChatReqRecords.class))).thenReturn(1);
-        when(chatListMapper.update(isNull(), any(LambdaUpdateWrapper.class))).thenReturn(1);
-        when(chatTreeIndexMapper.selectList(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(treeIndex));
 
         ChatReqRecords result = chatDataService.createRequest(testReqRecord);
 
         assertNotNull(result);
         verify(chatReqRecordsMapper).insert(testReqRecord);
-        verify(chatListMapper, atLeastOnce()).update(isNull(), any(LambdaUpdateWrapper.class));
+        verify(chatRecordWriteBehind).touchChat(TEST_CHAT_ID);
+        verify(chatContextWindowCache).putAsk(TEST_UID, TEST_CHAT_ID, testReqRecord.getId(), testReqRecord.getMessage());
+        verify(chatListMapper, never()).update(any(), any(LambdaUpdateWrapper.class));
     }
 
     @Test
@@ -378,6 +379,7 @@ class ChatDataServiceImplTest {
 
         assertEquals(1, result);
         verify(chatReqRecordsMapper).update(isNull(), any(LambdaUpdateWrapper.class));
+        verify(chatContextWindowCache).invalidate(TEST_UID, TEST_CHAT_ID);
     }
 
     @Test
@@ -0,0 +1,306 @@
+package com.iflytek.astron.console.hub.data.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.iflytek.astron.console.commons.entity.chat.*;
+import com.iflytek.astron.console.commons.mapper.chat.ChatListMapper;
+import com.iflytek.astron.console.commons.mapper.chat.ChatTreeIndexMapper;
+import com.iflytek.astron.console.hub.mapper.ChatReasonRecordsMapper;
+import com.iflytek.astron.console.hub.mapper.ChatRespRecordsMapper;
+import com.iflytek.astron.console.hub.mapper.ChatTraceSourceMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RList;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatRecordWriteBehindTest {
+
+    @Mock
+    private ChatRespRecordsMapper chatRespRecordsMapper;
+
+    @Mock
+    private ChatReasonRecordsMapper chatReasonRecordsMapper;
+
+    @Mock
+    private ChatTraceSourceMapper chatTraceSourceMapper;
+
+    @Mock
+    private ChatListMapper chatListMapper;
+
+    @Mock
+    private ChatTreeIndexMapper chatTreeIndexMapper;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private RList<String> queue;
+
+    @Mock
+    private RLock lock;
+
+    @InjectMocks
+    private ChatRecordWriteBehind writeBehind;
+
+    /** Contents of the Redis list */
+    private final List<String> entries = new ArrayList<>();
+
+    @BeforeAll
+    static void initMybatisPlus() {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(configuration, "");
+
+        TableInfoHelper.initTableInfo(assistant, ChatList.class);
+        TableInfoHelper.initTableInfo(assistant, ChatRespRecords.class);
+        TableInfoHelper.initTableInfo(assistant, ChatReasonRecords.class);
+        TableInfoHelper.initTableInfo(assistant, ChatTraceSource.class);
+        TableInfoHelper.initTableInfo(assistant, ChatTreeIndex.class);
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        writeBehind.init();
+        lenient().when(redissonClient.getScript(any(Codec.class))).thenReturn(script);
+        lenient().when(redissonClient.<String>getList(eq(ChatRecordWriteBehind.QUEUE_KEY), any(Codec.class))).thenReturn(queue);
+        lenient().when(redissonClient.getLock(ChatRecordWriteBehind.FLUSH_LOCK_KEY)).thenReturn(lock);
+        lenient().when(lock.tryLock()).thenReturn(true);
+        lenient().when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(ChatRecordWriteBehind.QUEUE_KEY)), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    if (entries.size() >= Integer.parseInt(invocation.getArgument(4))) {
+                        return -1L;
+                    }
+                    entries.add(invocation.getArgument(5));
+                    return (long) entries.size();
+                });
+        lenient().when(queue.range(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int to = Math.min((int) invocation.getArgument(1) + 1, entries.size());
+            return new ArrayList<>(entries.subList((int) invocation.getArgument(0), to));
+        });
+        lenient().doAnswer(invocation -> {
+            entries.subList(0, Math.min((int) invocation.getArgument(0), entries.size())).clear();
+            return null;
+        }).when(queue).trim(anyInt(), eq(-1));
+        lenient().when(queue.size()).thenAnswer(invocation -> entries.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_GroupsConsecutiveInsertsAndKeepsOrder() {
+        writeBehind.saveResponse(response(1L));
+        writeBehind.saveResponse(response(2L));
+        writeBehind.saveReason(reason(2L));
+        writeBehind.saveResponse(response(3L));
+
+        writeBehind.flush();
+
+        ArgumentCaptor<Collection<ChatRespRecords>> respCaptor = ArgumentCaptor.forClass(Collection.class);
+        InOrder inOrder = inOrder(chatRespRecordsMapper, chatReasonRecordsMapper);
+        inOrder.verify(chatRespRecordsMapper).insert(respCaptor.capture());
+        inOrder.verify(chatReasonRecordsMapper).insert(anyCollection());
+        inOrder.verify(chatRespRecordsMapper).insert(respCaptor.capture());
+
+        assertEquals(2, respCaptor.getAllValues().get(0).size());
+        assertEquals(1, respCaptor.getAllValues().get(1).size());
+        verifyNoInteractions(chatListMapper);
+    }
+
+    @Test
+    void flush_AppliesUpdatesWithoutLookup() {
+        ChatRespRecords update = response(1L);
+
+        writeBehind.updateResponse(update);
+        writeBehind.flush();
+
+        verify(chatRespRecordsMapper).update(eq(update), any(LambdaUpdateWrapper.class));
+        verify(chatRespRecordsMapper, never()).selectOne(any());
+        assertTrue(entries.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_FailedInsertRetriedBeforeLaterUpdate() {
+        when(chatRespRecordsMapper.insert(anyCollection()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of());
+
+        writeBehind.saveResponse(response(1L));
+        writeBehind.updateResponse(response(1L));
+        writeBehind.flush();
+
+        // The update waits behind the failed insert, which stays at the head of the list
+        verify(chatRespRecordsMapper, never()).update(any(ChatRespRecords.class), any(LambdaUpdateWrapper.class));
+        assertEquals(2, entries.size());
+
+        writeBehind.flush();
+
+        InOrder inOrder = inOrder(chatRespRecordsMapper);
+        inOrder.verify(chatRespRecordsMapper, times(2)).insert(anyCollection());
+        inOrder.verify(chatRespRecordsMapper).update(any(ChatRespRecords.class), any(LambdaUpdateWrapper.class));
+        assertTrue(entries.isEmpty());
+    }
+
+    @Test
+    void flush_LockHeldElsewhere_LeavesQueue() {
+        when(lock.tryLock()).thenReturn(false);
+
+        writeBehind.saveResponse(response(1L));
+        writeBehind.flush();
+
+        verifyNoInteractions(chatRespRecordsMapper);
+        assertEquals(1, entries.size());
+        verify(lock, never()).unlock();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_QueueFull_WritesSynchronously() {
+        ReflectionTestUtils.setField(writeBehind, "queueCapacity", 1);
+
+        writeBehind.saveResponse(response(1L));
+        writeBehind.saveResponse(response(2L));
+
+        verify(chatRespRecordsMapper).insert(anyCollection());
+        assertEquals(1, entries.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_RedisUnavailable_WritesSynchronously() {
+        doThrow(new IllegalStateException("redis down")).when(script)
+                .eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class), anyList(), any(Object[].class));
+
+        writeBehind.saveResponse(response(1L));
+
+        verify(chatRespRecordsMapper).insert(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_RetriesFailedBatchOneByOne() {
+        when(chatRespRecordsMapper.insert(anyCollection()))
+                .thenThrow(new IllegalStateException("batch failed"))
+                .thenReturn(List.of());
+
+        writeBehind.saveResponse(response(1L));
+        writeBehind.saveResponse(response(2L));
+        writeBehind.flush();
+
+        verify(chatRespRecordsMapper, times(3)).insert(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_RetriesFailedRowOnNextFlush() {
+        when(chatRespRecordsMapper.insert(anyCollection()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(List.of());
+
+        writeBehind.saveResponse(response(1L));
+        writeBehind.flush();
+        verify(chatRespRecordsMapper, times(1)).insert(anyCollection());
+
+        writeBehind.flush();
+        verify(chatRespRecordsMapper, times(2)).insert(anyCollection());
+
+        // Written, nothing left to retry
+        writeBehind.flush();
+        verifyNoMoreInteractions(chatRespRecordsMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_DropsRowAfterMaxAttempts() {
+        when(chatRespRecordsMapper.insert(anyCollection())).thenThrow(new IllegalStateException("bad row"));
+
+        writeBehind.saveResponse(response(1L));
+        for (int i = 0; i < 5; i++) {
+            writeBehind.flush();
+        }
+
+        verify(chatRespRecordsMapper, times(3)).insert(anyCollection());
+        assertTrue(entries.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesChatTouchesIntoOneUpdateIncludingRoot() {
+        ChatTreeIndex index = ChatTreeIndex.builder().childChatId(2L).rootChatId(5L).build();
+        when(chatTreeIndexMapper.selectList(any(LambdaQueryWrapper.class))).thenReturn(List.of(index));
+
+        writeBehind.touchChat(1L);
+        writeBehind.touchChat(1L);
+        writeBehind.touchChat(2L);
+        writeBehind.flush();
+
+        ArgumentCaptor<LambdaUpdateWrapper<ChatList>> wrapperCaptor = ArgumentCaptor.forClass(LambdaUpdateWrapper.class);
+        verify(chatListMapper, times(1)).update(isNull(), wrapperCaptor.capture());
+        LambdaUpdateWrapper<ChatList> wrapper = wrapperCaptor.getValue();
+        // Condition values are only bound once the SQL segment is rendered
+        wrapper.getSqlSegment();
+        Collection<Object> params = wrapper.getParamNameValuePairs().values();
+        assertTrue(params.containsAll(List.of(1L, 2L, 5L)));
+
+        // Nothing left to flush
+        writeBehind.flush();
+        verifyNoMoreInteractions(chatListMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_KeepsChatTouchesWhenUpdateFails() {
+        when(chatTreeIndexMapper.selectList(any(LambdaQueryWrapper.class))).thenReturn(List.of());
+        when(chatListMapper.update(isNull(), any(LambdaUpdateWrapper.class)))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+
+        writeBehind.touchChat(1L);
+        writeBehind.flush();
+        writeBehind.flush();
+
+        verify(chatListMapper, times(2)).update(isNull(), any(LambdaUpdateWrapper.class));
+    }
+
+    private static ChatRespRecords response(Long reqId) {
+        ChatRespRecords record = new ChatRespRecords();
+        record.setUid("test-uid");
+        record.setChatId(1L);
+        record.setReqId(reqId);
+        return record;
+    }
+
+    private static ChatReasonRecords reason(Long reqId) {
+        ChatReasonRecords record = new ChatReasonRecords();
+        record.setUid("test-uid");
+        record.setChatId(1L);
+        record.setReqId(reqId);
+        return record;
+    }
+}
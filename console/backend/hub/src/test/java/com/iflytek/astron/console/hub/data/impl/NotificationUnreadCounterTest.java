@@ -0,0 +1,169 @@
+package com.iflytek.astron.console.hub.data.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RKeys;
+import org.redisson.api.RMap;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScript;
+import org.redisson.api.RSet;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationUnreadCounterTest {
+
+    private static final String UID = "test-uid";
+
+    private static final Pattern HASH_TAG = Pattern.compile("\\{([^}]+)}");
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private NotificationUnreadCounter.Loader loader;
+
+    @InjectMocks
+    private NotificationUnreadCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redissonClient.getScript(any(Codec.class))).thenReturn(script);
+        lenient().when(redissonClient.getTopic(eq(NotificationUnreadCounter.CHANGED_CHANNEL), any(Codec.class))).thenReturn(topic);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void keys_UserKeysShareAPerUserSlot() {
+        assertEquals(hashTag(NotificationUnreadCounter.userKey(UID)), hashTag(NotificationUnreadCounter.readKey(UID)));
+        assertEquals("notification:" + UID, hashTag(NotificationUnreadCounter.userKey(UID)));
+        assertNotEquals(hashTag(NotificationUnreadCounter.userKey(UID)), hashTag(NotificationUnreadCounter.userKey("other-uid")));
+
+        Set<String> broadcastTags = new HashSet<>();
+        for (String key : List.of(NotificationUnreadCounter.BROADCAST_KEY,
+                NotificationUnreadCounter.BROADCAST_EXPIRE_KEY, NotificationUnreadCounter.BROADCAST_LOADED_KEY)) {
+            broadcastTags.add(hashTag(key));
+        }
+        assertEquals(Set.of("notification:broadcasts"), broadcastTags);
+    }
+
+    @Test
+    void count_EachScriptStaysOnOneSlot() {
+        List<Object> broadcasts = List.of("7", "1000", "8", "2000");
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenReturn(broadcasts);
+        when(script.eval(eq(RScript.Mode.READ_ONLY), anyString(), eq(RScript.ReturnType.INTEGER), anyList(), any(Object[].class)))
+                .thenReturn(3L);
+
+        assertEquals(3L, counter.count(UID, loader));
+
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.MULTI),
+                eq(List.of(NotificationUnreadCounter.BROADCAST_KEY, NotificationUnreadCounter.BROADCAST_EXPIRE_KEY,
+                        NotificationUnreadCounter.BROADCAST_LOADED_KEY)),
+                any(Object[].class));
+        // The live broadcasts are handed to the user script, which only touches the user's keys
+        verify(script).eval(eq(RScript.Mode.READ_ONLY), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(NotificationUnreadCounter.userKey(UID), NotificationUnreadCounter.readKey(UID))),
+                eq("7"), eq("1000"), eq("8"), eq("2000"));
+        verifyNoInteractions(loader);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void count_LoadsMissingKeysAndCountsAgain() {
+        when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenReturn(null, List.of());
+        when(script.eval(eq(RScript.Mode.READ_ONLY), anyString(), eq(RScript.ReturnType.INTEGER), anyList(), any(Object[].class)))
+                .thenReturn(2L);
+        RBucket<Object> loaded = mock(RBucket.class);
+        RScoredSortedSet<Object> broadcasts = mock(RScoredSortedSet.class);
+        RSet<Object> readSet = mock(RSet.class);
+        RMap<Object, Object> userHash = mock(RMap.class);
+        when(redissonClient.getBucket(eq(NotificationUnreadCounter.BROADCAST_LOADED_KEY), any(Codec.class))).thenReturn(loaded);
+        when(redissonClient.getScoredSortedSet(anyString(), any(Codec.class))).thenReturn(broadcasts);
+        when(redissonClient.getSet(eq(NotificationUnreadCounter.readKey(UID)), any(Codec.class))).thenReturn(readSet);
+        when(redissonClient.getMap(eq(NotificationUnreadCounter.userKey(UID)), any(Codec.class))).thenReturn(userHash);
+        when(redissonClient.getKeys()).thenReturn(mock(RKeys.class));
+        when(loader.broadcasts()).thenReturn(List.of(new NotificationUnreadCounter.Broadcast(7L, LocalDateTime.now(), null)));
+        when(loader.readBroadcastIds(UID)).thenReturn(List.of());
+        when(loader.countPersonalUnread(UID)).thenReturn(2L);
+
+        assertEquals(2L, counter.count(UID, loader));
+
+        verify(broadcasts).addAll(anyMap());
+        verify(loaded).set(eq("1"), any(Duration.class));
+        verify(readSet).addAll(Set.of("-"));
+        verify(userHash).putAll(argThat(counts -> "2".equals(counts.get("personal"))));
+    }
+
+    @Test
+    void count_RedisFailure_ReturnsNull() {
+        when(script.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class), anyList(), any(Object[].class)))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        assertNull(counter.count(UID, loader));
+    }
+
+    @Test
+    void addPersonal_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        counter.addPersonal(UID, -2);
+
+        verifyNoInteractions(script, topic);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(NotificationUnreadCounter.userKey(UID))), eq("-2"));
+        verify(topic).publish(UID);
+    }
+
+    @Test
+    void addBroadcast_PublishedToAllUsers() {
+        counter.addBroadcast(new NotificationUnreadCounter.Broadcast(7L, LocalDateTime.now(), null));
+
+        verify(script).eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.INTEGER),
+                eq(List.of(NotificationUnreadCounter.BROADCAST_KEY, NotificationUnreadCounter.BROADCAST_EXPIRE_KEY,
+                        NotificationUnreadCounter.BROADCAST_LOADED_KEY)),
+                eq("7"), anyString(), eq(""));
+        verify(topic).publish(NotificationUnreadCounter.ALL_USERS);
+    }
+
+    private static String hashTag(String key) {
+        Matcher matcher = HASH_TAG.matcher(key);
+        assertTrue(matcher.find(), key);
+        return matcher.group(1);
+    }
+}
@@ -27,6 +27,9 @@ class ReqKnowledgeRecordsDataServiceImplTest {
     @Mock
     private ReqKnowledgeRecordsMapper reqKnowledgeRecordsMapper;
 
+    @Mock
+    private ChatContextWindowCache chatContextWindowCache;
+
     @InjectMocks
     private ReqKnowledgeRecordsDataServiceImpl reqKnowledgeRecordsDataService;
 
@@ -71,6 +74,8 @@ class ReqKnowledgeRecordsDataServiceImplTest {
         assertEquals(TEST_REQ_ID, result.getReqId());
         assertEquals("What is the capital of France?", result.getReqMessage());
         verify(reqKnowledgeRecordsMapper).insert(testRecord);
+        verify(chatContextWindowCache).putKnowledge(TEST_UID, testRecord.getChatId(), TEST_REQ_ID,
+                testRecord.getReqMessage(), testRecord.getKnowledge());
     }
 
     // ========== findByReqIds Method Tests ==========
@@ -3,8 +3,8 @@ package com.iflytek.astron.console.hub.service;
 import com.alibaba.fastjson2.JSONObject;
 import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
 import com.iflytek.astron.console.commons.service.ChatRecordModelService;
-import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.util.SseEmitterUtil;
+import com.iflytek.astron.console.commons.util.StreamingHttpGateway;
 import okhttp3.*;
 import okio.Buffer;
 import okio.BufferedSource;
@@ -29,7 +29,7 @@ class PromptChatServiceTest {
     private OkHttpClient httpClient;
 
     @Mock
-    private ChatDataService chatDataService;
+    private StreamingHttpGateway streamingGateway;
 
     @Mock
     private ChatRecordModelService chatRecordModelService;
@@ -54,8 +54,7 @@ class PromptChatServiceTest {
 
     @BeforeEach
     void setUp() {
-        promptChatService = new PromptChatService(httpClient);
-        ReflectionTestUtils.setField(promptChatService, "chatDataService", chatDataService);
+        promptChatService = new PromptChatService(httpClient, streamingGateway);
         ReflectionTestUtils.setField(promptChatService, "chatRecordModelService", chatRecordModelService);
 
         streamId = "test-stream-id";
@@ -109,12 +108,12 @@ class PromptChatServiceTest {
     void testChatStream_DebugMode_AllowsNullRecords() {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(any(Callback.class));
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), any(Callback.class));
 
             promptChatService.chatStream(request, emitter, streamId, null, false, true);
 
             verify(httpClient).newCall(any(Request.class));
-            verify(call).enqueue(any(Callback.class));
+            verify(streamingGateway).enqueue(anyString(), eq(call), any(Callback.class));
             sseUtilMock.verifyNoInteractions();
         }
     }
@@ -122,7 +121,7 @@ class PromptChatServiceTest {
     @Test
     void testChatStream_ValidRequest_ExecutesHttpCall() {
         when(httpClient.newCall(any(Request.class))).thenReturn(call);
-        doNothing().when(call).enqueue(any(Callback.class));
+        doNothing().when(streamingGateway).enqueue(anyString(), eq(call), any(Callback.class));
 
         promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, false);
 
@@ -134,7 +133,7 @@ class PromptChatServiceTest {
             assertEquals("text/event-stream", req.header("Accept"));
             return true;
         }));
-        verify(call).enqueue(any(Callback.class));
+        verify(streamingGateway).enqueue(anyString(), eq(call), any(Callback.class));
     }
 
     @Test
@@ -152,7 +151,7 @@ class PromptChatServiceTest {
     void testChatStream_RequestContainsStreamTrue() {
         ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
         when(httpClient.newCall(any(Request.class))).thenReturn(call);
-        doNothing().when(call).enqueue(any(Callback.class));
+        doNothing().when(streamingGateway).enqueue(anyString(), eq(call), any(Callback.class));
 
         promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, false);
 
@@ -168,7 +167,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, false);
 
@@ -185,7 +184,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, false);
 
@@ -205,7 +204,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, false);
 
@@ -224,7 +223,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -253,7 +252,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -279,7 +278,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -304,7 +303,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -331,7 +330,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -358,7 +357,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -385,7 +384,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -413,7 +412,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -441,7 +440,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -473,7 +472,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -500,7 +499,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -529,7 +528,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, false);
 
@@ -557,7 +556,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -574,7 +573,6 @@ class PromptChatServiceTest {
             callback.onResponse(call, response);
 
             verifyNoInteractions(chatRecordModelService);
-            verifyNoInteractions(chatDataService);
         }
     }
 
@@ -583,7 +581,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, true, false);
 
@@ -599,10 +597,8 @@ class PromptChatServiceTest {
             Callback callback = callbackCaptor.getValue();
             callback.onResponse(call, response);
 
-            // trace result is empty, so no database operations should occur
-            verify(chatDataService, never()).findTraceSourceByUidAndChatIdAndReqId(anyString(), anyLong(), anyLong());
-            verify(chatDataService, never()).updateTraceSourceByUidAndChatIdAndReqId(any());
-            verify(chatDataService, never()).createTraceSource(any());
+            // trace result is empty, the record service skips it
+            verify(chatRecordModelService).saveTraceResult(eq(chatReqRecords), argThat(trace -> trace.isEmpty()), eq(true));
         }
     }
 
@@ -611,7 +607,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, false);
 
@@ -627,8 +623,8 @@ class PromptChatServiceTest {
             Callback callback = callbackCaptor.getValue();
             callback.onResponse(call, response);
 
-            // Trace result is empty, so createTraceSource should not be called
-            verify(chatDataService, never()).createTraceSource(any());
+            // Trace result is empty, the record service skips it
+            verify(chatRecordModelService).saveTraceResult(eq(chatReqRecords), argThat(trace -> trace.isEmpty()), eq(false));
         }
     }
 
@@ -639,7 +635,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -667,7 +663,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
@@ -698,7 +694,7 @@ class PromptChatServiceTest {
         try (MockedStatic<SseEmitterUtil> sseUtilMock = mockStatic(SseEmitterUtil.class)) {
             ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
             when(httpClient.newCall(any(Request.class))).thenReturn(call);
-            doNothing().when(call).enqueue(callbackCaptor.capture());
+            doNothing().when(streamingGateway).enqueue(anyString(), eq(call), callbackCaptor.capture());
 
             promptChatService.chatStream(request, emitter, streamId, chatReqRecords, false, true);
 
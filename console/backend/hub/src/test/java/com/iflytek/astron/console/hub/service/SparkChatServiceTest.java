@@ -5,8 +5,8 @@ import cn.xfyun.model.sparkmodel.SparkChatParam;
 import com.iflytek.astron.console.commons.dto.llm.SparkChatRequest;
 import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
 import com.iflytek.astron.console.commons.service.ChatRecordModelService;
-import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.util.SseEmitterUtil;
+import com.iflytek.astron.console.hub.util.SparkChatClientRegistry;
 import okhttp3.*;
 import okio.Buffer;
 import okio.BufferedSource;
@@ -29,9 +29,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class SparkChatServiceTest {
 
-    @Mock
-    private ChatDataService chatDataService;
-
     @Mock
     private ChatRecordModelService chatRecordModelService;
 
@@ -56,8 +53,9 @@ class SparkChatServiceTest {
     @BeforeEach
     void setUp() {
         sparkChatService = new SparkChatService();
-        ReflectionTestUtils.setField(sparkChatService, "apiPassword", "test-api-password");
-        ReflectionTestUtils.setField(sparkChatService, "chatDataService", chatDataService);
+        SparkChatClientRegistry sparkChatClientRegistry = new SparkChatClientRegistry();
+        ReflectionTestUtils.setField(sparkChatClientRegistry, "apiPassword", "test-api-password");
+        ReflectionTestUtils.setField(sparkChatService, "sparkChatClientRegistry", sparkChatClientRegistry);
         ReflectionTestUtils.setField(sparkChatService, "chatRecordModelService", chatRecordModelService);
 
         streamId = "test-stream-id";
@@ -585,7 +583,6 @@ class SparkChatServiceTest {
             callback.onResponse(call, response);
 
             verifyNoInteractions(chatRecordModelService);
-            verifyNoInteractions(chatDataService);
         }
     }
 
@@ -612,10 +609,8 @@ class SparkChatServiceTest {
             Callback callback = callbackCaptor.getValue();
             callback.onResponse(call, response);
 
-            // trace result is empty, so no database operations should occur
-            verify(chatDataService, never()).findTraceSourceByUidAndChatIdAndReqId(anyString(), anyLong(), anyLong());
-            verify(chatDataService, never()).updateTraceSourceByUidAndChatIdAndReqId(any());
-            verify(chatDataService, never()).createTraceSource(any());
+            // trace result is empty, the record service skips it
+            verify(chatRecordModelService).saveTraceResult(eq(chatReqRecords), argThat(trace -> trace.isEmpty()), eq(true));
         }
     }
 
@@ -645,9 +640,7 @@ class SparkChatServiceTest {
             Callback callback = callbackCaptor.getValue();
             callback.onResponse(call, response);
 
-            verify(chatDataService).createTraceSource(argThat(trace -> "search".equals(trace.getType()) &&
-                    trace.getUid().equals("test-uid") &&
-                    trace.getChatId().equals(100L)));
+            verify(chatRecordModelService).saveTraceResult(eq(chatReqRecords), argThat(trace -> trace.toString().contains("search")), eq(false));
         }
     }
 
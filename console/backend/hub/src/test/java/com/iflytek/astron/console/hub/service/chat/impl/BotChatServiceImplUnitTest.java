@@ -37,6 +37,7 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -73,6 +74,8 @@ class BotChatServiceImplUnitTest {
     private com.iflytek.astron.console.hub.util.BotPermissionUtil botPermissionUtil;
     @Mock
     private com.iflytek.astron.console.hub.service.bot.PersonalityConfigService personalityConfigService;
+    @Mock
+    private BotRuntimeProfileCache botRuntimeProfileCache;
 
     @InjectMocks
     private BotChatServiceImpl botChatService;
@@ -80,6 +83,9 @@ class BotChatServiceImplUnitTest {
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(botChatService, "maxInputTokens", 8000);
+        // Every turn builds its profile, as on a cache miss
+        lenient().when(botRuntimeProfileCache.get(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<BotRuntimeProfile>>getArgument(1).get());
     }
 
     @Test
@@ -121,7 +127,7 @@ class BotChatServiceImplUnitTest {
         ChatReqRecords createdRecord = createChatReqRecords();
         List<String> knowledgeList = Arrays.asList("knowledge1", "knowledge2");
         List<SparkChatRequest.MessageDto> historyMessages = new ArrayList<>();
-        // Add current ask message that will be removed by the code
+        // History that precedes the current request
         SparkChatRequest.MessageDto currentAskMessage = new SparkChatRequest.MessageDto();
         currentAskMessage.setRole("user");
         currentAskMessage.setContent("test question");
@@ -130,7 +136,7 @@ class BotChatServiceImplUnitTest {
         when(chatBotDataService.findMarketBotByBotId(anyInt())).thenReturn(chatBotMarket);
         when(chatDataService.createRequest(any())).thenReturn(createdRecord);
         lenient().when(knowledgeService.getChuncksByBotId(anyInt(), anyString(), anyInt())).thenReturn(knowledgeList);
-        when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean())).thenReturn(historyMessages);
+        when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean(), any(), anyInt())).thenReturn(historyMessages);
         lenient().when(reqKnowledgeRecordsDataService.create(any())).thenReturn(null);
         doNothing().when(sparkChatService).chatStream(any(), any(), any(), any(), anyBoolean(), anyBoolean());
 
@@ -156,7 +162,7 @@ class BotChatServiceImplUnitTest {
         ChatReqRecords createdRecord = createChatReqRecords();
         List<String> knowledgeList = Arrays.asList("knowledge1", "knowledge2");
         List<SparkChatRequest.MessageDto> historyMessages = new ArrayList<>();
-        // Add current ask message that will be removed by the code
+        // History that precedes the current request
         SparkChatRequest.MessageDto currentAskMessage = new SparkChatRequest.MessageDto();
         currentAskMessage.setRole("user");
         currentAskMessage.setContent("test question");
@@ -166,7 +172,7 @@ class BotChatServiceImplUnitTest {
         when(chatBotDataService.findMarketBotByBotId(anyInt())).thenReturn(chatBotMarket);
         when(chatDataService.createRequest(any())).thenReturn(createdRecord);
         lenient().when(knowledgeService.getChuncksByBotId(anyInt(), anyString(), anyInt())).thenReturn(knowledgeList);
-        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean())).thenReturn(historyMessages);
+        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean(), any(), anyInt())).thenReturn(historyMessages);
         when(modelService.getDetail(anyInt(), anyLong(), any())).thenReturn(new ApiResult<>(0, "success", llmInfoVo, 1L));
         lenient().when(reqKnowledgeRecordsDataService.create(any())).thenReturn(null);
         doNothing().when(promptChatService).chatStream(any(), any(), any(), any(), anyBoolean(), anyBoolean());
@@ -197,7 +203,7 @@ class BotChatServiceImplUnitTest {
         when(chatBotDataService.findMarketBotByBotId(anyInt())).thenReturn(chatBotMarket);
         when(chatDataService.createRequest(any())).thenReturn(createdRecord);
         lenient().when(knowledgeService.getChuncksByBotId(anyInt(), anyString(), anyInt())).thenReturn(knowledgeList);
-        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean())).thenReturn(historyMessages);
+        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean(), any(), anyInt())).thenReturn(historyMessages);
         when(modelService.getDetail(anyInt(), anyLong(), any())).thenReturn(new ApiResult<>(0, "success", null, 1L));
         lenient().when(reqKnowledgeRecordsDataService.create(any())).thenReturn(null);
 
@@ -220,7 +226,7 @@ class BotChatServiceImplUnitTest {
         ChatReqRecords createdRecord = createChatReqRecords();
         List<String> knowledgeList = Arrays.asList("knowledge1", "knowledge2");
         List<SparkChatRequest.MessageDto> historyMessages = new ArrayList<>();
-        // Add current ask message that will be removed by the code
+        // History that precedes the current request
         SparkChatRequest.MessageDto currentAskMessage = new SparkChatRequest.MessageDto();
         currentAskMessage.setRole("user");
         currentAskMessage.setContent("test question");
@@ -230,7 +236,7 @@ class BotChatServiceImplUnitTest {
         when(chatBotDataService.findById(anyInt())).thenReturn(Optional.of(chatBotBase));
         when(chatDataService.createRequest(any())).thenReturn(createdRecord);
         lenient().when(knowledgeService.getChuncksByBotId(anyInt(), anyString(), anyInt())).thenReturn(knowledgeList);
-        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean())).thenReturn(historyMessages);
+        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean(), any(), anyInt())).thenReturn(historyMessages);
         lenient().when(reqKnowledgeRecordsDataService.create(any())).thenReturn(null);
         doNothing().when(sparkChatService).chatStream(any(), any(), any(), any(), anyBoolean(), anyBoolean());
 
@@ -269,7 +275,7 @@ class BotChatServiceImplUnitTest {
         ChatBotMarket chatBotMarket = createChatBotMarket();
         chatBotMarket.setModelId(null);
         List<SparkChatRequest.MessageDto> historyMessages = new ArrayList<>();
-        // Add current ask message and previous Q&A that will be removed by the code (edit mode)
+        // History that precedes the re-answered request
         SparkChatRequest.MessageDto prevQuestion = new SparkChatRequest.MessageDto();
         prevQuestion.setRole("user");
         prevQuestion.setContent("previous question");
@@ -285,7 +291,7 @@ class BotChatServiceImplUnitTest {
 
         when(chatDataService.findRequestById(requestId)).thenReturn(chatReqRecords);
         when(chatBotDataService.findMarketBotByBotId(botId)).thenReturn(chatBotMarket);
-        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean())).thenReturn(historyMessages);
+        lenient().when(chatHistoryService.getSystemBotHistory(anyString(), anyLong(), anyBoolean(), any(), anyInt())).thenReturn(historyMessages);
         lenient().when(knowledgeService.getChuncksByBotId(anyInt(), anyString(), anyInt())).thenReturn(Arrays.asList("knowledge"));
         lenient().when(reqKnowledgeRecordsDataService.create(any())).thenReturn(null);
         doNothing().when(sparkChatService).chatStream(any(), any(), any(), any(), anyBoolean(), anyBoolean());
@@ -0,0 +1,93 @@
+package com.iflytek.astron.console.hub.service.chat.impl;
+
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BotRuntimeProfileCacheTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    private BotRuntimeProfileCache profileCache;
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(redissonClient.getTopic(BotRuntimeProfileCache.INVALIDATE_CHANNEL)).thenReturn(topic);
+        profileCache = new BotRuntimeProfileCache();
+        ReflectionTestUtils.setField(profileCache, "redissonClient", redissonClient);
+        profileCache.init();
+    }
+
+    @Test
+    void get_BuildsOncePerBot() {
+        BotRuntimeProfile first = profileCache.get(1, () -> profile(10L));
+        BotRuntimeProfile second = profileCache.get(1, () -> profile(10L));
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void onBotRuntimeChanged_DropsBotAndBroadcasts() {
+        profileCache.get(1, () -> profile(10L));
+        profileCache.get(2, () -> profile(10L));
+
+        profileCache.onBotRuntimeChanged(BotRuntimeChangedEvent.ofBot(this, 1));
+
+        profileCache.get(1, () -> profile(10L));
+        profileCache.get(2, () -> profile(10L));
+        assertEquals(3, builds.get());
+        verify(topic).publish("bot:1");
+    }
+
+    @Test
+    void onBotRuntimeChanged_DropsBotsUsingModel() {
+        profileCache.get(1, () -> profile(10L));
+        profileCache.get(2, () -> profile(20L));
+
+        profileCache.onBotRuntimeChanged(BotRuntimeChangedEvent.ofModel(this, 10L));
+
+        profileCache.get(1, () -> profile(10L));
+        profileCache.get(2, () -> profile(20L));
+        assertEquals(3, builds.get());
+        verify(topic).publish("model:10");
+    }
+
+    @Test
+    void get_DoesNotKeepProfileBuiltAcrossInvalidation() {
+        profileCache.get(1, () -> {
+            BotRuntimeProfile profile = profile(10L);
+            // Saved on another node while the bot was being read
+            profileCache.onInvalidate("bot:1");
+            return profile;
+        });
+
+        profileCache.get(1, () -> profile(10L));
+
+        assertEquals(2, builds.get());
+        verify(topic, never()).publish(anyString());
+    }
+
+    private BotRuntimeProfile profile(Long modelId) {
+        builds.incrementAndGet();
+        return new BotRuntimeProfile("prompt", true, "spark", null, 1, modelId, false);
+    }
+}
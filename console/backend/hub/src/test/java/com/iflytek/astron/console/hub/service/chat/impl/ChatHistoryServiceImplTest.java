@@ -8,6 +8,9 @@ import com.iflytek.astron.console.commons.dto.llm.SparkChatRequest;
 import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.util.I18nUtil;
 import com.iflytek.astron.console.hub.data.ReqKnowledgeRecordsDataService;
+import com.iflytek.astron.console.hub.data.impl.ChatContextWindowCache;
+import com.iflytek.astron.console.hub.data.impl.ChatContextWindowCache.Part;
+import com.iflytek.astron.console.hub.data.impl.ChatContextWindowCache.Turn;
 import com.iflytek.astron.console.hub.entity.ReqKnowledgeRecords;
 import org.apache.logging.log4j.util.Base64Util;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +23,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +38,9 @@ class ChatHistoryServiceImplTest {
     @Mock
     private ReqKnowledgeRecordsDataService reqKnowledgeRecordsDataService;
 
+    @Mock
+    private ChatContextWindowCache chatContextWindowCache;
+
     @InjectMocks
     private ChatHistoryServiceImpl chatHistoryService;
 
@@ -483,6 +490,64 @@ class ChatHistoryServiceImplTest {
         assertTrue(hasTextualResponse);
     }
 
+    @Test
+    void testGetSystemBotHistoryFromWindow_ExcludesCurrentRequestAndKeepsOrder() {
+        List<Turn> turns = List.of(
+                new Turn(1L, new Part("q1", 1), null, new Part("a1", 1)),
+                new Turn(2L, new Part("q2", 1), null, new Part("a2", 1)),
+                new Turn(3L, new Part("current", 1), null, null));
+        when(chatContextWindowCache.getTurns(eq(uid), eq(chatId), any())).thenReturn(turns);
+
+        List<SparkChatRequest.MessageDto> result = chatHistoryService.getSystemBotHistory(uid, chatId, false, 3L, 100);
+
+        assertEquals(List.of("q1", "a1", "q2", "a2"), result.stream().map(SparkChatRequest.MessageDto::getContent).toList());
+        assertEquals(List.of("user", "assistant", "user", "assistant"), result.stream().map(SparkChatRequest.MessageDto::getRole).toList());
+        verifyNoInteractions(chatDataService);
+    }
+
+    @Test
+    void testGetSystemBotHistoryFromWindow_StopsAtTokenBudget() {
+        List<Turn> turns = List.of(
+                new Turn(1L, new Part("q1", 50), null, new Part("a1", 50)),
+                new Turn(2L, new Part("q2", 10), null, new Part("a2", 20)));
+        when(chatContextWindowCache.getTurns(eq(uid), eq(chatId), any())).thenReturn(turns);
+
+        List<SparkChatRequest.MessageDto> result = chatHistoryService.getSystemBotHistory(uid, chatId, false, 3L, 60);
+
+        // a1 would exceed the budget, so the oldest turn is dropped entirely
+        assertEquals(List.of("q2", "a2"), result.stream().map(SparkChatRequest.MessageDto::getContent).toList());
+    }
+
+    @Test
+    void testGetSystemBotHistoryFromWindow_UsesKnowledgeAskWhenDocumentSupported() {
+        List<Turn> turns = List.of(new Turn(1L, new Part("q1", 1), new Part("wrapped q1", 3), new Part("   ", 0)));
+        when(chatContextWindowCache.getTurns(eq(uid), eq(chatId), any())).thenReturn(turns);
+
+        List<SparkChatRequest.MessageDto> withDocument = chatHistoryService.getSystemBotHistory(uid, chatId, true, 2L, 100);
+        List<SparkChatRequest.MessageDto> withoutDocument = chatHistoryService.getSystemBotHistory(uid, chatId, false, 2L, 100);
+
+        // Blank answers are not sent to the model
+        assertEquals(1, withDocument.size());
+        assertEquals("wrapped q1", withDocument.getFirst().getContent());
+        assertEquals("q1", withoutDocument.getFirst().getContent());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetSystemBotHistoryFromWindow_LoadsLastTurnsOnMiss() {
+        List<Long> reqIds = Arrays.asList(2L, 1L);
+        when(chatContextWindowCache.getMaxTurns()).thenReturn(100);
+        when(chatContextWindowCache.getTurns(eq(uid), eq(chatId), any()))
+                .thenAnswer(invocation -> ((Supplier<List<Turn>>) invocation.getArgument(2)).get());
+        when(chatDataService.getReqModelBotHistoryByChatId(uid, chatId)).thenReturn(reqModelDtos);
+        when(chatDataService.getChatRespModelBotHistoryByChatId(uid, chatId, reqIds)).thenReturn(respModelDtos);
+        when(reqKnowledgeRecordsDataService.findByReqIds(reqIds)).thenReturn(new HashMap<>());
+
+        List<SparkChatRequest.MessageDto> result = chatHistoryService.getSystemBotHistory(uid, chatId, false, 2L, 8000);
+
+        assertEquals(List.of("First question", "First answer"), result.stream().map(SparkChatRequest.MessageDto::getContent).toList());
+    }
+
     // Helper method to access private method using reflection
     private String invokeEnhanceAskWithKnowledgeRecord(String originalAsk, ReqKnowledgeRecords knowledgeRecord) {
         try {
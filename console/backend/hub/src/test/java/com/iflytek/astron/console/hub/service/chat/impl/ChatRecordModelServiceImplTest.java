@@ -1,9 +1,11 @@
 package com.iflytek.astron.console.hub.service.chat.impl;
 
-import com.iflytek.astron.console.commons.service.data.ChatDataService;
 import com.iflytek.astron.console.commons.entity.chat.ChatReasonRecords;
 import com.iflytek.astron.console.commons.entity.chat.ChatReqRecords;
 import com.iflytek.astron.console.commons.entity.chat.ChatRespRecords;
+import com.iflytek.astron.console.commons.entity.chat.ChatTraceSource;
+import com.iflytek.astron.console.hub.data.impl.ChatContextWindowCache;
+import com.iflytek.astron.console.hub.data.impl.ChatRecordWriteBehind;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,7 +29,10 @@ class ChatRecordModelServiceImplTest {
     private ChatRecordModelServiceImpl chatRecordModelService;
 
     @Mock
-    private ChatDataService chatDataService;
+    private ChatRecordWriteBehind chatRecordWriteBehind;
+
+    @Mock
+    private ChatContextWindowCache chatContextWindowCache;
 
     private ChatReqRecords chatReqRecords;
     private StringBuffer thinkingResult;
@@ -60,7 +65,7 @@ class ChatRecordModelServiceImplTest {
 
         // Then
         // Should return early without any database operations
-        verifyNoInteractions(chatDataService);
+        verifyNoInteractions(chatRecordWriteBehind);
     }
 
     @Test
@@ -73,7 +78,7 @@ class ChatRecordModelServiceImplTest {
 
         // Then
         ArgumentCaptor<ChatReasonRecords> reasonRecordsCaptor = ArgumentCaptor.forClass(ChatReasonRecords.class);
-        verify(chatDataService).createReasonRecord(reasonRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveReason(reasonRecordsCaptor.capture());
 
         ChatReasonRecords capturedRecord = reasonRecordsCaptor.getValue();
         assertEquals("test-user-123", capturedRecord.getUid());
@@ -87,45 +92,27 @@ class ChatRecordModelServiceImplTest {
     }
 
     @Test
-    void testSaveThinkingResult_EditModeWithExistingRecord_ShouldUpdateRecord() {
+    void testSaveThinkingResult_EditMode_ShouldQueueUpdateWithoutLookup() {
         // Given
         boolean editMode = true;
-        ChatReasonRecords existingRecord = new ChatReasonRecords();
-        existingRecord.setId(1L);
-        existingRecord.setUid("test-user-123");
-        existingRecord.setChatId(100L);
-        existingRecord.setReqId(1L);
-        existingRecord.setContent("Old thinking content");
-        existingRecord.setCreateTime(LocalDateTime.now().minusMinutes(5));
-
-        when(chatDataService.findReasonByUidAndChatIdAndReqId("test-user-123", 100L, 1L))
-                .thenReturn(existingRecord);
 
         // When
         chatRecordModelService.saveThinkingResult(chatReqRecords, thinkingResult, editMode);
 
         // Then
-        verify(chatDataService).findReasonByUidAndChatIdAndReqId("test-user-123", 100L, 1L);
-        verify(chatDataService).updateReasonByUidAndChatIdAndReqId(existingRecord);
-
-        assertEquals("This is the thinking process for the AI response", existingRecord.getContent());
-        assertNotNull(existingRecord.getUpdateTime());
-    }
-
-    @Test
-    void testSaveThinkingResult_EditModeWithNoExistingRecord_ShouldNotUpdate() {
-        // Given
-        boolean editMode = true;
-        when(chatDataService.findReasonByUidAndChatIdAndReqId("test-user-123", 100L, 1L))
-                .thenReturn(null);
-
-        // When
-        chatRecordModelService.saveThinkingResult(chatReqRecords, thinkingResult, editMode);
+        ArgumentCaptor<ChatReasonRecords> reasonRecordsCaptor = ArgumentCaptor.forClass(ChatReasonRecords.class);
+        verify(chatRecordWriteBehind).updateReason(reasonRecordsCaptor.capture());
+        verify(chatRecordWriteBehind, never()).saveReason(any());
 
-        // Then
-        verify(chatDataService).findReasonByUidAndChatIdAndReqId("test-user-123", 100L, 1L);
-        verify(chatDataService, never()).updateReasonByUidAndChatIdAndReqId(any());
-        verify(chatDataService, never()).createReasonRecord(any());
+        ChatReasonRecords capturedRecord = reasonRecordsCaptor.getValue();
+        assertEquals("test-user-123", capturedRecord.getUid());
+        assertEquals(100L, capturedRecord.getChatId());
+        assertEquals(1L, capturedRecord.getReqId());
+        assertEquals("This is the thinking process for the AI response", capturedRecord.getContent());
+        assertNotNull(capturedRecord.getUpdateTime());
+        // Only the changed columns are set, the row keeps its type and create time
+        assertNull(capturedRecord.getType());
+        assertNull(capturedRecord.getCreateTime());
     }
 
     @Test
@@ -142,7 +129,7 @@ class ChatRecordModelServiceImplTest {
 
         // Then
         ArgumentCaptor<ChatReasonRecords> reasonRecordsCaptor = ArgumentCaptor.forClass(ChatReasonRecords.class);
-        verify(chatDataService).createReasonRecord(reasonRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveReason(reasonRecordsCaptor.capture());
 
         ChatReasonRecords capturedRecord = reasonRecordsCaptor.getValue();
         assertEquals(longThinkingResult.toString(), capturedRecord.getContent());
@@ -160,7 +147,8 @@ class ChatRecordModelServiceImplTest {
 
         // Then
         ArgumentCaptor<ChatRespRecords> respRecordsCaptor = ArgumentCaptor.forClass(ChatRespRecords.class);
-        verify(chatDataService).createResponse(respRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveResponse(respRecordsCaptor.capture());
+        verify(chatContextWindowCache).putAnswer("test-user-123", 100L, 1L, "This is the final AI response");
 
         ChatRespRecords capturedRecord = respRecordsCaptor.getValue();
         assertEquals("test-user-123", capturedRecord.getUid());
@@ -178,55 +166,34 @@ class ChatRecordModelServiceImplTest {
     }
 
     @Test
-    void testSaveChatResponse_EditModeWithExistingRecord_ShouldUpdateRecord() {
+    void testSaveChatResponse_EditMode_ShouldQueueUpdateWithoutLookup() {
         // Given
         boolean editMode = true;
         Integer answerType = 2;
-        ChatRespRecords existingRecord = new ChatRespRecords();
-        existingRecord.setId(1L);
-        existingRecord.setUid("test-user-123");
-        existingRecord.setChatId(100L);
-        existingRecord.setReqId(1L);
-        existingRecord.setMessage("Old response message");
-        existingRecord.setSid("old-session-id");
-        existingRecord.setAnswerType(1);
-        existingRecord.setCreateTime(LocalDateTime.now().minusMinutes(5));
-
-        when(chatDataService.findResponseByUidAndChatIdAndReqId("test-user-123", 100L, 1L))
-                .thenReturn(existingRecord);
 
         // When
         chatRecordModelService.saveChatResponse(chatReqRecords, finalResult, sid, editMode, answerType);
 
         // Then
-        verify(chatDataService).findResponseByUidAndChatIdAndReqId("test-user-123", 100L, 1L);
-        verify(chatDataService).updateByUidAndChatIdAndReqId(existingRecord);
+        ArgumentCaptor<ChatRespRecords> respRecordsCaptor = ArgumentCaptor.forClass(ChatRespRecords.class);
+        verify(chatRecordWriteBehind).updateResponse(respRecordsCaptor.capture());
+        verify(chatRecordWriteBehind, never()).saveResponse(any());
+        // A re-answer replaces the answer in the context window
+        verify(chatContextWindowCache).putAnswer("test-user-123", 100L, 1L, "This is the final AI response");
 
-        assertEquals("This is the final AI response", existingRecord.getMessage());
-        assertEquals("session-id-12345", existingRecord.getSid());
-        assertEquals(answerType, existingRecord.getAnswerType());
-        assertNotNull(existingRecord.getUpdateTime());
+        ChatRespRecords capturedRecord = respRecordsCaptor.getValue();
+        assertEquals("test-user-123", capturedRecord.getUid());
+        assertEquals(100L, capturedRecord.getChatId());
+        assertEquals(1L, capturedRecord.getReqId());
+        assertEquals("This is the final AI response", capturedRecord.getMessage());
+        assertEquals("session-id-12345", capturedRecord.getSid());
+        assertEquals(answerType, capturedRecord.getAnswerType());
+        assertNotNull(capturedRecord.getUpdateTime());
+        assertNull(capturedRecord.getCreateTime());
 
         // Verify date stamp is updated to current date
         int expectedDateStamp = Integer.parseInt(LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")));
-        assertEquals(expectedDateStamp, existingRecord.getDateStamp());
-    }
-
-    @Test
-    void testSaveChatResponse_EditModeWithNoExistingRecord_ShouldNotUpdate() {
-        // Given
-        boolean editMode = true;
-        Integer answerType = 1;
-        when(chatDataService.findResponseByUidAndChatIdAndReqId("test-user-123", 100L, 1L))
-                .thenReturn(null);
-
-        // When
-        chatRecordModelService.saveChatResponse(chatReqRecords, finalResult, sid, editMode, answerType);
-
-        // Then
-        verify(chatDataService).findResponseByUidAndChatIdAndReqId("test-user-123", 100L, 1L);
-        verify(chatDataService, never()).updateByUidAndChatIdAndReqId(any());
-        verify(chatDataService, never()).createResponse(any());
+        assertEquals(expectedDateStamp, capturedRecord.getDateStamp());
     }
 
     @Test
@@ -240,7 +207,7 @@ class ChatRecordModelServiceImplTest {
 
         // Then
         ArgumentCaptor<ChatRespRecords> respRecordsCaptor = ArgumentCaptor.forClass(ChatRespRecords.class);
-        verify(chatDataService).createResponse(respRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveResponse(respRecordsCaptor.capture());
 
         ChatRespRecords capturedRecord = respRecordsCaptor.getValue();
         assertNull(capturedRecord.getAnswerType());
@@ -259,7 +226,7 @@ class ChatRecordModelServiceImplTest {
 
         // Then
         ArgumentCaptor<ChatRespRecords> respRecordsCaptor = ArgumentCaptor.forClass(ChatRespRecords.class);
-        verify(chatDataService).createResponse(respRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveResponse(respRecordsCaptor.capture());
 
         ChatRespRecords capturedRecord = respRecordsCaptor.getValue();
         assertEquals("", capturedRecord.getMessage());
@@ -284,7 +251,7 @@ class ChatRecordModelServiceImplTest {
 
         // Then
         ArgumentCaptor<ChatRespRecords> respRecordsCaptor = ArgumentCaptor.forClass(ChatRespRecords.class);
-        verify(chatDataService).createResponse(respRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveResponse(respRecordsCaptor.capture());
 
         ChatRespRecords capturedRecord = respRecordsCaptor.getValue();
         assertEquals(longFinalResult.toString(), capturedRecord.getMessage());
@@ -306,7 +273,7 @@ class ChatRecordModelServiceImplTest {
 
         // Then - Verify Chinese content is preserved correctly
         ArgumentCaptor<ChatRespRecords> respRecordsCaptor = ArgumentCaptor.forClass(ChatRespRecords.class);
-        verify(chatDataService).createResponse(respRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveResponse(respRecordsCaptor.capture());
 
         ChatRespRecords capturedRecord = respRecordsCaptor.getValue();
         assertEquals("Response with special chars: \"quotes\", {brackets}, [arrays], & symbols! 中文内容 🚀", capturedRecord.getMessage());
@@ -325,81 +292,93 @@ class ChatRecordModelServiceImplTest {
 
         // Then - Verify Chinese thinking content is preserved correctly
         ArgumentCaptor<ChatReasonRecords> reasonRecordsCaptor = ArgumentCaptor.forClass(ChatReasonRecords.class);
-        verify(chatDataService).createReasonRecord(reasonRecordsCaptor.capture());
+        verify(chatRecordWriteBehind).saveReason(reasonRecordsCaptor.capture());
 
         ChatReasonRecords capturedRecord = reasonRecordsCaptor.getValue();
         assertEquals("Thinking with special chars: \"quotes\", {brackets}, [arrays], & symbols! 中文思考 🤔", capturedRecord.getContent());
     }
 
     @Test
-    void testSaveThinkingResult_EditModeMultipleCalls_ShouldUpdateSameRecord() {
+    void testSaveThinkingResult_EditModeMultipleCalls_ShouldQueueEachUpdate() {
         // Given
         boolean editMode = true;
-        ChatReasonRecords existingRecord = new ChatReasonRecords();
-        existingRecord.setId(1L);
-        existingRecord.setUid("test-user-123");
-        existingRecord.setChatId(100L);
-        existingRecord.setReqId(1L);
-        existingRecord.setContent("Initial thinking content");
-        existingRecord.setCreateTime(LocalDateTime.now().minusMinutes(5));
-
-        when(chatDataService.findReasonByUidAndChatIdAndReqId("test-user-123", 100L, 1L))
-                .thenReturn(existingRecord);
-
         StringBuffer firstUpdate = new StringBuffer("First update to thinking");
         StringBuffer secondUpdate = new StringBuffer("Second update to thinking");
 
-        // When - First update
+        // When
         chatRecordModelService.saveThinkingResult(chatReqRecords, firstUpdate, editMode);
-
-        // Then - Verify first update
-        verify(chatDataService, times(1)).updateReasonByUidAndChatIdAndReqId(existingRecord);
-        assertEquals("First update to thinking", existingRecord.getContent());
-
-        // When - Second update
         chatRecordModelService.saveThinkingResult(chatReqRecords, secondUpdate, editMode);
 
-        // Then - Verify second update
-        verify(chatDataService, times(2)).updateReasonByUidAndChatIdAndReqId(existingRecord);
-        assertEquals("Second update to thinking", existingRecord.getContent());
+        // Then - updates are queued in call order, so the last one wins when flushed
+        ArgumentCaptor<ChatReasonRecords> reasonRecordsCaptor = ArgumentCaptor.forClass(ChatReasonRecords.class);
+        verify(chatRecordWriteBehind, times(2)).updateReason(reasonRecordsCaptor.capture());
+        assertEquals("First update to thinking", reasonRecordsCaptor.getAllValues().get(0).getContent());
+        assertEquals("Second update to thinking", reasonRecordsCaptor.getAllValues().get(1).getContent());
     }
 
     @Test
-    void testSaveChatResponse_EditModeMultipleCalls_ShouldUpdateSameRecord() {
+    void testSaveChatResponse_EditModeMultipleCalls_ShouldQueueEachUpdate() {
         // Given
         boolean editMode = true;
         Integer answerType = 1;
-        ChatRespRecords existingRecord = new ChatRespRecords();
-        existingRecord.setId(1L);
-        existingRecord.setUid("test-user-123");
-        existingRecord.setChatId(100L);
-        existingRecord.setReqId(1L);
-        existingRecord.setMessage("Initial response message");
-        existingRecord.setSid("initial-session-id");
-        existingRecord.setCreateTime(LocalDateTime.now().minusMinutes(5));
-
-        when(chatDataService.findResponseByUidAndChatIdAndReqId("test-user-123", 100L, 1L))
-                .thenReturn(existingRecord);
-
         StringBuffer firstUpdate = new StringBuffer("First updated response");
         StringBuffer firstSid = new StringBuffer("first-updated-session-id");
         StringBuffer secondUpdate = new StringBuffer("Second updated response");
         StringBuffer secondSid = new StringBuffer("second-updated-session-id");
 
-        // When - First update
+        // When
         chatRecordModelService.saveChatResponse(chatReqRecords, firstUpdate, firstSid, editMode, answerType);
+        chatRecordModelService.saveChatResponse(chatReqRecords, secondUpdate, secondSid, editMode, answerType);
 
-        // Then - Verify first update
-        verify(chatDataService, times(1)).updateByUidAndChatIdAndReqId(existingRecord);
-        assertEquals("First updated response", existingRecord.getMessage());
-        assertEquals("first-updated-session-id", existingRecord.getSid());
+        // Then - updates are queued in call order, so the last one wins when flushed
+        ArgumentCaptor<ChatRespRecords> respRecordsCaptor = ArgumentCaptor.forClass(ChatRespRecords.class);
+        verify(chatRecordWriteBehind, times(2)).updateResponse(respRecordsCaptor.capture());
+        assertEquals("First updated response", respRecordsCaptor.getAllValues().get(0).getMessage());
+        assertEquals("second-updated-session-id", respRecordsCaptor.getAllValues().get(1).getSid());
+    }
 
-        // When - Second update
-        chatRecordModelService.saveChatResponse(chatReqRecords, secondUpdate, secondSid, editMode, answerType);
+    @Test
+    void testSaveTraceResult_WithEmptyTrace_ShouldReturnEarly() {
+        // When
+        chatRecordModelService.saveTraceResult(chatReqRecords, new StringBuffer(), false);
+
+        // Then
+        verifyNoInteractions(chatRecordWriteBehind);
+    }
+
+    @Test
+    void testSaveTraceResult_CreateMode_ShouldQueueSearchTrace() {
+        // Given
+        StringBuffer traceResult = new StringBuffer("[{\"type\":\"search\"}]");
+
+        // When
+        chatRecordModelService.saveTraceResult(chatReqRecords, traceResult, false);
+
+        // Then
+        ArgumentCaptor<ChatTraceSource> traceCaptor = ArgumentCaptor.forClass(ChatTraceSource.class);
+        verify(chatRecordWriteBehind).saveTraceSource(traceCaptor.capture());
 
-        // Then - Verify second update
-        verify(chatDataService, times(2)).updateByUidAndChatIdAndReqId(existingRecord);
-        assertEquals("Second updated response", existingRecord.getMessage());
-        assertEquals("second-updated-session-id", existingRecord.getSid());
+        ChatTraceSource capturedRecord = traceCaptor.getValue();
+        assertEquals("search", capturedRecord.getType());
+        assertEquals("test-user-123", capturedRecord.getUid());
+        assertEquals(100L, capturedRecord.getChatId());
+        assertEquals(1L, capturedRecord.getReqId());
+        assertEquals(traceResult.toString(), capturedRecord.getContent());
+    }
+
+    @Test
+    void testSaveTraceResult_EditMode_ShouldQueueUpdateWithoutLookup() {
+        // Given
+        StringBuffer traceResult = new StringBuffer("[{\"type\":\"search\"}]");
+
+        // When
+        chatRecordModelService.saveTraceResult(chatReqRecords, traceResult, true);
+
+        // Then
+        ArgumentCaptor<ChatTraceSource> traceCaptor = ArgumentCaptor.forClass(ChatTraceSource.class);
+        verify(chatRecordWriteBehind).updateTraceSource(traceCaptor.capture());
+        verify(chatRecordWriteBehind, never()).saveTraceSource(any());
+        assertEquals(traceResult.toString(), traceCaptor.getValue().getContent());
+        assertEquals(1L, traceCaptor.getValue().getReqId());
     }
 }
@@ -5,12 +5,14 @@ import com.iflytek.astron.console.commons.service.data.ChatListDataService;
 import com.iflytek.astron.console.commons.service.data.DatasetDataService;
 import com.iflytek.astron.console.toolkit.entity.core.knowledge.ChunkInfo;
 import com.iflytek.astron.console.toolkit.service.repo.RepoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -133,7 +135,8 @@ class KnowledgeServiceImplTest {
 
         // Then
         assertNotNull(result);
-        assertEquals(testMaasDatasetList.size() * chunkInfoList.size(), result.size());
+        // Results of all repositories are merged into a global topN
+        assertEquals(Math.min(testTopN, testMaasDatasetList.size() * chunkInfoList.size()), result.size());
 
         // Verify that all chunk contents are included
         for (ChunkInfo chunkInfo : chunkInfoList) {
@@ -204,8 +207,8 @@ class KnowledgeServiceImplTest {
 
         // Then
         assertNotNull(result);
-        // Should have chunks from all repositories
-        assertEquals(testMaasDatasetList.size() * chunkInfoList.size(), result.size());
+        // Should have chunks from all repositories, capped at the global topN
+        assertEquals(Math.min(testTopN, testMaasDatasetList.size() * chunkInfoList.size()), result.size());
 
         // Verify hitTest was called for each repository
         for (String repoId : testMaasDatasetList) {
@@ -239,6 +242,82 @@ class KnowledgeServiceImplTest {
         });
     }
 
+    @Test
+    void getChuncks_ShouldMergeResultsByScoreIntoGlobalTopN() {
+        // Given
+        when(repoService.hitTest(eq(123L), eq(testText), eq(2), eq(false)))
+                .thenReturn(Arrays.asList(createChunk("a-high", 0.9), createChunk("a-low", 0.1)));
+        when(repoService.hitTest(eq(456L), eq(testText), eq(2), eq(false)))
+                .thenReturn(Arrays.asList(createChunk("b-mid", 0.5), createChunk("b-low", 0.2)));
+
+        // When
+        List<String> result = knowledgeService.getChuncks(Arrays.asList("123", "456"), testText, 2, false);
+
+        // Then
+        assertEquals(Arrays.asList("a-high", "b-mid"), result);
+    }
+
+    @Test
+    void getChuncks_ShouldReturnPartialResults_WhenRepositoryTimesOut() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(knowledgeService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(knowledgeService, "retrievalTimeoutMs", 200L);
+        when(repoService.hitTest(eq(123L), eq(testText), eq(testTopN), eq(false)))
+                .thenReturn(Collections.singletonList(createChunk("fast", 0.3)));
+        when(repoService.hitTest(eq(456L), eq(testText), eq(testTopN), eq(false)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(5000);
+                    return Collections.singletonList(createChunk("slow", 0.9));
+                });
+
+        // When
+        long start = System.currentTimeMillis();
+        List<String> result = knowledgeService.getChuncks(Arrays.asList("123", "456"), testText, testTopN, false);
+
+        // Then
+        assertEquals(Collections.singletonList("fast"), result);
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(1.0, meterRegistry.counter("knowledge.retrieval.skipped", "reason", "timeout").count());
+    }
+
+    @Test
+    void getChuncks_ShouldCountFailedRepositories_WhenOthersAnswer() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(knowledgeService, "meterRegistry", meterRegistry);
+        when(repoService.hitTest(eq(123L), eq(testText), eq(testTopN), eq(false)))
+                .thenReturn(Collections.singletonList(createChunk("ok", 0.3)));
+        when(repoService.hitTest(eq(456L), eq(testText), eq(testTopN), eq(false)))
+                .thenThrow(new IllegalStateException("repo unavailable"));
+
+        // When
+        List<String> result = knowledgeService.getChuncks(Arrays.asList("123", "456"), testText, testTopN, false);
+
+        // Then
+        assertEquals(Collections.singletonList("ok"), result);
+        assertEquals(1.0, meterRegistry.counter("knowledge.retrieval.skipped", "reason", "error").count());
+        assertEquals(0.0, meterRegistry.counter("knowledge.retrieval.skipped", "reason", "timeout").count());
+    }
+
+    @Test
+    void getChuncks_ShouldThrow_WhenAllRepositoriesFail() {
+        // Given
+        when(repoService.hitTest(anyLong(), eq(testText), eq(testTopN), eq(false)))
+                .thenThrow(new IllegalStateException("repo unavailable"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class,
+                () -> knowledgeService.getChuncks(testMaasDatasetList, testText, testTopN, false));
+    }
+
+    private ChunkInfo createChunk(String content, Double score) {
+        ChunkInfo chunkInfo = new ChunkInfo();
+        chunkInfo.setContent(content);
+        chunkInfo.setScore(score);
+        return chunkInfo;
+    }
+
     private List<BotDatasetMaas> createTestDatasetList() {
         List<BotDatasetMaas> datasetList = new ArrayList<>();
 
@@ -0,0 +1,155 @@
+package com.iflytek.astron.console.hub.service.notification;
+
+import com.iflytek.astron.console.hub.data.NotificationDataService;
+import com.iflytek.astron.console.hub.data.impl.NotificationUnreadCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationPushServiceTest {
+
+    private static final long TIMEOUT_MS = 1000;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private NotificationDataService notificationDataService;
+
+    @InjectMocks
+    private NotificationPushService pushService;
+
+    private MessageListener<String> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(redissonClient.getTopic(eq(NotificationUnreadCounter.CHANGED_CHANNEL), any(Codec.class))).thenReturn(topic);
+        pushService.subscribe();
+        ArgumentCaptor<MessageListener<String>> listenerCaptor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listenerCaptor.capture());
+        listener = listenerCaptor.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pushService.shutdown();
+    }
+
+    @Test
+    void change_PushesCountToStreamsOfThatUserOnly() throws IOException {
+        SseEmitter emitter = stream("user-1");
+        SseEmitter other = stream("user-2");
+        when(notificationDataService.countUserUnreadNotifications("user-1")).thenReturn(5L);
+
+        listener.onMessage(NotificationUnreadCounter.CHANGED_CHANNEL, "user-1");
+
+        ArgumentCaptor<SseEmitter.SseEventBuilder> eventCaptor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(TIMEOUT_MS)).send(eventCaptor.capture());
+        assertTrue(eventCaptor.getValue().build().stream().anyMatch(data -> Long.valueOf(5L).equals(data.getData())));
+        verify(notificationDataService, never()).countUserUnreadNotifications("user-2");
+        verifyNoInteractions(other);
+    }
+
+    @Test
+    void changeOfAllUsers_PushesToEveryStream() throws IOException {
+        SseEmitter first = stream("user-1");
+        SseEmitter second = stream("user-2");
+        when(notificationDataService.countUserUnreadNotifications(anyString())).thenReturn(1L);
+
+        listener.onMessage(NotificationUnreadCounter.CHANGED_CHANNEL, NotificationUnreadCounter.ALL_USERS);
+
+        verify(first, timeout(TIMEOUT_MS)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(second, timeout(TIMEOUT_MS)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void change_UserWithoutStreamOnThisNode_NotCounted() {
+        listener.onMessage(NotificationUnreadCounter.CHANGED_CHANNEL, "user-1");
+
+        verify(notificationDataService, after(200).never()).countUserUnreadNotifications(anyString());
+    }
+
+    @Test
+    void push_FailedSendClosesStream() throws IOException {
+        SseEmitter emitter = stream("user-1");
+        IOException broken = new IOException("broken pipe");
+        doThrow(broken).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        when(notificationDataService.countUserUnreadNotifications("user-1")).thenReturn(5L);
+
+        listener.onMessage(NotificationUnreadCounter.CHANGED_CHANNEL, "user-1");
+
+        verify(emitter, timeout(TIMEOUT_MS)).completeWithError(broken);
+        assertFalse(localEmitters().containsKey("user-1"));
+    }
+
+    @Test
+    void push_CountFailure_SendsNothing() throws IOException {
+        SseEmitter emitter = stream("user-1");
+        when(notificationDataService.countUserUnreadNotifications("user-1")).thenThrow(new IllegalStateException("db down"));
+
+        listener.onMessage(NotificationUnreadCounter.CHANGED_CHANNEL, "user-1");
+
+        verify(notificationDataService, timeout(TIMEOUT_MS)).countUserUnreadNotifications("user-1");
+        verify(emitter, after(200).never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertTrue(localEmitters().containsKey("user-1"));
+    }
+
+    @Test
+    void connect_SendsCurrentCountFirst() {
+        when(notificationDataService.countUserUnreadNotifications("user-1")).thenReturn(3L);
+
+        SseEmitter emitter = pushService.connect("user-1");
+
+        verify(notificationDataService, timeout(TIMEOUT_MS)).countUserUnreadNotifications("user-1");
+        assertTrue(localEmitters().get("user-1").contains(emitter));
+    }
+
+    @Test
+    void heartbeat_DropsStreamsWhoseClientIsGone() throws IOException {
+        SseEmitter alive = stream("user-1");
+        SseEmitter gone = stream("user-2");
+        doThrow(new IOException("broken pipe")).when(gone).send(any(SseEmitter.SseEventBuilder.class));
+
+        pushService.heartbeat();
+
+        verify(alive).send(any(SseEmitter.SseEventBuilder.class));
+        verify(gone).completeWithError(any(IOException.class));
+        assertEquals(Set.of("user-1"), localEmitters().keySet());
+    }
+
+    private SseEmitter stream(String uid) {
+        SseEmitter emitter = mock(SseEmitter.class);
+        localEmitters().computeIfAbsent(uid, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+        return emitter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Set<SseEmitter>> localEmitters() {
+        return (Map<String, Set<SseEmitter>>) ReflectionTestUtils.getField(pushService, "localEmitters");
+    }
+}
@@ -357,6 +357,7 @@ class EnterpriseUserBizServiceImplTest {
             assertNotNull(result);
             assertEquals(ResponseEnum.SUCCESS.getCode(), result.code());
             verify(enterpriseUserService).removeById(testEnterpriseUser);
+            verify(enterpriseSpaceService).clearEnterpriseUserCache(TEST_ENTERPRISE_ID, TEST_UID);
         }
     }
 
@@ -485,6 +485,7 @@ class SpaceUserBizServiceImplTest {
             assertNotNull(result);
             assertEquals(ResponseEnum.SUCCESS.getCode(), result.code());
             verify(spaceUserService).removeById(testSpaceUser);
+            verify(enterpriseSpaceService).clearSpaceUserCache(TEST_SPACE_ID, TEST_UID);
         }
     }
 
@@ -560,6 +561,8 @@ class SpaceUserBizServiceImplTest {
             assertEquals(ADMIN_ROLE, ownerSpaceUser.getRole());
             assertEquals(OWNER_ROLE, targetUser.getRole());
             verify(spaceUserService).updateBatchById(eq(Arrays.asList(ownerSpaceUser, targetUser)));
+            verify(enterpriseSpaceService).clearSpaceUserCache(TEST_SPACE_ID, CURRENT_USER_UID);
+            verify(enterpriseSpaceService).clearSpaceUserCache(TEST_SPACE_ID, TEST_UID);
         }
     }
 
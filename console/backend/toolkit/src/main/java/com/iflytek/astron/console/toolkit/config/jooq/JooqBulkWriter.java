@@ -0,0 +1,184 @@
+package com.iflytek.astron.console.toolkit.config.jooq;
+
+import org.jooq.Query;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Streaming bulk loader. Rows are accepted one by one and grouped into chunks; every chunk is
+ * rendered as one multi-row statement and sent on the executor, with at most {@code parallelism}
+ * chunks in flight (the producer blocks while the limit is reached, so memory stays bounded by
+ * {@code parallelism * chunkSize} rows).
+ * <p>
+ * A chunk is retried as a whole on retryable errors. When it still fails, its rows are sent one by
+ * one so that only the bad rows are reported in the {@link JooqBatchExecutor.ResultSummary}.
+ * <p>
+ * Not thread-safe for producers: {@link #accept} and {@link #finish} are called from the reading
+ * thread only.
+ */
+public class JooqBulkWriter implements Consumer<Map<String, Object>> {
+
+    // Keep the summary small for huge imports, failures are still counted
+    private static final int MAX_ERRORS = 100;
+
+    private final int chunkSize;
+    private final int maxRetries;
+    private final Executor executor;
+    private final Function<List<Map<String, Object>>, Query> builder;
+    private final SqlSender sender;
+    private final Predicate<Throwable> retryable;
+
+    private final Semaphore inFlight;
+    private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    private final JooqBatchExecutor.ResultSummary summary = new JooqBatchExecutor.ResultSummary();
+
+    private List<Map<String, Object>> buffer;
+    private int bufferStart = 0;
+    private int received = 0;
+
+    /**
+     * @param chunkSize rows per statement
+     * @param parallelism maximum chunks sent concurrently
+     * @param maxRetries retries of a chunk (and of a row in the fallback) on retryable errors
+     * @param executor executor running the chunks
+     * @param builder builds one INSERT for the given rows, all rows have the same columns
+     * @param sender sends a rendered statement
+     * @param retryable decides whether an error of the sender is worth retrying
+     */
+    public JooqBulkWriter(int chunkSize,
+            int parallelism,
+            int maxRetries,
+            Executor executor,
+            Function<List<Map<String, Object>>, Query> builder,
+            SqlSender sender,
+            Predicate<Throwable> retryable) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.executor = Objects.requireNonNull(executor);
+        this.builder = Objects.requireNonNull(builder);
+        this.sender = Objects.requireNonNull(sender);
+        this.retryable = retryable == null ? JooqRetry::isRetryable : retryable;
+        this.inFlight = new Semaphore(Math.max(1, parallelism));
+        this.buffer = new ArrayList<>(this.chunkSize);
+    }
+
+    @Override
+    public void accept(Map<String, Object> row) {
+        buffer.add(row);
+        received++;
+        if (buffer.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Send the remaining rows and wait for all chunks
+     *
+     * @return summary of all rows accepted so far
+     */
+    public JooqBatchExecutor.ResultSummary finish() {
+        flush();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        futures.clear();
+        synchronized (summary) {
+            summary.errors.sort(Comparator.comparingInt(e -> e.index));
+        }
+        return summary;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    private void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> chunk = buffer;
+        int start = bufferStart;
+        buffer = new ArrayList<>(chunkSize);
+        bufferStart += chunk.size();
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bulk write slot", e);
+        }
+        try {
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    writeChunk(start, chunk);
+                } finally {
+                    inFlight.release();
+                }
+            }, executor));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void writeChunk(int start, List<Map<String, Object>> chunk) {
+        Throwable error = send(chunk);
+        if (error == null) {
+            record(chunk.size(), null);
+            return;
+        }
+        if (chunk.size() == 1) {
+            record(0, List.of(new JooqBatchExecutor.RowError(start, chunk.getFirst(), JooqRetry.unwrap(error).getMessage())));
+            return;
+        }
+        // Isolate the bad rows of the chunk
+        int success = 0;
+        List<JooqBatchExecutor.RowError> errors = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Map<String, Object> row = chunk.get(i);
+            Throwable rowError = send(List.of(row));
+            if (rowError == null) {
+                success++;
+            } else {
+                errors.add(new JooqBatchExecutor.RowError(start + i, row, JooqRetry.unwrap(rowError).getMessage()));
+            }
+        }
+        record(success, errors);
+    }
+
+    private Throwable send(List<Map<String, Object>> rows) {
+        int attempts = 0;
+        while (true) {
+            try {
+                Query q = builder.apply(rows);
+                sender.send(q.getSQL(), q.getBindValues());
+                return null;
+            } catch (Throwable ex) {
+                attempts++;
+                if (attempts <= maxRetries && retryable.test(ex)) {
+                    JooqRetry.sleepBackoff(attempts, 50, 1000);
+                    continue;
+                }
+                return ex;
+            }
+        }
+    }
+
+    private void record(int success, List<JooqBatchExecutor.RowError> errors) {
+        synchronized (summary) {
+            summary.success += success;
+            if (errors == null) {
+                return;
+            }
+            summary.failed += errors.size();
+            for (JooqBatchExecutor.RowError error : errors) {
+                if (summary.errors.size() >= MAX_ERRORS) {
+                    break;
+                }
+                summary.errors.add(error);
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.iflytek.astron.console.toolkit.controller.database;
 
-import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.iflytek.astron.console.commons.annotation.space.SpacePreAuth;
 import com.iflytek.astron.console.commons.response.ApiResult;
@@ -140,7 +139,7 @@ public class DataBaseController {
     @PostMapping("/select-table-data")
     @Operation(summary = "Query table data")
     @SpacePreAuth(key = "DataBaseController_selectTableData_POST")
-    public ApiResult<Page<JSONObject>> selectTableData(@RequestBody DbTableSelectDataDto dbTableSelectDataDto) {
+    public ApiResult<DbTableDataPageVo> selectTableData(@RequestBody DbTableSelectDataDto dbTableSelectDataDto) {
         return ApiResult.success(databaseService.selectTableData(dbTableSelectDataDto));
     }
 
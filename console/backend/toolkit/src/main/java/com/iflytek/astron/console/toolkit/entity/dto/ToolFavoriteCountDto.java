@@ -0,0 +1,15 @@
+package com.iflytek.astron.console.toolkit.entity.dto;
+
+import lombok.Data;
+
+@Data
+public class ToolFavoriteCountDto {
+
+    private String pluginToolId;
+
+    /** All favorite records, including cancelled ones */
+    private Long favoriteCount;
+
+    /** Favorite records still in use */
+    private Long activeCount;
+}
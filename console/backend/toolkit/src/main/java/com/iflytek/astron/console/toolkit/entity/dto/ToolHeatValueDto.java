@@ -0,0 +1,11 @@
+package com.iflytek.astron.console.toolkit.entity.dto;
+
+import lombok.Data;
+
+@Data
+public class ToolHeatValueDto {
+
+    private String toolName;
+
+    private Long heatValue;
+}
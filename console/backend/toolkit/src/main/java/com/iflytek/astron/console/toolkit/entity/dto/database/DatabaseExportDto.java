@@ -16,4 +16,9 @@ public class DatabaseExportDto implements Serializable {
 
     private List<String> dataIds;
 
+    /**
+     * Export file format: xlsx (default) or csv
+     */
+    private String format;
+
 }
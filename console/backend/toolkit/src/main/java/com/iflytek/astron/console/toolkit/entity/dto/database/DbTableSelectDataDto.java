@@ -17,4 +17,10 @@ public class DbTableSelectDataDto implements Serializable {
     private Long pageNum;
 
     private Long pageSize;
+
+    /**
+     * Seek cursor returned as nextCursor of the previous page; when set, pageNum is not used for
+     * positioning
+     */
+    private String cursor;
 }
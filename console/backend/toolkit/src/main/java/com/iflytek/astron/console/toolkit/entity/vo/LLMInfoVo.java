@@ -45,6 +45,13 @@ public class LLMInfoVo extends LLMServerInfo {
     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
     private Date shelfOffTime;
+    /**
+     * Last deploy status check of a local model that is not running yet, null when not checked yet.
+     * Running models are no longer probed, their status is final and this stays null.
+     */
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private Date statusCheckedAt;
     private Integer acceleratorCount;
     /**
      * Replica configuration
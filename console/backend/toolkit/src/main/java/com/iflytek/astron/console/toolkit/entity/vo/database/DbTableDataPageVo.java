@@ -0,0 +1,24 @@
+package com.iflytek.astron.console.toolkit.entity.vo.database;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Page of user table data with the cursor of the next page
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class DbTableDataPageVo extends Page<JSONObject> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Pass as cursor to fetch the page after this one, null on the last page
+     */
+    private String nextCursor;
+
+    public DbTableDataPageVo(long current, long size) {
+        super(current, size);
+    }
+}
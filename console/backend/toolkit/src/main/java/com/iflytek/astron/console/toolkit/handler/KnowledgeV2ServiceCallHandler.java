@@ -1,6 +1,7 @@
 package com.iflytek.astron.console.toolkit.handler;
 
 import com.alibaba.fastjson2.JSON;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.toolkit.config.properties.RepoAuthorizedConfig;
 import com.iflytek.astron.console.toolkit.config.properties.ApiUrl;
 import com.iflytek.astron.console.toolkit.entity.core.knowledge.*;
@@ -22,6 +23,8 @@ public class KnowledgeV2ServiceCallHandler {
     private ApiUrl apiUrl;
     @Resource
     private RepoAuthorizedConfig repoAuthorizedConfig;
+    @Resource
+    private HttpClientRegistry httpClientRegistry;
 
     /**
      * Document parsing and chunking
@@ -33,7 +36,7 @@ public class KnowledgeV2ServiceCallHandler {
         String url = apiUrl.getKnowledgeUrl().concat("/v1/document/split");
         String reqBody = JSON.toJSONString(request);
         log.info("documentSplit url = {}, request = {}", url, reqBody);
-        String post = OkHttpUtil.post(url, reqBody);
+        String post = OkHttpUtil.post(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url, reqBody);
         log.info("documentSplit response = {}", post);
         return JSON.parseObject(post, KnowledgeResponse.class);
     }
@@ -71,7 +74,7 @@ public class KnowledgeV2ServiceCallHandler {
             }
 
             log.info("documentUpload url = {}, ragType = {}, resourceType = {}", url, ragType, resourceType);
-            String post = OkHttpUtil.postMultipart(url, new HashMap<>(), null, params, null);
+            String post = OkHttpUtil.postMultipart(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url, new HashMap<>(), null, params, null);
             log.info("documentUpload response = {}", post);
             return JSON.parseObject(post, KnowledgeResponse.class);
         } catch (Exception e) {
@@ -87,7 +90,7 @@ public class KnowledgeV2ServiceCallHandler {
         String url = apiUrl.getKnowledgeUrl().concat("/v1/chunks/save");
         String reqBody = JSON.toJSONString(request);
         log.info("saveChunk url = {}, request = {}", url, reqBody);
-        String post = OkHttpUtil.post(url, reqBody);
+        String post = OkHttpUtil.post(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url, reqBody);
         log.info("saveChunk response = {}", post);
         return JSON.parseObject(post, KnowledgeResponse.class);
     }
@@ -96,7 +99,7 @@ public class KnowledgeV2ServiceCallHandler {
         String url = apiUrl.getKnowledgeUrl().concat("/v1/chunk/update");
         String reqBody = JSON.toJSONString(request);
         log.info("updateChunk url = {}, request = {}", url, reqBody);
-        String post = OkHttpUtil.post(url, reqBody);
+        String post = OkHttpUtil.post(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url, reqBody);
         log.info("updateChunk response = {}", post);
         return JSON.parseObject(post, KnowledgeResponse.class);
     }
@@ -105,7 +108,7 @@ public class KnowledgeV2ServiceCallHandler {
         String url = apiUrl.getKnowledgeUrl().concat("/v1/chunk/delete");
         String reqBody = JSON.toJSONString(request);
         log.info("deleteDocOrChunk url = {}, request = {}", url, reqBody);
-        String post = OkHttpUtil.post(url, reqBody);
+        String post = OkHttpUtil.post(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url, reqBody);
         log.info("deleteDocOrChunk response = {}", post);
         return JSON.parseObject(post, KnowledgeResponse.class);
     }
@@ -114,7 +117,7 @@ public class KnowledgeV2ServiceCallHandler {
         String url = apiUrl.getKnowledgeUrl().concat("/v1/chunk/query");
         String reqBody = JSON.toJSONString(request);
         log.info("knowledgeQuery request url:{}\ndata:{}", url, reqBody);
-        String respData = OkHttpUtil.post(url, reqBody);
+        String respData = OkHttpUtil.post(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url, reqBody);
         log.info("knowledgeQuery response data:{}", respData);
         return JSON.parseObject(respData, KnowledgeResponse.class);
     }
@@ -2,6 +2,7 @@ package com.iflytek.astron.console.toolkit.handler;
 
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson2.JSON;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.alibaba.fastjson2.JSONObject;
 import com.iflytek.astron.console.toolkit.config.properties.RepoAuthorizedConfig;
 import com.iflytek.astron.console.toolkit.config.properties.ApiUrl;
@@ -22,6 +23,8 @@ public class SparkKnowledgeCallHandler {
     private ApiUrl apiUrl;
     @Resource
     private RepoAuthorizedConfig repoAuthorizedConfig;
+    @Resource
+    private HttpClientRegistry httpClientRegistry;
 
     @Value("${spring.profiles.active}")
     String env;
@@ -43,7 +46,7 @@ public class SparkKnowledgeCallHandler {
 
         url = url.concat("dataset/getDatasetFiles?datasetId=").concat(datasetId);
         log.info("sparkDeskRepoFileGet request url:{}", url);
-        String resp = OkHttpUtil.get(url);
+        String resp = OkHttpUtil.get(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url);
         JSONObject respObject = JSON.parseObject(resp);
         log.info("sparkDeskRepoFileGet response data:{}", resp);
 
@@ -66,7 +69,7 @@ public class SparkKnowledgeCallHandler {
         String url = apiUrl.getKnowledgeUrl().concat("/v1/document/split");
         String reqBody = JSON.toJSONString(request);
         log.info("documentSplit url = {}, request = {}", url, reqBody);
-        String post = OkHttpUtil.post(url, reqBody);
+        String post = OkHttpUtil.post(httpClientRegistry.get(HttpClientRegistry.KNOWLEDGE), url, reqBody);
         log.info("documentSplit response = {}", post);
         return JSON.parseObject(post, KnowledgeResponse.class);
     }
@@ -32,4 +32,11 @@ public interface ConfigInfoMapper extends BaseMapper<ConfigInfo> {
      * @return
      */
     List<ConfigInfo> getTags(@Param("category") String category, @Param("code") String code);
+
+    /**
+     * Checksum over all rows, valid or not, changes whenever a row is added, removed or modified
+     *
+     * @return
+     */
+    String selectChecksum();
 }
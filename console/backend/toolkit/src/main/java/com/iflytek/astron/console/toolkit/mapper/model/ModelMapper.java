@@ -3,6 +3,10 @@ package com.iflytek.astron.console.toolkit.mapper.model;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.iflytek.astron.console.toolkit.entity.table.model.Model;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @Author clliu19
@@ -10,4 +14,13 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface ModelMapper extends BaseMapper<Model> {
+
+    /**
+     * Write the deploy status and url of several models in one UPDATE
+     *
+     * @param models Models with id, status and url set
+     * @param enableIds IDs of the models to enable as well, may be empty
+     * @return Affected rows
+     */
+    int updateDeployStatusBatch(@Param("models") List<Model> models, @Param("enableIds") Collection<Long> enableIds);
 }
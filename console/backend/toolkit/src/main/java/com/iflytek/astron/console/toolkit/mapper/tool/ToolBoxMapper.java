@@ -2,6 +2,7 @@ package com.iflytek.astron.console.toolkit.mapper.tool;
 
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolHeatValueDto;
 import com.iflytek.astron.console.toolkit.entity.table.tool.ToolBox;
 import com.iflytek.astron.console.toolkit.entity.vo.BotUsedToolVo;
 import org.apache.ibatis.annotations.Mapper;
@@ -77,5 +78,7 @@ public interface ToolBoxMapper extends BaseMapper<ToolBox> {
 
     Long getMcpHeatValueByName(@Param("name") String name);
 
+    List<ToolHeatValueDto> getAllMcpHeatValue();
+
     List<ToolBox> getToolsLastVersion(@Param("toolIds") List<String> toolIds);
 }
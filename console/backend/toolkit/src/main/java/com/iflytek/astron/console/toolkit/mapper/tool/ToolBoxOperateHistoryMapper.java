@@ -4,9 +4,18 @@ package com.iflytek.astron.console.toolkit.mapper.tool;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.iflytek.astron.console.toolkit.entity.table.tool.ToolBoxOperateHistory;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 
 @Mapper
 public interface ToolBoxOperateHistoryMapper extends BaseMapper<ToolBoxOperateHistory> {
 
+    @Select("SELECT tool_id FROM tool_box_operate_history \n" +
+            "WHERE uid = #{uid} AND tool_id IS NOT NULL \n" +
+            "GROUP BY tool_id ORDER BY MAX(create_time) DESC")
+    List<String> selectRecentToolIds(@Param("uid") String uid);
+
 }
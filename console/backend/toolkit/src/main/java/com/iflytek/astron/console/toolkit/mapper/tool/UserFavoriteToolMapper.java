@@ -1,6 +1,7 @@
 package com.iflytek.astron.console.toolkit.mapper.tool;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolFavoriteCountDto;
 import com.iflytek.astron.console.toolkit.entity.dto.ToolFavoriteToolDto;
 import com.iflytek.astron.console.toolkit.entity.table.tool.UserFavoriteTool;
 import org.apache.ibatis.annotations.Mapper;
@@ -58,4 +59,11 @@ public interface UserFavoriteToolMapper extends BaseMapper<UserFavoriteTool> {
     List<UserFavoriteTool> selectAllList();
 
     List<ToolFavoriteToolDto> findAllTooIdByUserId(@Param("userId") String userId);
+
+    /**
+     * Favorite counts grouped by plugin tool
+     *
+     * @return
+     */
+    List<ToolFavoriteCountDto> countGroupByPluginToolId();
 }
@@ -0,0 +1,204 @@
+package com.iflytek.astron.console.toolkit.service.common;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.iflytek.astron.console.toolkit.entity.table.ConfigInfo;
+import com.iflytek.astron.console.toolkit.handler.language.LanguageContext;
+import com.iflytek.astron.console.toolkit.mapper.ConfigInfoMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * In-memory snapshot of the valid rows of {@code config_info}, indexed by ID, category and
+ * category + code.
+ * <p>
+ * English requests read {@code config_info_en} (the table name is switched by the MyBatis
+ * interceptor), so one snapshot is kept per language table and picked by
+ * {@link LanguageContext#isEn()}. Each table is loaded on first use and swapped in as a whole, so
+ * readers always see one consistent version. The application never writes {@code config_info}, it is
+ * edited by hand, so changes are picked up by a poll that compares a checksum of each loaded table
+ * (every {@code config-info.registry.poll-interval-ms}). After an edit,
+ * {@code PUBLISH config_info_changed 1} on {@link #CHANGED_CHANNEL} makes every node reload at once
+ * instead. Lists keep the order of the mapper queries (latest update first). Copies are handed out,
+ * so callers may modify them.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ConfigInfoRegistry {
+
+    public static final String CHANGED_CHANNEL = "config_info_changed";
+
+    private static final Comparator<ConfigInfo> LATEST_FIRST =
+            Comparator.comparing(ConfigInfo::getUpdateTime, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).reversed();
+
+    @Autowired
+    private ConfigInfoMapper configInfoMapper;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    /** Snapshot per language table, keyed by {@link LanguageContext#isEn()} */
+    private final Map<Boolean, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        RTopic topic = redissonClient.getTopic(CHANGED_CHANNEL, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, message) -> {
+            for (Boolean en : snapshots.keySet()) {
+                try {
+                    reload(en);
+                } catch (Exception e) {
+                    // The checksum poll retries
+                    log.warn("Failed to reload config info on change, en: {}", en, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Latest valid config of a category and code, same as {@link ConfigInfoMapper#getByCategoryAndCode}
+     */
+    public ConfigInfo get(String category, String code) {
+        List<ConfigInfo> configs = snapshot().byCategoryAndCode.get(key(category, code));
+        return configs == null ? null : copyOf(configs.get(0));
+    }
+
+    /**
+     * Latest valid config of a category, code and name
+     */
+    public ConfigInfo get(String category, String code, String name) {
+        List<ConfigInfo> configs = snapshot().byCategoryAndCode.getOrDefault(key(category, code), List.of());
+        for (ConfigInfo config : configs) {
+            if (Objects.equals(config.getName(), name)) {
+                return copyOf(config);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Valid config by ID
+     */
+    public ConfigInfo getById(Long id) {
+        ConfigInfo config = snapshot().byId.get(id);
+        return config == null ? null : copyOf(config);
+    }
+
+    /**
+     * Valid configs of a category, same as {@link ConfigInfoMapper#getListByCategory}
+     */
+    public List<ConfigInfo> list(String category) {
+        return copyOf(snapshot().byCategory.get(category));
+    }
+
+    /**
+     * Valid configs of a category and code, same as {@link ConfigInfoMapper#getListByCategoryAndCode}
+     */
+    public List<ConfigInfo> list(String category, String code) {
+        return copyOf(snapshot().byCategoryAndCode.get(key(category, code)));
+    }
+
+    /**
+     * Reload each loaded table whose checksum no longer matches its snapshot. The poll runs without a
+     * request locale, so every table is checked under its own language.
+     */
+    @Scheduled(fixedDelayString = "${config-info.registry.poll-interval-ms:60000}", initialDelay = 60000)
+    public void poll() {
+        for (Map.Entry<Boolean, Snapshot> entry : snapshots.entrySet()) {
+            Boolean en = entry.getKey();
+            try {
+                String checksum = withLanguage(en, configInfoMapper::selectChecksum);
+                if (!Objects.equals(entry.getValue().checksum, checksum)) {
+                    reload(en);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to check config info checksum, en: {}", en, e);
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        boolean en = LanguageContext.isEn();
+        Snapshot current = snapshots.get(en);
+        return current != null ? current : reload(en);
+    }
+
+    /**
+     * Load the table of a language and swap its snapshot in
+     */
+    synchronized Snapshot reload(boolean en) {
+        long start = System.currentTimeMillis();
+        Snapshot loaded = withLanguage(en, () -> {
+            // Read the checksum first, a change made during the load shows up at the next poll
+            String checksum = configInfoMapper.selectChecksum();
+            List<ConfigInfo> rows = configInfoMapper.selectList(Wrappers.lambdaQuery(ConfigInfo.class)
+                    .eq(ConfigInfo::getIsValid, 1)
+                    .orderByAsc(ConfigInfo::getId));
+            return new Snapshot(checksum, rows);
+        });
+        snapshots.put(en, loaded);
+        log.info("config info loaded - en: {}, rows: {}, cost: {}ms", en, loaded.byId.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    /**
+     * Run a query against the table of a language, whatever the locale of the calling thread
+     */
+    private static <T> T withLanguage(boolean en, Supplier<T> query) {
+        AtomicReference<T> result = new AtomicReference<>();
+        LanguageContext.runWithLocale(en ? Locale.ENGLISH : Locale.SIMPLIFIED_CHINESE, () -> result.set(query.get()));
+        return result.get();
+    }
+
+    private static String key(String category, String code) {
+        return category + '\u0000' + code;
+    }
+
+    private static ConfigInfo copyOf(ConfigInfo source) {
+        ConfigInfo target = new ConfigInfo();
+        BeanUtils.copyProperties(source, target);
+        return target;
+    }
+
+    private static List<ConfigInfo> copyOf(List<ConfigInfo> sources) {
+        if (sources == null) {
+            return new ArrayList<>();
+        }
+        List<ConfigInfo> targets = new ArrayList<>(sources.size());
+        for (ConfigInfo source : sources) {
+            targets.add(copyOf(source));
+        }
+        return targets;
+    }
+
+    private static final class Snapshot {
+        private final String checksum;
+        private final Map<Long, ConfigInfo> byId = new HashMap<>();
+        private final Map<String, List<ConfigInfo>> byCategory = new HashMap<>();
+        private final Map<String, List<ConfigInfo>> byCategoryAndCode = new HashMap<>();
+
+        Snapshot(String checksum, List<ConfigInfo> rows) {
+            this.checksum = checksum;
+            for (ConfigInfo row : rows) {
+                byId.put(row.getId(), row);
+                byCategory.computeIfAbsent(row.getCategory(), k -> new ArrayList<>()).add(row);
+                byCategoryAndCode.computeIfAbsent(key(row.getCategory(), row.getCode()), k -> new ArrayList<>()).add(row);
+            }
+            byCategory.values().forEach(list -> list.sort(LATEST_FIRST));
+            byCategoryAndCode.values().forEach(list -> list.sort(LATEST_FIRST));
+        }
+    }
+}
@@ -13,12 +13,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Read Excel -> Generate structured row data (each row Map<column name, value>), avoid SQL
  * concatenation. - Validate headers and required fields - Null values fall back to field default
- * values/type default values - Can set maximum row limit
+ * values/type default values - Can set maximum row limit - Rows can be streamed to a consumer
+ * instead of being collected
  */
 public class DBExcelReadListener extends AnalysisEventListener<Map<Integer, String>> {
 
@@ -26,21 +28,30 @@ public class DBExcelReadListener extends AnalysisEventListener<Map<Integer, Stri
     private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     private final List<DbTableField> tableFields;
-    private final List<Map<String, Object>> rowsSink; // Output container
+    private final Consumer<Map<String, Object>> rowsSink; // Output container
     private final String uid; // Automatically add uid to each row
     private final int maxRows; // Read limit (prevent explosion)
 
     private List<String> expectedHeaders;
     private List<String> notNullFieldsList;
+    private List<DbTableField> headerFields; // Field meta of each column, resolved once per sheet
 
     private int accepted = 0;
     private boolean headerValidated = false;
 
-    /** Recommended usage: load into rowsSink at once */
+    /** Load into rowsSink at once */
     public DBExcelReadListener(List<DbTableField> tableFields,
             List<Map<String, Object>> rowsSink,
             String uid,
             int maxRows) {
+        this(tableFields, (Consumer<Map<String, Object>>) Objects.requireNonNull(rowsSink)::add, uid, maxRows);
+    }
+
+    /** Recommended usage for large files: hand every row to rowsSink as soon as it is parsed */
+    public DBExcelReadListener(List<DbTableField> tableFields,
+            Consumer<Map<String, Object>> rowsSink,
+            String uid,
+            int maxRows) {
         this.tableFields = Objects.requireNonNull(tableFields);
         this.rowsSink = Objects.requireNonNull(rowsSink);
         this.uid = uid;
@@ -68,6 +79,13 @@ public class DBExcelReadListener extends AnalysisEventListener<Map<Integer, Stri
         } else {
             expectedHeaders = actualHeaders;
         }
+        headerFields = new ArrayList<>(expectedHeaders.size());
+        for (String header : expectedHeaders) {
+            headerFields.add(tableFields.stream()
+                    .filter(f -> f.getName().equals(header))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException(ResponseEnum.RESPONSE_FAILED, "Field " + header + " does not exist!")));
+        }
         headerValidated = true;
     }
 
@@ -86,10 +104,7 @@ public class DBExcelReadListener extends AnalysisEventListener<Map<Integer, Stri
         for (int i = 0; i < expectedHeaders.size(); i++) {
             String header = expectedHeaders.get(i);
             String raw = row.get(i); // Cell raw value (may be null)
-            DbTableField meta = tableFields.stream()
-                    .filter(f -> f.getName().equals(header))
-                    .findFirst()
-                    .orElseThrow(() -> new BusinessException(ResponseEnum.RESPONSE_FAILED, "Field " + header + " does not exist!"));
+            DbTableField meta = headerFields.get(i);
 
             Object v;
             if (StringUtils.isBlank(raw)) {
@@ -101,7 +116,7 @@ public class DBExcelReadListener extends AnalysisEventListener<Map<Integer, Stri
             out.put(header, v);
         }
 
-        rowsSink.add(out);
+        rowsSink.accept(out);
         accepted++;
     }
 
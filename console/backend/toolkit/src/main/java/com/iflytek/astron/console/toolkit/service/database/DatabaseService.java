@@ -13,6 +13,8 @@ import com.iflytek.astron.console.commons.constant.ResponseEnum;
 import com.iflytek.astron.console.commons.exception.BusinessException;
 import com.iflytek.astron.console.toolkit.common.constant.CommonConst;
 import com.iflytek.astron.console.toolkit.config.jooq.JooqBatchExecutor;
+import com.iflytek.astron.console.toolkit.config.jooq.JooqBulkWriter;
+import com.iflytek.astron.console.toolkit.config.jooq.JooqRetry;
 import com.iflytek.astron.console.toolkit.config.properties.CommonConfig;
 import com.iflytek.astron.console.toolkit.entity.dto.database.*;
 import com.iflytek.astron.console.toolkit.entity.enumVo.DBOperateEnum;
@@ -28,20 +30,25 @@ import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
 import com.iflytek.astron.console.toolkit.util.S3Util;
 import com.iflytek.astron.console.toolkit.util.database.NamePolicy;
 import com.iflytek.astron.console.toolkit.util.database.SqlRenderer;
+import com.iflytek.astron.console.toolkit.util.database.TableExportWriter;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.jooq.*;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Comparator;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static org.jooq.impl.DSL.*;
@@ -88,10 +95,35 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
     @Autowired
     private CommonConfig commonConfig;
 
+    @Autowired
+    private DbTableRowCountService dbTableRowCountService;
+
+    @Autowired
+    @Qualifier("asyncExecutor")
+    private Executor asyncExecutor;
+
+    @Value("${database.import.max-rows:1000000}")
+    private int importMaxRows = 1_000_000;
+
+    @Value("${database.import.chunk-size:500}")
+    private int importChunkSize = 500;
+
+    @Value("${database.import.parallelism:4}")
+    private int importParallelism = 4;
+
+    @Value("${database.export.page-size:1000}")
+    private int exportPageSize = 1000;
+
     private static final String[] SYSTEM_FIELDS = {"id", "uid", "create_time"};
     // New additions in DatabaseService
     private static final int MAX_PAGE_SIZE = 1000; // Prevent explosion
     private static final int MAX_EXPORT_IDS = 1000; // IN clause limit
+    /**
+     * Column added by {@link #keysetPageDml} with the full-precision create_time of each row. The core
+     * service returns timestamps cut to whole seconds, a key built from those would skip the rows that
+     * share the second of the last row of a page.
+     */
+    private static final String CURSOR_CREATE_TIME = "__cursor_create_time";
 
     @Transactional
     public DbInfo create(DatabaseDto databaseDto) {
@@ -806,6 +838,7 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
             // Delete table fields
             dbTableFieldMapper.delete(new UpdateWrapper<DbTableField>().lambda()
                     .eq(DbTableField::getTbId, tbId));
+            dbTableRowCountService.invalidate(tbId);
         } catch (BusinessException ex) {
             log.error("Failed to delete table, tbId={}", tbId);
             throw ex;
@@ -826,26 +859,38 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
             // Validate and execute one by one (can be batched to improve availability)
             final int BATCH = 100; // Adjustable
             List<DbTableDataDto> rows = dbTableOperateDto.getData();
-            for (int i = 0; i < rows.size(); i++) {
-                DbTableDataDto data = rows.get(i);
-                validateParams(data.getTableData(), fields, data.getOperateType());
-
-                String single = buildDml(dbTable.getName(), data.getTableData(), data.getOperateType());
-                SqlRenderer.denyMultiStmtOrComment(single);
-
-                coreSystemService.execDML(
-                        single,
-                        UserInfoManagerHandler.getUserId(),
-                        SpaceInfoUtil.getSpaceId(),
-                        dbInfo.getDbId(),
-                        DBOperateEnum.UPDATE.getCode(),
-                        dbTableOperateDto.getExecDev());
+            long rowDelta = 0; // Inserted minus deleted rows, applied to the cached row count
+            try {
+                for (int i = 0; i < rows.size(); i++) {
+                    DbTableDataDto data = rows.get(i);
+                    validateParams(data.getTableData(), fields, data.getOperateType());
+
+                    String single = buildDml(dbTable.getName(), data.getTableData(), data.getOperateType());
+                    SqlRenderer.denyMultiStmtOrComment(single);
+
+                    coreSystemService.execDML(
+                            single,
+                            UserInfoManagerHandler.getUserId(),
+                            SpaceInfoUtil.getSpaceId(),
+                            dbInfo.getDbId(),
+                            DBOperateEnum.UPDATE.getCode(),
+                            dbTableOperateDto.getExecDev());
+
+                    if (DBOperateEnum.INSERT.getCode().equals(data.getOperateType())) {
+                        rowDelta++;
+                    } else if (DBOperateEnum.DELETE.getCode().equals(data.getOperateType())) {
+                        rowDelta--;
+                    }
 
-                // Simple batch yielding can be done here (e.g., sleep 1ms every BATCH items) to prevent
-                // overwhelming the core system
-                if ((i + 1) % BATCH == 0) {
-                    // Thread.yield(); // Optional
+                    // Simple batch yielding can be done here (e.g., sleep 1ms every BATCH items) to prevent
+                    // overwhelming the core system
+                    if ((i + 1) % BATCH == 0) {
+                        // Thread.yield(); // Optional
+                    }
                 }
+            } finally {
+                // Rows sent before a failure are written, keep the count in step with them
+                dbTableRowCountService.add(dbTable.getId(), dbTableOperateDto.getExecDev(), rowDelta);
             }
         } catch (Exception ex) {
             log.error("Table operation failed, params={}", JSONObject.toJSONString(dbTableOperateDto), ex);
@@ -1016,10 +1061,10 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
 
     }
 
-    public Page<JSONObject> selectTableData(DbTableSelectDataDto dto) {
+    public DbTableDataPageVo selectTableData(DbTableSelectDataDto dto) {
         dataPermissionCheckTool.checkTbBelong(dto.getTbId());
         try {
-            Page<JSONObject> page = new Page<>(dto.getPageNum(), dto.getPageSize());
+            DbTableDataPageVo page = new DbTableDataPageVo(dto.getPageNum(), dto.getPageSize());
             page.setSize(Math.min(page.getSize(), MAX_PAGE_SIZE));
 
             DbTable dbTable = dbTableMapper.selectById(dto.getTbId());
@@ -1031,9 +1076,11 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
             if (limit < 0 || offset < 0)
                 throw new IllegalArgumentException("Bad paging");
 
-            String dml = "SELECT * FROM " + table + " ORDER BY " +
-                    SqlRenderer.quoteIdent("create_time") + " DESC, " + SqlRenderer.quoteIdent("id") + " DESC" +
-                    " LIMIT " + limit + " OFFSET " + offset;
+            // A cursor seeks straight to the next page, page numbers remain for jumping to a page
+            JSONObject after = decodeTableDataCursor(dto.getCursor());
+            String dml = after != null
+                    ? keysetPageDml(table, after, limit, 0)
+                    : keysetPageDml(table, null, limit, offset);
             SqlRenderer.denyMultiStmtOrComment(dml);
 
             List<JSONObject> maps = (List<JSONObject>) coreSystemService.execDML(
@@ -1044,16 +1091,24 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
                     DBOperateEnum.SELECT.getCode(),
                     dto.getExecDev());
 
-            String countDml = "SELECT COUNT(*) FROM " + table;
-            Long total = (Long) coreSystemService.execDML(
-                    countDml,
-                    UserInfoManagerHandler.getUserId(),
-                    SpaceInfoUtil.getSpaceId(),
-                    dbInfo.getDbId(),
-                    DBOperateEnum.SELECT_TOTAL_COUNT.getCode(),
-                    dto.getExecDev());
+            long total = dbTableRowCountService.getCount(dto.getTbId(), dto.getExecDev(), () -> {
+                String countDml = "SELECT COUNT(*) FROM " + table;
+                return (Long) coreSystemService.execDML(
+                        countDml,
+                        UserInfoManagerHandler.getUserId(),
+                        SpaceInfoUtil.getSpaceId(),
+                        dbInfo.getDbId(),
+                        DBOperateEnum.SELECT_TOTAL_COUNT.getCode(),
+                        dto.getExecDev());
+            });
 
-            page.setTotal(total == null ? 0 : total);
+            page.setTotal(total);
+            if (maps != null && !maps.isEmpty() && maps.size() >= limit) {
+                page.setNextCursor(encodeTableDataCursor(maps.getLast()));
+            }
+            if (maps != null) {
+                maps.forEach(row -> row.remove(CURSOR_CREATE_TIME));
+            }
             page.setRecords(maps);
             return page;
         } catch (Exception ex) {
@@ -1062,6 +1117,29 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
         }
     }
 
+    /**
+     * Cursor of the page after the given row: its sort key (full-precision create_time, id), Base64 URL
+     * encoded
+     */
+    private static String encodeTableDataCursor(JSONObject lastRow) {
+        JSONObject key = keysetKey(lastRow);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.toJSONString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static JSONObject decodeTableDataCursor(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            JSONObject key = JSONObject.parseObject(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (key == null || key.get("create_time") == null || key.get("id") == null) {
+                throw new IllegalArgumentException("Bad cursor");
+            }
+            return key;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Bad cursor", e);
+        }
+    }
 
     public void importTableData(Long tbId, Integer execDev, MultipartFile file) {
         dataPermissionCheckTool.checkTbBelong(tbId);
@@ -1073,48 +1151,61 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
                     .eq(DbTableField::getTbId, tbId)
                     .orderByDesc(DbTableField::getCreateTime));
 
-            // 1) read Excel -> rows
-            List<Map<String, Object>> rows = new ArrayList<>();
-            DBExcelReadListener listener = new DBExcelReadListener(
-                    dbTableFields,
-                    rows,
-                    UserInfoManagerHandler.getUserId(),
-                    10_000);
-            EasyExcel.read(file.getInputStream(), listener).sheet().doRead();
-
-            // 2) build INSERT (Bind parameters), shard execution + retry + error collection
-            final int CHUNK = 200, MAX_RETRIES = 3;
-            JooqBatchExecutor.ResultSummary summary = JooqBatchExecutor.executeInChunks(
-                    dslCon,
-                    dbTable.getName(),
-                    rows,
-                    CHUNK,
-                    MAX_RETRIES,
-                    row -> {
-                        Table<?> t = table(name(dbTable.getName()));
-                        InsertSetMoreStep<?> step = dslCon.insertInto(t).set(field(name("uid")), row.get("uid"));
-                        for (Map.Entry<String, Object> e : row.entrySet()) {
-                            if ("uid".equals(e.getKey()))
-                                continue;
-                            step = ((InsertSetStep<?>) step).set(field(name(e.getKey())), e.getValue());
+            // Request scoped identity, the chunks are sent from the executor threads
+            String uid = UserInfoManagerHandler.getUserId();
+            Long spaceId = SpaceInfoUtil.getSpaceId();
+            Table<?> t = table(name(dbTable.getName()));
+
+            // 1) parse every row once without keeping it: a bad cell anywhere in the file fails the import
+            // before anything is inserted
+            EasyExcel.read(file.getInputStream(), new DBExcelReadListener(dbTableFields, row -> {}, uid, importMaxRows))
+                    .sheet()
+                    .doRead();
+
+            // 2) build one multi-row INSERT (Bind parameters) per chunk; chunks are sent in parallel with
+            // retry, a failed chunk falls back to single rows to collect row errors
+            JooqBulkWriter writer = new JooqBulkWriter(
+                    importChunkSize,
+                    importParallelism,
+                    3,
+                    asyncExecutor,
+                    chunk -> {
+                        // Every row has uid first, then the sheet columns in the same order
+                        List<Field<Object>> fields = chunk.getFirst().keySet().stream().map(k -> field(name(k))).toList();
+                        InsertValuesStepN<?> step = dslCon.insertInto(t, fields);
+                        for (Map<String, Object> row : chunk) {
+                            step = step.values(row.values());
                         }
-                        return (Query) step;
+                        return step;
                     },
-
                     (sql, paramsIgnored) -> {
                         // Single statement security check (semicolons at the end are allowed, but multiple internal
                         // statements are rejected)
                         SqlRenderer.denyMultiStmtOrComment(sql);
                         coreSystemService.execDML(
                                 sql,
-                                UserInfoManagerHandler.getUserId(),
-                                SpaceInfoUtil.getSpaceId(),
+                                uid,
+                                spaceId,
                                 dbInfo.getDbId(),
                                 DBOperateEnum.INSERT.getCode(),
                                 execDev);
-                    });
+                    },
+                    // Only transient SQL states (serialization failure, deadlock, lock timeout...) are retried
+                    JooqRetry::isRetryable);
+
+            // 3) read Excel again -> stream the converted rows into the writer
+            DBExcelReadListener listener = new DBExcelReadListener(dbTableFields, writer, uid, importMaxRows);
+            JooqBatchExecutor.ResultSummary summary;
+            try {
+                EasyExcel.read(file.getInputStream(), listener).sheet().doRead();
+            } finally {
+                // Let chunks in flight settle before reporting, also when reading fails half way
+                summary = writer.finish();
+                dbTableRowCountService.add(tbId, execDev, summary.success);
+            }
+            log.info("importTableData tbId={}, rows={}, success={}, failed={}", tbId, writer.getReceived(), summary.success, summary.failed);
 
-            // 3) Summary
+            // 4) Summary
             if (!summary.errors.isEmpty()) {
                 // Record the first 10 failed examples
                 StringBuilder sb = new StringBuilder();
@@ -1188,8 +1279,10 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
             DbInfo dbInfo = dbInfoMapper.selectById(dbTable.getDbId());
 
             String table = SqlRenderer.quoteIdent(dbTable.getName());
-            String dml = "SELECT * FROM " + table + " LIMIT 1000 OFFSET 0";
+            String uid = UserInfoManagerHandler.getUserId();
+            Long spaceId = SpaceInfoUtil.getSpaceId();
 
+            String idsDml = null;
             if (dto.getDataIds() != null && !dto.getDataIds().isEmpty()) {
                 if (dto.getDataIds().size() > MAX_EXPORT_IDS) {
                     throw new BusinessException(ResponseEnum.DATABASE_TOO_MANY_EXPORT_IDS);
@@ -1200,70 +1293,125 @@ public class DatabaseService extends ServiceImpl<DbInfoMapper, DbInfo> {
                         .map(x -> SqlRenderer.requireLong(x, "id"))
                         .collect(Collectors.toList());
                 String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
-                dml = "SELECT * FROM " + table + " WHERE " + SqlRenderer.quoteIdent("id") + " IN (" + in + ")";
+                idsDml = "SELECT * FROM " + table + " WHERE " + SqlRenderer.quoteIdent("id") + " IN (" + in + ")";
             }
-            SqlRenderer.denyMultiStmtOrComment(dml);
-
-            List<JSONObject> data = (List<JSONObject>) coreSystemService.execDML(
-                    dml,
-                    UserInfoManagerHandler.getUserId(),
-                    SpaceInfoUtil.getSpaceId(),
-                    dbInfo.getDbId(),
-                    DBOperateEnum.SELECT.getCode(),
-                    dto.getExecDev());
 
-            List<List<String>> headList = new ArrayList<>();
+            List<String> headers = new ArrayList<>();
             Map<String, String> fieldTypeMap = new HashMap<>(); // Store field name to type mapping
             dbTableFieldMapper.selectList(new QueryWrapper<DbTableField>().lambda()
                     .eq(DbTableField::getTbId, dto.getTbId()))
                     .forEach(field -> {
-                        headList.add(Collections.singletonList(field.getName()));
+                        headers.add(field.getName());
                         fieldTypeMap.put(field.getName(), field.getType());
                     });
 
-            List<List<Object>> dataList = new ArrayList<>();
-            for (JSONObject row : data) {
-                List<Object> line = new ArrayList<>();
-                for (List<String> h : headList) {
-                    String fieldName = h.get(0);
-                    Object val = row.get(fieldName);
-
-                    // Convert boolean values to lowercase for consistency
-                    if (val != null && CommonConst.DBFieldType.BOOLEAN.equalsIgnoreCase(fieldTypeMap.get(fieldName))) {
-                        if (val instanceof Boolean) {
-                            line.add(val.toString().toLowerCase());
-                        } else if (val instanceof String) {
-                            String strVal = ((String) val).trim();
-                            if ("TRUE".equalsIgnoreCase(strVal) || "FALSE".equalsIgnoreCase(strVal)) {
-                                line.add(strVal.toLowerCase());
-                            } else {
-                                line.add(val);
-                            }
-                        } else {
-                            line.add(val);
+            // Pages are fetched and written one at a time, the export is never held in memory as a whole.
+            // A failure leaves the writer unfinished, which aborts the file instead of completing it
+            try (TableExportWriter writer = TableExportWriter.open(response, dto.getFormat(), dbTable.getName(), headers)) {
+                if (idsDml != null) {
+                    writer.write(toExportLines(selectForExport(idsDml, uid, spaceId, dbInfo, dto), headers, fieldTypeMap));
+                } else {
+                    JSONObject last = null;
+                    while (true) {
+                        List<JSONObject> page = selectForExport(keysetPageDml(table, last, exportPageSize, 0), uid, spaceId, dbInfo, dto);
+                        if (page == null || page.isEmpty()) {
+                            break;
                         }
-                    } else {
-                        line.add(val != null ? val : "");
+                        writer.write(toExportLines(page, headers, fieldTypeMap));
+                        if (page.size() < exportPageSize) {
+                            break;
+                        }
+                        last = keysetKey(page.getLast());
                     }
                 }
-                dataList.add(line);
+                writer.finish();
             }
-
-            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            response.setCharacterEncoding("utf-8");
-            String fileName = URLEncoder.encode(dbTable.getName(), "UTF-8").replaceAll("\\+", "%20");
-            response.setHeader("Content-disposition", "attachment;filename=" + fileName + ".xlsx");
-
-            EasyExcel.write(response.getOutputStream())
-                    .head(headList)
-                    .sheet("data")
-                    .doWrite(dataList);
         } catch (Exception ex) {
             log.error("export data failed, params:{}", dto, ex);
             throw new BusinessException(ResponseEnum.DATABASE_TABLE_EXPORT_FAILED);
         }
     }
 
+    /**
+     * Page of a user table in the order of the table view (create_time DESC, id DESC), starting after
+     * the given row. Keyset paging keeps every page an index range scan however deep it goes; the
+     * offset is only used to jump to a page number. Rows carry {@link #CURSOR_CREATE_TIME}, take the
+     * position of the next page from {@link #keysetKey(JSONObject)}.
+     */
+    private static String keysetPageDml(String table, JSONObject after, long limit, long offset) {
+        StringBuilder dml = new StringBuilder("SELECT *, CAST(")
+                .append(SqlRenderer.quoteIdent("create_time")).append(" AS TEXT) AS ")
+                .append(SqlRenderer.quoteIdent(CURSOR_CREATE_TIME))
+                .append(" FROM ").append(table);
+        if (after != null) {
+            dml.append(" WHERE (")
+                    .append(SqlRenderer.quoteIdent("create_time")).append(", ").append(SqlRenderer.quoteIdent("id"))
+                    .append(") < (CAST(")
+                    .append(SqlRenderer.quoteLiteral(String.valueOf(after.get("create_time")))).append(" AS TIMESTAMP), ")
+                    .append(SqlRenderer.requireLong(after.get("id"), "id"))
+                    .append(")");
+        }
+        dml.append(" ORDER BY ")
+                .append(SqlRenderer.quoteIdent("create_time")).append(" DESC, ")
+                .append(SqlRenderer.quoteIdent("id")).append(" DESC")
+                .append(" LIMIT ").append(limit);
+        if (offset > 0) {
+            dml.append(" OFFSET ").append(offset);
+        }
+        return dml.toString();
+    }
+
+    /**
+     * Sort key (full-precision create_time, id) of a row selected by {@link #keysetPageDml}
+     */
+    private static JSONObject keysetKey(JSONObject row) {
+        return new JSONObject()
+                .fluentPut("create_time", row.get(CURSOR_CREATE_TIME))
+                .fluentPut("id", String.valueOf(row.get("id")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JSONObject> selectForExport(String dml, String uid, Long spaceId, DbInfo dbInfo, DatabaseExportDto dto) {
+        SqlRenderer.denyMultiStmtOrComment(dml);
+        return (List<JSONObject>) coreSystemService.execDML(
+                dml,
+                uid,
+                spaceId,
+                dbInfo.getDbId(),
+                DBOperateEnum.SELECT.getCode(),
+                dto.getExecDev());
+    }
+
+    private static List<List<Object>> toExportLines(List<JSONObject> data, List<String> headers, Map<String, String> fieldTypeMap) {
+        List<List<Object>> dataList = new ArrayList<>(data.size());
+        for (JSONObject row : data) {
+            List<Object> line = new ArrayList<>(headers.size());
+            for (String fieldName : headers) {
+                Object val = row.get(fieldName);
+
+                // Convert boolean values to lowercase for consistency
+                if (val != null && CommonConst.DBFieldType.BOOLEAN.equalsIgnoreCase(fieldTypeMap.get(fieldName))) {
+                    if (val instanceof Boolean) {
+                        line.add(val.toString().toLowerCase());
+                    } else if (val instanceof String) {
+                        String strVal = ((String) val).trim();
+                        if ("TRUE".equalsIgnoreCase(strVal) || "FALSE".equalsIgnoreCase(strVal)) {
+                            line.add(strVal.toLowerCase());
+                        } else {
+                            line.add(val);
+                        }
+                    } else {
+                        line.add(val);
+                    }
+                } else {
+                    line.add(val != null ? val : "");
+                }
+            }
+            dataList.add(line);
+        }
+        return dataList;
+    }
+
     public List<DbTableInfoVo> getDbTableInfoList() {
         List<DbTableInfoVo> result = new ArrayList<>();
         dbInfoMapper.selectList(new QueryWrapper<DbInfo>().lambda()
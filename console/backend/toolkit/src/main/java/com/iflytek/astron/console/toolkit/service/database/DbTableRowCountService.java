@@ -0,0 +1,96 @@
+package com.iflytek.astron.console.toolkit.service.database;
+
+import com.iflytek.astron.console.toolkit.entity.enumVo.DBTableEnvEnum;
+import com.iflytek.astron.console.toolkit.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cached row counts of user tables, one per table and environment.
+ * <p>
+ * A count is computed with {@code COUNT(*)} on a miss and then kept up to date by the writes that go
+ * through the console (row inserts/deletes and imports). Writes made elsewhere are picked up when the
+ * count expires, so the count is approximate between refreshes.
+ */
+@Slf4j
+@Service
+public class DbTableRowCountService {
+
+    private static final String KEY_PREFIX = "db_table_row_count:";
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Value("${database.row-count.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    /**
+     * Get the row count of a table, counting on a miss
+     *
+     * @param tbId Table ID
+     * @param execDev Environment code, see {@link DBTableEnvEnum}
+     * @param counter Runs the {@code COUNT(*)} on the table
+     * @return Row count
+     */
+    public long getCount(Long tbId, Integer execDev, Supplier<Long> counter) {
+        String key = key(tbId, execDev);
+        try {
+            Long cached = redisUtil.getCounter(key);
+            if (cached != null) {
+                return Math.max(0, cached);
+            }
+        } catch (Exception e) {
+            log.warn("Read table row count failed, tbId={}, execDev={}", tbId, execDev, e);
+        }
+
+        Long count = counter.get();
+        long total = count == null ? 0 : count;
+        try {
+            redisUtil.setCounter(key, total, ttlSeconds);
+        } catch (Exception e) {
+            log.warn("Write table row count failed, tbId={}, execDev={}", tbId, execDev, e);
+        }
+        return total;
+    }
+
+    /**
+     * Apply inserted (positive) or deleted (negative) rows to a cached count
+     */
+    public void add(Long tbId, Integer execDev, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        String key = key(tbId, execDev);
+        try {
+            redisUtil.incrByIfExists(key, delta);
+        } catch (Exception e) {
+            log.warn("Update table row count failed, drop it, tbId={}, execDev={}, delta={}", tbId, execDev, delta, e);
+            invalidate(tbId);
+        }
+    }
+
+    /**
+     * Drop the counts of a table in all environments
+     */
+    public void invalidate(Long tbId) {
+        List<String> keys = new ArrayList<>();
+        for (DBTableEnvEnum env : DBTableEnvEnum.values()) {
+            keys.add(key(tbId, env.getCode()));
+        }
+        try {
+            redisUtil.removeCounters(keys);
+        } catch (Exception e) {
+            log.warn("Delete table row count failed, tbId={}", tbId, e);
+        }
+    }
+
+    private static String key(Long tbId, Integer execDev) {
+        return KEY_PREFIX + tbId + ":" + execDev;
+    }
+}
@@ -4,6 +4,7 @@ package com.iflytek.astron.console.toolkit.service.extra;
 import com.alibaba.fastjson2.*;
 import com.iflytek.astron.console.commons.constant.ResponseEnum;
 import com.iflytek.astron.console.commons.exception.BusinessException;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.toolkit.config.properties.ApiUrl;
 import com.iflytek.astron.console.toolkit.config.properties.CommonConfig;
 import com.iflytek.astron.console.toolkit.entity.biz.external.app.*;
@@ -38,6 +39,8 @@ public class AppService {
     RedisUtil redisUtil;
     @Autowired
     private CommonConfig commonConfig;
+    @Autowired
+    private HttpClientRegistry httpClientRegistry;
 
 
     /**
@@ -66,7 +69,7 @@ public class AppService {
         String appUrl = apiUrl.getAppUrl() + "/key/" + appId;
         String resp;
         try {
-            resp = HeaderAuthHttpTool.get(appUrl, apiUrl.getApiKey(), apiUrl.getApiSecret());
+            resp = HeaderAuthHttpTool.get(httpClientRegistry.get(HttpClientRegistry.TOOL_HTTP), appUrl, apiUrl.getApiKey(), apiUrl.getApiSecret());
             log.info("getAkSk, resp = {}", resp);
         } catch (NoSuchAlgorithmException | InvalidKeyException | IOException e) {
             throw new RuntimeException(e);
@@ -99,7 +102,7 @@ public class AppService {
         String appUrl = apiUrl.getAppUrl() + "/key/" + appId;
         String resp;
         try {
-            resp = HeaderAuthHttpTool.get(appUrl, apiUrl.getApiKey(), apiUrl.getApiSecret());
+            resp = HeaderAuthHttpTool.get(httpClientRegistry.get(HttpClientRegistry.TOOL_HTTP), appUrl, apiUrl.getApiKey(), apiUrl.getApiSecret());
             log.info("remoteCallAkSk, resp = {}", resp);
         } catch (NoSuchAlgorithmException | InvalidKeyException | IOException e) {
             throw new RuntimeException(e);
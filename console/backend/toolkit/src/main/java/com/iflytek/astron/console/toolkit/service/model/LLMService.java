@@ -26,9 +26,9 @@ import com.iflytek.astron.console.toolkit.entity.table.model.Model;
 import com.iflytek.astron.console.toolkit.entity.table.model.ModelCommon;
 import com.iflytek.astron.console.toolkit.entity.vo.LLMInfoVo;
 import com.iflytek.astron.console.toolkit.handler.UserInfoManagerHandler;
-import com.iflytek.astron.console.toolkit.mapper.ConfigInfoMapper;
 import com.iflytek.astron.console.toolkit.mapper.model.ModelMapper;
 import com.iflytek.astron.console.toolkit.mapper.workflow.WorkflowMapper;
+import com.iflytek.astron.console.toolkit.service.common.ConfigInfoRegistry;
 import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
 import com.iflytek.astron.console.toolkit.util.S3Util;
 import jakarta.annotation.Resource;
@@ -59,7 +59,7 @@ import java.util.*;
 public class LLMService {
 
     @Resource
-    ConfigInfoMapper configInfoMapper;
+    ConfigInfoRegistry configInfoRegistry;
 
 
     @Resource
@@ -115,7 +115,7 @@ public class LLMService {
         String userId = UserInfoManagerHandler.getUserId();
 
         // 3) Custom models (my models/custom models)
-        ConfigInfo selfModelConfig = configInfoMapper.getByCategoryAndCode("LLM_WORKFLOW_FILTER", "self-model");
+        ConfigInfo selfModelConfig = configInfoRegistry.get("LLM_WORKFLOW_FILTER", "self-model");
         dealWithSelfModel(nodeType, selfModelConfig, userId, personalList);
         sceneFt.put("categoryName", "My Models");
         sceneFt.put("modelList", sceneFineTuneList);
@@ -156,32 +156,29 @@ public class LLMService {
         SceneFilterResult r = new SceneFilterResult();
         if (isScene) {
             if ("workflow".equals(scene)) {
-                LambdaQueryWrapper<ConfigInfo> lqw = Wrappers.lambdaQuery(ConfigInfo.class)
-                        .eq(ConfigInfo::getCode, authSource)
-                        .eq(ConfigInfo::getName, String.valueOf(nodeType))
-                        .eq(ConfigInfo::getIsValid, 1);
+                String category;
                 if ("pre".equals(env)) {
-                    lqw.eq(ConfigInfo::getCategory, "LLM_WORKFLOW_FILTER_PRE");
+                    category = "LLM_WORKFLOW_FILTER_PRE";
                     if ("agent".equals(nodeType)) {
-                        ConfigInfo summaryFilterCfg = configInfoMapper.getByCategoryAndCode("LLM_FILTER_PRE", "summary_agent");
+                        ConfigInfo summaryFilterCfg = configInfoRegistry.get("LLM_FILTER_PRE", "summary_agent");
                         r.mcpModelFilter = StrUtil.split(summaryFilterCfg.getValue(), ",");
                     }
                 } else {
-                    lqw.eq(ConfigInfo::getCategory, "LLM_WORKFLOW_FILTER");
+                    category = "LLM_WORKFLOW_FILTER";
                     if ("agent".equals(nodeType)) {
-                        ConfigInfo summaryFilterCfg = configInfoMapper.getByCategoryAndCode("LLM_FILTER", "summary_agent");
+                        ConfigInfo summaryFilterCfg = configInfoRegistry.get("LLM_FILTER", "summary_agent");
                         r.mcpModelFilter = StrUtil.split(summaryFilterCfg.getValue(), ",");
                     }
                 }
-                ConfigInfo llmSceneFilter = configInfoMapper.selectOne(lqw);
+                ConfigInfo llmSceneFilter = configInfoRegistry.get(category, authSource, String.valueOf(nodeType));
                 r.sceneFilter = (llmSceneFilter == null) ? new ArrayList<>() : StrUtil.split(llmSceneFilter.getValue(), ",");
             } else {
                 r.sceneFilter = new ArrayList<>();
             }
         } else {
             // Non-scene mode maintains original validation: plan/summary configuration must exist
-            ConfigInfo planFilterCfg = configInfoMapper.getByCategoryAndCode("LLM_FILTER", "plan");
-            ConfigInfo summaryFilterCfg = configInfoMapper.getByCategoryAndCode("LLM_FILTER", "summary");
+            ConfigInfo planFilterCfg = configInfoRegistry.get("LLM_FILTER", "plan");
+            ConfigInfo summaryFilterCfg = configInfoRegistry.get("LLM_FILTER", "summary");
             if (planFilterCfg == null || summaryFilterCfg == null) {
                 r.error = ApiResult.error(ResultStatus.FILTER_CONF_MISS.getCode(), ResultStatus.FILTER_CONF_MISS.getMessage());
                 return r;
@@ -345,10 +342,7 @@ public class LLMService {
                 vo.setCreateTime(modelCommon.getCreateTime());
                 vo.setUpdateTime(modelCommon.getUpdateTime());
                 vo.setUserName(modelCommon.getUserName());
-                ConfigInfo llmTag = configInfoMapper.selectOne(Wrappers.lambdaQuery(ConfigInfo.class)
-                        .eq(ConfigInfo::getCategory, "LLM_TAG")
-                        .eq(ConfigInfo::getCode, vo.getServiceId())
-                        .eq(ConfigInfo::getIsValid, 1));
+                ConfigInfo llmTag = configInfoRegistry.get("LLM_TAG", vo.getServiceId());
                 if (llmTag != null) {
                     vo.setTag(JSON.parseArray(llmTag.getValue(), String.class));
                 }
@@ -356,7 +350,7 @@ public class LLMService {
                 vo.setUrl(modelCommon.getUrl());
                 // Temporary handling for gemma model
                 if (vo.getName().startsWith("gemma")) {
-                    ConfigInfo gemmaUrl = configInfoMapper.getByCategoryAndCode("gemma", "url");
+                    ConfigInfo gemmaUrl = configInfoRegistry.get("gemma", "url");
                     if (gemmaUrl != null) {
                         vo.setUrl(gemmaUrl.getValue());
                     }
@@ -374,7 +368,7 @@ public class LLMService {
     }
 
     private void personalModel(List<LLMInfoVo> sceneSquareList, List<String> sceneFilter) {
-        List<ConfigInfo> specialModelCfgs = configInfoMapper.getListByCategory("PERSONAL_MODEL");
+        List<ConfigInfo> specialModelCfgs = configInfoRegistry.list("PERSONAL_MODEL");
         for (ConfigInfo cfg : specialModelCfgs) {
             String specialModelInfo = cfg.getValue();
             LLMInfoVo llmInfoVo = JSON.parseObject(specialModelInfo, LLMInfoVo.class);
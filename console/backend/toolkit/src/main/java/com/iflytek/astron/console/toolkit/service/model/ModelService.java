@@ -14,6 +14,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.iflytek.astron.console.commons.constant.ResponseEnum;
 import com.iflytek.astron.console.commons.entity.user.UserInfo;
 import com.iflytek.astron.console.commons.entity.workflow.Workflow;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
 import com.iflytek.astron.console.commons.exception.BusinessException;
 import com.iflytek.astron.console.commons.response.ApiResult;
 import com.iflytek.astron.console.commons.util.space.SpaceInfoUtil;
@@ -53,6 +54,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -118,6 +120,8 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
     private final ModelCategoryService modelCategoryService;
     private final ModelCommonService modelCommonService;
     private final LocalModelHandler modelHandler;
+    private final ModelStatusProber modelStatusProber;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ======== Environment Variables ========
     @Value("${spring.profiles.active}")
@@ -397,6 +401,7 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
             log.info("New model added successfully, domain={}, uid={}", request.getDomain(), request.getUid());
         } else {
             mapper.updateById(model);
+            publishModelChanged(model.getId());
             log.info("Model updated successfully, domain={}, uid={}", request.getDomain(), request.getUid());
         }
 
@@ -811,9 +816,6 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
             // First 4 digits + asterisks + last 4 digits
             apiKey = apiKey.substring(0, 4) + "********" + apiKey.substring(apiKey.length() - 4);
         }
-        if (model.getType() == 2 && !Objects.equals(model.getStatus(), ModelStatusEnum.RUNNING.getCode())) {
-            this.flushStatus(model);
-        }
         vo.setName(model.getName());
         vo.setServiceId(model.getDomain());
         vo.setConfig(JSONArray.parseArray(model.getConfig()));
@@ -832,6 +834,11 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
         vo.setIcon(model.getImageUrl());
         vo.setCreateTime(model.getCreateTime());
         vo.setUpdateTime(model.getUpdateTime());
+        if (model.getType() == 2 && !ModelStatusEnum.RUNNING.getCode().equals(model.getStatus())) {
+            // Status kept current by ModelStatusScheduler until the model runs, show how old it is instead
+            // of probing here
+            vo.setStatusCheckedAt(modelStatusProber.lastCheckedAt(model.getId()));
+        }
         return vo;
     }
 
@@ -897,6 +904,7 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
         } else {
             result = this.removeById(modelId) && modelHandler.deleteModel(model.getRemark());
         }
+        publishModelChanged(modelId);
         return ApiResult.success(result);
     }
 
@@ -1077,7 +1085,9 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
             throw new BusinessException(ResponseEnum.EXCEED_AUTHORITY);
         }
         model.setEnable(enable);
-        return ApiResult.success(this.updateById(model));
+        boolean result = this.updateById(model);
+        publishModelChanged(modelId);
+        return ApiResult.success(result);
     }
 
 
@@ -1335,6 +1345,9 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
             throw new BusinessException(
                     ResponseEnum.RESPONSE_FAILED, isCreate ? "Failed to add model" : "Failed to update model");
         }
+        if (!isCreate) {
+            publishModelChanged(model.getId());
+        }
     }
 
     private void bindCategory(LocalModelDto dto, Model model) {
@@ -1356,81 +1369,57 @@ public class ModelService extends ServiceImpl<ModelMapper, Model> {
     }
 
     /**
-     * Get model file directory list
+     * Write probed deploy statuses back. Only models whose status or endpoint changed are written, all
+     * of them in one UPDATE.
      *
-     * @return
+     * @param models Probed models
+     * @param statuses Model ID -> deploy status from {@link ModelStatusProber#probe}
+     * @return Number of models updated
      */
-    public void flushStatus(Model model) {
-        String serviceId = model.getRemark();
-        try {
-            JSONObject ret = modelHandler.checkDeployStatus(serviceId);
-            String status = ret.getString("status");
-            String endpoint = ret.getString("endpoint");
-            Integer codeByValue = ModelStatusEnum.getCodeByValue(status);
-            if (!ModelStatusEnum.RUNNING.getCode().equals(model.getStatus()) && ModelStatusEnum.RUNNING.getValue().equals(status)) {
-                model.setEnable(true);
-            }
-            model.setStatus(codeByValue);
-            model.setUrl(endpoint);
-            this.updateById(model);
-        } catch (Exception ignore) {
-            log.error("Failed to get model status:", ignore);
-        }
-    }
-
-    @Transactional(rollbackFor = Exception.class)
-    public int flushStatusBatch(String uid, List<Model> models) {
-        if (models == null || models.isEmpty())
+    public int applyDeployStatus(List<Model> models, Map<Long, JSONObject> statuses) {
+        if (models == null || models.isEmpty() || statuses == null || statuses.isEmpty())
             return 0;
 
-        List<Model> toUpdate = new ArrayList<>(models.size());
-
+        List<Model> toUpdate = new ArrayList<>();
+        List<Long> enableIds = new ArrayList<>();
         for (Model model : models) {
             // Protection: only handle type=2
             if (model.getType() == null || model.getType() != 2)
                 continue;
 
-            String serviceId = model.getRemark();
-            if (serviceId == null)
+            JSONObject ret = statuses.get(model.getId());
+            if (ret == null)
                 continue;
 
-            try {
-                JSONObject ret = modelHandler.checkDeployStatus(serviceId);
-                String statusStr = ret.getString("status");
-                String endpoint = ret.getString("endpoint");
-                Integer newCode = ModelStatusEnum.getCodeByValue(statusStr);
-
-                boolean changed = false;
-                if (!Objects.equals(model.getStatus(), newCode)) {
-                    model.setStatus(newCode);
-                    if (!ModelStatusEnum.RUNNING.getCode().equals(model.getStatus()) && ModelStatusEnum.RUNNING.getValue().equals(statusStr)) {
-                        model.setEnable(true);
-                    }
-                    changed = true;
-                }
-                if (!Objects.equals(model.getUrl(), endpoint)) {
-                    model.setUrl(endpoint);
-                    changed = true;
-                }
-                if (changed) {
-                    toUpdate.add(model);
-                }
-            } catch (Exception ex) {
-                // Single model exception does not interrupt the whole
-                log.warn("[flushStatusBatch] uid={}, modelId={}, serviceId={} check failed: {}",
-                        uid, model.getId(), serviceId, ex.getMessage());
+            String statusStr = ret.getString("status");
+            String endpoint = ret.getString("endpoint");
+            Integer newCode = ModelStatusEnum.getCodeByValue(statusStr);
+            if (Objects.equals(model.getStatus(), newCode) && Objects.equals(model.getUrl(), endpoint))
+                continue;
+
+            if (!ModelStatusEnum.RUNNING.getCode().equals(model.getStatus()) && ModelStatusEnum.RUNNING.getValue().equals(statusStr)) {
+                model.setEnable(true);
+                enableIds.add(model.getId());
             }
+            model.setStatus(newCode);
+            model.setUrl(endpoint);
+            toUpdate.add(model);
         }
 
         if (toUpdate.isEmpty())
             return 0;
 
-        // Batch save to database, default batch size 1000 (can be changed to updateBatchById(toUpdate,
-        // 200))
-        boolean ok = this.updateBatchById(toUpdate);
-        if (!ok) {
-            log.warn("[flushStatusBatch] uid={}, toUpdate={} updateBatchById returned false", uid, toUpdate.size());
-        }
+        mapper.updateDeployStatusBatch(toUpdate, enableIds);
+        toUpdate.forEach(model -> publishModelChanged(model.getId()));
         return toUpdate.size();
     }
+
+    /**
+     * Let bot chats using the model rebuild their model settings
+     */
+    private void publishModelChanged(Long modelId) {
+        if (modelId != null) {
+            eventPublisher.publishEvent(BotRuntimeChangedEvent.ofModel(this, modelId));
+        }
+    }
 }
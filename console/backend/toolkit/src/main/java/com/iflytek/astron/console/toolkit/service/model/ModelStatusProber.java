@@ -0,0 +1,157 @@
+package com.iflytek.astron.console.toolkit.service.model;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.iflytek.astron.console.toolkit.entity.table.model.Model;
+import com.iflytek.astron.console.toolkit.handler.LocalModelHandler;
+import com.iflytek.astron.console.toolkit.util.RedisUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Probes the deploy status of local models (type 2) in parallel.
+ * <p>
+ * Every probe is a call to the local model service, so {@code model.status-probe.max-concurrency}
+ * caps the calls in flight against that host. A probe is interrupted after
+ * {@code model.status-probe.timeout-ms}, and probes still running after
+ * {@code model.status-probe.batch-timeout-ms} are cancelled, so one slow service cannot stretch a
+ * scheduler tick. The time of the last successful probe of each model is kept in Redis and is served
+ * with the stored status, so read paths no longer call the service themselves.
+ */
+@Slf4j
+@Component
+public class ModelStatusProber {
+
+    private static final String CHECKED_AT_KEY = "model:status:checked_at";
+
+    @Resource
+    private LocalModelHandler modelHandler;
+
+    @Resource
+    private RedisUtil redisUtil;
+
+    @Value("${model.status-probe.max-concurrency:16}")
+    private int maxConcurrency = 16;
+
+    @Value("${model.status-probe.timeout-ms:5000}")
+    private long timeoutMs = 5000;
+
+    @Value("${model.status-probe.batch-timeout-ms:120000}")
+    private long batchTimeoutMs = 120000;
+
+    private final ExecutorService probeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "model-status-probe-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Semaphore permits;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * Probe the deploy status of models
+     *
+     * @param models Local models, models without a service ID (remark) are skipped
+     * @return Model ID -> deploy status ({@code status}, {@code endpoint}), models whose probe failed or
+     *         timed out are absent
+     */
+    public Map<Long, JSONObject> probe(Collection<Model> models) {
+        List<Long> modelIds = new ArrayList<>(models.size());
+        List<Callable<JSONObject>> tasks = new ArrayList<>(models.size());
+        for (Model model : models) {
+            if (model.getId() == null || model.getRemark() == null) {
+                continue;
+            }
+            modelIds.add(model.getId());
+            tasks.add(() -> probeOne(model.getRemark()));
+        }
+        if (tasks.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Future<JSONObject>> futures;
+        try {
+            futures = probeExecutor.invokeAll(tasks, batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyMap();
+        }
+
+        Map<Long, JSONObject> statuses = new HashMap<>(futures.size() * 2);
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<JSONObject> future = futures.get(i);
+            if (future.state() == Future.State.SUCCESS && future.resultNow() != null) {
+                statuses.put(modelIds.get(i), future.resultNow());
+            } else {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("[modelStatusProbe] {} of {} probes failed or timed out", failed, futures.size());
+        }
+        recordCheckedAt(statuses.keySet());
+        return statuses;
+    }
+
+    /**
+     * Time of the last successful probe of a model
+     *
+     * @param modelId Model ID
+     * @return Check time, null when the model has not been probed yet
+     */
+    public Date lastCheckedAt(Long modelId) {
+        try {
+            Object value = redisUtil.hget(CHECKED_AT_KEY, String.valueOf(modelId));
+            return value == null ? null : new Date(Long.parseLong(value.toString()));
+        } catch (Exception e) {
+            log.warn("[modelStatusProbe] read check time failed, modelId={}: {}", modelId, e.getMessage());
+            return null;
+        }
+    }
+
+    private JSONObject probeOne(String serviceId) throws InterruptedException {
+        permits.acquire();
+        // Each probe runs on its own virtual thread, whose blocking socket reads end on interrupt
+        Thread current = Thread.currentThread();
+        ScheduledFuture<?> timeout = watchdog.schedule(current::interrupt, timeoutMs, TimeUnit.MILLISECONDS);
+        try {
+            return modelHandler.checkDeployStatus(serviceId);
+        } finally {
+            timeout.cancel(false);
+            permits.release();
+        }
+    }
+
+    private void recordCheckedAt(Set<Long> modelIds) {
+        if (modelIds.isEmpty()) {
+            return;
+        }
+        String now = String.valueOf(System.currentTimeMillis());
+        Map<String, String> entries = new HashMap<>(modelIds.size() * 2);
+        modelIds.forEach(id -> entries.put(String.valueOf(id), now));
+        try {
+            redisUtil.hmset(CHECKED_AT_KEY, entries);
+        } catch (Exception e) {
+            log.warn("[modelStatusProbe] record check time failed: {}", e.getMessage());
+        }
+    }
+}
@@ -35,6 +35,7 @@ import com.iflytek.astron.console.toolkit.mapper.repo.FileInfoV2Mapper;
 import com.iflytek.astron.console.toolkit.service.common.ConfigInfoService;
 import com.iflytek.astron.console.toolkit.service.task.ExtractKnowledgeTaskService;
 import com.iflytek.astron.console.toolkit.task.EmbeddingFileTask;
+import com.iflytek.astron.console.toolkit.task.KnowledgeFileExecutor;
 import com.iflytek.astron.console.toolkit.task.SliceFileTask;
 import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
 import com.iflytek.astron.console.toolkit.tool.FileUploadTool;
@@ -120,6 +121,9 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
     @Resource
     DataPermissionCheckTool dataPermissionCheckTool;
 
+    @Resource
+    private KnowledgeFileExecutor knowledgeFileExecutor;
+
     @Autowired
     ChatFileHttpClient chatFileHttpClient;
     @Autowired
@@ -133,6 +137,15 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
     @Value("${biz.cbg-rag-max-char-count}")
     private long cbgRagMaxCharCount;
 
+    @Value("${knowledge.file-task.parse-poll-interval-ms:1000}")
+    private long parsePollIntervalMs = 1000;
+
+    @Value("${knowledge.file-task.parse-wait-timeout-ms:1800000}")
+    private long parseWaitTimeoutMs = 1800000;
+
+    @Value("${knowledge.file-task.slice-wait-timeout-ms:10000}")
+    private long sliceWaitTimeoutMs = 10000;
+
     @Autowired
     private ApiUrl apiUrl;
 
@@ -521,7 +534,6 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
                     .map(Long::valueOf)
                     .collect(Collectors.toList());
             if (!CollectionUtils.isEmpty(fileIds)) {
-                ExecutorService executorService = Executors.newFixedThreadPool(fileIds.size());
                 List<FileInfoV2> fileInfoV2List = fileInfoV2Mapper.listByIds(fileIds);
                 List<Future<Boolean>> futures = new ArrayList<>();
                 for (FileInfoV2 fileInfoV2 : fileInfoV2List) {
@@ -563,16 +575,22 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
                     fileInfoV2.setCurrentSliceConfig(JSON.toJSONString(sliceConfig));
                     fileInfoV2.setStatus(ProjectContent.FILE_PARSE_DOING);
                     fileInfoV2Mapper.updateById(fileInfoV2);
-                    Future<Boolean> future = executorService.submit(new SliceFileTask(this, fileInfoV2.getId(), sliceConfig, 0));
-                    futures.add(future);
+                    futures.add(submitSlice(fileInfoV2, sliceConfig, 0));
                 }
-                executorService.shutdown();
-                boolean ignoreVar = executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                // Slicing only starts the extraction, but the tasks may queue behind other tenants. The
+                // request waits at most slice-wait-timeout-ms; files still queued then are reported as
+                // started, and their task marks them parse failed if it cannot start the extraction.
+                long deadline = System.currentTimeMillis() + sliceWaitTimeoutMs;
                 boolean allFailed = true;
                 for (Future<Boolean> future : futures) {
-                    Boolean result = future.get();
-                    if (result) {
+                    try {
+                        if (future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                            allFailed = false;
+                        }
+                    } catch (TimeoutException e) {
                         allFailed = false;
+                    } catch (CancellationException e) {
+                        log.info("sliceFiles: slice task cancelled before it started");
                     }
                 }
                 if (allFailed) {
@@ -1051,7 +1069,6 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
                     .map(Long::valueOf) // Convert String to Long
                     .collect(Collectors.toList());
             if (!CollectionUtils.isEmpty(fileIds)) {
-                ExecutorService executorService = Executors.newFixedThreadPool(fileIds.size());
                 for (Long fileId : fileIds) {
                     FileInfoV2 fileInfo = this.getById(fileId);
                     if (fileInfo == null) {
@@ -1080,23 +1097,7 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
                     }
                     fileDirectoryTree.setStatus(1);
                     fileDirectoryTreeMapper.updateById(fileDirectoryTree);
-                    executorService.execute(() -> {
-                        int count = 0;
-                        while (true) {
-                            FileInfoV2 fileInfoV2 = fileInfoV2Mapper.selectById(fileId);
-                            if (Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_PARSE_FAILED)) {
-                                break;
-                            }
-                            if (Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_PARSE_SUCCESSED)
-                                    || Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_EMBEDDING_DOING)
-                                    || Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_EMBEDDING_FAILED)
-                                    || Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_EMBEDDING_SUCCESSED)) {
-                                saveTaskAndUpdateFileStatus(fileId);
-                                new EmbeddingFileTask(this, fileId, fileInfoV2.getSpaceId()).run();
-                                break;
-                            }
-                        }
-                    });
+                    submitEmbeddingWhenParsed(fileInfo, null);
                 }
             }
         }
@@ -1210,7 +1211,6 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
                     .map(Long::valueOf) // Convert String to Long
                     .collect(Collectors.toList());
             if (!CollectionUtils.isEmpty(fileIds)) {
-                ExecutorService executorService = Executors.newFixedThreadPool(fileIds.size());
                 for (Long fileId : fileIds) {
                     FileInfoV2 fileInfo = this.getById(fileId);
                     if (fileInfo == null) {
@@ -1239,36 +1239,7 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
                     }
                     fileDirectoryTree.setStatus(1);
                     fileDirectoryTreeMapper.updateById(fileDirectoryTree);
-                    executorService.execute(() -> {
-                        int count = 0;
-                        while (true) {
-                            FileInfoV2 fileInfoV2 = fileInfoV2Mapper.selectById(fileId);
-                            // if(Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_EMBEDDING_SUCCESSED)){
-                            // if (count > 10) {
-                            // break;
-                            // }
-                            // count++;
-                            // // Wait 3 seconds before checking again
-                            // try {
-                            // Thread.sleep(3000);
-                            // } catch (InterruptedException e) {
-                            // throw new RuntimeException(e);
-                            // }
-                            // continue;
-                            // }
-                            if (Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_PARSE_FAILED)) {
-                                break;
-                            }
-                            if (Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_PARSE_SUCCESSED)
-                                    || Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_EMBEDDING_DOING)
-                                    || Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_EMBEDDING_FAILED)
-                                    || Objects.equals(fileInfoV2.getStatus(), ProjectContent.FILE_EMBEDDING_SUCCESSED)) {
-                                saveTaskAndUpdateFileStatus(fileId);
-                                new EmbeddingFileTask(this, fileId, fileInfoV2.getSpaceId()).run();
-                                break;
-                            }
-                        }
-                    });
+                    submitEmbeddingWhenParsed(fileInfo, null);
                 }
             }
         }
@@ -1298,17 +1269,15 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
         if (CollectionUtils.isEmpty(fileIds))
             return;
 
-        ExecutorService pool = Executors.newFixedThreadPool(fileIds.size());
         List<FileInfoV2> files = fileInfoV2Mapper.listByIds(fileIds);
         for (FileInfoV2 f : files) {
             if (Objects.equals(f.getStatus(), ProjectContent.FILE_PARSE_FAILED)) {
-                handleParseFailedRetry(f, sliceFileVO, spaceId, pool);
+                handleParseFailedRetry(f, sliceFileVO, spaceId);
             } else if (Objects.equals(f.getStatus(), ProjectContent.FILE_EMBEDDING_FAILED)) {
-                handleEmbeddingFailedRetry(f, sliceFileVO, spaceId, pool);
+                handleEmbeddingFailedRetry(f, sliceFileVO, spaceId);
             }
             // Other statuses: No processing (consistent with original logic)
         }
-        pool.shutdown();
     }
     /* ======================== Private Methods ======================== */
 
@@ -1356,10 +1325,9 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
      * @param file file information object
      * @param vo deal file parameters
      * @param spaceId space ID for permission checking
-     * @param pool thread pool for async execution
      * @throws BusinessException if file is currently being parsed or range is invalid
      */
-    private void handleParseFailedRetry(FileInfoV2 file, DealFileVO vo, Long spaceId, ExecutorService pool) {
+    private void handleParseFailedRetry(FileInfoV2 file, DealFileVO vo, Long spaceId) {
         // Auto separator fallback
         ensureSeparatorDefault(vo.getSliceConfig());
 
@@ -1386,7 +1354,7 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
         fileInfoV2Mapper.updateById(file);
 
         // Execute slicing task asynchronously (with backEmbedding flag set to 1)
-        pool.execute(() -> new SliceFileTask(this, file.getId(), sc, 1).call());
+        submitSlice(file, sc, 1);
     }
 
     /**
@@ -1396,9 +1364,8 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
      * @param file file information object
      * @param vo deal file parameters
      * @param spaceId space ID for permission checking
-     * @param pool thread pool for async execution
      */
-    private void handleEmbeddingFailedRetry(FileInfoV2 file, DealFileVO vo, Long spaceId, ExecutorService pool) {
+    private void handleEmbeddingFailedRetry(FileInfoV2 file, DealFileVO vo, Long spaceId) {
         // Only validate file ownership during foreground retry (consistent with original logic)
         if (vo.getIsBackTask() == null && spaceId == null) {
             dataPermissionCheckTool.checkFileBelong(file);
@@ -1408,31 +1375,102 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
         file.setStatus(ProjectContent.FILE_PARSE_SUCCESSED);
         fileInfoV2Mapper.updateById(file);
 
-        pool.execute(() -> {
-            while (true) {
-                FileInfoV2 latest = fileInfoV2Mapper.selectById(file.getId());
-                if (Objects.equals(latest.getStatus(), ProjectContent.FILE_PARSE_FAILED))
-                    break;
-                if (Objects.equals(latest.getStatus(), ProjectContent.FILE_PARSE_SUCCESSED)) {
-                    // Save task and update file status to embedding_doing
-                    saveTaskAndUpdateFileStatus(file.getId());
-                    // Make directory visible
-                    FileDirectoryTree tree = fileDirectoryTreeService.getOnly(
-                            Wrappers.lambdaQuery(FileDirectoryTree.class)
-                                    .eq(FileDirectoryTree::getAppId, file.getRepoId())
-                                    .eq(FileDirectoryTree::getFileId, file.getId()));
-                    if (tree != null) {
-                        tree.setStatus(1);
-                        fileDirectoryTreeMapper.updateById(tree);
-                    }
-                    // Trigger embedding
-                    new EmbeddingFileTask(this, file.getId(), file.getSpaceId()).run();
-                    break;
-                }
+        submitEmbeddingWhenParsed(file, () -> {
+            // Make directory visible
+            FileDirectoryTree tree = fileDirectoryTreeService.getOnly(
+                    Wrappers.lambdaQuery(FileDirectoryTree.class)
+                            .eq(FileDirectoryTree::getAppId, file.getRepoId())
+                            .eq(FileDirectoryTree::getFileId, file.getId()));
+            if (tree != null) {
+                tree.setStatus(1);
+                fileDirectoryTreeMapper.updateById(tree);
             }
         });
     }
 
+    /**
+     * Queue slicing of a file on the shared knowledge file executor, a task that is cancelled or fails
+     * marks the file as parse failed
+     *
+     * @param file file to slice
+     * @param sliceConfig configuration for slicing operation
+     * @param backEmbedding flag indicating whether to trigger embedding after slicing (0=no, 1=yes)
+     * @return future of the slicing result, true when extraction was started
+     */
+    private Future<Boolean> submitSlice(FileInfoV2 file, SliceConfig sliceConfig, Integer backEmbedding) {
+        Long fileId = file.getId();
+        return knowledgeFileExecutor.submit(KnowledgeFileExecutor.SLICE, tenantOf(file), fileId,
+                new SliceFileTask(this, fileId, sliceConfig, backEmbedding),
+                reason -> markFileFailed(fileId, ProjectContent.FILE_PARSE_FAILED, reason));
+    }
+
+    /**
+     * Queue embedding of a file once it has been parsed. Instead of a thread waiting for the parse
+     * result, the status is checked again on the executor every parse-poll-interval-ms; the wait ends on
+     * parse failure or after parse-wait-timeout-ms, which marks the file as embedding failed.
+     *
+     * @param file file to embed
+     * @param beforeEmbedding runs after the file is set to embedding and before the embedding, may be
+     *        null
+     */
+    private void submitEmbeddingWhenParsed(FileInfoV2 file, Runnable beforeEmbedding) {
+        long deadline = System.currentTimeMillis() + parseWaitTimeoutMs;
+        scheduleEmbedding(file.getId(), tenantOf(file), beforeEmbedding, deadline, 0);
+    }
+
+    private void scheduleEmbedding(Long fileId, String tenant, Runnable beforeEmbedding, long deadline, long delayMs) {
+        knowledgeFileExecutor.schedule(KnowledgeFileExecutor.EMBEDDING, tenant, fileId, () -> {
+            FileInfoV2 latest = fileInfoV2Mapper.selectById(fileId);
+            if (latest == null || Objects.equals(latest.getStatus(), ProjectContent.FILE_PARSE_FAILED)) {
+                return null;
+            }
+            if (!isEmbeddable(latest.getStatus())) {
+                if (System.currentTimeMillis() < deadline) {
+                    scheduleEmbedding(fileId, tenant, beforeEmbedding, deadline, parsePollIntervalMs);
+                } else {
+                    log.warn("embedding skipped: file still parsing after {}ms, fileId={}", parseWaitTimeoutMs, fileId);
+                    markFileFailed(fileId, ProjectContent.FILE_EMBEDDING_FAILED,
+                            "Embedding skipped: file still parsing after " + parseWaitTimeoutMs + "ms");
+                }
+                return null;
+            }
+            // Save task and update file status to embedding_doing
+            saveTaskAndUpdateFileStatus(fileId);
+            if (beforeEmbedding != null) {
+                beforeEmbedding.run();
+            }
+            new EmbeddingFileTask(this, fileId, latest.getSpaceId()).run();
+            return null;
+        }, reason -> markFileFailed(fileId, ProjectContent.FILE_EMBEDDING_FAILED, reason), delayMs);
+    }
+
+    private static boolean isEmbeddable(Integer status) {
+        return Objects.equals(status, ProjectContent.FILE_PARSE_SUCCESSED)
+                || Objects.equals(status, ProjectContent.FILE_EMBEDDING_DOING)
+                || Objects.equals(status, ProjectContent.FILE_EMBEDDING_FAILED)
+                || Objects.equals(status, ProjectContent.FILE_EMBEDDING_SUCCESSED);
+    }
+
+    /**
+     * Tasks of the same space share one queue on the knowledge file executor, personal files are
+     * queued per user
+     */
+    private static String tenantOf(FileInfoV2 file) {
+        return file.getSpaceId() != null ? "space:" + file.getSpaceId() : "user:" + file.getUid();
+    }
+
+    /**
+     * Record a file task that was cancelled or failed before it could update the file itself
+     */
+    private void markFileFailed(Long fileId, Integer status, String reason) {
+        FileInfoV2 update = new FileInfoV2();
+        update.setId(fileId);
+        update.setStatus(status);
+        update.setReason(reason);
+        update.setUpdateTime(new Timestamp(System.currentTimeMillis()));
+        fileInfoV2Mapper.updateById(update);
+    }
+
     /**
      * Universal for non-Spark/AIUI: Use \n as fallback when empty
      *
@@ -2186,6 +2224,7 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
             }
 
             fileDirectoryTreeService.removeById(fileId);
+            knowledgeFileExecutor.cancel(fileDirectoryTree.getFileId());
             List<Long> ids = new ArrayList<>();
             ids.add(fileDirectoryTree.getFileId());
 
@@ -2206,6 +2245,7 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
     @Transactional
     public void deleteFile(Long id) {
         fileDirectoryTreeService.remove(Wrappers.lambdaQuery(FileDirectoryTree.class).eq(FileDirectoryTree::getFileId, id));
+        knowledgeFileExecutor.cancel(id);
         List<Long> ids = new ArrayList<>();
         ids.add(id);
         knowledgeService.deleteDoc(ids);
@@ -2242,6 +2282,7 @@ public class FileInfoV2Service extends ServiceImpl<FileInfoV2Mapper, FileInfoV2>
             delIdSet.add(directoryTree.getId());
             delDocIdList.add(directoryTree.getFileId());
         }
+        delDocIdList.forEach(knowledgeFileExecutor::cancel);
         fileDirectoryTreeMapper.deleteBatchIds(delIdSet);
         removeBatchByIds(delIdSet);
 
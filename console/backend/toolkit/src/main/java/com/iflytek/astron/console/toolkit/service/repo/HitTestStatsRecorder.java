@@ -0,0 +1,130 @@
+package com.iflytek.astron.console.toolkit.service.repo;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.iflytek.astron.console.toolkit.entity.table.repo.FileDirectoryTree;
+import com.iflytek.astron.console.toolkit.entity.table.repo.HitTestHistory;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * <p>
+ * Write-behind recorder for knowledge hit test statistics
+ * </p>
+ * Hit count increments are aggregated per directory tree node and hit test history rows are
+ * buffered in memory, then flushed periodically so that retrieval does not wait on these writes.
+ * Increments are applied as {@code hit_count = hit_count + n}, which keeps them correct when several
+ * instances flush concurrently. Writes that fail are kept for the next flush; history rows only as far
+ * as the bounded buffer has room, the rest is dropped.
+ */
+@Slf4j
+@Component
+public class HitTestStatsRecorder {
+
+    private static final int MAX_PENDING_HISTORY = 10000;
+
+    private static final int HISTORY_BATCH_SIZE = 500;
+
+    @Resource
+    FileDirectoryTreeService directoryTreeService;
+    @Resource
+    HitTestHistoryService historyService;
+
+    private final Map<Long, Long> pendingHits = new ConcurrentHashMap<>();
+
+    private final LinkedBlockingQueue<HitTestHistory> pendingHistory = new LinkedBlockingQueue<>(MAX_PENDING_HISTORY);
+
+    /**
+     * Record one hit for each of the given directory tree nodes
+     *
+     * @param treeIds directory tree node IDs hit by a retrieval
+     */
+    public void recordHits(Collection<Long> treeIds) {
+        for (Long treeId : treeIds) {
+            if (treeId != null) {
+                pendingHits.merge(treeId, 1L, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Buffer a hit test history row for insertion
+     *
+     * @param history hit test history
+     */
+    public void recordHistory(HitTestHistory history) {
+        if (!pendingHistory.offer(history)) {
+            log.warn("Hit test history buffer is full, drop record, repoId:{}", history.getRepoId());
+        }
+    }
+
+    /**
+     * Flush aggregated hit counts and buffered history rows
+     */
+    @Scheduled(fixedDelayString = "${repo.hit-test.flush-interval-ms:5000}")
+    public void flush() {
+        flushHits();
+        flushHistory();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    private void flushHits() {
+        if (pendingHits.isEmpty()) {
+            return;
+        }
+        // Drain atomically per key and group nodes by increment so that each distinct delta is one UPDATE
+        Map<Long, List<Long>> idsByDelta = new HashMap<>();
+        for (Long treeId : new ArrayList<>(pendingHits.keySet())) {
+            Long delta = pendingHits.remove(treeId);
+            if (delta != null) {
+                idsByDelta.computeIfAbsent(delta, k -> new ArrayList<>()).add(treeId);
+            }
+        }
+        for (Map.Entry<Long, List<Long>> entry : idsByDelta.entrySet()) {
+            Long delta = entry.getKey();
+            List<Long> treeIds = entry.getValue();
+            try {
+                directoryTreeService.update(Wrappers.lambdaUpdate(FileDirectoryTree.class)
+                        .setSql("hit_count = IFNULL(hit_count, 0) + " + delta)
+                        .in(FileDirectoryTree::getId, treeIds));
+            } catch (Exception e) {
+                log.error("Flush hit count failed, delta:{}, size:{}", delta, treeIds.size(), e);
+                // Put the increments back so that they are retried on the next flush
+                treeIds.forEach(treeId -> pendingHits.merge(treeId, delta, Long::sum));
+            }
+        }
+    }
+
+    private void flushHistory() {
+        List<HitTestHistory> batch = new ArrayList<>();
+        while (pendingHistory.drainTo(batch, HISTORY_BATCH_SIZE) > 0) {
+            try {
+                historyService.saveBatch(batch);
+            } catch (Exception e) {
+                log.error("Flush hit test history failed, size:{}", batch.size(), e);
+                // Put the rows back for the next flush, as far as the buffer has room for them
+                int dropped = 0;
+                for (HitTestHistory history : batch) {
+                    if (!pendingHistory.offer(history)) {
+                        dropped++;
+                    }
+                }
+                if (dropped > 0) {
+                    log.warn("Hit test history buffer is full, drop {} failed records", dropped);
+                }
+                return;
+            }
+            batch.clear();
+        }
+    }
+}
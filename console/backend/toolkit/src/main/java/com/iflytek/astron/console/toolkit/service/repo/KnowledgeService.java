@@ -1,6 +1,5 @@
 package com.iflytek.astron.console.toolkit.service.repo;
 
-import cn.hutool.core.thread.ThreadFactoryBuilder;
 import com.alibaba.fastjson2.*;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
@@ -22,6 +21,7 @@ import com.iflytek.astron.console.toolkit.entity.vo.repo.KnowledgeVO;
 import com.iflytek.astron.console.toolkit.handler.KnowledgeV2ServiceCallHandler;
 import com.iflytek.astron.console.toolkit.mapper.repo.FileInfoV2Mapper;
 import com.iflytek.astron.console.toolkit.service.task.ExtractKnowledgeTaskService;
+import com.iflytek.astron.console.toolkit.task.KnowledgeFileExecutor;
 import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
 import com.iflytek.astron.console.toolkit.util.S3Util;
 import jakarta.annotation.Resource;
@@ -80,6 +80,8 @@ public class KnowledgeService {
     private KnowledgeMapper knowledgeMapper;
     @Resource
     private PreviewKnowledgeMapper previewKnowledgeMapper;
+    @Resource
+    private KnowledgeFileExecutor knowledgeFileExecutor;
 
 
     /**
@@ -983,32 +985,24 @@ public class KnowledgeService {
         }
 
         if (ProjectContent.isCbgRagCompatible(r.source)) {
-            // Concurrent batch push
-            ExecutorService pool = new ThreadPoolExecutor(
-                    maxThreadCount, maxThreadCount, 0L, TimeUnit.MILLISECONDS,
-                    new LinkedBlockingQueue<>(),
-                    ThreadFactoryBuilder.create().setNamePrefix("addKnowledge4CBG-").build());
-            List<Future<Map<String, String>>> futures = new ArrayList<>();
-            try {
-                for (int i = 0; i < jsonArray.size(); i += maxSaveCount) {
-                    int end = Math.min(i + maxSaveCount, jsonArray.size());
-                    JSONArray batch = new JSONArray();
-                    for (Object o : jsonArray.subList(i, end)) {
-                        batch.add((JSONObject) o);
-                    }
-                    futures.add(pool.submit(() -> this.addKnowledge4CBG(uuid.get(0), uuid.get(1), batch, r.source)));
+            // Concurrent batch push, at most maxThreadCount batches of this file at once
+            List<Callable<Map<String, String>>> tasks = new ArrayList<>();
+            for (int i = 0; i < jsonArray.size(); i += maxSaveCount) {
+                int end = Math.min(i + maxSaveCount, jsonArray.size());
+                JSONArray batch = new JSONArray();
+                for (Object o : jsonArray.subList(i, end)) {
+                    batch.add((JSONObject) o);
                 }
-                for (Future<Map<String, String>> f : futures) {
-                    try {
-                        Map<String, String> m = f.get();
-                        if (!m.isEmpty())
-                            r.cbgKnowledgeMap.putAll(m);
-                    } catch (Exception e) {
-                        log.error("Failed to get CBG task result", e);
-                    }
+                tasks.add(() -> this.addKnowledge4CBG(uuid.get(0), uuid.get(1), batch, r.source));
+            }
+            for (Future<Map<String, String>> f : knowledgeFileExecutor.fork(tasks, maxThreadCount)) {
+                try {
+                    Map<String, String> m = f.get();
+                    if (!m.isEmpty())
+                        r.cbgKnowledgeMap.putAll(m);
+                } catch (Exception e) {
+                    log.error("Failed to get CBG task result", e);
                 }
-            } finally {
-                pool.shutdown();
             }
             return r;
         }
@@ -119,6 +119,8 @@ public class RepoService extends ServiceImpl<RepoMapper, Repo> {
     @Resource
     FileDirectoryTreeService directoryTreeService;
     @Resource
+    HitTestStatsRecorder hitTestStatsRecorder;
+    @Resource
     S3Util s3UtilClient;
     @Resource
     SparkBotMapper sparkBotMapper;
@@ -731,7 +733,6 @@ public class RepoService extends ServiceImpl<RepoMapper, Repo> {
      * @throws BusinessException if repository does not exist, user has no permission, or no enabled
      *         files found
      */
-    @Transactional
     public Object hitTest(Long id, String query, Integer topN, boolean isBelongLoginUser) {
         Repo repo = this.getById(id);
         if (repo == null) {
@@ -745,14 +746,14 @@ public class RepoService extends ServiceImpl<RepoMapper, Repo> {
         if (CollectionUtils.isEmpty(fileDirectoryTrees)) {
             return new JSONArray();
         }
-        boolean hasEnabledFile = false;
-        for (FileDirectoryTree fileDirectoryTree : fileDirectoryTrees) {
-            FileInfoV2 fileInfoV2 = fileInfoV2Service.getById(fileDirectoryTree.getFileId());
-            if (fileInfoV2 != null && fileInfoV2.getEnabled() == 1) {
-                hasEnabledFile = true;
-                break;
-            }
-        }
+        List<Long> fileIds = fileDirectoryTrees.stream()
+                .map(FileDirectoryTree::getFileId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        boolean hasEnabledFile = !fileIds.isEmpty() && fileInfoV2Service.count(Wrappers.lambdaQuery(FileInfoV2.class)
+                .in(FileInfoV2::getId, fileIds)
+                .eq(FileInfoV2::getEnabled, 1)) > 0;
         if (!hasEnabledFile) {
             throw new BusinessException(ResponseEnum.REPO_FILE_DISABLED);
         }
@@ -770,23 +771,34 @@ public class RepoService extends ServiceImpl<RepoMapper, Repo> {
         hitTestHistory.setUserId(UserInfoManagerHandler.getUserId());
         hitTestHistory.setQuery(query);
         hitTestHistory.setCreateTime(new Timestamp(System.currentTimeMillis()));
-        historyService.save(hitTestHistory);
+        hitTestStatsRecorder.recordHistory(hitTestHistory);
 
         QueryRespData data = JSON.parseObject(resp.getData().toString(), QueryRespData.class);
         List<ChunkInfo> results = data.getResults();
-        Map<Long, FileDirectoryTree> processedFileIds = new HashMap<>();
         if (!CollectionUtils.isEmpty(results)) {
+            // Enrich all chunks with one IN lookup, directory tree nodes come from the list loaded above
+            Set<String> docIds = results.stream()
+                    .map(ChunkInfo::getDocId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<String, FileInfoV2> fileInfoByUuid = docIds.isEmpty() ? Collections.emptyMap()
+                    : fileInfoV2Service.list(Wrappers.lambdaQuery(FileInfoV2.class).in(FileInfoV2::getUuid, docIds))
+                            .stream()
+                            .collect(Collectors.toMap(FileInfoV2::getUuid, f -> f, (a, b) -> a));
+            Map<Long, FileDirectoryTree> treeByFileId = fileDirectoryTrees.stream()
+                    .filter(t -> t.getFileId() != null)
+                    .collect(Collectors.toMap(FileDirectoryTree::getFileId, t -> t, (a, b) -> a));
+
+            Set<Long> hitTreeIds = new HashSet<>();
             for (ChunkInfo info : results) {
-                String docId = info.getDocId();
-                FileInfoV2 fileInfoV2 = fileInfoV2Service.getOnly(new QueryWrapper<FileInfoV2>().eq("uuid", docId));
-                // Skip if this fileId has already been processed
-                if (!processedFileIds.containsKey(fileInfoV2.getId())) {
-                    FileDirectoryTree fileDirectoryTree = directoryTreeService.getOnly(Wrappers.lambdaQuery(FileDirectoryTree.class)
-                            .eq(FileDirectoryTree::getAppId, repo.getId())
-                            .eq(FileDirectoryTree::getFileId, fileInfoV2.getId()));
-                    fileDirectoryTree.setHitCount(fileDirectoryTree.getHitCount() + 1);
-                    directoryTreeService.updateById(fileDirectoryTree);
-                    processedFileIds.put(fileInfoV2.getId(), fileDirectoryTree);
+                FileInfoV2 fileInfoV2 = fileInfoByUuid.get(info.getDocId());
+                if (fileInfoV2 == null) {
+                    log.warn("Knowledge chunk file not found, repoId:{}, docId:{}", id, info.getDocId());
+                    continue;
+                }
+                FileDirectoryTree fileDirectoryTree = treeByFileId.get(fileInfoV2.getId());
+                if (fileDirectoryTree != null) {
+                    hitTreeIds.add(fileDirectoryTree.getId());
                 }
                 if (ProjectContent.isCbgRagCompatible(repo.getTag())) {
                     JSONObject references = info.getReferences();
@@ -814,6 +826,7 @@ public class RepoService extends ServiceImpl<RepoMapper, Repo> {
                 }
                 info.setFileInfo(fileInfoV2);
             }
+            hitTestStatsRecorder.recordHits(hitTreeIds);
         }
         return results;
     }
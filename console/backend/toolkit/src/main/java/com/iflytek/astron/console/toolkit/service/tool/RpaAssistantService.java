@@ -21,8 +21,8 @@ import com.iflytek.astron.console.toolkit.entity.table.tool.*;
 import com.iflytek.astron.console.toolkit.entity.tool.*;
 import com.iflytek.astron.console.toolkit.handler.RpaHandler;
 import com.iflytek.astron.console.toolkit.handler.UserInfoManagerHandler;
-import com.iflytek.astron.console.toolkit.mapper.ConfigInfoMapper;
 import com.iflytek.astron.console.toolkit.mapper.tool.*;
+import com.iflytek.astron.console.toolkit.service.common.ConfigInfoRegistry;
 import com.iflytek.astron.console.toolkit.service.workflow.WorkflowService;
 import com.iflytek.astron.console.toolkit.util.JacksonUtil;
 import com.iflytek.astron.console.toolkit.util.OkHttpUtil;
@@ -57,7 +57,7 @@ public class RpaAssistantService {
     private final RpaHandler rpaHandler;
     private final WorkflowService workflowService;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final ConfigInfoMapper configInfoMapper;
+    private final ConfigInfoRegistry configInfoRegistry;
     private final ApiUrl apiUrl;
 
     /**
@@ -237,7 +237,7 @@ public class RpaAssistantService {
         if (records == null) {
             records = new JSONArray();
         }
-        ConfigInfo iconConfig = configInfoMapper.getByCategoryAndCode("ICON", "rpa_robot");
+        ConfigInfo iconConfig = configInfoRegistry.get("ICON", "rpa_robot");
         for (Object record : records) {
             if (!(record instanceof JSONObject obj)) {
                 continue;
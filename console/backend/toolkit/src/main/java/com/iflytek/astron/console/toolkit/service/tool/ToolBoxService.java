@@ -35,7 +35,6 @@ import com.iflytek.astron.console.toolkit.handler.language.LanguageContext;
 import com.iflytek.astron.console.toolkit.mapper.bot.SparkBotMapper;
 import com.iflytek.astron.console.toolkit.mapper.relation.FlowToolRelMapper;
 import com.iflytek.astron.console.toolkit.mapper.tool.*;
-import com.iflytek.astron.console.toolkit.mapper.trace.ChatInfoMapper;
 import com.iflytek.astron.console.toolkit.mapper.users.SystemUserMapper;
 import com.iflytek.astron.console.toolkit.service.bot.BotToolRelService;
 import com.iflytek.astron.console.toolkit.service.common.ConfigInfoService;
@@ -49,18 +48,20 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpStatus;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.CollectionUtils;
 
 import java.lang.reflect.Field;
 import java.net.URL;
 import java.sql.Timestamp;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -78,9 +79,6 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
     @Resource
     BizConfig bizConfig;
 
-    @Resource
-    ChatInfoMapper chatInfoMapper;
-
     @Autowired
     UrlCheckTool urlCheckTool;
 
@@ -140,16 +138,29 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
     WorkflowService workflowService;
     @Autowired
     private CommonConfig commonConfig;
+    @Resource
+    ToolHeatService toolHeatService;
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
 
     private static final String FAVORITE_KEY_PREFIX = "new:user:favorite:tool:";
 
     private static final String CONFIG_KEY_PREFIX = "spark_bot:tool_config:";
-    private static final String TOOL_HEAT_VALUE_PREFIX = "spark_bot:tool:heat_value:";
+
+    private static final String TOOL_SQUARE_VERSION_KEY = "spark_bot:tool:square_version";
+
+    // Heat values and MCP tools change without events, the index is rebuilt at least this often
+    private static final long TOOL_SQUARE_INDEX_MAX_AGE_MS = 60_000;
+
+    private volatile ToolSquareIndex toolSquareIndex;
+
+    private final ReentrantLock toolSquareIndexLock = new ReentrantLock();
 
 
 
     @Transactional
     public ToolBox createTool(ToolBoxDto toolBoxDto) {
+        refreshToolSquareIndex();
 
         ToolBox toolBox;
         if (toolBoxDto.getId() != null) {
@@ -285,6 +296,8 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
                 save(toolBox);
             }
         }
+        // Not transactional, so the version moves only once the row is written
+        refreshToolSquareIndex();
         return toolBox;
     }
 
@@ -299,6 +312,7 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
 
     @Transactional
     public ToolBox updateTool(ToolBoxDto toolBoxDto) {
+        refreshToolSquareIndex();
         try {
             ToolBox toolBox = getById(toolBoxDto.getId());
             if (toolBox == null) {
@@ -414,6 +428,7 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
 
     @Transactional
     public Object deleteTool(Long id) {
+        refreshToolSquareIndex();
         ToolBox toolBox = getById(id);
         if (toolBox == null) {
             throw new BusinessException(ResponseEnum.TOOLBOX_NOT_EXIST_DELETE);
@@ -731,6 +746,37 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
             return createEmptyPageData();
         }
 
+        ToolSquareIndex index = getToolSquareIndex(uid);
+        if (index == null) {
+            return listToolSquareFromDb(dto, uid, content, favorites);
+        }
+
+        List<String> recentToolIds = Objects.equals(dto.getOrderFlag(), 1)
+                ? toolBoxOperateHistoryMapper.selectRecentToolIds(uid)
+                : Collections.emptyList();
+        ToolSquareIndex.Page page = index.page(dto, content, CollUtil.isEmpty(favorites) ? null : favorites,
+                shouldIncludeMcpTools(dto), recentToolIds);
+        if (page.getTotal() == 0) {
+            return createEmptyPageData();
+        }
+
+        // Index entries are shared, copy the rows before setting the user's favorite status
+        Set<String> favoritesId = getFavoritesId(uid);
+        List<ToolBoxVo> rows = new ArrayList<>(page.getRows().size());
+        for (ToolBoxVo entry : page.getRows()) {
+            ToolBoxVo toolBoxVo = new ToolBoxVo();
+            BeanUtils.copyProperties(entry, toolBoxVo);
+            toolBoxVo.setTags(entry.getTags() == null ? null : new ArrayList<>(entry.getTags()));
+            toolBoxVo.setIsFavorite(favoritesId.contains(toolBoxVo.getIsMcp() ? toolBoxVo.getMcpTooId() : toolBoxVo.getToolId()));
+            rows.add(toolBoxVo);
+        }
+        return buildPageData(rows, dto.getPage(), dto.getPageSize(), page.getTotal());
+    }
+
+    /**
+     * Query tool square from the database, used when the index cannot be built
+     */
+    private PageData<ToolBoxVo> listToolSquareFromDb(ToolSquareDto dto, String uid, String content, Set<String> favorites) {
         // Get tool list
         List<ToolBoxVo> toolBoxVoList = getToolBoxList(uid, content, favorites, dto);
         if (CollUtil.isEmpty(toolBoxVoList)) {
@@ -749,6 +795,109 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
         return buildPageData(sortedAndPagedList, dto.getPage(), dto.getPageSize(), totalSize);
     }
 
+    /**
+     * Get the tool square index, rebuilt when the square version moved or the index is too old.
+     * While one request rebuilds, the others keep using the previous index.
+     *
+     * @return index, null when it cannot be built
+     */
+    private ToolSquareIndex getToolSquareIndex(String uid) {
+        ToolSquareIndex index = toolSquareIndex;
+        Long version = getToolSquareVersion();
+        if (isToolSquareIndexCurrent(index, version)) {
+            return index;
+        }
+        if (index == null) {
+            toolSquareIndexLock.lock();
+        } else if (!toolSquareIndexLock.tryLock()) {
+            return index;
+        }
+        try {
+            index = toolSquareIndex;
+            if (isToolSquareIndexCurrent(index, version)) {
+                return index;
+            }
+            long start = System.currentTimeMillis();
+            index = buildToolSquareIndex(uid, version != null ? version : index != null ? index.getVersion() : 0L);
+            toolSquareIndex = index;
+            log.info("tool square index rebuilt - version: {}, cost: {}ms", index.getVersion(), System.currentTimeMillis() - start);
+            return index;
+        } catch (Exception e) {
+            log.error("Failed to build tool square index", e);
+            return toolSquareIndex;
+        } finally {
+            toolSquareIndexLock.unlock();
+        }
+    }
+
+    private static boolean isToolSquareIndexCurrent(ToolSquareIndex index, Long version) {
+        return index != null
+                && (version == null || index.getVersion() == version)
+                && System.currentTimeMillis() - index.getBuiltAt() < TOOL_SQUARE_INDEX_MAX_AGE_MS;
+    }
+
+    /**
+     * Square tools and MCP tools with tags, heat values and address filled in
+     */
+    private ToolSquareIndex buildToolSquareIndex(String uid, long version) {
+        List<ConfigInfo> configInfoList = getTagConfigList();
+        Map<String, Long> heatValues = toolHeatService.getHeatValues();
+
+        List<ToolBoxVo> plugins = toolBoxMapper.getModelListSquareByCondition(
+                uid, null, null, null, null, null,
+                null, null, bizConfig.getAdminUid(), String.valueOf(CommonConst.PlatformCode.COMMON))
+                .stream()
+                .map(this::convert2ToolBoxVo)
+                .collect(Collectors.toList());
+        List<ToolBoxVo> mcpTools = getMcpTools(new ToolSquareDto());
+        for (ToolBoxVo toolBoxVo : plugins) {
+            fillSingleToolMetadata(toolBoxVo, Collections.emptySet(), configInfoList, heatValues);
+        }
+        for (ToolBoxVo toolBoxVo : mcpTools) {
+            fillSingleToolMetadata(toolBoxVo, Collections.emptySet(), configInfoList, heatValues);
+        }
+        return new ToolSquareIndex(version, plugins, mcpTools);
+    }
+
+    /**
+     * Current square version, null when Redis cannot be read
+     */
+    private Long getToolSquareVersion() {
+        try {
+            String version = stringRedisTemplate.opsForValue().get(TOOL_SQUARE_VERSION_KEY);
+            return version == null ? 0L : Long.parseLong(version);
+        } catch (Exception e) {
+            log.warn("Failed to get tool square version, error: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Move the square version so that every node rebuilds its index, after commit inside a transaction
+     */
+    private void refreshToolSquareIndex() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementToolSquareVersion();
+                }
+            });
+        } else {
+            incrementToolSquareVersion();
+        }
+    }
+
+    private void incrementToolSquareVersion() {
+        try {
+            stringRedisTemplate.opsForValue().increment(TOOL_SQUARE_VERSION_KEY);
+        } catch (Exception e) {
+            // Other nodes pick the change up when their index expires
+            log.warn("Failed to update tool square version, error: {}", e.getMessage());
+            toolSquareIndex = null;
+        }
+    }
+
     /**
      * Handle favorite filter logic
      */
@@ -828,9 +977,10 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
     private void fillToolBoxMetadata(String uid, List<ToolBoxVo> toolBoxVoList) {
         Set<String> favoritesId = getFavoritesId(uid);
         List<ConfigInfo> configInfoList = getTagConfigList();
+        Map<String, Long> heatValues = toolHeatService.getHeatValues();
 
         for (ToolBoxVo toolBoxVo : toolBoxVoList) {
-            fillSingleToolMetadata(toolBoxVo, favoritesId, configInfoList);
+            fillSingleToolMetadata(toolBoxVo, favoritesId, configInfoList, heatValues);
         }
     }
 
@@ -847,7 +997,7 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
     /**
      * Fill metadata for a single tool
      */
-    private void fillSingleToolMetadata(ToolBoxVo toolBoxVo, Set<String> favoritesId, List<ConfigInfo> configInfoList) {
+    private void fillSingleToolMetadata(ToolBoxVo toolBoxVo, Set<String> favoritesId, List<ConfigInfo> configInfoList, Map<String, Long> heatValues) {
         // Set address prefix
         if (!toolBoxVo.getIsMcp()) {
             toolBoxVo.setAddress(s3UtilClient.getS3Prefix());
@@ -857,69 +1007,15 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
         boolean isFavorite = toolBoxVo.getIsMcp() ? favoritesId.contains(toolBoxVo.getMcpTooId()) : favoritesId.contains(toolBoxVo.getToolId());
         toolBoxVo.setIsFavorite(isFavorite);
 
-        // Set heat value from Redis
-        fillHeatValue(toolBoxVo);
+        // Set heat value
+        String toolKey = toolBoxVo.getIsMcp() ? toolBoxVo.getMcpTooId() : toolBoxVo.getToolId();
+        toolBoxVo.setHeatValue(toolKey == null ? 0L : heatValues.getOrDefault(toolKey, 0L));
 
         // Set tags
         fillToolTags(toolBoxVo, configInfoList);
 
     }
 
-    /**
-     * Fill heat value from Redis
-     */
-    private void fillHeatValue(ToolBoxVo toolBoxVo) {
-        Long heatValue = 0L;
-        String toolKey = toolBoxVo.getIsMcp() ? toolBoxVo.getMcpTooId() : toolBoxVo.getToolId();
-
-        if (toolKey != null) {
-            try {
-                Object redisValue = redisTemplate.opsForValue().get(TOOL_HEAT_VALUE_PREFIX + toolKey);
-                heatValue = parseToLong(redisValue, toolKey);
-            } catch (Exception e) {
-                // Log the exception and use default value
-                log.warn("Failed to get heat value for tool: {}, error: {}", toolKey, e.getMessage());
-                heatValue = 0L;
-            }
-        }
-
-        toolBoxVo.setHeatValue(heatValue);
-    }
-
-    /**
-     * Safely parse object to Long, handle Integer, Long, String and null values
-     */
-    private Long parseToLong(Object value, String toolKey) {
-        if (value == null) {
-            return 0L;
-        }
-
-        if (value instanceof Long) {
-            return (Long) value;
-        }
-
-        if (value instanceof Integer) {
-            return ((Integer) value).longValue();
-        }
-
-        if (value instanceof String) {
-            try {
-                return Long.parseLong((String) value);
-            } catch (NumberFormatException e) {
-                log.warn("Heat Value Error: Failed to parse string to Long={}, toolKey={}", value, toolKey);
-                return 0L;
-            }
-        }
-
-        // Handle other Number types
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
-        }
-
-        log.warn("Unexpected value type for heat value={}, type={}, toolKey={}", value, value.getClass().getSimpleName(), toolKey);
-        return 0L;
-    }
-
     /**
      * Fill tool tags
      */
@@ -981,20 +1077,12 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
      * Build recent use order mapping
      */
     private Map<String, Integer> buildRecentUseOrderMap(String uid) {
-        List<ToolBoxOperateHistory> operateHistories = toolBoxOperateHistoryMapper.selectList(
-                Wrappers.lambdaQuery(ToolBoxOperateHistory.class)
-                        .eq(ToolBoxOperateHistory::getUid, uid)
-                        .orderByDesc(ToolBoxOperateHistory::getCreateTime));
-
-        LinkedHashSet<String> toolIdSet = operateHistories.stream()
-                .map(ToolBoxOperateHistory::getToolId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<String> toolIds = toolBoxOperateHistoryMapper.selectRecentToolIds(uid);
 
         Map<String, Integer> orderMap = new HashMap<>();
         int index = 0;
-        for (String id : toolIdSet) {
-            orderMap.put(id, index++);
+        for (String id : toolIds) {
+            orderMap.putIfAbsent(id, index++);
         }
         return orderMap;
     }
@@ -1022,75 +1110,6 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
         return pageData;
     }
 
-    // Execute every 5 minutes
-    @Scheduled(fixedRate = 300000, initialDelay = 600000)
-    public void executeToolHeatValueSelect() {
-        LambdaQueryWrapper<ToolBox> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(ToolBox::getDeleted, 0) // delete = 1
-                .and(wrapper -> wrapper.eq(ToolBox::getIsPublic, 1)
-                        .or()
-                        .eq(ToolBox::getUserId, bizConfig.getAdminUid()));
-        List<ToolBox> toolBoxes = toolBoxMapper.selectList(queryWrapper);
-        List<String> tooIds = toolBoxes.stream().map(ToolBox::getToolId).collect(Collectors.toList());
-        List<ToolUseDto> flowToolUseList = chatInfoMapper.selectWorkflowUseCount(tooIds);
-        List<ToolUseDto> botToolUseList = chatInfoMapper.selectBotUseCount(tooIds);
-        // Number of favorites
-        List<UserFavoriteTool> userFavoriteTools = userFavoriteToolMapper.selectAllList();
-        for (ToolBox toolBox : toolBoxes) {
-            Long workflowUseCount = flowToolUseList.stream()
-                    .filter(tool -> tool.getToolId() != null && tool.getToolId().contains(toolBox.getToolId()))
-                    .mapToLong(ToolUseDto::getUseCount)
-                    .sum();
-            Long botUseCount = botToolUseList.stream()
-                    .filter(tool -> tool.getToolId() != null && tool.getToolId().contains(toolBox.getToolId()))
-                    .mapToLong(ToolUseDto::getUseCount)
-                    .sum();
-            List<UserFavoriteTool> favoriteTools = userFavoriteTools.stream()
-                    .filter(tool -> tool.getPluginToolId() != null && tool.getPluginToolId().equals(toolBox.getToolId()))
-                    .collect(Collectors.toList());
-            // Number of favorites
-            long favoriteToolCount = favoriteTools.size();
-            long favoriteUserCount = favoriteTools.stream()
-                    .filter(tool -> !tool.getDeleted() && tool.getUseFlag() == 1)
-                    .count();
-            long heatValue = (workflowUseCount + botUseCount - 1) * 3 + (favoriteUserCount - 1) * 10 + favoriteToolCount * 10 + workflowUseCount + botUseCount;
-            if (heatValue < 0) {
-                heatValue = 0L;
-            }
-            redisTemplate.opsForValue().set(TOOL_HEAT_VALUE_PREFIX + toolBox.getToolId(), heatValue);
-        }
-        // MCP tool heat value
-        List<ToolBoxVo> mcpTools = getMcpTools(new ToolSquareDto());
-        for (ToolBoxVo mcpTool : mcpTools) {
-            // Query plugins with same name
-            // Process string: ignore case match "-mcp" and remove it
-            String mcpName = mcpTool.getName().replaceAll("(?i)-mcp", "");
-            LambdaQueryWrapper<ToolBox> newQueryWrapper = new LambdaQueryWrapper<>();
-            newQueryWrapper.eq(ToolBox::getDeleted, 0)
-                    .like(ToolBox::getName, mcpName)
-                    .and(wrapper -> wrapper.eq(ToolBox::getIsPublic, 1)
-                            .or()
-                            .eq(ToolBox::getUserId, bizConfig.getAdminUid()));
-            List<ToolBox> toolBoxList = toolBoxMapper.selectList(newQueryWrapper);
-            if (!toolBoxList.isEmpty()) {
-                // Query heat value of plugins with same name
-                Long heatValue = (Long) redisTemplate.opsForValue().get(TOOL_HEAT_VALUE_PREFIX + toolBoxList.get(0).getToolId());
-                if (heatValue == null) {
-                    heatValue = 0L;
-                }
-                redisTemplate.opsForValue().set(TOOL_HEAT_VALUE_PREFIX + mcpTool.getMcpTooId(), heatValue);
-            } else {
-                // Query table - query MCP tool heat value
-                Long mcpHeatValue = toolBoxMapper.getMcpHeatValueByName(mcpTool.getName());
-                if (mcpHeatValue == null) {
-                    mcpHeatValue = 0L;
-                }
-                redisTemplate.opsForValue().set(TOOL_HEAT_VALUE_PREFIX + mcpTool.getMcpTooId(), mcpHeatValue);
-            }
-        }
-        log.info("tool heat value select - Current Time: " + LocalDateTime.now());
-    }
-
     private List<ToolBoxVo> getMcpTools(ToolSquareDto dto) {
         List<ToolBoxVo> toolBoxVoList = new ArrayList<>();
         // MCP tools
@@ -1214,12 +1233,18 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
             userFavorite.setUseFlag(1);
             userFavoriteToolMapper.save(userFavorite);
             redisTemplate.opsForSet().add(redisKey, toolId);
+            if (!isMcp) {
+                toolHeatService.onFavoriteChanged(toolId, true);
+            }
         } else if (favoriteFlag == 1) {
             if (existingFavorite.isPresent()) {
                 UserFavoriteTool userFavorite = existingFavorite.get();
                 userFavorite.setDeleted(true);
                 userFavoriteToolMapper.updateFavoriteStatus(userFavorite);
                 redisTemplate.opsForSet().remove(redisKey, toolId);
+                if (!isMcp) {
+                    toolHeatService.onFavoriteChanged(toolId, false);
+                }
                 // Check if collection is empty
                 Set<Object> favorites = redisTemplate.opsForSet().members(redisKey);
                 if (favorites == null || favorites.isEmpty()) {
@@ -2161,6 +2186,7 @@ public class ToolBoxService extends ServiceImpl<ToolBoxMapper, ToolBox> {
         toolBox.setToolTag(toolTagId.toString());
         toolBox.setUpdateTime(new Timestamp(System.currentTimeMillis()));
         toolBoxMapper.updateById(toolBox);
+        refreshToolSquareIndex();
 
     }
 
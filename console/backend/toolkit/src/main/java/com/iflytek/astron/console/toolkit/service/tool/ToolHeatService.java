@@ -0,0 +1,247 @@
+package com.iflytek.astron.console.toolkit.service.tool;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.iflytek.astron.console.toolkit.config.properties.BizConfig;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolFavoriteCountDto;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolHeatValueDto;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolUseDto;
+import com.iflytek.astron.console.toolkit.entity.table.tool.ToolBox;
+import com.iflytek.astron.console.toolkit.entity.tool.McpServerTool;
+import com.iflytek.astron.console.toolkit.mapper.tool.ToolBoxMapper;
+import com.iflytek.astron.console.toolkit.mapper.tool.UserFavoriteToolMapper;
+import com.iflytek.astron.console.toolkit.mapper.trace.ChatInfoMapper;
+import com.iflytek.astron.console.toolkit.service.workflow.WorkflowService;
+import com.iflytek.astron.console.toolkit.util.RedisUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Heat values of the tool square.
+ * <p>
+ * Heat values live in a Redis sorted set (tool key -> heat) next to a hash with the counters they are
+ * derived from ({@code <toolId>:use}, {@code <toolId>:fav}, {@code <toolId>:fav_active}). Favorite
+ * toggles update the counters and the heat of the tool at once with a Lua script. Use counts are
+ * recorded by the trace tables outside this service, so they are brought in by a reconcile job that
+ * runs on one node per interval and rebuilds both keys from grouped queries.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ToolHeatService {
+
+    // One hash tag for both keys and their build-aside copies: the favorite script and the renames
+    // touch them together, which Redis Cluster only allows within one slot
+    static final String HEAT_KEY = "spark_bot:tool:{heat}";
+    static final String STATS_KEY = "spark_bot:tool:{heat}:stats";
+    private static final String RECONCILE_LOCK_KEY = "spark_bot:tool:heat_reconcile";
+
+    private static final long RECONCILE_INTERVAL_MS = 300_000;
+
+    private static final String USE = ":use";
+    private static final String FAVORITE = ":fav";
+    private static final String FAVORITE_ACTIVE = ":fav_active";
+
+    // KEYS: stats hash, heat set; ARGV: toolId, favorite delta, active favorite delta
+    // Tools that are not in the stats yet are left to the next reconcile
+    private static final DefaultRedisScript<Long> LUA_FAVORITE =
+            new DefaultRedisScript<>(
+                    "local use = redis.call('hget', KEYS[1], ARGV[1] .. '" + USE + "') " +
+                            "if not use then return nil end " +
+                            "use = tonumber(use) " +
+                            "local fav = redis.call('hincrby', KEYS[1], ARGV[1] .. '" + FAVORITE + "', ARGV[2]) " +
+                            "local active = redis.call('hincrby', KEYS[1], ARGV[1] .. '" + FAVORITE_ACTIVE + "', ARGV[3]) " +
+                            "local heat = (use - 1) * 3 + (active - 1) * 10 + fav * 10 + use " +
+                            "if heat < 0 then heat = 0 end " +
+                            "redis.call('zadd', KEYS[2], heat, ARGV[1]) " +
+                            "return heat",
+                    Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+    @Resource
+    private RedisUtil redisUtil;
+    @Resource
+    private BizConfig bizConfig;
+    @Resource
+    private ToolBoxMapper toolBoxMapper;
+    @Resource
+    private ChatInfoMapper chatInfoMapper;
+    @Resource
+    private UserFavoriteToolMapper userFavoriteToolMapper;
+    @Resource
+    private WorkflowService workflowService;
+
+    /**
+     * Heat formula of plugin tools
+     */
+    static long heatValue(long useCount, long favoriteCount, long activeFavoriteCount) {
+        long heatValue = (useCount - 1) * 3 + (activeFavoriteCount - 1) * 10 + favoriteCount * 10 + useCount;
+        return Math.max(heatValue, 0L);
+    }
+
+    /**
+     * Heat values of all tools, keyed by tool ID (MCP tool ID for MCP tools)
+     */
+    public Map<String, Long> getHeatValues() {
+        Map<String, Long> heatValues = new HashMap<>();
+        try {
+            Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet().rangeWithScores(HEAT_KEY, 0, -1);
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                    if (tuple.getValue() != null && tuple.getScore() != null) {
+                        heatValues.put(tuple.getValue(), tuple.getScore().longValue());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to get tool heat values, error: {}", e.getMessage());
+        }
+        return heatValues;
+    }
+
+    /**
+     * Apply a favorite toggle of a plugin tool
+     *
+     * @param toolId Plugin tool ID
+     * @param favorited true when favorited, false when the favorite was cancelled
+     */
+    public void onFavoriteChanged(String toolId, boolean favorited) {
+        if (StringUtils.isBlank(toolId)) {
+            return;
+        }
+        try {
+            // A new favorite is a new record; cancelling keeps the record but deactivates it
+            stringRedisTemplate.execute(LUA_FAVORITE, List.of(STATS_KEY, HEAT_KEY),
+                    toolId, favorited ? "1" : "0", favorited ? "1" : "-1");
+        } catch (Exception e) {
+            log.warn("Failed to update tool heat value on favorite, toolId={}, error: {}", toolId, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild counters and heat values from the database, on one node per interval
+     */
+    @Scheduled(fixedRate = RECONCILE_INTERVAL_MS, initialDelay = 600000)
+    public void reconcile() {
+        // The lock is left to expire so the other nodes skip this interval
+        if (!redisUtil.tryLock(RECONCILE_LOCK_KEY, RECONCILE_INTERVAL_MS / 1000 - 10, null)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        LambdaQueryWrapper<ToolBox> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(ToolBox::getDeleted, 0)
+                .and(wrapper -> wrapper.eq(ToolBox::getIsPublic, 1)
+                        .or()
+                        .eq(ToolBox::getUserId, bizConfig.getAdminUid()))
+                .orderByAsc(ToolBox::getId);
+        List<ToolBox> toolBoxes = toolBoxMapper.selectList(queryWrapper);
+        List<String> toolIds = toolBoxes.stream().map(ToolBox::getToolId).filter(Objects::nonNull).distinct().toList();
+
+        Map<String, Long> useCounts = new HashMap<>();
+        addUseCounts(useCounts, toolIds, chatInfoMapper.selectWorkflowUseCount(toolIds));
+        addUseCounts(useCounts, toolIds, chatInfoMapper.selectBotUseCount(toolIds));
+        Map<String, ToolFavoriteCountDto> favoriteCounts = new HashMap<>();
+        for (ToolFavoriteCountDto dto : userFavoriteToolMapper.countGroupByPluginToolId()) {
+            favoriteCounts.put(dto.getPluginToolId(), dto);
+        }
+
+        Map<String, String> stats = new HashMap<>();
+        Map<String, Long> heatValues = new HashMap<>();
+        for (String toolId : toolIds) {
+            long useCount = useCounts.getOrDefault(toolId, 0L);
+            ToolFavoriteCountDto favorite = favoriteCounts.get(toolId);
+            long favoriteCount = favorite == null || favorite.getFavoriteCount() == null ? 0 : favorite.getFavoriteCount();
+            long activeCount = favorite == null || favorite.getActiveCount() == null ? 0 : favorite.getActiveCount();
+            stats.put(toolId + USE, String.valueOf(useCount));
+            stats.put(toolId + FAVORITE, String.valueOf(favoriteCount));
+            stats.put(toolId + FAVORITE_ACTIVE, String.valueOf(activeCount));
+            heatValues.put(toolId, heatValue(useCount, favoriteCount, activeCount));
+        }
+        addMcpHeatValues(heatValues, toolBoxes);
+
+        write(stats, heatValues);
+        log.info("tool heat value reconcile - tools: {}, cost: {}ms", heatValues.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Sum use counts per tool. Rows are grouped by the ID recorded in the trace, which is normally the
+     * tool ID itself; other IDs are matched by containment as before.
+     */
+    private static void addUseCounts(Map<String, Long> useCounts, List<String> toolIds, List<ToolUseDto> rows) {
+        Set<String> toolIdSet = new HashSet<>(toolIds);
+        for (ToolUseDto row : rows) {
+            if (row.getToolId() == null || row.getUseCount() == null) {
+                continue;
+            }
+            if (toolIdSet.contains(row.getToolId())) {
+                useCounts.merge(row.getToolId(), row.getUseCount(), Long::sum);
+                continue;
+            }
+            for (String toolId : toolIds) {
+                if (row.getToolId().contains(toolId)) {
+                    useCounts.merge(toolId, row.getUseCount(), Long::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * MCP tools take the heat of the first plugin with the same name, otherwise their configured heat
+     */
+    private void addMcpHeatValues(Map<String, Long> heatValues, List<ToolBox> toolBoxes) {
+        List<McpServerTool> mcpTools = workflowService.getMcpServerListLocally(null, 1, 1000, null, null);
+        if (mcpTools == null || mcpTools.isEmpty()) {
+            return;
+        }
+        Map<String, Long> configuredHeat = new HashMap<>();
+        for (ToolHeatValueDto dto : toolBoxMapper.getAllMcpHeatValue()) {
+            if (dto.getToolName() != null && dto.getHeatValue() != null) {
+                configuredHeat.putIfAbsent(dto.getToolName(), dto.getHeatValue());
+            }
+        }
+        for (McpServerTool mcpTool : mcpTools) {
+            if (mcpTool.getId() == null || mcpTool.getName() == null) {
+                continue;
+            }
+            // Process string: ignore case match "-mcp" and remove it
+            String mcpName = mcpTool.getName().replaceAll("(?i)-mcp", "");
+            Optional<ToolBox> samePlugin = toolBoxes.stream()
+                    .filter(toolBox -> toolBox.getToolId() != null && StringUtils.containsIgnoreCase(toolBox.getName(), mcpName))
+                    .findFirst();
+            long heatValue = samePlugin.isPresent()
+                    ? heatValues.getOrDefault(samePlugin.get().getToolId(), 0L)
+                    : configuredHeat.getOrDefault(mcpTool.getName(), 0L);
+            heatValues.put(mcpTool.getId(), heatValue);
+        }
+    }
+
+    private void write(Map<String, String> stats, Map<String, Long> heatValues) {
+        if (heatValues.isEmpty()) {
+            stringRedisTemplate.delete(List.of(STATS_KEY, HEAT_KEY));
+            return;
+        }
+        // Build aside and swap in, readers never see a partial set
+        String statsTmp = STATS_KEY + ":tmp";
+        String heatTmp = HEAT_KEY + ":tmp";
+        stringRedisTemplate.delete(List.of(statsTmp, heatTmp));
+        if (stats.isEmpty()) {
+            // Stale counters would let favorites put removed plugins back into the heat set
+            stringRedisTemplate.delete(STATS_KEY);
+        } else {
+            stringRedisTemplate.opsForHash().putAll(statsTmp, stats);
+            stringRedisTemplate.rename(statsTmp, STATS_KEY);
+        }
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+        heatValues.forEach((key, value) -> tuples.add(ZSetOperations.TypedTuple.of(key, value.doubleValue())));
+        stringRedisTemplate.opsForZSet().add(heatTmp, tuples);
+        stringRedisTemplate.rename(heatTmp, HEAT_KEY);
+    }
+}
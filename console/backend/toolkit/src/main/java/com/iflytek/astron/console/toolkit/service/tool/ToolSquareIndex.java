@@ -0,0 +1,230 @@
+package com.iflytek.astron.console.toolkit.service.tool;
+
+import com.iflytek.astron.console.toolkit.entity.dto.ToolBoxVo;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolSquareDto;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Immutable snapshot of the tool square.
+ * <p>
+ * Holds the latest version of every square tool and the MCP tools, with tags, heat values and address
+ * already filled in, so a square query neither hits the database nor Redis. Sort orders are computed
+ * once per snapshot on first use. Unfiltered pages are sliced directly; filtered pages take one pass
+ * over the snapshot. The entries are shared between requests and must not be modified, callers copy
+ * the rows of a page before setting per-user fields.
+ * </p>
+ */
+public final class ToolSquareIndex {
+
+    private static final String ORDER_CREATE = "create";
+    private static final String ORDER_FAVORITE = "favorite";
+    private static final String ORDER_UPDATE = "update";
+    private static final String ORDER_NAME = "name";
+    private static final String HEAT = "heat:";
+
+    private final long version;
+    private final long builtAt;
+    private final List<ToolBoxVo> plugins;
+    private final List<ToolBoxVo> mcpTools;
+    private final Map<String, List<ToolBoxVo>> orders = new ConcurrentHashMap<>();
+
+    /**
+     * @param version Square version the snapshot was built for
+     * @param plugins Latest versions of the square tools, metadata filled in
+     * @param mcpTools MCP tools, metadata filled in
+     */
+    public ToolSquareIndex(long version, List<ToolBoxVo> plugins, List<ToolBoxVo> mcpTools) {
+        this.version = version;
+        this.builtAt = System.currentTimeMillis();
+        this.plugins = List.copyOf(plugins);
+        this.mcpTools = List.copyOf(mcpTools);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * Filter, sort and page the square
+     *
+     * @param dto Query flags and page
+     * @param content Sanitized search content
+     * @param favorites Plugin tool IDs to keep, null for no favorite filter
+     * @param includeMcp Whether MCP tools are part of the result
+     * @param recentToolIds Tool IDs of the user, most recently used first; only used for {@code orderFlag == 1}
+     * @return Shared entries of the page and the total count of matching tools
+     */
+    public Page page(ToolSquareDto dto, String content, Set<String> favorites, boolean includeMcp, List<String> recentToolIds) {
+        Integer orderFlag = dto.getOrderFlag();
+        List<ToolBoxVo> ordered = Objects.equals(orderFlag, 0)
+                ? heatOrder(baseOrder(orderFlag, dto.getTagFlag()))
+                : order(baseOrder(orderFlag, dto.getTagFlag()));
+        int from = Math.max(0, (dto.getPage() - 1) * dto.getPageSize());
+        int to = from + dto.getPageSize();
+
+        Predicate<ToolBoxVo> filter = filter(dto, content, favorites, includeMcp);
+        if (Objects.equals(orderFlag, 1)) {
+            return recentFirst(ordered, filter, recentToolIds, from, to);
+        }
+        if (filter == null) {
+            return new Page(ordered.subList(Math.min(from, ordered.size()), Math.min(to, ordered.size())), ordered.size());
+        }
+        List<ToolBoxVo> rows = new ArrayList<>(dto.getPageSize());
+        long total = 0;
+        for (ToolBoxVo vo : ordered) {
+            if (filter.test(vo)) {
+                if (total >= from && total < to) {
+                    rows.add(vo);
+                }
+                total++;
+            }
+        }
+        return new Page(rows, total);
+    }
+
+    /**
+     * Tools used by the user first, by last use, then the others in square order
+     */
+    private static Page recentFirst(List<ToolBoxVo> ordered, Predicate<ToolBoxVo> filter, List<String> recentToolIds, int from, int to) {
+        Map<String, Integer> rank = new HashMap<>();
+        for (String toolId : recentToolIds) {
+            rank.putIfAbsent(toolId, rank.size());
+        }
+        List<ToolBoxVo> used = new ArrayList<>();
+        // Only the first tools not used can reach the page
+        List<ToolBoxVo> others = new ArrayList<>();
+        long otherCount = 0;
+        for (ToolBoxVo vo : ordered) {
+            if (filter != null && !filter.test(vo)) {
+                continue;
+            }
+            if (rank.containsKey(key(vo))) {
+                used.add(vo);
+                continue;
+            }
+            if (others.size() < to) {
+                others.add(vo);
+            }
+            otherCount++;
+        }
+        used.sort(Comparator.comparingInt(vo -> rank.get(key(vo))));
+        long total = used.size() + otherCount;
+        List<ToolBoxVo> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to && i < total; i++) {
+            rows.add(i < used.size() ? used.get(i) : others.get(i - used.size()));
+        }
+        return new Page(rows, total);
+    }
+
+    private static Predicate<ToolBoxVo> filter(ToolSquareDto dto, String content, Set<String> favorites, boolean includeMcp) {
+        Long tags = dto.getTags();
+        Boolean authorized = dto.getAuthorized();
+        boolean pluginFiltered = favorites != null || StringUtils.isNotEmpty(content) || tags != null;
+        boolean mcpFiltered = !includeMcp || authorized != null || StringUtils.isNotBlank(content);
+        if (!pluginFiltered && !mcpFiltered) {
+            return null;
+        }
+        return vo -> {
+            if (Boolean.TRUE.equals(vo.getIsMcp())) {
+                // Same as the MCP list: authorization filter and case-sensitive name or description match
+                return includeMcp
+                        && (authorized == null || authorized.equals(vo.getAuthorized()))
+                        && (StringUtils.isBlank(content) || StringUtils.contains(vo.getName(), content)
+                                || StringUtils.contains(vo.getDescription(), content));
+            }
+            // Same as the square query: instr on name or description, tag id contained in tool_tag
+            return (favorites == null || favorites.contains(vo.getToolId()))
+                    && (StringUtils.isEmpty(content) || StringUtils.containsIgnoreCase(vo.getName(), content)
+                            || StringUtils.containsIgnoreCase(vo.getDescription(), content))
+                    && (tags == null || StringUtils.contains(vo.getToolTag(), String.valueOf(tags)));
+        };
+    }
+
+    /**
+     * Order of the square query for the flags
+     */
+    private static String baseOrder(Integer orderFlag, Integer tagFlag) {
+        if (Objects.equals(orderFlag, 1)) {
+            return ORDER_CREATE;
+        }
+        if (Objects.equals(tagFlag, 0)) {
+            return ORDER_FAVORITE;
+        }
+        if (Objects.equals(tagFlag, 1)) {
+            return ORDER_UPDATE;
+        }
+        return ORDER_NAME;
+    }
+
+    /**
+     * Plugin tools in the given order followed by the MCP tools
+     */
+    private List<ToolBoxVo> order(String name) {
+        return orders.computeIfAbsent(name, k -> {
+            List<ToolBoxVo> list = new ArrayList<>(plugins);
+            list.sort(comparator(k));
+            list.addAll(mcpTools);
+            return Collections.unmodifiableList(list);
+        });
+    }
+
+    /**
+     * Hottest first, ties keep the given order
+     */
+    private List<ToolBoxVo> heatOrder(String name) {
+        // Not computed inside computeIfAbsent, the map does not allow nested updates
+        List<ToolBoxVo> base = order(name);
+        return orders.computeIfAbsent(HEAT + name, k -> {
+            List<ToolBoxVo> list = new ArrayList<>(base);
+            list.sort(Comparator.comparing(ToolBoxVo::getHeatValue, Comparator.nullsLast(Comparator.<Long>naturalOrder())).reversed());
+            return Collections.unmodifiableList(list);
+        });
+    }
+
+    private static Comparator<ToolBoxVo> comparator(String name) {
+        Comparator<ToolBoxVo> top = Comparator.comparing(ToolBoxVo::getTop, Comparator.nullsFirst(Comparator.<Integer>naturalOrder())).reversed();
+        Comparator<ToolBoxVo> createTime = Comparator.comparing(ToolBoxVo::getCreateTime, Comparator.nullsFirst(Comparator.<Date>naturalOrder())).reversed();
+        Comparator<ToolBoxVo> updateTime = Comparator.comparing(ToolBoxVo::getUpdateTime, Comparator.nullsFirst(Comparator.<Date>naturalOrder())).reversed();
+        Comparator<ToolBoxVo> favoriteCount = Comparator.comparing(ToolBoxVo::getFavoriteCount, Comparator.nullsFirst(Comparator.<Integer>naturalOrder())).reversed();
+        Comparator<ToolBoxVo> toolName = Comparator.comparing(ToolBoxVo::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+        return switch (name) {
+            case ORDER_CREATE -> top.thenComparing(createTime).thenComparing(favoriteCount).thenComparing(toolName);
+            case ORDER_FAVORITE -> top.thenComparing(favoriteCount).thenComparing(createTime).thenComparing(toolName);
+            case ORDER_UPDATE -> top.thenComparing(updateTime).thenComparing(favoriteCount).thenComparing(toolName);
+            default -> top.thenComparing(toolName).thenComparing(updateTime);
+        };
+    }
+
+    private static String key(ToolBoxVo vo) {
+        return Boolean.TRUE.equals(vo.getIsMcp()) ? vo.getMcpTooId() : vo.getToolId();
+    }
+
+    /**
+     * Rows of a page and the total count of matching tools
+     */
+    public static class Page {
+        private final List<ToolBoxVo> rows;
+        private final long total;
+
+        Page(List<ToolBoxVo> rows, long total) {
+            this.rows = rows;
+            this.total = total;
+        }
+
+        public List<ToolBoxVo> getRows() {
+            return rows;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+}
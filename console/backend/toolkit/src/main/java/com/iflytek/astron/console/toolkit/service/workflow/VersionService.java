@@ -469,9 +469,12 @@ public class VersionService {
     public void updateFlowIdWorkflow(String flowId, String data) {
         // Build update conditions
         LambdaUpdateWrapper<Workflow> updateWrapper = new LambdaUpdateWrapper<>();
+        // Clear the flags derived from the old canvas, the list page derives them again
         updateWrapper.eq(Workflow::getFlowId, flowId)
                 .set(Workflow::getData, data)
-                .set(Workflow::getCanPublish, false);
+                .set(Workflow::getCanPublish, false)
+                .set(Workflow::getIoInversionJson, null)
+                .set(Workflow::getHasQaNode, null);
         // Execute update
         workflowMapper.update(null, updateWrapper);
     }
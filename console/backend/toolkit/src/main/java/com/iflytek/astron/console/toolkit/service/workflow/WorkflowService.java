@@ -12,10 +12,14 @@ import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.TypeReference;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.iflytek.astron.console.commons.constant.ResponseEnum;
@@ -86,6 +90,7 @@ import com.iflytek.astron.console.toolkit.mapper.tool.*;
 import com.iflytek.astron.console.toolkit.mapper.trace.ChatInfoMapper;
 import com.iflytek.astron.console.toolkit.mapper.trace.NodeInfoMapper;
 import com.iflytek.astron.console.toolkit.mapper.workflow.*;
+import com.iflytek.astron.console.toolkit.service.common.ConfigInfoRegistry;
 import com.iflytek.astron.console.toolkit.service.extra.AppService;
 import com.iflytek.astron.console.toolkit.service.extra.CoreSystemService;
 import com.iflytek.astron.console.toolkit.service.extra.OpenPlatformService;
@@ -141,6 +146,7 @@ import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -175,6 +181,11 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
     private static final String FIELD_IS_LATEST = "isLatest";
     private static final String FIELD_LATEST_VER = "latestVersion";
     private static final String FIELD_CURR_VER = "currentVersion";
+    // Max number of values in one IN condition of list lookups
+    private static final int IN_BATCH_SIZE = 500;
+    // Columns loaded for list pages: everything except the canvas protocols
+    private static final Predicate<TableFieldInfo> LIST_COLUMNS =
+            f -> !"data".equals(f.getColumn()) && !"published_data".equals(f.getColumn());
 
     @Value("${spring.profiles.active}")
     String env;
@@ -189,6 +200,11 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
     private static final long CACHE_EXPIRE_TIME = 30000;
     // Cache load lock
     private static final Object CACHE_LOAD_LOCK = new Object();
+    // IO/QA flags of published versions, keyed by version ID
+    private final Cache<Long, DerivedFlags> versionFlagsCache = CacheBuilder.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
 
     @Autowired
     WorkflowDialogMapper workflowDialogMapper;
@@ -207,6 +223,8 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
     @Autowired
     ConfigInfoMapper configInfoMapper;
     @Autowired
+    ConfigInfoRegistry configInfoRegistry;
+    @Autowired
     EvalSetVerDataMapper evalSetVerDataMapper;
     @Autowired
     EvalSetVerMapper evalSetVerMapper;
@@ -276,8 +294,9 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
     private WorkflowConfigMapper workflowConfigMapper;
 
     /**
-     * Query workflow list with pagination (in-memory pagination, can be replaced with database
-     * pagination if needed).
+     * Query workflow list with pagination. Rows are paged in SQL; when a status filter is given the
+     * effective status (derived from publish records and bot status) is resolved on light columns
+     * for all candidates first, and only the requested page is loaded in full.
      *
      * @param apiSpaceId Space ID from API parameter
      * @param current Current page number
@@ -301,7 +320,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
 
         // 2) Special user whitelist, whether can view all workflows
         boolean specFlag = false;
-        final ConfigInfo specialUser = configInfoMapper.getByCategoryAndCode("SPECIAL_USER", "workflow-all-view");
+        final ConfigInfo specialUser = configInfoRegistry.get("SPECIAL_USER", "workflow-all-view");
         if (specialUser != null && Objects.equals(specialUser.getValue(), UserInfoManagerHandler.getUserId())) {
             specFlag = true;
         }
@@ -337,23 +356,43 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
             }
         }
 
-        final List<Workflow> list = this.list(wrapper);
-        final List<WorkflowVo> workflowVos = new ArrayList<>(list.size());
-
-        final Map<String, String> workflowVersionMap = new HashMap<>();
-        fixOnStatusList(list, workflowVersionMap);
-
-        // Filter/mapping
-        delwithResultList(status, list, workflowVos, flowId, workflowVersionMap);
-
         final int safeCurrent = Math.max(1, Optional.ofNullable(current).orElse(1));
         final int safeSize = Math.max(1, Optional.ofNullable(pageSize).orElse(10));
-        final int start = Math.min((safeCurrent - 1) * safeSize, workflowVos.size());
-        final int end = Math.min(start + safeSize, workflowVos.size());
+
+        final List<Workflow> records;
+        final long total;
+        final Map<Long, FlowListState> states;
+        if (status != null && status != -1) {
+            wrapper.select(Workflow::getId, Workflow::getFlowId, Workflow::getExt, Workflow::getStatus);
+            final List<Workflow> candidates = this.list(wrapper);
+            final Map<Long, FlowListState> candidateStates = resolveListStates(candidates);
+            final List<Long> matchedIds = candidates.stream()
+                    .filter(w -> Objects.equals(status, candidateStates.get(w.getId()).status) && !Objects.equals(w.getFlowId(), flowId))
+                    .map(Workflow::getId)
+                    .toList();
+            final int start = Math.min((safeCurrent - 1) * safeSize, matchedIds.size());
+            final int end = Math.min(start + safeSize, matchedIds.size());
+            final List<Long> pageIds = matchedIds.subList(start, end);
+            total = matchedIds.size();
+            records = listWithoutCanvas(pageIds);
+            states = candidateStates;
+        } else {
+            wrapper.select(Workflow.class, LIST_COLUMNS);
+            final Page<Workflow> page = this.page(new Page<>(safeCurrent, safeSize), wrapper);
+            total = page.getTotal();
+            records = page.getRecords();
+            states = resolveListStates(records);
+        }
+        backfillDerivedFlags(records);
+
+        final List<WorkflowVo> workflowVos = new ArrayList<>(records.size());
+        for (Workflow w : records) {
+            workflowVos.add(toListVo(w, states.get(w.getId())));
+        }
 
         final PageData<WorkflowVo> pageData = new PageData<>();
-        pageData.setPageData(workflowVos.subList(start, end));
-        pageData.setTotalCount((long) workflowVos.size());
+        pageData.setPageData(workflowVos);
+        pageData.setTotalCount(total);
         return pageData;
     }
 
@@ -376,89 +415,226 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
     }
 
     /**
-     * Filter status and map to VO.
+     * Load workflows by ID without canvas protocols, keeping the order of the given IDs.
      */
-    private void delwithResultList(Integer status,
-            List<Workflow> list,
-            List<WorkflowVo> workflowVos,
-            String flowId,
-            Map<String, String> workflowVersionMap) {
-        for (Workflow w : list) {
-            WorkflowVo vo = new WorkflowVo();
-            org.springframework.beans.BeanUtils.copyProperties(w, vo, "data", "publishedData");
-            vo.setAddress(s3Util.getS3Prefix());
-            vo.setColor(w.getAvatarColor());
-            vo.setHaQaNode(checkFlowHasQaNode(w)); // Project tool method (not shown), keep original implementation if none
-            if (StringUtils.isNotBlank(w.getData())) {
-                vo.setIoInversion(getIoTrans(JSON.parseObject(w.getData(), BizWorkflowData.class).getNodes()));
-            }
-            vo.setSourceCode(String.valueOf(CommonConst.PlatformCode.COMMON));
-            vo.setVersion(workflowVersionMap.get(w.getFlowId()));
+    private List<Workflow> listWithoutCanvas(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Workflow> byId = this.list(Wrappers.lambdaQuery(Workflow.class)
+                .select(Workflow.class, LIST_COLUMNS)
+                .in(Workflow::getId, ids))
+                .stream()
+                .collect(Collectors.toMap(Workflow::getId, w -> w));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
 
-            if (status != null && status != -1) {
-                if (Objects.equals(status, w.getStatus()) && !w.getFlowId().equals(flowId)) {
-                    workflowVos.add(vo);
-                }
-            } else {
-                workflowVos.add(vo);
-            }
+    /**
+     * Map a list row to VO. Published flows show the IO/QA flags of their latest successful version,
+     * other flows the flags persisted with their draft canvas.
+     */
+    private WorkflowVo toListVo(Workflow w, FlowListState state) {
+        WorkflowVo vo = new WorkflowVo();
+        org.springframework.beans.BeanUtils.copyProperties(w, vo, "data", "publishedData", "ioInversionJson");
+        vo.setAddress(s3Util.getS3Prefix());
+        vo.setColor(w.getAvatarColor());
+        vo.setSourceCode(String.valueOf(CommonConst.PlatformCode.COMMON));
+        vo.setStatus(state.status);
+        if (state.bot != null) {
+            vo.setName(state.bot.getBotName());
+            vo.setDescription(state.bot.getBotDesc());
+            vo.setAvatarIcon(state.bot.getAvatar());
+        }
+        if (state.version != null) {
+            vo.setVersion(state.version.getName());
+            DerivedFlags flags = versionFlags(state.version.getId());
+            vo.setHaQaNode(flags.hasQaNode);
+            vo.setIoInversion(flags.ioInversion);
+        } else {
+            vo.setHaQaNode(Boolean.TRUE.equals(w.getHasQaNode()));
+            vo.setIoInversion(StringUtils.isBlank(w.getIoInversionJson()) ? null : JSON.parseObject(w.getIoInversionJson()));
         }
+        return vo;
     }
 
     /**
-     * Correct publish status, refresh to "latest published version" data and version number when
-     * necessary.
+     * Effective list state of a workflow: corrected publish status, latest successful version and
+     * the bot whose name/description/avatar override the workflow's own.
+     */
+    private static final class FlowListState {
+        Integer status;
+        WorkflowVersion version;
+        BotDetail bot;
+    }
+
+    /**
+     * Correct publish status of the given workflows with batched lookups of the bound bot, the
+     * successful publish records and the bot market status.
      */
-    private void fixOnStatusList(List<Workflow> list, Map<String, String> workflowVersionMap) {
+    private Map<Long, FlowListState> resolveListStates(List<Workflow> list) {
+        Map<Long, FlowListState> states = new HashMap<>(list.size() * 2);
+        if (list.isEmpty()) {
+            return states;
+        }
+        // Bound bot: from ext, or from the assistant protocol for flows without ext
+        List<String> flowIdsWithoutExt = list.stream()
+                .filter(w -> StringUtils.isBlank(w.getExt()) && w.getFlowId() != null)
+                .map(Workflow::getFlowId)
+                .toList();
+        Map<String, Integer> langChainBotIds = new HashMap<>();
+        for (List<String> chunk : Lists.partition(flowIdsWithoutExt, IN_BATCH_SIZE)) {
+            userLangChainInfoDao.selectList(Wrappers.lambdaQuery(UserLangChainInfo.class)
+                    .select(UserLangChainInfo::getFlowId, UserLangChainInfo::getBotId)
+                    .in(UserLangChainInfo::getFlowId, chunk))
+                    .forEach(info -> langChainBotIds.putIfAbsent(info.getFlowId(), info.getBotId()));
+        }
+        Map<Long, Integer> botIds = new HashMap<>(list.size() * 2);
         for (Workflow workflow : list) {
-            JSONObject extObj = JSON.parseObject(workflow.getExt());
-            int statusFlag = 0;
-            Integer botId;
-            if (StringUtils.isBlank(workflow.getExt())) {
-                UserLangChainInfo userLangChainInfo = userLangChainInfoDao.selectOne(new LambdaQueryWrapper<UserLangChainInfo>().eq(UserLangChainInfo::getFlowId, workflow.getFlowId()));
-                if (userLangChainInfo != null) {
-                    botId = userLangChainInfo.getBotId();
-                } else {
-                    botId = -1;
-                }
+            Integer botId = StringUtils.isBlank(workflow.getExt())
+                    ? langChainBotIds.get(workflow.getFlowId())
+                    : JSON.parseObject(workflow.getExt()).getInteger(JSON_KEY_BOT_ID);
+            botIds.put(workflow.getId(), botId == null ? -1 : botId);
+        }
+
+        // Latest successful publish record of each bot-bound flow (data is loaded separately, on demand)
+        List<String> boundFlowIds = list.stream()
+                .filter(w -> botIds.get(w.getId()) != -1 && w.getFlowId() != null)
+                .map(Workflow::getFlowId)
+                .distinct()
+                .toList();
+        Map<String, WorkflowVersion> latestVersions = new HashMap<>();
+        for (List<String> chunk : Lists.partition(boundFlowIds, IN_BATCH_SIZE)) {
+            workflowVersionMapper.selectList(Wrappers.lambdaQuery(WorkflowVersion.class)
+                    .select(WorkflowVersion::getId, WorkflowVersion::getFlowId, WorkflowVersion::getName, WorkflowVersion::getCreatedTime)
+                    .in(WorkflowVersion::getFlowId, chunk)
+                    .eq(WorkflowVersion::getPublishResult, PUBLISH_SUCCESS))
+                    .forEach(v -> latestVersions.merge(v.getFlowId(), v, WorkflowService::laterVersion));
+        }
+
+        // No publish record, fallback to bot status
+        Set<Integer> fallbackBotIds = list.stream()
+                .filter(w -> botIds.get(w.getId()) != -1 && !latestVersions.containsKey(w.getFlowId()))
+                .map(w -> botIds.get(w.getId()))
+                .collect(Collectors.toSet());
+        Map<Integer, BotDetail> bots = new HashMap<>();
+        for (List<Integer> chunk : Lists.partition(new ArrayList<>(fallbackBotIds), IN_BATCH_SIZE)) {
+            chatBotBaseMapper.botDetailList(chunk).forEach(b -> bots.putIfAbsent(b.getId(), b));
+        }
+
+        for (Workflow workflow : list) {
+            FlowListState state = new FlowListState();
+            Integer botId = botIds.get(workflow.getId());
+            if (botId == -1) {
+                state.status = workflow.getStatus();
+            } else if (latestVersions.containsKey(workflow.getFlowId())) {
+                state.status = 1;
+                state.version = latestVersions.get(workflow.getFlowId());
             } else {
-                botId = extObj.getInteger(JSON_KEY_BOT_ID);
+                state.bot = bots.get(botId);
+                state.status = state.bot != null && Objects.equals(2, state.bot.getBotStatus()) ? 1 : 0;
             }
+            states.put(workflow.getId(), state);
+        }
+        return states;
+    }
 
-            if (botId != -1) {
-                // Get publish records from publish management (success means published)
-                Long count = workflowVersionMapper.selectCount(
-                        Wrappers.lambdaQuery(WorkflowVersion.class)
-                                .eq(WorkflowVersion::getFlowId, workflow.getFlowId())
-                                .eq(WorkflowVersion::getPublishResult, PUBLISH_SUCCESS));
-                if (count > 0) {
-                    statusFlag = 1;
-                    final WorkflowVo maxVersionByFlowId = getMaxVersionByFlowId(workflow.getFlowId());
-                    if (maxVersionByFlowId != null) {
-                        workflowVersionMap.put(workflow.getFlowId(), maxVersionByFlowId.getVersion());
-                        workflow.setData(maxVersionByFlowId.getData());
-                    }
-                }
-                // No publish record, fallback to bot status
-                if (statusFlag != 1) {
-                    BotDetail result = chatBotBaseMapper.botDetail(botId);
-                    if (result != null) {
-                        Integer botStatus = result.getBotStatus();
-                        if (Objects.equals(2, botStatus)) {
-                            statusFlag = 1;
-                        }
-                        workflow.setName(result.getBotName());
-                        workflow.setDescription(result.getBotDesc());
-                        workflow.setAvatarIcon(result.getAvatar());
-                    }
-                }
-            } else {
-                statusFlag = workflow.getStatus();
+    private static WorkflowVersion laterVersion(WorkflowVersion a, WorkflowVersion b) {
+        if (a.getCreatedTime() == null) {
+            return b;
+        }
+        if (b.getCreatedTime() == null) {
+            return a;
+        }
+        return b.getCreatedTime().after(a.getCreatedTime()) ? b : a;
+    }
+
+    /**
+     * IO/QA flags derived from a canvas protocol.
+     */
+    private static final class DerivedFlags {
+        final JSONObject ioInversion;
+        final Boolean hasQaNode;
+
+        DerivedFlags(JSONObject ioInversion, Boolean hasQaNode) {
+            this.ioInversion = ioInversion;
+            this.hasQaNode = hasQaNode;
+        }
+    }
+
+    private DerivedFlags deriveFlags(String data) {
+        if (StringUtils.isBlank(data)) {
+            return new DerivedFlags(null, false);
+        }
+        BizWorkflowData bizWorkflowData = JSON.parseObject(data, BizWorkflowData.class);
+        if (bizWorkflowData == null || bizWorkflowData.getNodes() == null) {
+            return new DerivedFlags(null, false);
+        }
+        boolean hasQaNode = hasQaNode(bizWorkflowData.getNodes());
+        JSONObject ioInversion = null;
+        try {
+            ioInversion = getIoTrans(bizWorkflowData.getNodes());
+        } catch (Exception e) {
+            log.warn("Derive workflow io inversion failed: {}", e.getMessage());
+        }
+        return new DerivedFlags(ioInversion, hasQaNode);
+    }
+
+    /**
+     * Recompute the IO/QA flags persisted alongside the canvas; call whenever {@code data} changes
+     * before the workflow is saved.
+     */
+    private void refreshDerivedFlags(Workflow workflow) {
+        DerivedFlags flags = deriveFlags(workflow.getData());
+        workflow.setIoInversionJson(flags.ioInversion == null ? null : flags.ioInversion.toJSONString());
+        workflow.setHasQaNode(flags.hasQaNode);
+    }
+
+    /**
+     * Compute and persist flags for rows saved before they were derived on save. Runs once per such
+     * workflow.
+     */
+    private void backfillDerivedFlags(List<Workflow> records) {
+        List<Long> ids = records.stream()
+                .filter(w -> w.getHasQaNode() == null)
+                .map(Workflow::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<Long, String> dataById = new HashMap<>();
+        this.list(Wrappers.lambdaQuery(Workflow.class)
+                .select(Workflow::getId, Workflow::getData)
+                .in(Workflow::getId, ids))
+                .forEach(w -> dataById.put(w.getId(), w.getData()));
+        for (Workflow workflow : records) {
+            if (workflow.getHasQaNode() != null) {
+                continue;
             }
-            workflow.setStatus(statusFlag);
+            workflow.setData(dataById.get(workflow.getId()));
+            refreshDerivedFlags(workflow);
+            workflow.setData(null);
+            this.update(Wrappers.lambdaUpdate(Workflow.class)
+                    .set(Workflow::getIoInversionJson, workflow.getIoInversionJson())
+                    .set(Workflow::getHasQaNode, workflow.getHasQaNode())
+                    .eq(Workflow::getId, workflow.getId()));
         }
     }
 
+    /**
+     * Flags of a published version; versions are immutable, so they are derived once per version.
+     */
+    private DerivedFlags versionFlags(Long versionId) {
+        DerivedFlags flags = versionFlagsCache.getIfPresent(versionId);
+        if (flags == null) {
+            WorkflowVersion version = workflowVersionMapper.selectOne(Wrappers.lambdaQuery(WorkflowVersion.class)
+                    .select(WorkflowVersion::getId, WorkflowVersion::getData)
+                    .eq(WorkflowVersion::getId, versionId));
+            flags = deriveFlags(version == null ? null : version.getData());
+            versionFlagsCache.put(versionId, flags);
+        }
+        return flags;
+    }
+
     /**
      * Details: get by id (could be flowId or primary key).
      */
@@ -467,7 +643,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         final Long spaceId = headSpaceId != null ? (apiSpaceId == null ? headSpaceId : apiSpaceId) : apiSpaceId;
 
         boolean specFlag = false;
-        ConfigInfo specialUser = configInfoMapper.getByCategoryAndCode("SPECIAL_USER", "workflow-all-view");
+        ConfigInfo specialUser = configInfoRegistry.get("SPECIAL_USER", "workflow-all-view");
         if (specialUser != null && Objects.equals(specialUser.getValue(), UserInfoManagerHandler.getUserId())) {
             specFlag = true;
         }
@@ -1053,7 +1229,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         if (createReq.getExt() != null && !createReq.getExt().isEmpty()) {
             workflow.setExt(new JSONObject(createReq.getExt()).toJSONString());
         }
-        ConfigInfo init = configInfoMapper.getByCategoryAndCode("WORKFLOW_INIT_DATA", "workflow");
+        ConfigInfo init = configInfoRegistry.get("WORKFLOW_INIT_DATA", "workflow");
         if (StringUtils.isBlank(workflow.getData()) && init != null) {
             workflow.setData(init.getValue());
         }
@@ -1067,16 +1243,17 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
             config.setConfig(JSON.toJSONString(createReq.getFlowConfig()));
             workflowConfigMapper.insert(config);
         }
-        ConfigInfo initDataConfig = configInfoMapper.getByCategoryAndCode("WORKFLOW_INIT_DATA", "workflow");
+        ConfigInfo initDataConfig = configInfoRegistry.get("WORKFLOW_INIT_DATA", "workflow");
         if (StringUtils.isBlank(workflow.getData()) && initDataConfig != null) {
             workflow.setData(initDataConfig.getValue());
         }
         // Default Advanced Configuration
-        ConfigInfo initAdvanceConfig = configInfoMapper.getByCategoryAndCode("WORKFLOW_INIT_DATA", "config");
+        ConfigInfo initAdvanceConfig = configInfoRegistry.get("WORKFLOW_INIT_DATA", "config");
         if (initAdvanceConfig != null) {
             workflow.setAdvancedConfig(initAdvanceConfig.getValue());
         }
         workflow.setType(createReq.getFlowType());
+        refreshDerivedFlags(workflow);
         save(workflow);
 
         // Sync to Spark database
@@ -1142,6 +1319,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         replica.setAppUpdatable(false);
         replica.setOrder(DEFAULT_ORDER);
         replica.setExt(null);
+        refreshDerivedFlags(replica);
         save(replica);
         Integer botId = openPlatformService.syncWorkflowClone(uid, src.getId(), replica.getId(), replica.getFlowId(), spaceId);
         JSONObject result = new JSONObject();
@@ -1226,6 +1404,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         jsonData.put("botId", botId);
         // Update botId
         replica.setExt(jsonData.toJSONString());
+        refreshDerivedFlags(replica);
         save(replica);
         // New configuration information for voice intelligent agents
         if (Objects.equals(BotTypeEnum.TALK.getType(), flowType)) {
@@ -1386,7 +1565,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         // Fill app/ak/sk
         String appId = bizNodeData.getNodeParam().getString("appId");
         AkSk aksk = appService.remoteCallAkSk(appId);
-        ConfigInfo configInfo = configInfoMapper.getByCategoryAndCode("NODE_API_K_S", "NODE");
+        ConfigInfo configInfo = configInfoRegistry.get("NODE_API_K_S", "NODE");
         List<String> configs = new ArrayList<>();
         if (configInfo != null) {
             configs = Arrays.asList(configInfo.getValue().split(","));
@@ -1840,6 +2019,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         } else {
             workflow.setData(dataString);
         }
+        refreshDerivedFlags(workflow);
     }
 
     // ========== 5. SSRF/URL validation ==========
@@ -1878,7 +2058,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
     }
 
     private List<String> loadIpBlacklist() {
-        List<ConfigInfo> cfgList = configInfoMapper.getListByCategory("NETWORK_SEGMENT_BLACK_LIST");
+        List<ConfigInfo> cfgList = configInfoRegistry.list("NETWORK_SEGMENT_BLACK_LIST");
         if (cfgList == null || cfgList.isEmpty() || StringUtils.isBlank(cfgList.get(0).getValue())) {
             return Collections.emptyList();
         }
@@ -2196,7 +2376,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
             protocol = new FlowProtocol();
             // Fill app elements
             List<BizWorkflowNode> nodes = bizWorkflowData.getNodes();
-            ConfigInfo configInfo = configInfoMapper.getByCategoryAndCode("NODE_API_K_S", "NODE");
+            ConfigInfo configInfo = configInfoRegistry.get("NODE_API_K_S", "NODE");
             List<String> configs = new ArrayList<>();
             if (configInfo != null) {
                 configs = Arrays.asList(configInfo.getValue().split(","));
@@ -2574,7 +2754,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         List<WorkflowVo> workflowVos = new ArrayList<>(page.getRecords().size());
         page.getRecords().forEach(w -> {
             WorkflowVo vo = new WorkflowVo();
-            BeanUtils.copyProperties(w, vo, "data", "publishedData");
+            BeanUtils.copyProperties(w, vo, "data", "publishedData", "ioInversionJson");
             vo.setAddress(s3Util.getS3Prefix());
             vo.setColor(w.getAvatarColor());
             workflowVos.add(vo);
@@ -2676,6 +2856,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         replica.setAppUpdatable(false);
         replica.setOrder(0);
         replica.setIsPublic(false);
+        refreshDerivedFlags(replica);
         save(replica);
 
         WorkflowVo vo = new WorkflowVo();
@@ -2860,7 +3041,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         if (StringUtils.isNotEmpty(patchId)) {
             String domain = nodeParam.getString("domain");
             // Some models patch id = 0 fallback
-            ConfigInfo patchId0Cfg = configInfoMapper.getByCategoryAndCode("PATCH_ID", "0");
+            ConfigInfo patchId0Cfg = configInfoRegistry.get("PATCH_ID", "0");
             List<String> pathId0 = StrUtil.split(patchId0Cfg.getValue(), ",");
             if (!pathId0.contains(domain) && "0".equals(patchId)) {
                 nodeParam.put("patch_id", new ArrayList<>());
@@ -3708,15 +3889,22 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         if (bizWorkflowData == null) {
             return false;
         }
-        List<BizWorkflowNode> nodes = bizWorkflowData.getNodes();
-        Boolean flag = false;
+        return hasQaNode(bizWorkflowData.getNodes());
+    }
+
+    /**
+     * Check if the canvas nodes contain Q&A nodes
+     */
+    private static boolean hasQaNode(List<BizWorkflowNode> nodes) {
+        if (nodes == null) {
+            return false;
+        }
         for (BizWorkflowNode node : nodes) {
-            // Check if it contains Q&A nodes
-            if (node.getId().startsWith("question-answer")) {
-                flag = true;
+            if (node.getId() != null && node.getId().startsWith("question-answer")) {
+                return true;
             }
         }
-        return flag;
+        return false;
     }
 
     public Object addComparisons(WorkflowComparisonReq workflowComparisonReq) {
@@ -3964,6 +4152,7 @@ public class WorkflowService extends ServiceImpl<WorkflowMapper, Workflow> {
         if (sourceFlow != null && targetFlow != null) {
             log.info("Start copying flow, sourceFlowId{}, targetFlowId{}, targetFlow source data {}", sourceFlowId, targetFlowId, targetFlow.getData());
             targetFlow.setData(sourceFlow.getData());
+            refreshDerivedFlags(targetFlow);
             targetFlow.setUpdateTime(new Date());
             this.updateById(targetFlow);
             return true;
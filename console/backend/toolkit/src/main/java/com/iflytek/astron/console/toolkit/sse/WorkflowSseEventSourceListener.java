@@ -45,6 +45,11 @@ public class WorkflowSseEventSourceListener extends EventSourceListener {
 
     public static final String STOP = "stop";
 
+    /**
+     * Every N-th frame is traced at INFO level, the rest only at DEBUG
+     */
+    private static final long FRAME_LOG_SAMPLE_INTERVAL = 200;
+
     /**
      * 1 : Direct output 2 : Typewriter mode
      */
@@ -61,6 +66,11 @@ public class WorkflowSseEventSourceListener extends EventSourceListener {
     final Map<String, Queue<ChatResponse>> nodeToMsgQueueMap = new HashMap<>();
     final Map<String, String> nodeFinishedMap = new HashMap<>();
 
+    // Can-publish state of this debug session, persisted only when it changes
+    private Boolean canPublish;
+    private Boolean persistedCanPublish;
+    private long frameCount;
+
     public WorkflowSseEventSourceListener(String sseId) {
         this.sseId = sseId;
         // Do not perform any Bean retrieval or heavy initialization, and follow the principle that
@@ -110,7 +120,12 @@ public class WorkflowSseEventSourceListener extends EventSourceListener {
     @Override
     public void onEvent(@NotNull EventSource eventSource, String id, String type, @NotNull String data) {
         ensureBeans();
-        log.info("WorkflowSseEventSourceListener[{}] onEvent data = {}", sseId, data);
+        frameCount++;
+        if (frameCount % FRAME_LOG_SAMPLE_INTERVAL == 1) {
+            log.info("WorkflowSseEventSourceListener[{}] onEvent frame = {}, data = {}", sseId, frameCount, data);
+        } else {
+            log.debug("WorkflowSseEventSourceListener[{}] onEvent frame = {}, data = {}", sseId, frameCount, data);
+        }
         ChatResponse chatResponse = JacksonUtil.parseObject(data, ChatResponse.class);
         if (chatResponse == null) {
             log.warn("WorkflowSseEventSourceListener[{}] received null ChatResponse after parse.", sseId);
@@ -118,27 +133,9 @@ public class WorkflowSseEventSourceListener extends EventSourceListener {
         }
 
         if (!promptDebugger) {
-            if (chatResponse.getCode() != 0) {
-                if (workflowMapper != null) {
-                    workflowMapper.update(Wrappers.lambdaUpdate(Workflow.class)
-                            .eq(Workflow::getFlowId, flowId)
-                            .set(Workflow::getCanPublish, false));
-                }
-            } else {
-                if (StringUtils.isBlank(version)) {
-                    if (workflowMapper != null) {
-                        workflowMapper.update(Wrappers.lambdaUpdate(Workflow.class)
-                                .eq(Workflow::getFlowId, flowId)
-                                .set(Workflow::getCanPublish, true));
-                    }
-                } else {
-                    if (workflowMapper != null) {
-                        workflowMapper.update(Wrappers.lambdaUpdate(Workflow.class)
-                                .eq(Workflow::getFlowId, flowId)
-                                .set(Workflow::getCanPublish, false));
-                    }
-                }
-            }
+            // Only a successful run of the draft (no version) makes the workflow publishable
+            canPublish = chatResponse.getCode() == 0 && StringUtils.isBlank(version);
+            flushCanPublish();
         } else {
             // Check if this is the last frame
             if (chatResponse.getWorkflowStep() != null
@@ -162,10 +159,29 @@ public class WorkflowSseEventSourceListener extends EventSourceListener {
 
     @Override
     public void onClosed(@NotNull EventSource eventSource) {
-        log.info("WorkflowSseEventSourceListener[{}] onClosed", sseId);
+        log.info("WorkflowSseEventSourceListener[{}] onClosed, frames = {}", sseId, frameCount);
+        flushCanPublish();
         SseEmitterUtil.close(sseId);
     }
 
+    /**
+     * Persist the in-memory can-publish state if it differs from what was last written, so a run
+     * issues one UPDATE per state transition instead of one per frame.
+     */
+    private void flushCanPublish() {
+        if (canPublish == null || canPublish.equals(persistedCanPublish) || workflowMapper == null) {
+            return;
+        }
+        try {
+            workflowMapper.update(Wrappers.lambdaUpdate(Workflow.class)
+                    .eq(Workflow::getFlowId, flowId)
+                    .set(Workflow::getCanPublish, canPublish));
+            persistedCanPublish = canPublish;
+        } catch (Exception e) {
+            log.error("WorkflowSseEventSourceListener[{}] failed to update canPublish = {}, flowId = {}", sseId, canPublish, flowId, e);
+        }
+    }
+
     private void sendMessage(ChatResponse chatResponse) {
         chatResponse.setExecutedTime(NumberUtil.div(System.currentTimeMillis() - sessionStartTime, 1000));
         switch (outputType) {
@@ -237,6 +253,13 @@ public class WorkflowSseEventSourceListener extends EventSourceListener {
     public void onFailure(@NotNull EventSource eventSource,
             @Nullable Throwable t,
             @Nullable Response response) {
+        // Failure caused by a stop request cancelling the event source, end the stream normally
+        if (SseEmitterUtil.isStreamStopped(sseId)) {
+            log.info("WorkflowSseEventSourceListener[{}] cancelled by stop signal, frames = {}", sseId, frameCount);
+            flushCanPublish();
+            SseEmitterUtil.close(sseId);
+            return;
+        }
         String errorMsg;
         if (t instanceof SocketTimeoutException) {
             errorMsg = "Request timeout, please try again later";
@@ -250,6 +273,7 @@ public class WorkflowSseEventSourceListener extends EventSourceListener {
             log.error("WorkflowSseEventSourceListener[{}] onFailure, response = {}, error = <null Throwable>", sseId, response);
         }
 
+        flushCanPublish();
         ChatResponse errorResponse = new ChatResponse(errorMsg);
         SseEmitterUtil.sendAndCompleteWithError(sseId, errorResponse);
     }
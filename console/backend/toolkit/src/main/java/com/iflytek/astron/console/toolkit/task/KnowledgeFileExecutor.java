@@ -0,0 +1,358 @@
+package com.iflytek.astron.console.toolkit.task;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Application-wide engine for knowledge file slicing and embedding.
+ * <p>
+ * Tasks are queued per tenant (space, or user outside spaces) and {@code knowledge.file-task.parallelism}
+ * workers take them round-robin across tenants, so a large batch of one tenant cannot hold back the
+ * files of another, and the number of files processed at once no longer grows with batch size or
+ * concurrent requests. Tasks that have not started can be cancelled by file ID; the abort callback
+ * of a task runs when it is cancelled or fails, so the caller can record the outcome in the file
+ * status. When a {@link MeterRegistry} is present queue depth, active tasks, queue wait and run time
+ * are recorded under {@code knowledge.file.task}.
+ */
+@Slf4j
+@Component
+public class KnowledgeFileExecutor {
+
+    public static final String SLICE = "slice";
+    public static final String EMBEDDING = "embedding";
+
+    private static final String METRIC_PREFIX = "knowledge.file.task";
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${knowledge.file-task.parallelism:8}")
+    private int parallelism = 8;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    /** Queued jobs per tenant, guarded by {@link #lock} */
+    private final Map<String, Deque<Job<?>>> queues = new HashMap<>();
+    /** Tenants with queued jobs in serving order, guarded by {@link #lock} */
+    private final Deque<String> tenants = new ArrayDeque<>();
+    /** Jobs that are scheduled or queued but not started, guarded by {@link #lock} */
+    private final Map<Long, Set<Job<?>>> pendingByFile = new HashMap<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("knowledge-file-", 0).factory());
+
+    private final ExecutorService subtasks = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ScheduledExecutorService delayer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "knowledge-file-delayer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean stopped;
+
+    @PostConstruct
+    public void init() {
+        int size = Math.max(1, parallelism);
+        for (int i = 0; i < size; i++) {
+            workers.execute(this::work);
+        }
+        if (meterRegistry != null) {
+            Gauge.builder(METRIC_PREFIX + ".queued", queued, AtomicInteger::get)
+                    .description("Knowledge file tasks waiting for a worker")
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".active", active, AtomicInteger::get)
+                    .description("Knowledge file tasks currently running")
+                    .register(meterRegistry);
+        }
+        log.info("[knowledge-file] executor started, parallelism={}", size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        List<Job<?>> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            pendingByFile.values().forEach(dropped::addAll);
+            pendingByFile.clear();
+            queues.clear();
+            tenants.clear();
+            queued.set(0);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dropped.forEach(job -> job.cancel(false));
+        delayer.shutdownNow();
+        workers.shutdownNow();
+        subtasks.shutdownNow();
+        if (!dropped.isEmpty()) {
+            log.warn("[knowledge-file] executor stopped, {} pending tasks dropped", dropped.size());
+        }
+    }
+
+    /**
+     * Queue a file task
+     *
+     * @param type Task type ({@link #SLICE}, {@link #EMBEDDING}), tags the metrics
+     * @param tenant Tenant key, tasks of different tenants are served in turn
+     * @param fileId File the task works on, used for cancellation
+     * @param task Task body
+     * @param onAbort Called with the reason when the task is cancelled or fails, may be null
+     * @return Future of the task result
+     */
+    public <T> Future<T> submit(String type, String tenant, Long fileId, Callable<T> task, Consumer<String> onAbort) {
+        return schedule(type, tenant, fileId, task, onAbort, 0);
+    }
+
+    /**
+     * Queue a file task after a delay, e.g. to check again on a file that is still being parsed
+     *
+     * @param delayMs Delay before the task joins its tenant queue, in milliseconds
+     * @see #submit(String, String, Long, Callable, Consumer)
+     */
+    public <T> Future<T> schedule(String type, String tenant, Long fileId, Callable<T> task, Consumer<String> onAbort, long delayMs) {
+        Job<T> job = new Job<>(type, tenant, fileId, measured(type, task), onAbort);
+        if (stopped) {
+            job.cancel(false);
+            return job;
+        }
+        lock.lock();
+        try {
+            pendingByFile.computeIfAbsent(fileId, k -> new HashSet<>()).add(job);
+        } finally {
+            lock.unlock();
+        }
+        if (delayMs <= 0) {
+            enqueue(job);
+        } else {
+            try {
+                delayer.schedule(() -> enqueue(job), delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                cancel(job.fileId);
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Cancel the tasks of a file that have not started yet, running tasks are left to finish
+     *
+     * @param fileId File ID
+     * @return Number of cancelled tasks
+     */
+    public int cancel(Long fileId) {
+        Set<Job<?>> jobs;
+        lock.lock();
+        try {
+            jobs = pendingByFile.remove(fileId);
+            if (jobs == null) {
+                return 0;
+            }
+            for (Job<?> job : jobs) {
+                Deque<Job<?>> queue = queues.get(job.tenant);
+                if (queue != null && queue.remove(job)) {
+                    queued.decrementAndGet();
+                    if (queue.isEmpty()) {
+                        queues.remove(job.tenant);
+                        tenants.remove(job.tenant);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        jobs.forEach(job -> job.cancel(false));
+        log.info("[knowledge-file] cancelled {} pending tasks of file {}", jobs.size(), fileId);
+        return jobs.size();
+    }
+
+    /**
+     * Run sub-steps of a running file task (e.g. pushing chunk batches) with at most
+     * {@code maxConcurrency} of them at once. They run beside the workers, so a task that waits for its
+     * sub-steps does not take worker slots from queued files.
+     *
+     * @param tasks Sub-steps
+     * @param maxConcurrency Sub-steps running at once
+     * @return Futures in the order of {@code tasks}
+     */
+    public <T> List<Future<T>> fork(List<Callable<T>> tasks, int maxConcurrency) {
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(subtasks.submit(() -> {
+                permits.acquire();
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Tasks waiting for a worker
+     */
+    public int queuedCount() {
+        return queued.get();
+    }
+
+    private void enqueue(Job<?> job) {
+        lock.lock();
+        try {
+            Set<Job<?>> pending = pendingByFile.get(job.fileId);
+            if (stopped || pending == null || !pending.contains(job)) {
+                // Cancelled while delayed
+                return;
+            }
+            job.queuedAt = System.nanoTime();
+            Deque<Job<?>> queue = queues.get(job.tenant);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(job.tenant, queue);
+                tenants.addLast(job.tenant);
+            }
+            queue.addLast(job);
+            queued.incrementAndGet();
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Job<?> take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (tenants.isEmpty()) {
+                if (stopped) {
+                    return null;
+                }
+                available.await();
+            }
+            String tenant = tenants.pollFirst();
+            Deque<Job<?>> queue = queues.get(tenant);
+            Job<?> job = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(tenant);
+            } else {
+                tenants.addLast(tenant);
+            }
+            queued.decrementAndGet();
+            Set<Job<?>> pending = pendingByFile.get(job.fileId);
+            if (pending != null) {
+                pending.remove(job);
+                if (pending.isEmpty()) {
+                    pendingByFile.remove(job.fileId);
+                }
+            }
+            return job;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (!stopped) {
+            Job<?> job;
+            try {
+                job = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (job == null) {
+                return;
+            }
+            record("queue.wait", job.type, System.nanoTime() - job.queuedAt);
+            job.run();
+        }
+    }
+
+    /**
+     * Wrap a task body so that its run is counted and timed before the future completes
+     */
+    private <T> Callable<T> measured(String type, Callable<T> task) {
+        return () -> {
+            long startedAt = System.nanoTime();
+            active.incrementAndGet();
+            try {
+                return task.call();
+            } finally {
+                active.decrementAndGet();
+                record("run", type, System.nanoTime() - startedAt);
+            }
+        };
+    }
+
+    private void record(String name, String type, long nanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder(METRIC_PREFIX + "." + name)
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Job<T> extends FutureTask<T> {
+        private final String type;
+        private final String tenant;
+        private final Long fileId;
+        private final Consumer<String> onAbort;
+        private long queuedAt = System.nanoTime();
+
+        Job(String type, String tenant, Long fileId, Callable<T> task, Consumer<String> onAbort) {
+            super(task);
+            this.type = type;
+            this.tenant = tenant;
+            this.fileId = fileId;
+            this.onAbort = onAbort;
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            log.error("[knowledge-file] {} task failed, fileId={}", type, fileId, t);
+            abort("Knowledge file " + type + " failed:" + t.getMessage());
+            super.setException(t);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                abort("Knowledge file " + type + " cancelled");
+            }
+        }
+
+        private void abort(String reason) {
+            if (onAbort == null) {
+                return;
+            }
+            try {
+                onAbort.accept(reason);
+            } catch (Exception e) {
+                log.warn("[knowledge-file] abort callback failed, fileId={}: {}", fileId, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.iflytek.astron.console.toolkit.task.scheduler;
 
+import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.iflytek.astron.console.toolkit.entity.enumVo.ModelStatusEnum;
 import com.iflytek.astron.console.toolkit.entity.table.model.Model;
 import com.iflytek.astron.console.toolkit.service.model.ModelService;
+import com.iflytek.astron.console.toolkit.service.model.ModelStatusProber;
 import com.iflytek.astron.console.toolkit.util.RedisUtil;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +17,6 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ScheduledFuture;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -30,6 +31,8 @@ public class ModelStatusScheduler {
     @Resource
     private ModelService modelService;
     @Resource
+    private ModelStatusProber modelStatusProber;
+    @Resource
     private RedisUtil redisUtil;
 
     // Unified scheduling thread pool provided by "Plan B" AppSchedulingConfig
@@ -82,21 +85,14 @@ public class ModelStatusScheduler {
                     break;
                 }
 
-                Map<String, List<Model>> byUid = records.stream()
-                        .filter(m -> m.getUid() != null)
-                        .collect(Collectors.groupingBy(Model::getUid));
-
-                for (Map.Entry<String, List<Model>> e : byUid.entrySet()) {
-                    String uid = e.getKey();
-                    List<Model> list = e.getValue();
-                    try {
-                        int updated = modelService.flushStatusBatch(uid, list);
-                        totalUpdated += updated;
-                    } catch (Exception ex) {
-                        log.warn("[flushStatusCron] uid={} flush failed: {}", uid, ex.getMessage(), ex);
-                    }
-                    totalHandled += list.size();
+                // Probe the whole page in parallel, then write the changed statuses in one UPDATE
+                Map<Long, JSONObject> statuses = modelStatusProber.probe(records);
+                try {
+                    totalUpdated += modelService.applyDeployStatus(records, statuses);
+                } catch (Exception ex) {
+                    log.warn("[flushStatusCron] page={} write back failed: {}", pageNo, ex.getMessage(), ex);
                 }
+                totalHandled += records.size();
 
                 if (records.size() < pageSize) {
                     break;
@@ -3,7 +3,7 @@ package com.iflytek.astron.console.toolkit.tool;
 import com.iflytek.astron.console.commons.constant.ResponseEnum;
 import com.iflytek.astron.console.commons.exception.BusinessException;
 import com.iflytek.astron.console.toolkit.entity.table.ConfigInfo;
-import com.iflytek.astron.console.toolkit.mapper.ConfigInfoMapper;
+import com.iflytek.astron.console.toolkit.service.common.ConfigInfoRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -45,7 +45,7 @@ import java.util.regex.Pattern;
 @RequiredArgsConstructor
 public class UrlCheckTool {
 
-    private final ConfigInfoMapper configInfoMapper;
+    private final ConfigInfoRegistry configInfoRegistry;
 
     // ===== Configuration category constants =====
     private static final String IP_CATEGORY = "IP_BLACK_LIST";
@@ -416,7 +416,7 @@ public class UrlCheckTool {
      */
     private List<String> readCsvConfig(String category) {
         try {
-            List<ConfigInfo> items = configInfoMapper.getListByCategory(category);
+            List<ConfigInfo> items = configInfoRegistry.list(category);
             if (items == null || items.isEmpty())
                 return Collections.emptyList();
 
@@ -27,6 +27,7 @@ public class HeaderAuthHttpTool {
     /**
      * Executes an authenticated HTTP PUT request.
      *
+     * @param client the client of the upstream, usually {@code HttpClientRegistry#TOOL_HTTP}
      * @param url the target URL
      * @param apiKey the API key for authentication
      * @param apiSecret the API secret for signing
@@ -36,7 +37,7 @@ public class HeaderAuthHttpTool {
      * @throws NoSuchAlgorithmException if the signature algorithm is not available
      * @throws InvalidKeyException if the API secret is invalid
      */
-    public static String put(String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
+    public static String put(OkHttpClient client, String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
         AssembleParam param = new AssembleParam();
         param.setApiKey(apiKey);
         param.setApiSecret(apiSecret);
@@ -52,7 +53,6 @@ public class HeaderAuthHttpTool {
                 addHeader("Host", headMap.get("host"));
         build.addHeader("Authorization", headMap.get("authorization"));
         Request request = build.put(requestBody).build();
-        OkHttpClient client = new OkHttpClient.Builder().build();
         String res;
         try (Response resp = client.newCall(request).execute()) {
             res = JSON.parse(Objects.requireNonNull(resp.body()).bytes()).toString();
@@ -64,6 +64,7 @@ public class HeaderAuthHttpTool {
     /**
      * Executes an authenticated HTTP DELETE request.
      *
+     * @param client the client of the upstream, usually {@code HttpClientRegistry#TOOL_HTTP}
      * @param url the target URL
      * @param apiKey the API key for authentication
      * @param apiSecret the API secret for signing
@@ -73,7 +74,7 @@ public class HeaderAuthHttpTool {
      * @throws NoSuchAlgorithmException if the signature algorithm is not available
      * @throws InvalidKeyException if the API secret is invalid
      */
-    public static String delete(String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
+    public static String delete(OkHttpClient client, String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
         AssembleParam param = new AssembleParam();
         param.setApiKey(apiKey);
         param.setApiSecret(apiSecret);
@@ -89,7 +90,6 @@ public class HeaderAuthHttpTool {
                 addHeader("Host", headMap.get("host"));
         build.addHeader("Authorization", headMap.get("authorization"));
         Request request = build.delete(requestBody).build();
-        OkHttpClient client = new OkHttpClient.Builder().build();
         String res;
         try (Response resp = client.newCall(request).execute()) {
             res = JSON.parse(Objects.requireNonNull(resp.body()).bytes()).toString();
@@ -101,6 +101,7 @@ public class HeaderAuthHttpTool {
     /**
      * Executes an authenticated HTTP GET request.
      *
+     * @param client the client of the upstream, usually {@code HttpClientRegistry#TOOL_HTTP}
      * @param url the target URL
      * @param apiKey the API key for authentication
      * @param apiSecret the API secret for signing
@@ -109,7 +110,7 @@ public class HeaderAuthHttpTool {
      * @throws InvalidKeyException if the API secret is invalid
      * @throws IOException if the HTTP request fails
      */
-    public static String get(String url, String apiKey, String apiSecret) throws NoSuchAlgorithmException, InvalidKeyException, IOException {
+    public static String get(OkHttpClient client, String url, String apiKey, String apiSecret) throws NoSuchAlgorithmException, InvalidKeyException, IOException {
         AssembleParam param = new AssembleParam();
         param.setApiKey(apiKey);
         param.setApiSecret(apiSecret);
@@ -122,7 +123,6 @@ public class HeaderAuthHttpTool {
                 addHeader("Host", headMap.get("host"));
         build.addHeader("Authorization", headMap.get("authorization"));
         Request request = build.get().build();
-        OkHttpClient client = new OkHttpClient.Builder().build();
         String res;
         try (Response resp = client.newCall(request).execute()) {
             log.info("HeaderAuthHttpTool get resp = {}", resp);
@@ -136,6 +136,7 @@ public class HeaderAuthHttpTool {
     /**
      * Executes an authenticated HTTP POST request.
      *
+     * @param client the client of the upstream, usually {@code HttpClientRegistry#TOOL_HTTP}
      * @param url the target URL
      * @param apiKey the API key for authentication
      * @param apiSecret the API secret for signing
@@ -145,7 +146,7 @@ public class HeaderAuthHttpTool {
      * @throws NoSuchAlgorithmException if the signature algorithm is not available
      * @throws InvalidKeyException if the API secret is invalid
      */
-    public static String post(String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
+    public static String post(OkHttpClient client, String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
         System.out.println(body);
         AssembleParam param = new AssembleParam();
         param.setApiKey(apiKey);
@@ -162,7 +163,6 @@ public class HeaderAuthHttpTool {
                 addHeader("Host", headMap.get("host"));
         build.addHeader("Authorization", headMap.get("authorization"));
         Request request = build.post(requestBody).build();
-        OkHttpClient client = new OkHttpClient.Builder().build();
         String res;
         try (Response resp = client.newCall(request).execute()) {
             res = JSON.parse(Objects.requireNonNull(resp.body()).bytes()).toString();
@@ -174,6 +174,7 @@ public class HeaderAuthHttpTool {
     /**
      * Executes an authenticated HTTP PATCH request.
      *
+     * @param client the client of the upstream, usually {@code HttpClientRegistry#TOOL_HTTP}
      * @param url the target URL
      * @param apiKey the API key for authentication
      * @param apiSecret the API secret for signing
@@ -183,7 +184,7 @@ public class HeaderAuthHttpTool {
      * @throws NoSuchAlgorithmException if the signature algorithm is not available
      * @throws InvalidKeyException if the API secret is invalid
      */
-    public static String patch(String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
+    public static String patch(OkHttpClient client, String url, String apiKey, String apiSecret, String body) throws IOException, NoSuchAlgorithmException, InvalidKeyException {
         System.out.println(body);
         AssembleParam param = new AssembleParam();
         param.setApiKey(apiKey);
@@ -200,7 +201,6 @@ public class HeaderAuthHttpTool {
                 addHeader("Host", headMap.get("host"));
         build.addHeader("Authorization", headMap.get("authorization"));
         Request request = build.patch(requestBody).build();
-        OkHttpClient client = new OkHttpClient.Builder().build();
         String res;
         try (Response resp = client.newCall(request).execute()) {
             res = JSON.parse(Objects.requireNonNull(resp.body()).bytes()).toString();
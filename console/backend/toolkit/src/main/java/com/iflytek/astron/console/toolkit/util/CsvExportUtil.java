@@ -2,6 +2,7 @@ package com.iflytek.astron.console.toolkit.util;
 
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
@@ -41,14 +42,7 @@ public class CsvExportUtil {
             List<String> headers,
             List<List<String>> dataRows) {
         try {
-            response.setContentType("text/csv; charset=UTF-8");
-            String encodedFileName = java.net.URLEncoder.encode(fileName, "UTF-8") + ".csv";
-            response.setHeader("Content-Disposition", "attachment; filename=" + encodedFileName);
-            // Write UTF-8 BOM to prevent Chinese garbled characters in Excel
-            response.getOutputStream().write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
-
-            PrintWriter writer = new PrintWriter(
-                    new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), true);
+            PrintWriter writer = openResponseWriter(response, fileName);
 
             // Write header row
             writeCsvRow(writer, headers);
@@ -64,6 +58,30 @@ public class CsvExportUtil {
         }
     }
 
+    /**
+     * Prepare {@link HttpServletResponse} for a CSV download and return a writer on its body.
+     *
+     * <p>
+     * Sets the CSV headers and writes the UTF-8 BOM. Rows are written with
+     * {@link #writeCsvRow(PrintWriter, List)}; the writer does not flush per row, so callers streaming
+     * large exports should {@link PrintWriter#flush()} after each batch of rows.
+     * </p>
+     *
+     * @param response HTTP response object
+     * @param fileName file name without ".csv" suffix
+     * @return writer on the response body
+     * @throws IOException if the response body cannot be opened
+     */
+    public static PrintWriter openResponseWriter(HttpServletResponse response, String fileName) throws IOException {
+        response.setContentType("text/csv; charset=UTF-8");
+        String encodedFileName = java.net.URLEncoder.encode(fileName, "UTF-8") + ".csv";
+        response.setHeader("Content-Disposition", "attachment; filename=" + encodedFileName);
+        // Write UTF-8 BOM to prevent Chinese garbled characters in Excel
+        response.getOutputStream().write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+
+        return new PrintWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), false);
+    }
+
     /**
      * Write one CSV row with proper escaping.
      *
@@ -1,6 +1,7 @@
 package com.iflytek.astron.console.toolkit.util;
 
 import cn.hutool.core.util.ArrayUtil;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.Cookie;
 import okhttp3.*;
@@ -15,7 +16,6 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP utility based on OkHttp.
@@ -27,12 +27,10 @@ import java.util.concurrent.TimeUnit;
  * </p>
  *
  * <p>
- * <b>Thread-safety:</b> The underlying {@link OkHttpClient} is a singleton configured with a shared
- * {@link ConnectionPool} and {@link Dispatcher}.
- * </p>
- *
- * <p>
- * <b>Timeout unit:</b> All timeout constants below are in <em>seconds</em>.
+ * <b>Thread-safety:</b> Requests run on the shared {@link HttpClientRegistry#DEFAULT} upstream
+ * client, whose {@link Dispatcher}, {@link ConnectionPool} and timeouts are configured under
+ * {@code http-client.upstreams.default}. Overloads taking an {@link OkHttpClient} let callers route a
+ * request to another registry upstream.
  * </p>
  *
  * <author>tctan</author>
@@ -40,61 +38,22 @@ import java.util.concurrent.TimeUnit;
 public class OkHttpUtil {
     private static final Logger logger = LoggerFactory.getLogger(OkHttpUtil.class);
 
-    /** HTTP connect timeout (seconds). */
-    private static final int CONNECT_TIMEOUT = 600;
-    /** HTTP write timeout (seconds). */
-    private static final int WRITE_TIMEOUT = 600;
-    /** HTTP read timeout (seconds). */
-    private static final int READ_TIMEOUT = 600;
-    /** HTTP async call timeout (seconds). */
-    private static final int CALL_TIMEOUT = 600;
-    /** HTTP connection pool max idle connections. */
-    private static final int CONNECTION_POOL_SIZE = 256;
-
-    /** Static shared connection pool. */
-    private static final ConnectionPool CONNECTION_POOL = new ConnectionPool(CONNECTION_POOL_SIZE, 10, TimeUnit.MINUTES);
-
-    private static final OkHttpClient HTTP_CLIENT;
-
-    static {
-        HTTP_CLIENT = initHttpClient();
-    }
-
     /**
-     * Initialize the shared {@link OkHttpClient}.
+     * Shared client of the default upstream. This class is static, so the registry bean is looked up
+     * through {@link SpringUtils} like other static tooling.
      *
-     * <p>
-     * Dispatcher limits:
-     * </p>
-     * <ul>
-     * <li>Global concurrency cap: 100</li>
-     * <li>Per-host concurrency cap: 50</li>
-     * </ul>
-     *
-     * @return configured {@link OkHttpClient} instance
+     * @return registry managed {@link OkHttpClient}
      */
-    private static OkHttpClient initHttpClient() {
-        Dispatcher dispatcher = new Dispatcher();
-        dispatcher.setMaxRequests(100); // Global concurrency cap
-        dispatcher.setMaxRequestsPerHost(50); // Per-host concurrency cap
-
-        return new OkHttpClient.Builder()
-                .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
-                .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
-                .writeTimeout(WRITE_TIMEOUT, TimeUnit.SECONDS)
-                .callTimeout(CALL_TIMEOUT, TimeUnit.SECONDS)
-                .dispatcher(dispatcher)
-                .connectionPool(CONNECTION_POOL)
-                .build();
+    private static OkHttpClient httpClient() {
+        return SpringUtils.getBean(HttpClientRegistry.class).get(HttpClientRegistry.DEFAULT);
     }
 
-
     /**
      * Returns a facade client cloned from the shared singleton. It shares Dispatcher and ConnectionPool
      * but is a distinct instance to avoid exposing the internal reference.
      */
     public static OkHttpClient getHttpClient() {
-        return HTTP_CLIENT.newBuilder().build();
+        return httpClient().newBuilder().build();
     }
 
     // ============================== HEAD ==============================
@@ -112,7 +71,7 @@ public class OkHttpUtil {
                 .head()
                 .build();
         try {
-            try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+            try (Response response = httpClient().newCall(request).execute()) {
                 return Objects.requireNonNull(response.body()).bytes();
             }
         } catch (IOException e) {
@@ -142,11 +101,23 @@ public class OkHttpUtil {
      * @throws RuntimeException if the request fails or I/O error occurs
      */
     public static byte[] getForBytes(String url) {
+        return getForBytes(httpClient(), url);
+    }
+
+    /**
+     * Send an HTTP GET request on the given client and return response body as bytes.
+     *
+     * @param client registry upstream client
+     * @param url target URL
+     * @return response body bytes
+     * @throws RuntimeException if the request fails or I/O error occurs
+     */
+    public static byte[] getForBytes(OkHttpClient client, String url) {
         Request request = new Request.Builder()
                 .url(url)
                 .get()
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = client.newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -171,7 +142,7 @@ public class OkHttpUtil {
                 .get()
                 .build();
         try {
-            try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+            try (Response response = httpClient().newCall(request).execute()) {
                 return Objects.requireNonNull(response.body()).byteStream();
             }
         } catch (IOException e) {
@@ -195,7 +166,7 @@ public class OkHttpUtil {
                 .url(url)
                 .get()
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -220,7 +191,7 @@ public class OkHttpUtil {
                 .url(url)
                 .get()
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -239,6 +210,18 @@ public class OkHttpUtil {
         return new String(getForBytes(url), StandardCharsets.UTF_8);
     }
 
+    /**
+     * Send an HTTP GET on the given client and return response body as string.
+     *
+     * @param client registry upstream client
+     * @param url target URL
+     * @return response body string
+     * @throws RuntimeException if the request fails or I/O error occurs
+     */
+    public static String get(OkHttpClient client, String url) {
+        return new String(getForBytes(client, url), StandardCharsets.UTF_8);
+    }
+
     /**
      * Send an HTTP GET with headers and return response body as string.
      *
@@ -276,6 +259,20 @@ public class OkHttpUtil {
      * @throws RuntimeException if the request fails or I/O error occurs
      */
     public static byte[] postForBytes(String url, Map<String, String> urlParams, String body) {
+        return postForBytes(httpClient(), url, urlParams, body);
+    }
+
+    /**
+     * Send an HTTP POST on the given client with optional JSON body and query parameters.
+     *
+     * @param client registry upstream client
+     * @param url base URL
+     * @param urlParams query parameters
+     * @param body JSON string body (nullable)
+     * @return response body bytes
+     * @throws RuntimeException if the request fails or I/O error occurs
+     */
+    public static byte[] postForBytes(OkHttpClient client, String url, Map<String, String> urlParams, String body) {
         url = buildUrlParameter(url, urlParams);
         RequestBody requestBody = okhttp3.internal.Util.EMPTY_REQUEST;
         if (body != null) {
@@ -285,7 +282,7 @@ public class OkHttpUtil {
                 .post(requestBody)
                 .url(url)
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = client.newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -315,7 +312,7 @@ public class OkHttpUtil {
                 .post(requestBody)
                 .url(url)
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -336,6 +333,22 @@ public class OkHttpUtil {
      * @throws IOException if the request fails or any I/O error occurs
      */
     public static byte[] postMultipartForBytes(String url, Map<String, String> headerMap, Map<String, String> urlParams, Map<String, Object> bodyParams, byte[] fileBytes) throws IOException {
+        return postMultipartForBytes(httpClient(), url, headerMap, urlParams, bodyParams, fileBytes);
+    }
+
+    /**
+     * Send a multipart/form-data POST on the given client.
+     *
+     * @param client registry upstream client
+     * @param url target URL
+     * @param headerMap headers to add (nullable)
+     * @param urlParams query parameters (nullable)
+     * @param bodyParams form fields (nullable)
+     * @param fileBytes raw file bytes to add as an unnamed part (nullable)
+     * @return response body bytes
+     * @throws IOException if the request fails or any I/O error occurs
+     */
+    public static byte[] postMultipartForBytes(OkHttpClient client, String url, Map<String, String> headerMap, Map<String, String> urlParams, Map<String, Object> bodyParams, byte[] fileBytes) throws IOException {
         Headers headers = null;
         Request request;
         if (headerMap != null && !headerMap.isEmpty()) {
@@ -358,7 +371,7 @@ public class OkHttpUtil {
                     .build();
         }
 
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = client.newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -378,6 +391,19 @@ public class OkHttpUtil {
         return new String(postForBytes(url, null, body), StandardCharsets.UTF_8);
     }
 
+    /**
+     * Send an HTTP POST on the given client with optional JSON body and return response string.
+     *
+     * @param client registry upstream client
+     * @param url target URL
+     * @param body JSON body (nullable)
+     * @return response body string
+     * @throws RuntimeException if the request fails or I/O error occurs
+     */
+    public static String post(OkHttpClient client, String url, String body) {
+        return new String(postForBytes(client, url, null, body), StandardCharsets.UTF_8);
+    }
+
     /**
      * Send an HTTP POST with headers and optional JSON body; return response string.
      *
@@ -473,6 +499,22 @@ public class OkHttpUtil {
         return new String(postMultipartForBytes(url, headerMap, urlParams, bodyParams, fileBytes), StandardCharsets.UTF_8);
     }
 
+    /**
+     * Multipart POST on the given client returning response string.
+     *
+     * @param client registry upstream client
+     * @param url target URL
+     * @param headerMap headers to add (nullable)
+     * @param urlParams query parameters (nullable)
+     * @param bodyParams form fields map (nullable)
+     * @param fileBytes raw file bytes (nullable)
+     * @return response body string
+     * @throws IOException if the request fails or I/O error occurs
+     */
+    public static String postMultipart(OkHttpClient client, String url, Map<String, String> headerMap, Map<String, String> urlParams, Map<String, Object> bodyParams, byte[] fileBytes) throws IOException {
+        return new String(postMultipartForBytes(client, url, headerMap, urlParams, bodyParams, fileBytes), StandardCharsets.UTF_8);
+    }
+
     // ============================== PUT ==============================
 
     /**
@@ -492,7 +534,7 @@ public class OkHttpUtil {
                 .put(requestBody)
                 .url(url)
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -520,7 +562,7 @@ public class OkHttpUtil {
                 .put(requestBody)
                 .url(url)
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -572,7 +614,7 @@ public class OkHttpUtil {
                 .patch(requestBody)
                 .url(url)
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -600,7 +642,7 @@ public class OkHttpUtil {
                 .patch(requestBody)
                 .url(url)
                 .build();
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -658,7 +700,7 @@ public class OkHttpUtil {
                     .build();
         }
 
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -692,7 +734,7 @@ public class OkHttpUtil {
                     .url(url)
                     .build();
         }
-        try (Response response = HTTP_CLIENT.newCall(request).execute()) {
+        try (Response response = httpClient().newCall(request).execute()) {
             return Objects.requireNonNull(response.body()).bytes();
         } catch (IOException e) {
             logger.error(e.getMessage(), e);
@@ -875,7 +917,7 @@ public class OkHttpUtil {
 
         // Instantiate EventSource and register the listener
         RealEventSource realEventSource = new RealEventSource(request, listener);
-        realEventSource.connect(HTTP_CLIENT); // The actual start of the request
+        realEventSource.connect(httpClient()); // The actual start of the request
     }
 
     public static EventSource connectRealEventSourceReturn(
@@ -897,7 +939,7 @@ public class OkHttpUtil {
             });
 
         Request req = rb.post(body).build();
-        EventSource.Factory factory = EventSources.createFactory(HTTP_CLIENT);
+        EventSource.Factory factory = EventSources.createFactory(httpClient());
         return factory.newEventSource(req, listener);
     }
 
@@ -930,7 +972,7 @@ public class OkHttpUtil {
 
         // Instantiate EventSource and register the listener
         RealEventSource realEventSource = new RealEventSource(request, listener);
-        realEventSource.connect(HTTP_CLIENT); // The actual start of the request
+        realEventSource.connect(httpClient()); // The actual start of the request
     }
 
     // ============================== RequestBody helpers ==============================
@@ -66,6 +66,14 @@ public class RedisUtil {
                             "else return 0 end",
                     Long.class);
 
+    // Increment only when the counter exists, a missing counter stays missing until it is recomputed
+    private static final DefaultRedisScript<Long> LUA_INCR_IF_EXISTS =
+            new DefaultRedisScript<>(
+                    "if redis.call('exists', KEYS[1]) == 1 then " +
+                            "  return redis.call('incrby', KEYS[1], tonumber(ARGV[1])) " +
+                            "else return nil end",
+                    Long.class);
+
     /* ========================= Distributed Lock (with token) ========================= */
 
     /**
@@ -582,6 +590,34 @@ public class RedisUtil {
         redisTemplate.opsForHash().put(key, field, value);
     }
 
+    /**
+     * Put multiple hash fields in one call.
+     *
+     * @param key redis key (required)
+     * @param entries fields and values (no-op when {@code null} or empty)
+     * @throws IllegalArgumentException if {@code key} is null/empty
+     */
+    public void hmset(String key, Map<String, ?> entries) {
+        requireKey(key);
+        if (entries == null || entries.isEmpty())
+            return;
+        redisTemplate.opsForHash().putAll(key, entries);
+    }
+
+    /**
+     * Get a hash field.
+     *
+     * @param key redis key (required)
+     * @param field hash field (required)
+     * @return value, or {@code null} when absent
+     * @throws IllegalArgumentException if {@code key} is null/empty or {@code field} is null
+     */
+    public Object hget(String key, String field) {
+        requireKey(key);
+        Objects.requireNonNull(field, "field must not be null");
+        return redisTemplate.opsForHash().get(key, field);
+    }
+
     /**
      * Delete one or more hash fields.
      *
@@ -606,6 +642,69 @@ public class RedisUtil {
         return redisTemplate.opsForHash().entries(key);
     }
 
+    /* ========================= Counters (plain string values) ========================= */
+
+    /**
+     * Set a counter stored as a plain number, so that it can be incremented atomically.
+     *
+     * @param key redis key (required)
+     * @param value counter value
+     * @param seconds expiration in seconds
+     * @throws IllegalArgumentException if {@code key} is null/empty
+     */
+    public void setCounter(String key, long value, long seconds) {
+        requireKey(key);
+        stringRedisTemplate.opsForValue().set(key, String.valueOf(value), Math.max(1, seconds), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get a counter written by {@link #setCounter(String, long, long)}.
+     *
+     * @param key redis key (required)
+     * @return counter value or {@code null} if not found / not a number
+     * @throws IllegalArgumentException if {@code key} is null/empty
+     */
+    @Nullable
+    public Long getCounter(String key) {
+        requireKey(key);
+        String v = stringRedisTemplate.opsForValue().get(key);
+        if (v == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(v);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Increment a counter only if it exists (Lua script, atomic).
+     *
+     * @param key redis key (required)
+     * @param delta increment value (negative to decrement)
+     * @return new value, or {@code null} when the counter does not exist
+     * @throws IllegalArgumentException if {@code key} is null/empty
+     */
+    @Nullable
+    public Long incrByIfExists(String key, long delta) {
+        requireKey(key);
+        return stringRedisTemplate.execute(LUA_INCR_IF_EXISTS, Collections.singletonList(key), String.valueOf(delta));
+    }
+
+    /**
+     * Delete counters.
+     *
+     * @param keys collection of keys
+     * @return deleted count (0 when {@code keys} is null/empty)
+     */
+    public long removeCounters(Collection<String> keys) {
+        if (keys == null || keys.isEmpty())
+            return 0;
+        Long n = stringRedisTemplate.delete(keys);
+        return n == null ? 0 : n;
+    }
+
     /* ========================= Internal Validation / Small Helpers ========================= */
 
     /** Validate key: must be non-null and non-empty. */
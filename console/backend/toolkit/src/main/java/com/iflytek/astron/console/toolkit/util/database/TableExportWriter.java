@@ -0,0 +1,250 @@
+package com.iflytek.astron.console.toolkit.util.database;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.iflytek.astron.console.toolkit.util.CsvExportUtil;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental writer of a user table export to an HTTP response.
+ *
+ * <p>
+ * Rows are appended page by page with {@link #write(List)} and are handed to the response as they
+ * come, so the export does not have to be held in memory. Two formats are supported:
+ * </p>
+ * <ul>
+ * <li>xlsx: EasyExcel streaming workbook, a new sheet is started every {@link #MAX_SHEET_ROWS}
+ * rows</li>
+ * <li>csv: {@link CsvExportUtil} rows, flushed after every page</li>
+ * </ul>
+ * <p>
+ * The file is only completed by {@link #finish()}. A writer closed without it (the export failed)
+ * aborts: nothing more is written and, while the response is not committed yet, the response is
+ * reset so the error can be returned instead of a file. An xlsx workbook only reaches the response
+ * when it is finished, so a failed xlsx export always ends as an error. A csv export that already
+ * sent pages ends without its remaining rows.
+ * </p>
+ */
+public abstract class TableExportWriter implements AutoCloseable {
+
+    /** Data rows per sheet, below the xlsx limit of 1,048,576 rows including the header */
+    public static final int MAX_SHEET_ROWS = 1_000_000;
+
+    public static final String FORMAT_CSV = "csv";
+
+    protected final HttpServletResponse response;
+
+    private boolean finished;
+
+    protected TableExportWriter(HttpServletResponse response) {
+        this.response = response;
+    }
+
+    /**
+     * Open a writer on the response and send the download headers.
+     *
+     * @param response HTTP response object
+     * @param format {@code csv}, anything else exports xlsx
+     * @param fileName file name without suffix
+     * @param headers column names, in the order of the written rows
+     * @return the writer, to be closed to complete the file
+     * @throws IOException if the response body cannot be opened
+     */
+    public static TableExportWriter open(HttpServletResponse response, String format, String fileName, List<String> headers) throws IOException {
+        if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            return new Csv(response, fileName, headers);
+        }
+        return new Excel(response, fileName, headers);
+    }
+
+    /**
+     * Append a page of rows and push it to the client.
+     *
+     * @param rows rows, each with one value per header
+     * @throws IOException if the client connection is broken
+     */
+    public abstract void write(List<List<Object>> rows) throws IOException;
+
+    /**
+     * Complete the file after the last page.
+     *
+     * @throws IOException if the client connection is broken
+     */
+    public void finish() throws IOException {
+        complete();
+        finished = true;
+    }
+
+    /**
+     * Abort the export unless {@link #finish()} completed it.
+     */
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        discard();
+        if (!response.isCommitted()) {
+            response.reset();
+        }
+    }
+
+    protected abstract void complete() throws IOException;
+
+    /**
+     * Drop what has not been sent yet and release resources without completing the file
+     */
+    protected abstract void discard();
+
+    private static class Excel extends TableExportWriter {
+
+        private final AbortableOutputStream out;
+        private final ExcelWriter writer;
+        private WriteSheet sheet;
+        private int sheetNo = 0;
+        private int sheetRows = 0;
+
+        Excel(HttpServletResponse response, String fileName, List<String> headers) throws IOException {
+            super(response);
+            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            response.setCharacterEncoding("utf-8");
+            String encodedFileName = URLEncoder.encode(fileName, "UTF-8").replaceAll("\\+", "%20");
+            response.setHeader("Content-disposition", "attachment;filename=" + encodedFileName + ".xlsx");
+
+            List<List<String>> head = new ArrayList<>(headers.size());
+            headers.forEach(h -> head.add(List.of(h)));
+            this.out = new AbortableOutputStream(response.getOutputStream());
+            this.writer = EasyExcel.write(out).head(head).build();
+            nextSheet();
+        }
+
+        @Override
+        public void write(List<List<Object>> rows) {
+            int from = 0;
+            while (from < rows.size()) {
+                if (sheetRows >= MAX_SHEET_ROWS) {
+                    nextSheet();
+                }
+                int to = Math.min(rows.size(), from + MAX_SHEET_ROWS - sheetRows);
+                writer.write(rows.subList(from, to), sheet);
+                sheetRows += to - from;
+                from = to;
+            }
+        }
+
+        @Override
+        protected void complete() {
+            writer.finish();
+        }
+
+        @Override
+        protected void discard() {
+            // Finishing is the only way to release the temporary files of the workbook, the workbook it
+            // writes is dropped
+            out.abort();
+            try {
+                writer.finish();
+            } catch (Exception ignored) {
+                // Nothing is sent
+            }
+        }
+
+        private void nextSheet() {
+            sheet = EasyExcel.writerSheet(sheetNo, sheetNo == 0 ? "data" : "data" + (sheetNo + 1)).build();
+            sheetNo++;
+            sheetRows = 0;
+        }
+    }
+
+    private static class Csv extends TableExportWriter {
+
+        private final PrintWriter writer;
+
+        Csv(HttpServletResponse response, String fileName, List<String> headers) throws IOException {
+            super(response);
+            this.writer = CsvExportUtil.openResponseWriter(response, fileName);
+            CsvExportUtil.writeCsvRow(writer, headers);
+        }
+
+        @Override
+        public void write(List<List<Object>> rows) throws IOException {
+            for (List<Object> row : rows) {
+                List<String> line = new ArrayList<>(row.size());
+                row.forEach(v -> line.add(v == null ? "" : String.valueOf(v)));
+                CsvExportUtil.writeCsvRow(writer, line);
+            }
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("CSV export connection closed");
+            }
+        }
+
+        @Override
+        protected void complete() throws IOException {
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("CSV export connection closed");
+            }
+        }
+
+        @Override
+        protected void discard() {
+            // Rows still buffered in the writer are never flushed
+        }
+    }
+
+    /**
+     * Response stream that drops everything once aborted and then leaves the response open, so a
+     * failed export can still be answered with an error
+     */
+    private static class AbortableOutputStream extends FilterOutputStream {
+
+        private boolean aborted;
+
+        AbortableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!aborted) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!aborted) {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!aborted) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!aborted) {
+                out.close();
+            }
+        }
+    }
+}
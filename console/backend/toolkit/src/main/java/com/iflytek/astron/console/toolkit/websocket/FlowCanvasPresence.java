@@ -0,0 +1,213 @@
+package com.iflytek.astron.console.toolkit.websocket;
+
+import com.iflytek.astron.console.toolkit.util.RedisUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Presence of editors on workflow canvases, shared by all nodes through Redis.
+ * <p>
+ * Every flow has a sorted set of its sessions scored by their last heartbeat time, and a flow index
+ * sorted set lists the flows that have sessions. Heartbeats, leaves and expiry are Lua scripts that
+ * drop stale members server side with {@code ZREMRANGEBYSCORE} and return the alive count together
+ * with whether it changed, so a ping costs one round trip and no full read of the flow.
+ * </p>
+ * <p>
+ * Count changes are published on a topic; every node pushes the new count to its own sessions of that
+ * flow, so editors no longer have to ask for it. Expiry of silent sessions runs on one node at a time
+ * (elected with a short lock) and only visits the flows in the index.
+ * </p>
+ * <p>
+ * All keys share the {@code {canvas_presence}} hash tag so the scripts also run on Redis Cluster.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FlowCanvasPresence {
+
+    static final String KEY_PREFIX = "spark_bot:workflow:{canvas_presence}:flow:";
+
+    static final String FLOW_INDEX_KEY = "spark_bot:workflow:{canvas_presence}:flows";
+
+    static final String CHANGED_CHANNEL = "spark_bot:workflow:canvas_presence_changed";
+
+    static final String CLEANER_LOCK_KEY = "spark_bot:workflow:canvas_presence_cleaner";
+
+    /** Heartbeat expiration time in milliseconds. */
+    static final long HEARTBEAT_EXPIRE_MS = 30_000;
+
+    /** Interval of the expiry sweep in milliseconds. */
+    private static final long CLEAN_INTERVAL_MS = 10_000;
+
+    // KEYS: flow set, flow index; ARGV: session, now, expire ms, flowId
+    static final String TOUCH_SCRIPT =
+            "local removed = redis.call('zremrangebyscore', KEYS[1], '-inf', '(' .. (tonumber(ARGV[2]) - tonumber(ARGV[3]))) " +
+                    "local added = redis.call('zadd', KEYS[1], ARGV[2], ARGV[1]) " +
+                    "redis.call('pexpire', KEYS[1], tonumber(ARGV[3]) * 2) " +
+                    "redis.call('zadd', KEYS[2], ARGV[2], ARGV[4]) " +
+                    "return {redis.call('zcard', KEYS[1]), removed + added}";
+
+    // KEYS: flow set, flow index; ARGV: session ('' for none), now, expire ms, flowId
+    static final String EXPIRE_SCRIPT =
+            "local removed = redis.call('zremrangebyscore', KEYS[1], '-inf', '(' .. (tonumber(ARGV[2]) - tonumber(ARGV[3]))) " +
+                    "if ARGV[1] ~= '' then removed = removed + redis.call('zrem', KEYS[1], ARGV[1]) end " +
+                    "local count = redis.call('zcard', KEYS[1]) " +
+                    "if count == 0 then redis.call('zrem', KEYS[2], ARGV[4]) end " +
+                    "return {count, removed}";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    /** Sessions connected to this node, by flowId. */
+    private final Map<String, Set<WebSocketSession>> localSessions = new ConcurrentHashMap<>();
+
+    /** Last known alive count of the flows with local sessions. */
+    private final Map<String, Long> lastCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        RTopic topic = redissonClient.getTopic(CHANGED_CHANNEL, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, message) -> {
+            int index = message.lastIndexOf(':');
+            if (index > 0) {
+                push(message.substring(0, index), message.substring(index + 1));
+            }
+        });
+    }
+
+    /**
+     * Register a session of a flow and record its first heartbeat
+     *
+     * @param flowId Flow ID
+     * @param session Session, already safe for sends from several threads
+     * @return Alive session count of the flow
+     */
+    public long join(String flowId, WebSocketSession session) {
+        localSessions.computeIfAbsent(flowId, k -> ConcurrentHashMap.newKeySet()).add(session);
+        return heartbeat(flowId, session.getId());
+    }
+
+    /**
+     * Refresh the heartbeat of a session, other editors are notified when the count changed
+     *
+     * @return Alive session count of the flow
+     */
+    public long heartbeat(String flowId, String sessionId) {
+        long[] result = run(TOUCH_SCRIPT, flowId, sessionId);
+        lastCounts.put(flowId, result[0]);
+        if (result[1] > 0) {
+            publish(flowId, result[0]);
+        }
+        return result[0];
+    }
+
+    /**
+     * Alive session count of a flow as last seen by this node, without a Redis round trip
+     */
+    public long count(String flowId) {
+        return lastCounts.getOrDefault(flowId, 0L);
+    }
+
+    /**
+     * Remove a session of a flow
+     */
+    public void leave(String flowId, WebSocketSession session) {
+        localSessions.computeIfPresent(flowId, (k, sessions) -> {
+            sessions.remove(session);
+            if (sessions.isEmpty()) {
+                lastCounts.remove(flowId);
+                return null;
+            }
+            return sessions;
+        });
+        try {
+            long[] result = run(EXPIRE_SCRIPT, flowId, session.getId());
+            if (result[1] > 0) {
+                publish(flowId, result[0]);
+            }
+        } catch (Exception e) {
+            // The heartbeat expires on its own
+            log.warn("Failed to remove canvas session, flowId={}, sessionId={}", flowId, session.getId(), e);
+        }
+    }
+
+    /**
+     * Expire silent sessions of all flows, on one node of the cluster per interval
+     */
+    @Scheduled(fixedDelay = CLEAN_INTERVAL_MS)
+    public void clearExpiredHeartbeats() {
+        // The lock is left to expire, which keeps the other nodes out for the rest of the interval
+        if (!redisUtil.tryLock(CLEANER_LOCK_KEY, CLEAN_INTERVAL_MS / 1000 - 1, null)) {
+            return;
+        }
+        Collection<String> flowIds = redissonClient.<String>getScoredSortedSet(FLOW_INDEX_KEY, StringCodec.INSTANCE).readAll();
+        for (String flowId : flowIds) {
+            try {
+                long[] result = run(EXPIRE_SCRIPT, flowId, "");
+                if (result[1] > 0) {
+                    publish(flowId, result[0]);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to expire canvas heartbeats, flowId={}", flowId, e);
+            }
+        }
+    }
+
+    private long[] run(String script, String flowId, String sessionId) {
+        List<Object> keys = List.of(KEY_PREFIX + flowId, FLOW_INDEX_KEY);
+        List<Object> result = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                script,
+                RScript.ReturnType.MULTI,
+                keys,
+                sessionId,
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(HEARTBEAT_EXPIRE_MS),
+                flowId);
+        return new long[] {Long.parseLong(String.valueOf(result.get(0))), Long.parseLong(String.valueOf(result.get(1)))};
+    }
+
+    private void publish(String flowId, long count) {
+        try {
+            redissonClient.getTopic(CHANGED_CHANNEL, StringCodec.INSTANCE).publish(flowId + ":" + count);
+        } catch (Exception e) {
+            log.warn("Failed to publish canvas count, push locally only, flowId={}", flowId, e);
+            push(flowId, String.valueOf(count));
+        }
+    }
+
+    private void push(String flowId, String count) {
+        Set<WebSocketSession> sessions = localSessions.get(flowId);
+        if (sessions == null) {
+            return;
+        }
+        lastCounts.put(flowId, Long.parseLong(count));
+        TextMessage message = new TextMessage(count);
+        for (WebSocketSession session : sessions) {
+            if (!session.isOpen()) {
+                continue;
+            }
+            try {
+                session.sendMessage(message);
+            } catch (IOException e) {
+                log.warn("Failed to push canvas count, sessionId={}", session.getId(), e);
+            }
+        }
+    }
+}
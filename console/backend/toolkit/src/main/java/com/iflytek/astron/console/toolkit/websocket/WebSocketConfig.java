@@ -1,5 +1,6 @@
 package com.iflytek.astron.console.toolkit.websocket;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.WebSocketHandler;
@@ -46,6 +47,9 @@ public class WebSocketConfig implements WebSocketConfigurer {
     }
 
 
+    @Autowired
+    private FlowCanvasPresence flowCanvasPresence;
+
     /**
      * Creates and registers a WebSocket handler for the "/flow-canvas-hold" endpoint.
      *
@@ -55,6 +59,6 @@ public class WebSocketConfig implements WebSocketConfigurer {
      */
     @Bean
     public WebSocketHandler flowCanvasHoldWebSocketHandler() {
-        return new FlowCanvasHoldWebSocketHandler();
+        return new FlowCanvasHoldWebSocketHandler(flowCanvasPresence);
     }
 }
@@ -0,0 +1,133 @@
+package com.iflytek.astron.console.toolkit.config.jooq;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertValuesStepN;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for JooqBulkWriter.
+ */
+class JooqBulkWriterTest {
+
+    private final DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    /** Bind values of every statement sent, in order of arrival */
+    private final List<List<Object>> sent = new CopyOnWriteArrayList<>();
+
+    private final Function<List<Map<String, Object>>, Query> builder = chunk -> {
+        List<Field<Object>> fields = chunk.getFirst().keySet().stream().map(k -> DSL.field(DSL.name(k))).toList();
+        InsertValuesStepN<?> step = dsl.insertInto(DSL.table(DSL.name("t")), fields);
+        for (Map<String, Object> row : chunk) {
+            step = step.values(row.values());
+        }
+        return step;
+    };
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void finish_SendsOneMultiRowStatementPerChunk() {
+        JooqBulkWriter writer = new JooqBulkWriter(2, 2, 3, executor, builder,
+                (sql, params) -> sent.add(params), JooqRetry::isRetryable);
+
+        for (int i = 0; i < 5; i++) {
+            writer.accept(row(i));
+        }
+        JooqBatchExecutor.ResultSummary summary = writer.finish();
+
+        assertThat(summary.success).isEqualTo(5);
+        assertThat(summary.failed).isZero();
+        assertThat(writer.getReceived()).isEqualTo(5);
+        // Two columns per row: two full chunks and the remainder
+        assertThat(sent).extracting(List::size).containsExactlyInAnyOrder(4, 4, 2);
+    }
+
+    @Test
+    void finish_RetriesChunkOnRetryableError() {
+        AtomicInteger calls = new AtomicInteger();
+        JooqBulkWriter writer = new JooqBulkWriter(3, 1, 3, executor, builder, (sql, params) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new RuntimeException(new SQLException("could not serialize access", "40001"));
+            }
+            sent.add(params);
+        }, JooqRetry::isRetryable);
+
+        for (int i = 0; i < 3; i++) {
+            writer.accept(row(i));
+        }
+        JooqBatchExecutor.ResultSummary summary = writer.finish();
+
+        assertThat(summary.success).isEqualTo(3);
+        assertThat(calls.get()).isEqualTo(2);
+        // Still one statement for the chunk, not a row by row fallback
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void finish_IsolatesBadRowsOfAFailedChunk() {
+        AtomicInteger calls = new AtomicInteger();
+        JooqBulkWriter writer = new JooqBulkWriter(3, 2, 3, executor, builder, (sql, params) -> {
+            calls.incrementAndGet();
+            if (params.contains("name-4")) {
+                throw new SQLException("duplicate key", "23505");
+            }
+            sent.add(params);
+        }, JooqRetry::isRetryable);
+
+        for (int i = 0; i < 6; i++) {
+            writer.accept(row(i));
+        }
+        JooqBatchExecutor.ResultSummary summary = writer.finish();
+
+        assertThat(summary.success).isEqualTo(5);
+        assertThat(summary.failed).isEqualTo(1);
+        assertThat(summary.errors).singleElement().satisfies(error -> {
+            assertThat(error.index).isEqualTo(4);
+            assertThat(error.message).contains("duplicate key");
+        });
+        // First chunk once, second chunk once and then row by row; rejections are not retried
+        assertThat(calls.get()).isEqualTo(5);
+    }
+
+    @Test
+    void finish_ReportsRowsStillFailingAfterRetries() {
+        AtomicInteger calls = new AtomicInteger();
+        JooqBulkWriter writer = new JooqBulkWriter(1, 1, 2, executor, builder, (sql, params) -> {
+            calls.incrementAndGet();
+            throw new SQLException("deadlock detected", "40P01");
+        }, JooqRetry::isRetryable);
+
+        writer.accept(row(0));
+        JooqBatchExecutor.ResultSummary summary = writer.finish();
+
+        assertThat(summary.success).isZero();
+        assertThat(summary.failed).isEqualTo(1);
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    private static Map<String, Object> row(int i) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", i);
+        row.put("name", "name-" + i);
+        return row;
+    }
+}
@@ -0,0 +1,159 @@
+package com.iflytek.astron.console.toolkit.service.common;
+
+import com.iflytek.astron.console.toolkit.entity.table.ConfigInfo;
+import com.iflytek.astron.console.toolkit.handler.language.LanguageContext;
+import com.iflytek.astron.console.toolkit.mapper.ConfigInfoMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ConfigInfoRegistry.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConfigInfoRegistryTest {
+
+    @Mock
+    private ConfigInfoMapper configInfoMapper;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    @InjectMocks
+    private ConfigInfoRegistry registry;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(configInfoMapper.selectChecksum()).thenReturn("v1");
+        lenient().when(configInfoMapper.selectList(any())).thenReturn(List.of(
+                config(1L, "LLM_FILTER", "plan", null, "a", now.minusDays(1)),
+                config(2L, "LLM_FILTER", "plan", null, "b", now),
+                config(3L, "LLM_FILTER", "summary", null, "c", null),
+                config(4L, "LLM_WORKFLOW_FILTER", "xfyun", "agent", "d", now)));
+    }
+
+    @Test
+    void get_ReturnsLatestUpdatedAndLoadsOnce() {
+        assertThat(registry.get("LLM_FILTER", "plan").getValue()).isEqualTo("b");
+        assertThat(registry.get("LLM_FILTER", "summary").getValue()).isEqualTo("c");
+        assertThat(registry.get("LLM_FILTER", "missing")).isNull();
+        assertThat(registry.get("LLM_WORKFLOW_FILTER", "xfyun", "agent").getValue()).isEqualTo("d");
+        assertThat(registry.get("LLM_WORKFLOW_FILTER", "xfyun", "llm")).isNull();
+
+        verify(configInfoMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void list_OrdersByUpdateTimeDescWithNullsLast() {
+        assertThat(registry.list("LLM_FILTER")).extracting(ConfigInfo::getId).containsExactly(2L, 1L, 3L);
+        assertThat(registry.list("LLM_FILTER", "plan")).extracting(ConfigInfo::getId).containsExactly(2L, 1L);
+        assertThat(registry.list("UNKNOWN")).isEmpty();
+    }
+
+    @Test
+    void get_ReturnsCopies() {
+        registry.get("LLM_FILTER", "plan").setValue("changed");
+        registry.list("LLM_FILTER").forEach(c -> c.setId(0L));
+
+        assertThat(registry.get("LLM_FILTER", "plan").getValue()).isEqualTo("b");
+        assertThat(registry.getById(2L).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void poll_ReloadsOnlyWhenChecksumChanges() {
+        registry.get("LLM_FILTER", "plan");
+
+        registry.poll();
+        verify(configInfoMapper, times(1)).selectList(any());
+
+        when(configInfoMapper.selectChecksum()).thenReturn("v2");
+        when(configInfoMapper.selectList(any())).thenReturn(List.of(config(5L, "LLM_FILTER", "plan", null, "e", now)));
+        registry.poll();
+
+        assertThat(registry.get("LLM_FILTER", "plan").getValue()).isEqualTo("e");
+        assertThat(registry.list("LLM_WORKFLOW_FILTER")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changeMessage_ReloadsLoadedTables() {
+        when(redissonClient.getTopic(ConfigInfoRegistry.CHANGED_CHANNEL, StringCodec.INSTANCE)).thenReturn(topic);
+        registry.subscribe();
+        ArgumentCaptor<MessageListener<String>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listener.capture());
+
+        // Nothing loaded yet, nothing to reload
+        listener.getValue().onMessage(ConfigInfoRegistry.CHANGED_CHANNEL, "1");
+        verify(configInfoMapper, never()).selectList(any());
+
+        registry.get("LLM_FILTER", "plan");
+        when(configInfoMapper.selectList(any())).thenReturn(List.of(config(5L, "LLM_FILTER", "plan", null, "e", now)));
+        listener.getValue().onMessage(ConfigInfoRegistry.CHANGED_CHANNEL, "1");
+
+        verify(configInfoMapper, times(2)).selectList(any());
+        assertThat(registry.get("LLM_FILTER", "plan").getValue()).isEqualTo("e");
+    }
+
+    @Test
+    void get_KeepsOneSnapshotPerLanguageTable() {
+        AtomicReference<String> enChecksum = new AtomicReference<>("en-v1");
+        when(configInfoMapper.selectChecksum()).thenAnswer(inv -> LanguageContext.isEn() ? enChecksum.get() : "zh-v1");
+        when(configInfoMapper.selectList(any())).thenAnswer(inv -> List.of(
+                config(1L, "LLM_FILTER", "plan", null, LanguageContext.isEn() ? "en" : "zh", now)));
+
+        assertThat(inLocale(Locale.ENGLISH, () -> registry.get("LLM_FILTER", "plan").getValue())).isEqualTo("en");
+        assertThat(inLocale(Locale.SIMPLIFIED_CHINESE, () -> registry.get("LLM_FILTER", "plan").getValue())).isEqualTo("zh");
+        verify(configInfoMapper, times(2)).selectList(any());
+
+        // The poll has no request locale, unchanged tables must not reload whatever the default is
+        registry.poll();
+        verify(configInfoMapper, times(2)).selectList(any());
+
+        enChecksum.set("en-v2");
+        registry.poll();
+        verify(configInfoMapper, times(3)).selectList(any());
+        assertThat(inLocale(Locale.ENGLISH, () -> registry.get("LLM_FILTER", "plan").getValue())).isEqualTo("en");
+        assertThat(inLocale(Locale.SIMPLIFIED_CHINESE, () -> registry.get("LLM_FILTER", "plan").getValue())).isEqualTo("zh");
+    }
+
+    private static <T> T inLocale(Locale locale, Supplier<T> read) {
+        AtomicReference<T> result = new AtomicReference<>();
+        LanguageContext.runWithLocale(locale, () -> result.set(read.get()));
+        return result.get();
+    }
+
+    private static ConfigInfo config(Long id, String category, String code, String name, String value, LocalDateTime updateTime) {
+        ConfigInfo config = new ConfigInfo();
+        config.setId(id);
+        config.setCategory(category);
+        config.setCode(code);
+        config.setName(name);
+        config.setValue(value);
+        config.setIsValid(1);
+        config.setUpdateTime(updateTime);
+        return config;
+    }
+}
@@ -0,0 +1,319 @@
+package com.iflytek.astron.console.toolkit.service.database;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.fastjson2.JSONObject;
+import com.iflytek.astron.console.commons.exception.BusinessException;
+import com.iflytek.astron.console.commons.util.space.SpaceInfoUtil;
+import com.iflytek.astron.console.toolkit.entity.dto.database.DatabaseExportDto;
+import com.iflytek.astron.console.toolkit.entity.dto.database.DbTableSelectDataDto;
+import com.iflytek.astron.console.toolkit.entity.table.database.DbInfo;
+import com.iflytek.astron.console.toolkit.entity.table.database.DbTable;
+import com.iflytek.astron.console.toolkit.entity.table.database.DbTableField;
+import com.iflytek.astron.console.toolkit.entity.vo.database.DbTableDataPageVo;
+import com.iflytek.astron.console.toolkit.handler.UserInfoManagerHandler;
+import com.iflytek.astron.console.toolkit.mapper.database.DbInfoMapper;
+import com.iflytek.astron.console.toolkit.mapper.database.DbTableFieldMapper;
+import com.iflytek.astron.console.toolkit.mapper.database.DbTableMapper;
+import com.iflytek.astron.console.toolkit.service.extra.CoreSystemService;
+import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DatabaseService table paging, export and import.
+ */
+@ExtendWith(MockitoExtension.class)
+class DatabaseServiceTest {
+
+    @Mock
+    private DbInfoMapper dbInfoMapper;
+
+    @Mock
+    private DbTableMapper dbTableMapper;
+
+    @Mock
+    private DbTableFieldMapper dbTableFieldMapper;
+
+    @Mock
+    private DataPermissionCheckTool dataPermissionCheckTool;
+
+    @Mock
+    private CoreSystemService coreSystemService;
+
+    @Mock
+    private DbTableRowCountService dbTableRowCountService;
+
+    @InjectMocks
+    private DatabaseService databaseService;
+
+    private MockedStatic<UserInfoManagerHandler> userInfoManagerHandlerMock;
+    private MockedStatic<SpaceInfoUtil> spaceInfoUtilMock;
+
+    private final FakeTable table = new FakeTable();
+
+    @BeforeEach
+    void setUp() {
+        userInfoManagerHandlerMock = mockStatic(UserInfoManagerHandler.class);
+        userInfoManagerHandlerMock.when(UserInfoManagerHandler::getUserId).thenReturn("user-001");
+        spaceInfoUtilMock = mockStatic(SpaceInfoUtil.class);
+        spaceInfoUtilMock.when(SpaceInfoUtil::getSpaceId).thenReturn(null);
+
+        DbTable dbTable = new DbTable();
+        dbTable.setId(10L);
+        dbTable.setDbId(20L);
+        dbTable.setName("orders");
+        DbInfo dbInfo = new DbInfo();
+        dbInfo.setId(20L);
+        dbInfo.setDbId(30L);
+        when(dbTableMapper.selectById(10L)).thenReturn(dbTable);
+        when(dbInfoMapper.selectById(20L)).thenReturn(dbInfo);
+        lenient().when(coreSystemService.execDML(anyString(), any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> table.select(inv.getArgument(0)));
+
+        // Two rows inserted by one multi-row INSERT share the second, an older row follows
+        table.add(1L, "a", LocalDateTime.of(2025, 3, 1, 10, 0, 0, 100_000_000));
+        table.add(2L, "b", LocalDateTime.of(2025, 3, 1, 10, 0, 0, 500_000_000));
+        table.add(3L, "c", LocalDateTime.of(2025, 3, 1, 9, 0, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userInfoManagerHandlerMock.close();
+        spaceInfoUtilMock.close();
+    }
+
+    @Test
+    void exportTableData_KeepsRowsSharingTheSecondOfAPageBoundary() {
+        ReflectionTestUtils.setField(databaseService, "exportPageSize", 1);
+        when(dbTableFieldMapper.selectList(any())).thenReturn(List.of(field("id"), field("name")));
+        DatabaseExportDto dto = new DatabaseExportDto();
+        dto.setTbId(10L);
+        dto.setFormat("csv");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        databaseService.exportTableData(dto, response);
+
+        String csv = new String(response.getContentAsByteArray(), StandardCharsets.UTF_8);
+        assertThat(csv.lines().skip(1).toList()).containsExactly("2,b", "1,a", "3,c");
+    }
+
+    @Test
+    void exportTableData_Xlsx_FailureReturnsErrorInsteadOfPartialFile() {
+        ReflectionTestUtils.setField(databaseService, "exportPageSize", 1);
+        when(dbTableFieldMapper.selectList(any())).thenReturn(List.of(field("id"), field("name")));
+        table.failFromQuery(2);
+        DatabaseExportDto dto = new DatabaseExportDto();
+        dto.setTbId(10L);
+        dto.setFormat("xlsx");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> databaseService.exportTableData(dto, response)).isInstanceOf(BusinessException.class);
+
+        // The response is reset, so the error handler can answer instead of a truncated workbook
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader("Content-disposition")).isNull();
+    }
+
+    @Test
+    void exportTableData_Csv_FailureBeforeFirstPageReturnsError() {
+        when(dbTableFieldMapper.selectList(any())).thenReturn(List.of(field("id"), field("name")));
+        table.failFromQuery(1);
+        DatabaseExportDto dto = new DatabaseExportDto();
+        dto.setTbId(10L);
+        dto.setFormat("csv");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> databaseService.exportTableData(dto, response)).isInstanceOf(BusinessException.class);
+
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader("Content-Disposition")).isNull();
+    }
+
+    @Test
+    void exportTableData_Xlsx_WritesAllPages() {
+        ReflectionTestUtils.setField(databaseService, "exportPageSize", 1);
+        when(dbTableFieldMapper.selectList(any())).thenReturn(List.of(field("id"), field("name")));
+        DatabaseExportDto dto = new DatabaseExportDto();
+        dto.setTbId(10L);
+        dto.setFormat("xlsx");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        databaseService.exportTableData(dto, response);
+
+        List<String> names = new ArrayList<>();
+        EasyExcel.read(new ByteArrayInputStream(response.getContentAsByteArray()), new AnalysisEventListener<Map<Integer, String>>() {
+            @Override
+            public void invoke(Map<Integer, String> row, AnalysisContext context) {
+                names.add(row.get(1));
+            }
+
+            @Override
+            public void doAfterAllAnalysed(AnalysisContext context) {}
+        }).sheet().doRead();
+        assertThat(names).containsExactly("b", "a", "c");
+    }
+
+    @Test
+    void selectTableData_CursorKeepsRowsSharingTheSecondOfTheLastRow() {
+        when(dbTableRowCountService.getCount(eq(10L), any(), any())).thenReturn(3L);
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            DbTableSelectDataDto dto = new DbTableSelectDataDto();
+            dto.setTbId(10L);
+            dto.setPageNum(1L);
+            dto.setPageSize(1L);
+            dto.setCursor(cursor);
+            DbTableDataPageVo page = databaseService.selectTableData(dto);
+            page.getRecords().forEach(row -> {
+                assertThat(row).doesNotContainKey("__cursor_create_time");
+                names.add(row.getString("name"));
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null && names.size() < 10);
+
+        assertThat(names).containsExactly("b", "a", "c");
+    }
+
+    @Test
+    void importTableData_BadCellLateInFile_InsertsNothing() {
+        useImportWriter(1);
+        when(dbTableFieldMapper.selectList(any())).thenReturn(List.of(field("name", "string"), field("qty", "integer")));
+        MockMultipartFile file = workbook(List.of("name", "qty"),
+                List.of(List.of("a", "1"), List.of("b", "2"), List.of("c", "3"), List.of("d", "not a number")));
+
+        assertThatThrownBy(() -> databaseService.importTableData(10L, 1, file)).isInstanceOf(BusinessException.class);
+
+        verify(coreSystemService, never()).execDML(anyString(), any(), any(), any(), any(), any());
+        verify(dbTableRowCountService, never()).add(anyLong(), any(), anyLong());
+    }
+
+    @Test
+    void importTableData_ValidFile_InsertsEveryRow() {
+        useImportWriter(2);
+        when(dbTableFieldMapper.selectList(any())).thenReturn(List.of(field("name", "string"), field("qty", "integer")));
+        MockMultipartFile file = workbook(List.of("name", "qty"),
+                List.of(List.of("a", "1"), List.of("b", "2"), List.of("c", "3")));
+
+        databaseService.importTableData(10L, 1, file);
+
+        // Two chunks of at most two rows
+        verify(coreSystemService, times(2)).execDML(startsWith("insert into `orders`"), eq("user-001"), any(), eq(30L), any(), eq(1));
+        verify(dbTableRowCountService).add(10L, 1, 3);
+    }
+
+    private void useImportWriter(int chunkSize) {
+        ReflectionTestUtils.setField(databaseService, "dslCon", DSL.using(SQLDialect.MYSQL));
+        ReflectionTestUtils.setField(databaseService, "asyncExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(databaseService, "importChunkSize", chunkSize);
+    }
+
+    private static MockMultipartFile workbook(List<String> headers, List<List<String>> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EasyExcel.write(out)
+                .head(headers.stream().map(List::of).toList())
+                .sheet()
+                .doWrite(rows);
+        return new MockMultipartFile("file", "rows.xlsx", null, out.toByteArray());
+    }
+
+    private static DbTableField field(String name, String type) {
+        DbTableField field = field(name);
+        field.setType(type);
+        field.setIsRequired(false);
+        return field;
+    }
+
+    private static DbTableField field(String name) {
+        DbTableField field = new DbTableField();
+        field.setName(name);
+        field.setType("string");
+        return field;
+    }
+
+    /**
+     * Rows of a user table as the core service serves them: create_time cut to whole seconds, the
+     * full-precision text only where the query casts it.
+     */
+    private static final class FakeTable {
+
+        private static final DateTimeFormatter TEXT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+        private static final DateTimeFormatter SECONDS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        private static final Pattern AFTER = Pattern.compile("< \\(CAST\\('([^']+)' AS TIMESTAMP\\), (\\d+)\\)");
+        private static final Pattern LIMIT = Pattern.compile("LIMIT (\\d+)");
+
+        private final List<Object[]> rows = new ArrayList<>();
+        private int queries;
+        private int failFrom = Integer.MAX_VALUE;
+
+        void add(Long id, String name, LocalDateTime createTime) {
+            rows.add(new Object[] {id, name, createTime});
+        }
+
+        /** Queries from the given one on (1-based) fail like a broken connection to the core service */
+        void failFromQuery(int query) {
+            failFrom = query;
+        }
+
+        List<JSONObject> select(String dml) {
+            if (++queries >= failFrom) {
+                throw new IllegalStateException("core service unavailable");
+            }
+            Comparator<Object[]> order = Comparator.<Object[], LocalDateTime>comparing(r -> (LocalDateTime) r[2])
+                    .thenComparing(r -> (Long) r[0])
+                    .reversed();
+            Matcher after = AFTER.matcher(dml);
+            LocalDateTime afterTime = after.find() ? LocalDateTime.parse(after.group(1), TEXT) : null;
+            Long afterId = afterTime != null ? Long.valueOf(after.group(2)) : null;
+            Matcher limit = LIMIT.matcher(dml);
+            long max = limit.find() ? Long.parseLong(limit.group(1)) : Long.MAX_VALUE;
+            boolean withKey = dml.contains("AS TEXT)");
+
+            return rows.stream()
+                    .filter(r -> afterTime == null || order.compare(r, new Object[] {afterId, null, afterTime}) > 0)
+                    .sorted(order)
+                    .limit(max)
+                    .map(r -> {
+                        JSONObject row = new JSONObject()
+                                .fluentPut("id", r[0])
+                                .fluentPut("name", r[1])
+                                .fluentPut("create_time", ((LocalDateTime) r[2]).format(SECONDS));
+                        if (withKey) {
+                            row.put("__cursor_create_time", ((LocalDateTime) r[2]).format(TEXT));
+                        }
+                        return row;
+                    })
+                    .toList();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.iflytek.astron.console.toolkit.service.extra;
 
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import com.iflytek.astron.console.commons.exception.BusinessException;
+import com.iflytek.astron.console.commons.util.HttpClientRegistry;
 import com.iflytek.astron.console.toolkit.config.properties.ApiUrl;
 import com.iflytek.astron.console.toolkit.config.properties.CommonConfig;
 import com.iflytek.astron.console.toolkit.tool.CommonTool;
@@ -33,6 +34,8 @@ class AppServiceTest {
     // RedisTemplate not directly used, keep default Mock
     @Mock
     private CommonConfig commonConfig;
+    @Mock
+    private HttpClientRegistry httpClientRegistry;
     // Add this import at the top
 
     @Test
@@ -70,7 +73,7 @@ class AppServiceTest {
         try (MockedStatic<HeaderAuthHttpTool> http = mockStatic(HeaderAuthHttpTool.class);
                 MockedStatic<CommonTool> common = mockStatic(CommonTool.class)) {
 
-            http.when(() -> HeaderAuthHttpTool.get("http://api/key/" + appId, "ak", "sk"))
+            http.when(() -> HeaderAuthHttpTool.get(null, "http://api/key/" + appId, "ak", "sk"))
                     .thenReturn("resp");
             common.when(() -> CommonTool.checkSystemCallResponse("resp"))
                     .thenReturn("[]");
@@ -81,7 +84,7 @@ class AppServiceTest {
 
             // Interaction verification (improve PIT killing power)
             verify(redisUtil).get("app_detail_cache:" + appId);
-            http.verify(() -> HeaderAuthHttpTool.get("http://api/key/" + appId, "ak", "sk"));
+            http.verify(() -> HeaderAuthHttpTool.get(null, "http://api/key/" + appId, "ak", "sk"));
             common.verify(() -> CommonTool.checkSystemCallResponse("resp"));
         }
     }
@@ -99,7 +102,7 @@ class AppServiceTest {
         when(apiUrl.getApiSecret()).thenReturn("sk");
 
         try (MockedStatic<HeaderAuthHttpTool> http = mockStatic(HeaderAuthHttpTool.class)) {
-            http.when(() -> HeaderAuthHttpTool.get("http://api/key/" + appId, "ak", "sk"))
+            http.when(() -> HeaderAuthHttpTool.get(null, "http://api/key/" + appId, "ak", "sk"))
                     .thenThrow(new IOException("net down"));
 
             assertThatThrownBy(() -> appService.getAkSk(appId))
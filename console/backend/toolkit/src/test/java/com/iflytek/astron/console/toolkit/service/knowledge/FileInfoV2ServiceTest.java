@@ -36,6 +36,7 @@ import com.iflytek.astron.console.toolkit.mapper.repo.FileInfoV2Mapper;
 import com.iflytek.astron.console.toolkit.service.common.ConfigInfoService;
 import com.iflytek.astron.console.toolkit.service.repo.*;
 import com.iflytek.astron.console.toolkit.service.task.ExtractKnowledgeTaskService;
+import com.iflytek.astron.console.toolkit.task.KnowledgeFileExecutor;
 import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
 import com.iflytek.astron.console.toolkit.tool.FileUploadTool;
 import com.iflytek.astron.console.toolkit.util.S3Util;
@@ -63,6 +64,8 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -140,6 +143,9 @@ class FileInfoV2ServiceTest {
     @Mock
     private ApiUrl apiUrl;
 
+    @Spy
+    private KnowledgeFileExecutor knowledgeFileExecutor = new KnowledgeFileExecutor();
+
     @Spy
     @InjectMocks
     private FileInfoV2Service fileInfoV2Service;
@@ -174,6 +180,9 @@ class FileInfoV2ServiceTest {
         // Set baseMapper for ServiceImpl - CRITICAL for MyBatis-Plus ServiceImpl
         ReflectionTestUtils.setField(fileInfoV2Service, "baseMapper", fileInfoV2Mapper);
 
+        // Start the workers that run slice/embedding tasks
+        knowledgeFileExecutor.init();
+
         // Initialize mock HttpServletRequest
         mockRequest = new MockHttpServletRequest();
 
@@ -231,6 +240,7 @@ class FileInfoV2ServiceTest {
         if (springUtilsMock != null) {
             springUtilsMock.close();
         }
+        knowledgeFileExecutor.shutdown();
     }
 
     /**
@@ -2833,6 +2843,51 @@ class FileInfoV2ServiceTest {
             assertThat(result).isNotNull();
             verify(dataPermissionCheckTool, never()).checkFileBelong(any(FileInfoV2.class));
         }
+
+        /**
+         * Test sliceFiles - returns once the wait ends while slice tasks are still queued.
+         */
+        @Test
+        @DisplayName("Slice files - stops waiting for queued tasks")
+        void testSliceFiles_StopsWaitingForQueuedTasks() throws Exception {
+            // Given
+            DealFileVO dealFileVO = new DealFileVO();
+            dealFileVO.setFileIds(Arrays.asList("1"));
+            dealFileVO.setTag("AIUI-RAG2");
+
+            SliceConfig sliceConfig = new SliceConfig();
+            sliceConfig.setType(1);
+            sliceConfig.setLengthRange(Arrays.asList(100, 500));
+            dealFileVO.setSliceConfig(sliceConfig);
+
+            mockFileInfo.setStatus(ProjectContent.FILE_PARSE_SUCCESSED);
+
+            FileDirectoryTree tree = new FileDirectoryTree();
+            tree.setId(1L);
+
+            ReflectionTestUtils.setField(fileInfoV2Service, "sliceWaitTimeoutMs", 50L);
+            when(fileInfoV2Mapper.listByIds(anyList())).thenReturn(Arrays.asList(mockFileInfo));
+            when(fileDirectoryTreeService.getOnly(any(LambdaQueryWrapper.class))).thenReturn(tree);
+
+            DealFileResult successResult = new DealFileResult();
+            successResult.setParseSuccess(true);
+            CountDownLatch release = new CountDownLatch(1);
+            doAnswer(inv -> {
+                release.await(5, TimeUnit.SECONDS);
+                return successResult;
+            }).when(fileInfoV2Service).sliceFile(anyLong(), any(SliceConfig.class), anyInt());
+
+            // When
+            Result<Boolean> result;
+            try {
+                result = fileInfoV2Service.sliceFiles(dealFileVO);
+            } finally {
+                release.countDown();
+            }
+
+            // Then
+            assertThat(result.getData()).isTrue();
+        }
     }
 
     /**
@@ -2941,6 +2996,37 @@ class FileInfoV2ServiceTest {
             // Then
             verify(dataPermissionCheckTool, never()).checkFileBelong(any(FileInfoV2.class));
         }
+
+        /**
+         * Test embeddingFiles - a file still parsing when the wait ends is marked embedding failed.
+         */
+        @Test
+        @DisplayName("Embedding files - parse wait timeout marks the file failed")
+        void testEmbeddingFiles_ParseWaitTimeout_MarksFileFailed() {
+            // Given
+            DealFileVO dealFileVO = new DealFileVO();
+            dealFileVO.setFileIds(Arrays.asList("1"));
+            dealFileVO.setTag("AIUI-RAG2");
+            dealFileVO.setIsBackTask(1);
+
+            mockFileInfo.setStatus(ProjectContent.FILE_PARSE_DOING);
+
+            FileDirectoryTree tree = new FileDirectoryTree();
+            tree.setId(1L);
+
+            ReflectionTestUtils.setField(fileInfoV2Service, "parseWaitTimeoutMs", 0L);
+            when(fileInfoV2Mapper.selectById(1L)).thenReturn(mockFileInfo);
+            when(fileDirectoryTreeService.getOnly(any(LambdaQueryWrapper.class))).thenReturn(tree);
+
+            // When
+            fileInfoV2Service.embeddingFiles(dealFileVO, mockRequest);
+
+            // Then
+            verify(fileInfoV2Mapper, timeout(5000)).updateById(argThat((FileInfoV2 file) -> Long.valueOf(1L).equals(file.getId())
+                    && ProjectContent.FILE_EMBEDDING_FAILED.equals(file.getStatus())
+                    && file.getReason() != null));
+            verify(extractKnowledgeTaskService, never()).save(any());
+        }
     }
 
     /**
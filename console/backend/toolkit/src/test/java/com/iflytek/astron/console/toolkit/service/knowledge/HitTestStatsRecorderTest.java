@@ -0,0 +1,130 @@
+package com.iflytek.astron.console.toolkit.service.knowledge;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.iflytek.astron.console.toolkit.entity.table.repo.FileDirectoryTree;
+import com.iflytek.astron.console.toolkit.entity.table.repo.HitTestHistory;
+import com.iflytek.astron.console.toolkit.service.repo.FileDirectoryTreeService;
+import com.iflytek.astron.console.toolkit.service.repo.HitTestHistoryService;
+import com.iflytek.astron.console.toolkit.service.repo.HitTestStatsRecorder;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for HitTestStatsRecorder.
+ */
+@ExtendWith(MockitoExtension.class)
+class HitTestStatsRecorderTest {
+
+    // Capacity of the history buffer
+    private static final int MAX_PENDING_HISTORY = 10000;
+
+    @Mock
+    private FileDirectoryTreeService directoryTreeService;
+
+    @Mock
+    private HitTestHistoryService historyService;
+
+    @InjectMocks
+    private HitTestStatsRecorder recorder;
+
+    /** Rows passed to saveBatch by successful calls */
+    private final List<HitTestHistory> saved = new ArrayList<>();
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), FileDirectoryTree.class);
+    }
+
+    @Test
+    void flush_OneUpdatePerDistinctIncrement() {
+        recorder.recordHits(List.of(1L, 2L));
+        recorder.recordHits(List.of(1L, 3L));
+
+        recorder.flush();
+
+        // Node 1 is incremented by 2, nodes 2 and 3 by 1
+        verify(directoryTreeService, times(2)).update(any(LambdaUpdateWrapper.class));
+        recorder.flush();
+        verifyNoMoreInteractions(directoryTreeService);
+    }
+
+    @Test
+    void flush_KeepsHitsOfAFailedUpdate() {
+        when(directoryTreeService.update(any(LambdaUpdateWrapper.class)))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(true);
+        recorder.recordHits(List.of(1L));
+
+        recorder.flush();
+        recorder.flush();
+
+        verify(directoryTreeService, times(2)).update(any(LambdaUpdateWrapper.class));
+    }
+
+    @Test
+    void flush_RequeuesHistoryOfAFailedSave() {
+        HitTestHistory first = history(1L);
+        HitTestHistory second = history(2L);
+        when(historyService.saveBatch(anyCollection()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenAnswer(this::collect);
+        recorder.recordHistory(first);
+        recorder.recordHistory(second);
+
+        recorder.flush();
+        assertThat(saved).isEmpty();
+        recorder.flush();
+
+        assertThat(saved).containsExactly(first, second);
+    }
+
+    @Test
+    void flush_RequeuedHistoryIsCappedByTheBuffer() {
+        for (int i = 0; i < MAX_PENDING_HISTORY; i++) {
+            recorder.recordHistory(history((long) i));
+        }
+        // New rows fill the buffer while the first batch is failing, there is no room left for it
+        when(historyService.saveBatch(anyCollection()))
+                .thenAnswer(inv -> {
+                    Collection<HitTestHistory> batch = inv.getArgument(0);
+                    for (int i = 0; i < batch.size(); i++) {
+                        recorder.recordHistory(history(-1L));
+                    }
+                    throw new IllegalStateException("db down");
+                })
+                .thenAnswer(this::collect);
+
+        recorder.flush();
+        recorder.flush();
+
+        assertThat(saved).hasSize(MAX_PENDING_HISTORY);
+    }
+
+    private boolean collect(InvocationOnMock inv) {
+        Collection<HitTestHistory> batch = inv.getArgument(0);
+        // The recorder reuses its batch list
+        saved.addAll(batch);
+        return true;
+    }
+
+    private static HitTestHistory history(Long repoId) {
+        HitTestHistory history = new HitTestHistory();
+        history.setRepoId(repoId);
+        history.setQuery("query");
+        return history;
+    }
+}
@@ -25,12 +25,14 @@ import com.iflytek.astron.console.toolkit.service.repo.FileInfoV2Service;
 import com.iflytek.astron.console.toolkit.service.repo.KnowledgeService;
 import com.iflytek.astron.console.toolkit.service.repo.RepoService;
 import com.iflytek.astron.console.toolkit.service.task.ExtractKnowledgeTaskService;
+import com.iflytek.astron.console.toolkit.task.KnowledgeFileExecutor;
 import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
 import com.iflytek.astron.console.toolkit.util.S3Util;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.Timestamp;
@@ -94,6 +96,9 @@ class KnowledgeServiceTest {
     @Mock
     private PreviewKnowledgeMapper previewKnowledgeMapper;
 
+    @Spy
+    private KnowledgeFileExecutor knowledgeFileExecutor = new KnowledgeFileExecutor();
+
     @InjectMocks
     private KnowledgeService knowledgeService;
 
@@ -43,6 +43,7 @@ import com.iflytek.astron.console.toolkit.service.group.GroupVisibilityService;
 import com.iflytek.astron.console.toolkit.service.repo.FileDirectoryTreeService;
 import com.iflytek.astron.console.toolkit.service.repo.FileInfoV2Service;
 import com.iflytek.astron.console.toolkit.service.repo.HitTestHistoryService;
+import com.iflytek.astron.console.toolkit.service.repo.HitTestStatsRecorder;
 import com.iflytek.astron.console.toolkit.service.repo.RepoService;
 import com.iflytek.astron.console.toolkit.tool.DataPermissionCheckTool;
 import com.iflytek.astron.console.toolkit.util.S3Util;
@@ -129,6 +130,9 @@ class RepoServiceTest {
     @Mock
     private FileDirectoryTreeService directoryTreeService;
 
+    @Mock
+    private HitTestStatsRecorder hitTestStatsRecorder;
+
     @Mock
     private S3Util s3UtilClient;
 
@@ -1721,12 +1725,9 @@ class RepoServiceTest {
             when(repoMapper.selectById(1L)).thenReturn(mockRepo);
             doNothing().when(dataPermissionCheckTool).checkRepoBelong(any(Repo.class));
             when(directoryTreeService.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(tree1));
-            when(fileInfoV2Service.getById(1L)).thenReturn(file1);
+            when(fileInfoV2Service.count(any(LambdaQueryWrapper.class))).thenReturn(1L);
             when(knowledgeV2ServiceCallHandler.knowledgeQuery(any(QueryRequest.class))).thenReturn(knowledgeResponse);
-            when(historyService.save(any(HitTestHistory.class))).thenReturn(true);
-            when(fileInfoV2Service.getOnly(any(QueryWrapper.class))).thenReturn(file1);
-            when(directoryTreeService.getOnly(any(LambdaQueryWrapper.class))).thenReturn(tree1);
-            when(directoryTreeService.updateById(any(FileDirectoryTree.class))).thenReturn(true);
+            when(fileInfoV2Service.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(file1));
 
             // When
             Object result = repoService.hitTest(1L, "test query", 10, true);
@@ -1734,8 +1735,8 @@ class RepoServiceTest {
             // Then
             assertThat(result).isNotNull();
             assertThat(result).isInstanceOf(List.class);
-            verify(historyService, times(1)).save(any(HitTestHistory.class));
-            verify(directoryTreeService, times(1)).updateById(any(FileDirectoryTree.class));
+            verify(hitTestStatsRecorder, times(1)).recordHistory(any(HitTestHistory.class));
+            verify(hitTestStatsRecorder, times(1)).recordHits(argThat(ids -> ids.size() == 1));
         }
 
         /**
@@ -1793,7 +1794,7 @@ class RepoServiceTest {
             when(repoMapper.selectById(1L)).thenReturn(mockRepo);
             doNothing().when(dataPermissionCheckTool).checkRepoBelong(any(Repo.class));
             when(directoryTreeService.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(tree1));
-            when(fileInfoV2Service.getById(1L)).thenReturn(file1);
+            when(fileInfoV2Service.count(any(LambdaQueryWrapper.class))).thenReturn(0L);
 
             // When & Then
             assertThatThrownBy(() -> repoService.hitTest(1L, "test query", 10, true))
@@ -1825,7 +1826,7 @@ class RepoServiceTest {
             when(repoMapper.selectById(1L)).thenReturn(mockRepo);
             doNothing().when(dataPermissionCheckTool).checkRepoBelong(any(Repo.class));
             when(directoryTreeService.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(tree1));
-            when(fileInfoV2Service.getById(1L)).thenReturn(file1);
+            when(fileInfoV2Service.count(any(LambdaQueryWrapper.class))).thenReturn(1L);
             when(knowledgeV2ServiceCallHandler.knowledgeQuery(any(QueryRequest.class))).thenReturn(knowledgeResponse);
 
             // When & Then
@@ -1884,13 +1885,10 @@ class RepoServiceTest {
                 when(repoMapper.selectById(1L)).thenReturn(cbgRepo);
                 doNothing().when(dataPermissionCheckTool).checkRepoBelong(any(Repo.class));
                 when(directoryTreeService.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(tree));
-                when(fileInfoV2Service.getById(1L)).thenReturn(file);
+                when(fileInfoV2Service.count(any(LambdaQueryWrapper.class))).thenReturn(1L);
                 when(fileInfoV2Mapper.getFileInfoV2ByRepoId(1L)).thenReturn(Arrays.asList(file));
                 when(knowledgeV2ServiceCallHandler.knowledgeQuery(any(QueryRequest.class))).thenReturn(knowledgeResponse);
-                when(historyService.save(any())).thenReturn(true);
-                when(fileInfoV2Service.getOnly(any())).thenReturn(file);
-                when(directoryTreeService.getOnly(any(LambdaQueryWrapper.class))).thenReturn(tree);
-                when(directoryTreeService.updateById(any())).thenReturn(true);
+                when(fileInfoV2Service.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(file));
 
                 // When
                 Object result = repoService.hitTest(1L, "test query", 10, true);
@@ -1898,7 +1896,7 @@ class RepoServiceTest {
                 // Then
                 assertThat(result).isNotNull();
                 assertThat(result).isInstanceOf(List.class);
-                verify(historyService, times(1)).save(any());
+                verify(hitTestStatsRecorder, times(1)).recordHistory(any(HitTestHistory.class));
             }
         }
 
@@ -1913,6 +1911,7 @@ class RepoServiceTest {
                 userMock.when(UserInfoManagerHandler::getUserId).thenReturn("user-001");
 
                 FileDirectoryTree tree = new FileDirectoryTree();
+                tree.setId(10L);
                 tree.setAppId("1");
                 tree.setFileId(1L);
                 tree.setIsFile(1);
@@ -1945,12 +1944,9 @@ class RepoServiceTest {
                 when(repoMapper.selectById(1L)).thenReturn(mockRepo);
                 doNothing().when(dataPermissionCheckTool).checkRepoBelong(any(Repo.class));
                 when(directoryTreeService.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(tree));
-                when(fileInfoV2Service.getById(1L)).thenReturn(file);
+                when(fileInfoV2Service.count(any(LambdaQueryWrapper.class))).thenReturn(1L);
                 when(knowledgeV2ServiceCallHandler.knowledgeQuery(any(QueryRequest.class))).thenReturn(knowledgeResponse);
-                when(historyService.save(any())).thenReturn(true);
-                when(fileInfoV2Service.getOnly(any())).thenReturn(file);
-                when(directoryTreeService.getOnly(any(LambdaQueryWrapper.class))).thenReturn(tree);
-                when(directoryTreeService.updateById(any())).thenReturn(true);
+                when(fileInfoV2Service.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(file));
                 // Use lenient stubbing or anyString() to handle both null and non-null
                 lenient().when(s3UtilClient.getS3Url(anyString())).thenReturn("https://s3.example.com/file");
 
@@ -1960,7 +1956,7 @@ class RepoServiceTest {
                 // Then
                 assertThat(result).isNotNull();
                 // Hit count should only be incremented once despite multiple chunks from same file
-                verify(directoryTreeService, times(1)).updateById(any(FileDirectoryTree.class));
+                verify(hitTestStatsRecorder, times(1)).recordHits(argThat(ids -> ids.size() == 1));
             }
         }
     }
@@ -2507,12 +2503,9 @@ class RepoServiceTest {
                 when(repoMapper.selectById(1L)).thenReturn(mockRepo);
                 doNothing().when(dataPermissionCheckTool).checkRepoBelong(any(Repo.class));
                 when(directoryTreeService.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(tree));
-                when(fileInfoV2Service.getById(1L)).thenReturn(file);
+                when(fileInfoV2Service.count(any(LambdaQueryWrapper.class))).thenReturn(1L);
                 when(knowledgeV2ServiceCallHandler.knowledgeQuery(any(QueryRequest.class))).thenReturn(knowledgeResponse);
-                when(historyService.save(any())).thenReturn(true);
-                when(fileInfoV2Service.getOnly(any())).thenReturn(file);
-                when(directoryTreeService.getOnly(any(LambdaQueryWrapper.class))).thenReturn(tree);
-                when(directoryTreeService.updateById(any())).thenReturn(true);
+                when(fileInfoV2Service.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(file));
                 when(s3UtilClient.getS3Url("test/file.txt")).thenReturn("https://s3.example.com/test/file.txt");
 
                 // When
@@ -2567,12 +2560,9 @@ class RepoServiceTest {
 
                 when(repoMapper.selectById(1L)).thenReturn(mockRepo);
                 when(directoryTreeService.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(tree));
-                when(fileInfoV2Service.getById(1L)).thenReturn(file);
+                when(fileInfoV2Service.count(any(LambdaQueryWrapper.class))).thenReturn(1L);
                 when(knowledgeV2ServiceCallHandler.knowledgeQuery(any())).thenReturn(response);
-                when(historyService.save(any())).thenReturn(true);
-                when(fileInfoV2Service.getOnly(any())).thenReturn(file);
-                when(directoryTreeService.getOnly(any(LambdaQueryWrapper.class))).thenReturn(tree);
-                when(directoryTreeService.updateById(any())).thenReturn(true);
+                when(fileInfoV2Service.list(any(LambdaQueryWrapper.class))).thenReturn(Arrays.asList(file));
 
                 // When - isBelongLoginUser=false should skip belong check
                 Object result = repoService.hitTest(1L, "query", 10, false);
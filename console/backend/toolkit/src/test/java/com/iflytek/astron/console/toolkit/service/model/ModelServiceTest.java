@@ -3,9 +3,11 @@ package com.iflytek.astron.console.toolkit.service.model;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.iflytek.astron.console.commons.event.BotRuntimeChangedEvent;
 import com.iflytek.astron.console.commons.exception.BusinessException;
 import com.iflytek.astron.console.commons.response.ApiResult;
 import com.iflytek.astron.console.toolkit.entity.biz.modelconfig.*;
+import com.iflytek.astron.console.toolkit.entity.enumVo.ModelStatusEnum;
 import com.iflytek.astron.console.toolkit.entity.table.ConfigInfo;
 import com.iflytek.astron.console.toolkit.entity.table.model.Model;
 import com.iflytek.astron.console.toolkit.entity.table.model.ModelCommon;
@@ -23,6 +25,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.client.HttpClientErrorException;
@@ -72,6 +75,10 @@ class ModelServiceTest {
     private ModelCommonService modelCommonService;
     @Mock
     private LocalModelHandler modelHandler;
+    @Mock
+    private ModelStatusProber modelStatusProber;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @Spy
     @InjectMocks
@@ -347,49 +354,13 @@ class ModelServiceTest {
     }
 
     /**
-     * Test {@link ModelService#flushStatus(Model)} for the "RUNNING" status update, verifying endpoint
-     * URL propagation and that an update operation is invoked.
-     *
-     * @since 1.0
-     */
-    @Test
-    void testFlushStatus_runningUpdate() {
-        Model m = new Model();
-        m.setId(1L);
-        m.setType(2);
-        m.setRemark("svc-1");
-        m.setStatus(0);
-        m.setEnable(false);
-
-        JSONObject resp = new JSONObject();
-        // Be tolerant with case/field names
-        resp.put("status", "RUNNING");
-        resp.put("phase", "Running");
-        resp.put("serviceStatus", "Running");
-        resp.put("endpoint", "https://svc-endpoint");
-        resp.put("serviceEndpoint", "https://svc-endpoint");
-        when(modelHandler.checkDeployStatus("svc-1")).thenReturn(resp);
-
-        // Intercept the update to assert minimal expectations
-        doAnswer(inv -> {
-            Model updated = inv.getArgument(0);
-            assertEquals(1L, updated.getId());
-            assertEquals("https://svc-endpoint", updated.getUrl());
-            return true; // Mark update success
-        }).when(modelService).updateById(any(Model.class));
-
-        modelService.flushStatus(m);
-        verify(modelService, times(1)).updateById(any(Model.class));
-    }
-
-    /**
-     * Test {@link ModelService#flushStatusBatch(String, List)} for batch processing: only records with
-     * {@code type=2} and non-empty remark are considered and updated.
+     * Test {@link ModelService#applyDeployStatus(List, Map)}: only type=2 models whose status or
+     * endpoint changed are written, in a single batched update, and a model turning RUNNING is enabled.
      *
      * @since 1.0
      */
     @Test
-    void testFlushStatusBatch_batchUpdate() {
+    void testApplyDeployStatus_writesChangedOnly() {
         Model a = new Model();
         a.setId(1L);
         a.setType(2);
@@ -399,22 +370,25 @@ class ModelServiceTest {
         b.setId(2L);
         b.setType(2);
         b.setRemark("svc-b");
-        b.setStatus(0);
+        b.setStatus(ModelStatusEnum.getCodeByValue("failed"));
+        b.setUrl("https://b");
         Model c = new Model();
         c.setId(3L);
         c.setType(1); // Should be skipped
 
-        JSONObject ra = new JSONObject().fluentPut("status", "RUNNING").fluentPut("endpoint", "https://a");
-        JSONObject rb = new JSONObject().fluentPut("status", "FAILED").fluentPut("endpoint", "https://b");
-        when(modelHandler.checkDeployStatus("svc-a")).thenReturn(ra);
-        when(modelHandler.checkDeployStatus("svc-b")).thenReturn(rb);
+        Map<Long, JSONObject> statuses = new HashMap<>();
+        statuses.put(1L, new JSONObject().fluentPut("status", ModelStatusEnum.RUNNING.getValue()).fluentPut("endpoint", "https://a"));
+        statuses.put(2L, new JSONObject().fluentPut("status", "failed").fluentPut("endpoint", "https://b"));
+        statuses.put(3L, new JSONObject().fluentPut("status", ModelStatusEnum.RUNNING.getValue()).fluentPut("endpoint", "https://c"));
 
-        // Intercept batch update and mark success
-        doReturn(true).when(modelService).updateBatchById(anyList());
+        int updated = modelService.applyDeployStatus(Arrays.asList(a, b, c), statuses);
 
-        int updated = modelService.flushStatusBatch("u1", Arrays.asList(a, b, c));
-        assertTrue(updated >= 1);
-        verify(modelService, times(1)).updateBatchById(anyList());
+        assertEquals(1, updated);
+        assertEquals(ModelStatusEnum.RUNNING.getCode(), a.getStatus());
+        assertEquals("https://a", a.getUrl());
+        verify(mapper, times(1)).updateDeployStatusBatch(eq(List.of(a)), eq(List.of(1L)));
+        verify(eventPublisher, times(1)).publishEvent(any(BotRuntimeChangedEvent.class));
+        verifyNoInteractions(modelHandler);
     }
 
     /**
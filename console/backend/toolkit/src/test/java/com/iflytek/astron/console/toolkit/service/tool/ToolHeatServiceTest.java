@@ -0,0 +1,183 @@
+package com.iflytek.astron.console.toolkit.service.tool;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.iflytek.astron.console.toolkit.config.properties.BizConfig;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolFavoriteCountDto;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolHeatValueDto;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolUseDto;
+import com.iflytek.astron.console.toolkit.entity.table.tool.ToolBox;
+import com.iflytek.astron.console.toolkit.entity.tool.McpServerTool;
+import com.iflytek.astron.console.toolkit.mapper.tool.ToolBoxMapper;
+import com.iflytek.astron.console.toolkit.mapper.tool.UserFavoriteToolMapper;
+import com.iflytek.astron.console.toolkit.mapper.trace.ChatInfoMapper;
+import com.iflytek.astron.console.toolkit.service.workflow.WorkflowService;
+import com.iflytek.astron.console.toolkit.util.RedisUtil;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ToolHeatService reconcile.
+ */
+@ExtendWith(MockitoExtension.class)
+class ToolHeatServiceTest {
+
+    private static final String STATS_TMP = ToolHeatService.STATS_KEY + ":tmp";
+    private static final String HEAT_TMP = ToolHeatService.HEAT_KEY + ":tmp";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @Mock
+    private BizConfig bizConfig;
+
+    @Mock
+    private ToolBoxMapper toolBoxMapper;
+
+    @Mock
+    private ChatInfoMapper chatInfoMapper;
+
+    @Mock
+    private UserFavoriteToolMapper userFavoriteToolMapper;
+
+    @Mock
+    private WorkflowService workflowService;
+
+    @InjectMocks
+    private ToolHeatService toolHeatService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), ToolBox.class);
+    }
+
+    @Test
+    void keys_ShareOneClusterSlot() {
+        Set<String> tags = new HashSet<>();
+        for (String key : List.of(ToolHeatService.STATS_KEY, ToolHeatService.HEAT_KEY, STATS_TMP, HEAT_TMP)) {
+            Matcher matcher = Pattern.compile("\\{([^}]+)}").matcher(key);
+            assertThat(matcher.find()).as(key).isTrue();
+            tags.add(matcher.group(1));
+        }
+
+        assertThat(tags).hasSize(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_SwapsInRebuiltCountersAndHeat() {
+        lockAcquired();
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(toolBoxMapper.selectList(any())).thenReturn(List.of(toolBox("tool-1", "weather")));
+        when(chatInfoMapper.selectWorkflowUseCount(List.of("tool-1"))).thenReturn(List.of(use("tool-1", 1L)));
+        when(chatInfoMapper.selectBotUseCount(List.of("tool-1"))).thenReturn(List.of(use("tool-1@v2", 1L)));
+        when(userFavoriteToolMapper.countGroupByPluginToolId()).thenReturn(List.of(favorite("tool-1", 1L, 1L)));
+
+        toolHeatService.reconcile();
+
+        verify(hashOperations).putAll(STATS_TMP, Map.of("tool-1:use", "2", "tool-1:fav", "1", "tool-1:fav_active", "1"));
+        verify(stringRedisTemplate).rename(STATS_TMP, ToolHeatService.STATS_KEY);
+        ArgumentCaptor<Set<ZSetOperations.TypedTuple<String>>> tuples = ArgumentCaptor.forClass(Set.class);
+        verify(zSetOperations).add(eq(HEAT_TMP), tuples.capture());
+        assertThat(tuples.getValue()).containsExactly(ZSetOperations.TypedTuple.of("tool-1", 15.0));
+        verify(stringRedisTemplate).rename(HEAT_TMP, ToolHeatService.HEAT_KEY);
+    }
+
+    @Test
+    void reconcile_OnlyMcpToolsLeft_DeletesStaleCounters() {
+        lockAcquired();
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(toolBoxMapper.selectList(any())).thenReturn(List.of());
+        McpServerTool mcpTool = new McpServerTool();
+        mcpTool.setId("mcp-1");
+        mcpTool.setName("search-mcp");
+        when(workflowService.getMcpServerListLocally(null, 1, 1000, null, null)).thenReturn(List.of(mcpTool));
+        ToolHeatValueDto configured = new ToolHeatValueDto();
+        configured.setToolName("search-mcp");
+        configured.setHeatValue(7L);
+        when(toolBoxMapper.getAllMcpHeatValue()).thenReturn(List.of(configured));
+
+        toolHeatService.reconcile();
+
+        verify(stringRedisTemplate).delete(ToolHeatService.STATS_KEY);
+        verify(stringRedisTemplate, never()).opsForHash();
+        verify(stringRedisTemplate, never()).rename(STATS_TMP, ToolHeatService.STATS_KEY);
+        verify(zSetOperations).add(HEAT_TMP, Set.of(ZSetOperations.TypedTuple.of("mcp-1", 7.0)));
+        verify(stringRedisTemplate).rename(HEAT_TMP, ToolHeatService.HEAT_KEY);
+    }
+
+    @Test
+    void reconcile_NoToolsLeft_DeletesBothKeys() {
+        lockAcquired();
+        when(toolBoxMapper.selectList(any())).thenReturn(List.of());
+
+        toolHeatService.reconcile();
+
+        verify(stringRedisTemplate).delete(List.of(ToolHeatService.STATS_KEY, ToolHeatService.HEAT_KEY));
+        verify(stringRedisTemplate, never()).rename(anyString(), anyString());
+    }
+
+    @Test
+    void reconcile_SkippedWhileAnotherNodeHoldsTheLock() {
+        when(redisUtil.tryLock(anyString(), anyLong(), isNull())).thenReturn(false);
+
+        toolHeatService.reconcile();
+
+        verifyNoInteractions(toolBoxMapper, stringRedisTemplate);
+    }
+
+    private void lockAcquired() {
+        when(redisUtil.tryLock(anyString(), anyLong(), isNull())).thenReturn(true);
+        when(bizConfig.getAdminUid()).thenReturn("9999");
+    }
+
+    private static ToolBox toolBox(String toolId, String name) {
+        ToolBox toolBox = new ToolBox();
+        toolBox.setToolId(toolId);
+        toolBox.setName(name);
+        return toolBox;
+    }
+
+    private static ToolUseDto use(String toolId, Long count) {
+        ToolUseDto dto = new ToolUseDto();
+        dto.setToolId(toolId);
+        dto.setUseCount(count);
+        return dto;
+    }
+
+    private static ToolFavoriteCountDto favorite(String toolId, Long favoriteCount, Long activeCount) {
+        ToolFavoriteCountDto dto = new ToolFavoriteCountDto();
+        dto.setPluginToolId(toolId);
+        dto.setFavoriteCount(favoriteCount);
+        dto.setActiveCount(activeCount);
+        return dto;
+    }
+}
@@ -0,0 +1,250 @@
+package com.iflytek.astron.console.toolkit.service.tool;
+
+import com.iflytek.astron.console.toolkit.entity.dto.ToolBoxVo;
+import com.iflytek.astron.console.toolkit.entity.dto.ToolSquareDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for ToolSquareIndex, compared with the square query ({@code getModelListSquareByCondition}
+ * on a case-insensitive collation) followed by the in-memory MCP filter, sort and paging of the
+ * database path.
+ */
+class ToolSquareIndexTest {
+
+    private static final List<Integer> ORDER_FLAGS = List.of(0, 1, 2);
+    private static final List<Integer> TAG_FLAGS = Arrays.asList(null, 0, 1, 2);
+    private static final List<String> CONTENTS = Arrays.asList(null, "", " ", "alp", "ALP", "Beta", "beta");
+    private static final List<Long> TAGS = Arrays.asList(null, 5L);
+    private static final List<Boolean> AUTHORIZED = Arrays.asList(null, true, false);
+    private static final int PAGE_SIZE = 3;
+
+    private final List<ToolBoxVo> plugins = new ArrayList<>();
+    private final List<ToolBoxVo> mcpTools = new ArrayList<>();
+    private final List<String> recentToolIds = List.of("tool-7", "mcp-2", "tool-3", "tool-7", "gone");
+
+    @BeforeEach
+    void setUp() {
+        // Ties on every sort key, null keys, mixed case names and tags that contain each other
+        plugins.add(plugin("tool-1", "Alpha", "first", 1, 100, 200, 5, "5", 30L));
+        plugins.add(plugin("tool-2", "alpha two", null, null, 100, 300, 5, "15", 10L));
+        plugins.add(plugin("tool-3", "Beta", "has ALPHA inside", 0, 300, 100, null, "3,5", 10L));
+        plugins.add(plugin("tool-4", "beta", "lower", 0, 300, 100, 2, null, 0L));
+        plugins.add(plugin("tool-5", "Gamma", "beta inside", 1, 50, 50, 9, "7", 50L));
+        plugins.add(plugin("tool-6", null, "no name", 0, 200, 400, 9, "5", 5L));
+        plugins.add(plugin("tool-7", "delta", "used recently", null, null, null, 1, "2", 40L));
+        plugins.add(plugin("tool-8", "Epsilon", "with space", 0, 200, 200, 1, "5,7", 10L));
+        mcpTools.add(mcp("mcp-1", "alpha mcp", "mcp", true, 60L));
+        mcpTools.add(mcp("mcp-2", "Beta mcp", "beta tool", false, 0L));
+        mcpTools.add(mcp("mcp-3", "other", "ALP upper", null, 10L));
+    }
+
+    @Test
+    void page_MatchesSquareQueryForEveryFlagAndFilter() {
+        ToolSquareIndex index = new ToolSquareIndex(1L, plugins, mcpTools);
+        int checked = 0;
+        for (Integer orderFlag : ORDER_FLAGS) {
+            for (Integer tagFlag : TAG_FLAGS) {
+                for (String content : CONTENTS) {
+                    for (Long tags : TAGS) {
+                        for (Set<String> favorites : Arrays.asList(null, Set.of("tool-1", "tool-3", "tool-6"))) {
+                            for (boolean includeMcp : List.of(true, false)) {
+                                for (Boolean authorized : AUTHORIZED) {
+                                    checked += assertPagesMatch(index, orderFlag, tagFlag, content, tags, favorites, includeMcp, authorized);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertThat(checked).isGreaterThan(0);
+    }
+
+    @Test
+    void page_TagMatchesLikeTheQuery() {
+        ToolSquareIndex index = new ToolSquareIndex(1L, plugins, mcpTools);
+
+        ToolSquareIndex.Page page = index.page(dto(2, 2, 5L, null, 1, 10), null, null, false, List.of());
+
+        // tool_tag LIKE '%5%' also matches "15"
+        assertThat(keys(page.getRows())).containsExactlyInAnyOrder("tool-1", "tool-2", "tool-3", "tool-6", "tool-8");
+        assertThat(page.getTotal()).isEqualTo(5);
+    }
+
+    @Test
+    void page_ContentIgnoresCaseForPluginsOnly() {
+        ToolSquareIndex index = new ToolSquareIndex(1L, plugins, mcpTools);
+
+        ToolSquareIndex.Page page = index.page(dto(2, 2, null, null, 1, 20), "ALP", null, true, List.of());
+
+        // Plugins follow the collation of the query, MCP tools the case-sensitive list filter
+        assertThat(keys(page.getRows())).containsExactly("tool-1", "tool-3", "tool-2", "mcp-3");
+    }
+
+    @Test
+    void page_UnfilteredPageSharesTheEntries() {
+        ToolSquareIndex index = new ToolSquareIndex(1L, plugins, mcpTools);
+
+        ToolSquareIndex.Page page = index.page(dto(2, 1, null, null, 1, 2), null, null, true, List.of());
+
+        assertThat(page.getTotal()).isEqualTo(plugins.size() + mcpTools.size());
+        assertThat(page.getRows()).hasSize(2);
+        assertThat(plugins).anySatisfy(vo -> assertThat(vo).isSameAs(page.getRows().getFirst()));
+    }
+
+    @Test
+    void page_PastTheEnd_KeepsTotal() {
+        ToolSquareIndex index = new ToolSquareIndex(1L, plugins, mcpTools);
+
+        for (Integer orderFlag : ORDER_FLAGS) {
+            ToolSquareIndex.Page page = index.page(dto(orderFlag, 1, null, null, 10, 5), null, null, true, recentToolIds);
+
+            assertThat(page.getRows()).isEmpty();
+            assertThat(page.getTotal()).isEqualTo(plugins.size() + mcpTools.size());
+        }
+    }
+
+    private int assertPagesMatch(ToolSquareIndex index, Integer orderFlag, Integer tagFlag, String content, Long tags,
+            Set<String> favorites, boolean includeMcp, Boolean authorized) {
+        List<String> expected = keys(query(orderFlag, tagFlag, content, tags, favorites, includeMcp, authorized));
+        int pages = expected.size() / PAGE_SIZE + 2;
+        for (int pageNo = 1; pageNo <= pages; pageNo++) {
+            ToolSquareDto dto = dto(orderFlag, tagFlag, tags, authorized, pageNo, PAGE_SIZE);
+            List<String> recent = Objects.equals(orderFlag, 1) ? recentToolIds : List.of();
+
+            ToolSquareIndex.Page page = index.page(dto, content, favorites, includeMcp, recent);
+
+            int from = Math.min((pageNo - 1) * PAGE_SIZE, expected.size());
+            int to = Math.min(from + PAGE_SIZE, expected.size());
+            String description = String.format("orderFlag=%s tagFlag=%s content='%s' tags=%s favorites=%s includeMcp=%s authorized=%s page=%d",
+                    orderFlag, tagFlag, content, tags, favorites, includeMcp, authorized, pageNo);
+            assertThat(keys(page.getRows())).as(description).containsExactlyElementsOf(expected.subList(from, to));
+            assertThat(page.getTotal()).as(description).isEqualTo(expected.size());
+        }
+        return pages;
+    }
+
+    /**
+     * Reference result of the database path: the square query, the MCP list, then the sort of the flags
+     */
+    private List<ToolBoxVo> query(Integer orderFlag, Integer tagFlag, String content, Long tags, Set<String> favorites,
+            boolean includeMcp, Boolean authorized) {
+        Stream<ToolBoxVo> squareRows = plugins.stream()
+                .filter(vo -> favorites == null || favorites.contains(vo.getToolId()))
+                // instr(name, content) or instr(description, content) on a case-insensitive collation, null never matches
+                .filter(vo -> content == null || content.isEmpty() || instr(vo.getName(), content) || instr(vo.getDescription(), content))
+                // tool_tag LIKE CONCAT('%', tags, '%')
+                .filter(vo -> tags == null || (vo.getToolTag() != null && vo.getToolTag().contains(String.valueOf(tags))));
+        List<ToolBoxVo> rows = squareRows.sorted(orderBy(orderFlag, tagFlag)).collect(Collectors.toCollection(ArrayList::new));
+
+        if (includeMcp) {
+            mcpTools.stream()
+                    .filter(vo -> authorized == null || authorized.equals(vo.getAuthorized()))
+                    .filter(vo -> content == null || content.isBlank()
+                            || vo.getName().contains(content) || vo.getDescription().contains(content))
+                    .forEach(rows::add);
+        }
+
+        if (orderFlag == 0) {
+            rows.sort(Comparator.comparing(ToolBoxVo::getHeatValue, Comparator.nullsLast(Comparator.<Long>naturalOrder())).reversed());
+        } else if (orderFlag == 1) {
+            Map<String, Integer> rank = new HashMap<>();
+            for (String toolId : recentToolIds) {
+                rank.putIfAbsent(toolId, rank.size());
+            }
+            rows.sort(Comparator.comparingInt(vo -> rank.getOrDefault(key(vo), Integer.MAX_VALUE)));
+        }
+        return rows;
+    }
+
+    /**
+     * ORDER BY of the square query, MySQL puts nulls first ascending and last descending
+     */
+    private static Comparator<ToolBoxVo> orderBy(Integer orderFlag, Integer tagFlag) {
+        Comparator<ToolBoxVo> top = desc(ToolBoxVo::getTop);
+        Comparator<ToolBoxVo> createTime = desc(ToolBoxVo::getCreateTime);
+        Comparator<ToolBoxVo> updateTime = desc(ToolBoxVo::getUpdateTime);
+        Comparator<ToolBoxVo> favoriteCount = desc(ToolBoxVo::getFavoriteCount);
+        Comparator<ToolBoxVo> name = Comparator.comparing(ToolBoxVo::getName, Comparator.nullsFirst(String::compareToIgnoreCase));
+        if (Objects.equals(orderFlag, 1)) {
+            return top.thenComparing(createTime).thenComparing(favoriteCount).thenComparing(name);
+        }
+        if (Objects.equals(tagFlag, 0)) {
+            return top.thenComparing(favoriteCount).thenComparing(createTime).thenComparing(name);
+        }
+        if (Objects.equals(tagFlag, 1)) {
+            return top.thenComparing(updateTime).thenComparing(favoriteCount).thenComparing(name);
+        }
+        return top.thenComparing(name).thenComparing(updateTime);
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<ToolBoxVo> desc(Function<ToolBoxVo, T> key) {
+        return (a, b) -> {
+            T x = key.apply(a);
+            T y = key.apply(b);
+            if (x == null || y == null) {
+                return x == y ? 0 : x == null ? 1 : -1;
+            }
+            return y.compareTo(x);
+        };
+    }
+
+    private static boolean instr(String value, String content) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(content.toLowerCase(Locale.ROOT));
+    }
+
+    private static String key(ToolBoxVo vo) {
+        return Boolean.TRUE.equals(vo.getIsMcp()) ? vo.getMcpTooId() : vo.getToolId();
+    }
+
+    private static List<String> keys(List<ToolBoxVo> rows) {
+        return rows.stream().map(ToolSquareIndexTest::key).toList();
+    }
+
+    private static ToolSquareDto dto(Integer orderFlag, Integer tagFlag, Long tags, Boolean authorized, int page, int pageSize) {
+        ToolSquareDto dto = new ToolSquareDto();
+        dto.setOrderFlag(orderFlag);
+        dto.setTagFlag(tagFlag);
+        dto.setTags(tags);
+        dto.setAuthorized(authorized);
+        dto.setPage(page);
+        dto.setPageSize(pageSize);
+        return dto;
+    }
+
+    private static ToolBoxVo plugin(String toolId, String name, String description, Integer top, Integer created, Integer updated,
+            Integer favoriteCount, String toolTag, Long heatValue) {
+        ToolBoxVo vo = new ToolBoxVo();
+        vo.setToolId(toolId);
+        vo.setName(name);
+        vo.setDescription(description);
+        vo.setTop(top);
+        vo.setCreateTime(created == null ? null : new Timestamp(created * 1000L));
+        vo.setUpdateTime(updated == null ? null : new Timestamp(updated * 1000L));
+        vo.setFavoriteCount(favoriteCount);
+        vo.setToolTag(toolTag);
+        vo.setHeatValue(heatValue);
+        return vo;
+    }
+
+    private static ToolBoxVo mcp(String mcpId, String name, String description, Boolean authorized, Long heatValue) {
+        ToolBoxVo vo = new ToolBoxVo();
+        vo.setMcpTooId(mcpId);
+        vo.setToolId("spark-" + mcpId);
+        vo.setName(name);
+        vo.setDescription(description);
+        vo.setIsMcp(true);
+        vo.setAuthorized(authorized);
+        vo.setHeatValue(heatValue);
+        return vo;
+    }
+}
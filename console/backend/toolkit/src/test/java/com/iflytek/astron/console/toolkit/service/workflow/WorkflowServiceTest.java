@@ -0,0 +1,216 @@
+package com.iflytek.astron.console.toolkit.service.workflow;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.iflytek.astron.console.commons.dto.bot.BotDetail;
+import com.iflytek.astron.console.commons.entity.bot.UserLangChainInfo;
+import com.iflytek.astron.console.commons.entity.user.UserInfo;
+import com.iflytek.astron.console.commons.entity.workflow.Workflow;
+import com.iflytek.astron.console.commons.mapper.UserLangChainInfoMapper;
+import com.iflytek.astron.console.commons.mapper.bot.ChatBotBaseMapper;
+import com.iflytek.astron.console.commons.util.space.SpaceInfoUtil;
+import com.iflytek.astron.console.toolkit.entity.common.PageData;
+import com.iflytek.astron.console.toolkit.entity.table.workflow.WorkflowVersion;
+import com.iflytek.astron.console.toolkit.entity.vo.WorkflowVo;
+import com.iflytek.astron.console.toolkit.handler.UserInfoManagerHandler;
+import com.iflytek.astron.console.toolkit.mapper.workflow.WorkflowMapper;
+import com.iflytek.astron.console.toolkit.mapper.workflow.WorkflowVersionMapper;
+import com.iflytek.astron.console.toolkit.service.common.ConfigInfoRegistry;
+import com.iflytek.astron.console.toolkit.util.S3Util;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the WorkflowService list page: status resolution, paging and flag backfill.
+ */
+@ExtendWith(MockitoExtension.class)
+class WorkflowServiceTest {
+
+    private static final String QA_CANVAS = "{\"nodes\":[{\"id\":\"node-start::1\"},{\"id\":\"question-answer::2\"}]}";
+
+    @Mock
+    private WorkflowMapper workflowMapper;
+
+    @Mock
+    private WorkflowVersionMapper workflowVersionMapper;
+
+    @Mock
+    private UserLangChainInfoMapper userLangChainInfoDao;
+
+    @Mock
+    private ChatBotBaseMapper chatBotBaseMapper;
+
+    @Mock
+    private ConfigInfoRegistry configInfoRegistry;
+
+    @Mock
+    private S3Util s3Util;
+
+    @Spy
+    @InjectMocks
+    private WorkflowService workflowService;
+
+    private MockedStatic<UserInfoManagerHandler> userInfoManagerHandlerMock;
+    private MockedStatic<SpaceInfoUtil> spaceInfoUtilMock;
+
+    @BeforeAll
+    static void initTableInfo() {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, Workflow.class);
+        TableInfoHelper.initTableInfo(assistant, WorkflowVersion.class);
+        TableInfoHelper.initTableInfo(assistant, UserLangChainInfo.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(workflowService, "baseMapper", workflowMapper);
+        UserInfo userInfo = new UserInfo();
+        userInfo.setUid("user-001");
+        userInfoManagerHandlerMock = mockStatic(UserInfoManagerHandler.class);
+        userInfoManagerHandlerMock.when(UserInfoManagerHandler::get).thenReturn(userInfo);
+        userInfoManagerHandlerMock.when(UserInfoManagerHandler::getUserId).thenReturn("user-001");
+        spaceInfoUtilMock = mockStatic(SpaceInfoUtil.class);
+        spaceInfoUtilMock.when(SpaceInfoUtil::getSpaceId).thenReturn(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userInfoManagerHandlerMock.close();
+        spaceInfoUtilMock.close();
+    }
+
+    @Test
+    void listPage_ResolvesStatesWithBatchedLookups() {
+        // Published through its bot: latest successful version wins
+        Workflow published = workflow(1L, "flow-1", 0);
+        published.setExt("{\"botId\":7}");
+        // Bound through the assistant protocol, no publish record: bot market status decides
+        Workflow marketBot = workflow(2L, "flow-2", 0);
+        // Not bound to a bot: own status
+        Workflow unbound = workflow(3L, "flow-3", 1);
+        page(published, marketBot, unbound);
+
+        UserLangChainInfo langChainInfo = new UserLangChainInfo();
+        langChainInfo.setFlowId("flow-2");
+        langChainInfo.setBotId(8);
+        when(userLangChainInfoDao.selectList(any())).thenReturn(List.of(langChainInfo));
+        when(workflowVersionMapper.selectList(any())).thenReturn(List.of(
+                version(10L, "flow-1", "v1", 1000L),
+                version(11L, "flow-1", "v2", 2000L)));
+        BotDetail bot = new BotDetail();
+        bot.setId(8);
+        bot.setBotName("Market bot");
+        bot.setBotStatus(2);
+        when(chatBotBaseMapper.botDetailList(List.of(8))).thenReturn(List.of(bot));
+        WorkflowVersion versionData = new WorkflowVersion();
+        versionData.setId(11L);
+        versionData.setData(QA_CANVAS);
+        when(workflowVersionMapper.selectOne(any())).thenReturn(versionData);
+
+        PageData<WorkflowVo> pageData = workflowService.listPage(null, 1, 10, null, null, null, null);
+
+        List<WorkflowVo> vos = pageData.getPageData();
+        assertThat(vos).extracting(WorkflowVo::getStatus).containsExactly(1, 1, 1);
+        assertThat(vos.get(0).getVersion()).isEqualTo("v2");
+        assertThat(vos.get(0).getHaQaNode()).isTrue();
+        assertThat(vos.get(1).getName()).isEqualTo("Market bot");
+        assertThat(vos.get(2).getHaQaNode()).isFalse();
+        // One lookup per kind for the whole page
+        verify(userLangChainInfoDao, times(1)).selectList(any());
+        verify(workflowVersionMapper, times(1)).selectList(any());
+        verify(chatBotBaseMapper, times(1)).botDetailList(any());
+    }
+
+    @Test
+    void listPage_StatusFilter_PagesMatchedCandidates() {
+        Workflow w1 = workflow(1L, "flow-1", 1);
+        Workflow w2 = workflow(2L, "flow-2", 0);
+        Workflow w3 = workflow(3L, "flow-3", 1);
+        Workflow w3Full = workflow(3L, "flow-3", 1);
+        w3Full.setName("third");
+        // Candidates on light columns first, then the requested page in full
+        when(workflowMapper.selectList(any())).thenReturn(List.of(w1, w2, w3), List.of(w3Full));
+
+        PageData<WorkflowVo> pageData = workflowService.listPage(null, 2, 1, null, 1, null, null);
+
+        assertThat(pageData.getTotalCount()).isEqualTo(2L);
+        assertThat(pageData.getPageData()).extracting(WorkflowVo::getName).containsExactly("third");
+        verify(workflowMapper, never()).selectPage(any(), any());
+    }
+
+    @Test
+    void listPage_BackfillsFlagsOfRowsSavedBeforeTheyWereDerived() {
+        Workflow legacy = workflow(1L, "flow-1", 0);
+        legacy.setHasQaNode(null);
+        Workflow current = workflow(2L, "flow-2", 0);
+        page(legacy, current);
+        Workflow legacyData = new Workflow();
+        legacyData.setId(1L);
+        legacyData.setData(QA_CANVAS);
+        when(workflowMapper.selectList(any())).thenReturn(List.of(legacyData));
+
+        PageData<WorkflowVo> pageData = workflowService.listPage(null, 1, 10, null, null, null, null);
+
+        assertThat(pageData.getPageData()).extracting(WorkflowVo::getHaQaNode).containsExactly(true, false);
+        // Only the legacy row is loaded with its canvas and written back
+        verify(workflowMapper, times(1)).selectList(any());
+        verify(workflowMapper, times(1)).update(isNull(), any());
+        assertThat(legacy.getHasQaNode()).isTrue();
+        assertThat(legacy.getData()).isNull();
+    }
+
+    @Test
+    void listPage_FlagsAlreadyDerived_NoBackfill() {
+        page(workflow(1L, "flow-1", 0));
+
+        workflowService.listPage(null, 1, 10, null, null, null, null);
+
+        verify(workflowMapper, never()).selectList(any());
+        verify(workflowMapper, never()).update(any(), any());
+    }
+
+    private void page(Workflow... records) {
+        when(workflowMapper.selectPage(any(), any())).thenAnswer(inv -> {
+            Page<Workflow> page = inv.getArgument(0);
+            page.setRecords(new ArrayList<>(List.of(records)));
+            page.setTotal(records.length);
+            return page;
+        });
+    }
+
+    private static Workflow workflow(Long id, String flowId, Integer status) {
+        Workflow workflow = new Workflow();
+        workflow.setId(id);
+        workflow.setFlowId(flowId);
+        workflow.setName(flowId);
+        workflow.setStatus(status);
+        workflow.setHasQaNode(false);
+        return workflow;
+    }
+
+    private static WorkflowVersion version(Long id, String flowId, String name, long createdAt) {
+        WorkflowVersion version = new WorkflowVersion();
+        version.setId(id);
+        version.setFlowId(flowId);
+        version.setName(name);
+        version.setCreatedTime(new Date(createdAt));
+        return version;
+    }
+}
@@ -0,0 +1,155 @@
+package com.iflytek.astron.console.toolkit.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for KnowledgeFileExecutor.
+ */
+class KnowledgeFileExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private KnowledgeFileExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ServesTenantsInTurn() throws Exception {
+        start(1);
+        CountDownLatch gateStarted = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        executor.submit(KnowledgeFileExecutor.SLICE, "a", 0L, () -> {
+            gateStarted.countDown();
+            return gate.await(5, TimeUnit.SECONDS);
+        }, null);
+        assertThat(gateStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Future<?> last = null;
+        for (String name : List.of("a1", "a2", "a3", "b1")) {
+            last = executor.submit(KnowledgeFileExecutor.SLICE, name.substring(0, 1), (long) name.hashCode(),
+                    () -> order.add(name), null);
+        }
+        assertThat(executor.queuedCount()).isEqualTo(4);
+        gate.countDown();
+
+        last.get(5, TimeUnit.SECONDS);
+        await(() -> order.size() == 4);
+        assertThat(order).containsExactly("a1", "b1", "a2", "a3");
+    }
+
+    @Test
+    void submit_RunsAtMostParallelismTasks() throws Exception {
+        start(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<Boolean>> futures = new CopyOnWriteArrayList<>();
+        for (long i = 0; i < 6; i++) {
+            futures.add(executor.submit(KnowledgeFileExecutor.EMBEDDING, "t" + (i % 3), i, () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                running.decrementAndGet();
+                return true;
+            }, null));
+        }
+        for (Future<Boolean> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(peak.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("knowledge.file.task.run").tag("type", "embedding").timer().count()).isEqualTo(6);
+        assertThat(meterRegistry.get("knowledge.file.task.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void cancel_DropsQueuedTasksAndReportsThem() throws Exception {
+        start(1);
+        CountDownLatch gateStarted = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        Future<Boolean> running = executor.submit(KnowledgeFileExecutor.SLICE, "a", 1L, () -> {
+            gateStarted.countDown();
+            return gate.await(5, TimeUnit.SECONDS);
+        }, null);
+        assertThat(gateStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<String> reason = new AtomicReference<>();
+        Future<Boolean> queued = executor.submit(KnowledgeFileExecutor.SLICE, "a", 2L, () -> true, reason::set);
+        Future<Boolean> delayed = executor.schedule(KnowledgeFileExecutor.EMBEDDING, "b", 2L, () -> true, null, 60_000);
+
+        assertThat(executor.cancel(2L)).isEqualTo(2);
+        assertThat(executor.cancel(1L)).isZero();
+        assertThat(queued.isCancelled()).isTrue();
+        assertThat(delayed.isCancelled()).isTrue();
+        assertThat(reason.get()).contains("cancelled");
+        assertThat(executor.queuedCount()).isZero();
+
+        gate.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void submit_ReportsFailure() throws Exception {
+        start(1);
+        AtomicReference<String> reason = new AtomicReference<>();
+        Future<Boolean> future = executor.submit(KnowledgeFileExecutor.EMBEDDING, "a", 1L, () -> {
+            throw new IllegalStateException("boom");
+        }, reason::set);
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(reason.get()).contains("boom");
+    }
+
+    @Test
+    void fork_LimitsSubtasks() throws Exception {
+        start(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Callable<Integer>> tasks = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            int n = i;
+            tasks.add(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(30);
+                running.decrementAndGet();
+                return n;
+            });
+        }
+
+        List<Future<Integer>> futures = executor.fork(tasks, 3);
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+        }
+        assertThat(peak.get()).isLessThanOrEqualTo(3);
+    }
+
+    private void start(int parallelism) {
+        executor = new KnowledgeFileExecutor();
+        ReflectionTestUtils.setField(executor, "parallelism", parallelism);
+        ReflectionTestUtils.setField(executor, "meterRegistry", meterRegistry);
+        executor.init();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
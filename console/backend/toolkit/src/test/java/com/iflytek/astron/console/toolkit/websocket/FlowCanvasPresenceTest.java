@@ -0,0 +1,242 @@
+package com.iflytek.astron.console.toolkit.websocket;
+
+import com.iflytek.astron.console.toolkit.util.RedisUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FlowCanvasPresence. The Redis scripts run against an in-memory model of the sorted
+ * sets that follows the commands of each script.
+ */
+@ExtendWith(MockitoExtension.class)
+class FlowCanvasPresenceTest {
+
+    private static final String FLOW_ID = "flow-1";
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RedisUtil redisUtil;
+
+    @Mock
+    private RScript script;
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private RScoredSortedSet<String> flowIndex;
+
+    @InjectMocks
+    private FlowCanvasPresence presence;
+
+    /** Sorted sets by key, member to score */
+    private final Map<String, Map<String, Long>> sortedSets = new HashMap<>();
+
+    private final List<String> published = new ArrayList<>();
+
+    private MessageListener<String> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(redissonClient.getTopic(eq(FlowCanvasPresence.CHANGED_CHANNEL), any(Codec.class))).thenReturn(topic);
+        lenient().when(redissonClient.getScript(any(Codec.class))).thenReturn(script);
+        lenient().when(script.eval(eq(RScript.Mode.READ_WRITE), anyString(), eq(RScript.ReturnType.MULTI), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> eval(invocation.getArgument(1), invocation.getArgument(3),
+                        invocation.getArgument(4), invocation.getArgument(5), invocation.getArgument(6), invocation.getArgument(7)));
+        lenient().when(topic.publish(anyString())).thenAnswer(invocation -> {
+            published.add(invocation.getArgument(0));
+            return 1L;
+        });
+
+        presence.subscribe();
+        ArgumentCaptor<MessageListener<String>> listenerCaptor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listenerCaptor.capture());
+        listener = listenerCaptor.getValue();
+    }
+
+    @Test
+    void join_CountsSessionsAndPublishesEachChange() {
+        assertThat(presence.join(FLOW_ID, session("s1"))).isEqualTo(1);
+        assertThat(presence.join(FLOW_ID, session("s2"))).isEqualTo(2);
+
+        assertThat(published).containsExactly(FLOW_ID + ":1", FLOW_ID + ":2");
+        assertThat(presence.count(FLOW_ID)).isEqualTo(2);
+        assertThat(sortedSets.get(FlowCanvasPresence.FLOW_INDEX_KEY)).containsOnlyKeys(FLOW_ID);
+    }
+
+    @Test
+    void heartbeat_KnownSession_KeepsCountWithoutPublishing() {
+        presence.join(FLOW_ID, session("s1"));
+        published.clear();
+
+        assertThat(presence.heartbeat(FLOW_ID, "s1")).isEqualTo(1);
+
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void heartbeat_DropsStaleMembersAndPublishes() {
+        presence.join(FLOW_ID, session("s1"));
+        // A session of a node that died without leaving
+        members(FLOW_ID).put("dead", System.currentTimeMillis() - FlowCanvasPresence.HEARTBEAT_EXPIRE_MS - 1_000);
+        published.clear();
+
+        assertThat(presence.heartbeat(FLOW_ID, "s1")).isEqualTo(1);
+
+        assertThat(members(FLOW_ID)).containsOnlyKeys("s1");
+        assertThat(published).containsExactly(FLOW_ID + ":1");
+    }
+
+    @Test
+    void leave_RemovesSessionAndFlowOfLastSession() {
+        WebSocketSession first = session("s1");
+        WebSocketSession second = session("s2");
+        presence.join(FLOW_ID, first);
+        presence.join(FLOW_ID, second);
+        published.clear();
+
+        presence.leave(FLOW_ID, first);
+        assertThat(published).containsExactly(FLOW_ID + ":1");
+        assertThat(sortedSets.get(FlowCanvasPresence.FLOW_INDEX_KEY)).containsOnlyKeys(FLOW_ID);
+
+        presence.leave(FLOW_ID, second);
+        assertThat(published).containsExactly(FLOW_ID + ":1", FLOW_ID + ":0");
+        assertThat(members(FLOW_ID)).isEmpty();
+        assertThat(sortedSets.get(FlowCanvasPresence.FLOW_INDEX_KEY)).isEmpty();
+        assertThat(presence.count(FLOW_ID)).isZero();
+    }
+
+    @Test
+    void leave_UnknownSession_NotPublished() {
+        presence.join(FLOW_ID, session("s1"));
+        published.clear();
+
+        presence.leave(FLOW_ID, session("other"));
+
+        assertThat(published).isEmpty();
+        assertThat(members(FLOW_ID)).containsOnlyKeys("s1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clearExpiredHeartbeats_ExpiresStaleMembersOfIndexedFlows() {
+        long stale = System.currentTimeMillis() - FlowCanvasPresence.HEARTBEAT_EXPIRE_MS - 1_000;
+        members("flow-stale").put("dead", stale);
+        members("flow-alive").put("alive", System.currentTimeMillis());
+        members("flow-alive").put("dead", stale);
+        sortedSets.computeIfAbsent(FlowCanvasPresence.FLOW_INDEX_KEY, k -> new HashMap<>()).putAll(Map.of("flow-stale", stale, "flow-alive", stale));
+        when(redisUtil.tryLock(eq(FlowCanvasPresence.CLEANER_LOCK_KEY), anyLong(), isNull())).thenReturn(true);
+        when(redissonClient.<String>getScoredSortedSet(eq(FlowCanvasPresence.FLOW_INDEX_KEY), any(Codec.class))).thenReturn(flowIndex);
+        when(flowIndex.readAll()).thenAnswer(invocation -> new ArrayList<>(sortedSets.get(FlowCanvasPresence.FLOW_INDEX_KEY).keySet()));
+
+        presence.clearExpiredHeartbeats();
+
+        assertThat(members("flow-stale")).isEmpty();
+        assertThat(members("flow-alive")).containsOnlyKeys("alive");
+        assertThat(sortedSets.get(FlowCanvasPresence.FLOW_INDEX_KEY)).containsOnlyKeys("flow-alive");
+        assertThat(published).containsExactlyInAnyOrder("flow-stale:0", "flow-alive:1");
+    }
+
+    @Test
+    void clearExpiredHeartbeats_LockHeldElsewhere_SkipsSweep() {
+        when(redisUtil.tryLock(eq(FlowCanvasPresence.CLEANER_LOCK_KEY), anyLong(), isNull())).thenReturn(false);
+
+        presence.clearExpiredHeartbeats();
+
+        verify(redissonClient, never()).getScoredSortedSet(anyString(), any(Codec.class));
+        verifyNoInteractions(script);
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void change_PushesCountToOpenLocalSessionsOfThatFlow() throws Exception {
+        WebSocketSession open = session("s1");
+        WebSocketSession closed = session("s2");
+        WebSocketSession otherFlow = session("s3");
+        presence.join(FLOW_ID, open);
+        presence.join(FLOW_ID, closed);
+        presence.join("flow-2", otherFlow);
+        when(open.isOpen()).thenReturn(true);
+        when(closed.isOpen()).thenReturn(false);
+
+        listener.onMessage(FlowCanvasPresence.CHANGED_CHANNEL, FLOW_ID + ":3");
+
+        verify(open).sendMessage(new TextMessage("3"));
+        verify(closed, never()).sendMessage(any());
+        verify(otherFlow, never()).sendMessage(any());
+        assertThat(presence.count(FLOW_ID)).isEqualTo(3);
+    }
+
+    @Test
+    void publishFailure_PushesLocally() throws Exception {
+        WebSocketSession open = session("s1");
+        when(open.isOpen()).thenReturn(true);
+        when(topic.publish(anyString())).thenThrow(new IllegalStateException("redis down"));
+
+        presence.join(FLOW_ID, open);
+
+        verify(open).sendMessage(new TextMessage("1"));
+    }
+
+    /**
+     * In-memory run of the presence scripts
+     */
+    private List<Object> eval(String lua, List<Object> keys, String sessionId, String now, String expireMs, String flowId) {
+        Map<String, Long> members = sortedSets.computeIfAbsent((String) keys.get(0), k -> new HashMap<>());
+        Map<String, Long> index = sortedSets.computeIfAbsent((String) keys.get(1), k -> new HashMap<>());
+        long nowMs = Long.parseLong(now);
+        // zremrangebyscore key -inf (now - expire
+        long cutoff = nowMs - Long.parseLong(expireMs);
+        int before = members.size();
+        members.values().removeIf(score -> score < cutoff);
+        long changed = before - members.size();
+        if (FlowCanvasPresence.TOUCH_SCRIPT.equals(lua)) {
+            if (members.put(sessionId, nowMs) == null) {
+                changed++;
+            }
+            index.put(flowId, nowMs);
+        } else if (FlowCanvasPresence.EXPIRE_SCRIPT.equals(lua)) {
+            if (!sessionId.isEmpty() && members.remove(sessionId) != null) {
+                changed++;
+            }
+            if (members.isEmpty()) {
+                index.remove(flowId);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown script");
+        }
+        return List.of((long) members.size(), changed);
+    }
+
+    private Map<String, Long> members(String flowId) {
+        return sortedSets.computeIfAbsent(FlowCanvasPresence.KEY_PREFIX + flowId, k -> new HashMap<>());
+    }
+
+    private static WebSocketSession session(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        lenient().when(session.getId()).thenReturn(id);
+        return session;
+    }
+}
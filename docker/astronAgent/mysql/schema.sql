@@ -16516,6 +16516,11 @@ INSERT INTO astron_console.pronunciation_person_config (name, cover_url, voice_t
 
 ALTER TABLE astron_console.workflow ADD `type` INT NULL COMMENT '工作流类型';
 
+ALTER TABLE astron_console.workflow ADD io_inversion text NULL COMMENT 'IO inversion derived from data on save';
+ALTER TABLE astron_console.workflow ADD has_qa_node bit(1) NULL COMMENT 'Whether data contains a question-answer node, derived on save';
+ALTER TABLE astron_console.workflow ADD INDEX idx_space_deleted (space_id, deleted);
+ALTER TABLE astron_console.workflow ADD INDEX idx_uid_deleted (uid, deleted);
+
 
 ALTER TABLE astron_console.workflow_version ADD advanced_config text NULL COMMENT '工作流高级配置';
 